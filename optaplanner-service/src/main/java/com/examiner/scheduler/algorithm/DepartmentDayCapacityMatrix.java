@@ -0,0 +1,275 @@
+package com.examiner.scheduler.algorithm;
+
+import com.examiner.scheduler.config.HolidayConfig;
+import com.examiner.scheduler.domain.DutySchedule;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.util.DepartmentNames;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * 🆕 v8.1: 科室×日期 考官容量矩阵（初始解日期选择用）
+ *
+ * 原实现中 findConsecutiveDatePairWithResourceCheck / findSingleExamDateWithResourceCheck 对每个学员、
+ * 每个候选日期都要扫描全部考官（O(日期×考官)），并在 usedDates 列表上反复 contains/count。
+ * 本矩阵在构建时一次性计算每个考官每天的基础可用性（HC3白班 + HC9不可用期），
+ * 之后按"科室×日期"维护剩余可用考官数：
+ * - 单日查询 O(1)；日期选择只查询单日或一对日期，直接读 科室×日期 二维数组，不需要前缀和结构
+ * - 日期选择时为每场考试按角色预留名额（考官1本科室/三七互通、考官2和备份考官各占一个其它科室名额），
+ *   具体考官由 ExaminerPreAssignmentEngine 在所有日期确定后分配（HC4 由其出堆保证）
+ *
+ * 同时维护每天已安排的考试数，替代 usedDates 上的线性扫描。
+ *
+ * 注意：非线程安全，仅在 createProblemInstance 单次调用内使用。
+ */
+public class DepartmentDayCapacityMatrix {
+
+    private static final Logger LOGGER = Logger.getLogger(DepartmentDayCapacityMatrix.class.getName());
+
+    private final List<String> dates;
+    private final Map<String, Integer> dateIndex = new HashMap<>();
+    private final Map<String, Integer> deptIndex = new HashMap<>();
+
+    private final int[] teacherDept;          // 考官 → 科室下标（-1 表示无科室）
+    private final BitSet[] baseAvailable;     // 考官 → 基础可用日期（HC3 + HC9）
+    private final int[][] capacity;           // 科室 × 日期 → 剩余可用考官数
+    private final int[] dayCapacity;          // 日期 → 各科室剩余可用考官数之和
+    private final String[] dayShiftGroup;     // 日期 → 白班班组
+    private final int[] examCount;            // 日期 → 已安排考试数
+    private final int[] prevDay;              // 日期 → 前一个自然日的下标（-1 表示不在可用日期内）
+    private final int[] nextDay;              // 日期 → 后一个自然日的下标
+
+    public DepartmentDayCapacityMatrix(List<Teacher> teachers,
+                                       List<String> availableDates,
+                                       HolidayConfig holidayConfig,
+                                       Function<String, String> departmentNormalizer) {
+        long start = System.currentTimeMillis();
+        this.dates = availableDates;
+
+        int dayCount = availableDates.size();
+        for (int d = 0; d < dayCount; d++) {
+            dateIndex.put(availableDates.get(d), d);
+        }
+
+        DutySchedule[] duties = new DutySchedule[dayCount];
+        this.dayShiftGroup = new String[dayCount];
+        this.examCount = new int[dayCount];
+        this.prevDay = new int[dayCount];
+        this.nextDay = new int[dayCount];
+        for (int d = 0; d < dayCount; d++) {
+            duties[d] = DutySchedule.forDate(availableDates.get(d));
+            dayShiftGroup[d] = duties[d].getDayShift();
+            prevDay[d] = indexOf(calendarOffset(availableDates.get(d), -1));
+            nextDay[d] = indexOf(calendarOffset(availableDates.get(d), 1));
+        }
+
+        int teacherCount = teachers.size();
+        this.teacherDept = new int[teacherCount];
+        this.baseAvailable = new BitSet[teacherCount];
+
+        for (int t = 0; t < teacherCount; t++) {
+            Teacher teacher = teachers.get(t);
+            String dept = departmentNormalizer.apply(teacher.getDepartment());
+            teacherDept[t] = dept == null ? -1 : deptIndex.computeIfAbsent(dept, k -> deptIndex.size());
+            baseAvailable[t] = new BitSet(dayCount);
+            for (int d = 0; d < dayCount; d++) {
+                if (isTeacherAvailable(teacher, availableDates.get(d), duties[d], holidayConfig)) {
+                    baseAvailable[t].set(d);
+                }
+            }
+        }
+
+        this.capacity = new int[deptIndex.size()][dayCount];
+        this.dayCapacity = new int[dayCount];
+        for (int t = 0; t < teacherCount; t++) {
+            if (teacherDept[t] < 0) continue;
+            for (int d = baseAvailable[t].nextSetBit(0); d >= 0; d = baseAvailable[t].nextSetBit(d + 1)) {
+                capacity[teacherDept[t]][d]++;
+                dayCapacity[d]++;
+            }
+        }
+
+        LOGGER.info("📐 [容量矩阵] 构建完成: " + deptIndex.size() + "个科室 × " + dayCount + "天, " +
+                    teacherCount + "名考官, 耗时" + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    // ==================== 日期 ====================
+
+    public int dayCount() {
+        return dates.size();
+    }
+
+    public String dateAt(int day) {
+        return dates.get(day);
+    }
+
+    /**
+     * @return 日期下标，不在可用日期内返回 -1
+     */
+    public int indexOf(String date) {
+        Integer index = date == null ? null : dateIndex.get(date);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return 下一个自然日在可用日期中的下标，不存在返回 -1
+     */
+    public int nextCalendarDay(int day) {
+        return nextDay[day];
+    }
+
+    /**
+     * @return 前一个自然日在可用日期中的下标，不存在返回 -1
+     */
+    public int prevCalendarDay(int day) {
+        return prevDay[day];
+    }
+
+    /**
+     * 学员是否在该日执勤白班（HC3学员侧）
+     */
+    public boolean isStudentOnDayShift(String studentGroup, int day) {
+        return studentGroup != null && studentGroup.equals(dayShiftGroup[day]);
+    }
+
+    // ==================== 考官容量 ====================
+
+    /**
+     * 该日可作为考官1的剩余考官数（同科室，3室/7室互通）
+     * 与原 countAvailableExaminersForDate 语义一致，O(1)
+     */
+    public int examiner1Capacity(String studentDept, int day) {
+        int total = 0;
+        Integer own = deptIndex.get(studentDept);
+        if (own != null) {
+            total += capacity[own][day];
+        }
+        Integer partner = partnerDeptIndex(studentDept);
+        if (partner != null) {
+            total += capacity[partner][day];
+        }
+        return total;
+    }
+
+    /**
+     * 考官（按构造时的列表下标）在该日是否满足 HC3 + HC9 基础可用性，不考虑占用
+     */
+    public boolean isBaseAvailable(int teacher, int day) {
+        return baseAvailable[teacher].get(day);
+    }
+
+    /**
+     * 该日可作为考官2/备份考官的剩余考官数（与学员不同科室），O(1)
+     * 3室/7室互通科室的考官已计入考官1容量，这里不再重复计入
+     */
+    public int examiner2Capacity(String studentDept, int day) {
+        Integer own = deptIndex.get(studentDept);
+        Integer partner = partnerDeptIndex(studentDept);
+        return dayCapacity[day] - (own != null ? capacity[own][day] : 0)
+                - (partner != null ? capacity[partner][day] : 0);
+    }
+
+    /**
+     * 日期选择阶段为一场考试预留三个角色的名额（此时尚未确定具体考官）：
+     * - 考官1：优先扣减本科室，本科室已无余量时扣减3室/7室互通科室
+     * - 考官2：学员科室、3室/7室互通科室和考官1科室以外余量最多的科室（与 examiner2Capacity 一致）
+     * - 备份考官：再排除考官2科室后余量最多的科室（无余量时不预留，备份可为空）
+     */
+    public void reserveExaminers(String studentDept, int day) {
+        if (day < 0) return;
+        Integer own = deptIndex.get(studentDept);
+        Integer partner = partnerDeptIndex(studentDept);
+        Integer examiner1 = own != null && capacity[own][day] > 0 ? own
+                : partner != null && capacity[partner][day] > 0 ? partner : null;
+        reserve(examiner1, day);
+        Integer examiner2 = largestOtherDept(day, own, partner, null);
+        reserve(examiner2, day);
+        reserve(largestOtherDept(day, own, partner, examiner2), day);
+    }
+
+    /**
+     * 排除学员科室、互通科室（考官1只会来自这两个科室）和另一个已选科室后余量最多的科室
+     */
+    private Integer largestOtherDept(int day, Integer studentDept, Integer partnerDept, Integer excluded) {
+        Integer best = null;
+        for (int dept = 0; dept < capacity.length; dept++) {
+            if (Objects.equals(dept, studentDept) || Objects.equals(dept, partnerDept) || Objects.equals(dept, excluded)) {
+                continue;
+            }
+            if (capacity[dept][day] > 0 && (best == null || capacity[dept][day] > capacity[best][day])) {
+                best = dept;
+            }
+        }
+        return best;
+    }
+
+    private void reserve(Integer dept, int day) {
+        if (dept == null) return;
+        capacity[dept][day]--;
+        dayCapacity[day]--;
+    }
+
+    // ==================== 考试数量 ====================
+
+    public void recordExam(String date) {
+        int day = indexOf(date);
+        if (day >= 0) {
+            examCount[day]++;
+        }
+    }
+
+    public int examCount(int day) {
+        return examCount[day];
+    }
+
+    public boolean isUsed(int day) {
+        return examCount[day] > 0;
+    }
+
+    /**
+     * 间隙日期：当天未安排考试，但前一天或后一天已有考试
+     */
+    public boolean isGapDate(int day) {
+        if (isUsed(day)) {
+            return false;
+        }
+        return (prevDay[day] >= 0 && isUsed(prevDay[day])) || (nextDay[day] >= 0 && isUsed(nextDay[day]));
+    }
+
+    // ==================== 内部实现 ====================
+
+    private Integer partnerDeptIndex(String studentDept) {
+        String partner = DepartmentNames.partner(studentDept);
+        return partner != null ? deptIndex.get(partner) : null;
+    }
+
+    /**
+     * HC3 + HC9：与 ExamScheduleService.isTeacherAvailableOnDate 语义一致（不输出日志）
+     */
+    private static boolean isTeacherAvailable(Teacher teacher, String date, DutySchedule duty,
+                                              HolidayConfig holidayConfig) {
+        if (teacher.isUnavailableOnDate(date, holidayConfig)) {
+            return false;
+        }
+        String group = teacher.getGroup();
+        if (group == null || "无".equals(group) || "行政班".equals(group) || group.trim().isEmpty()) {
+            return true;
+        }
+        return !duty.isGroupOnDayShift(group);
+    }
+
+    private static String calendarOffset(String date, int days) {
+        try {
+            return LocalDate.parse(date).plusDays(days).toString();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
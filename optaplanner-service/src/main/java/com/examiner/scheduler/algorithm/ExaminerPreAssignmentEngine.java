@@ -0,0 +1,401 @@
+package com.examiner.scheduler.algorithm;
+
+import com.examiner.scheduler.domain.DutySchedule;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * 🆕 v8.1: 初始解考官预分配引擎（按日期并行预计算 + 科室候选堆）
+ *
+ * 原实现为每个学员的每个角色线性扫描全部考官，并在嵌套 Map 上检查/标记 HC4 占用，
+ * 整体复杂度约 O(学员 × 角色 × 考官)。本引擎分两步：
+ * 1. 日期选择阶段（ExamScheduleService）只登记 学员→日期 计划
+ * 2. 本引擎按日期分组处理：每天为每个科室建一个按优先级排序的候选堆，
+ *    每个角色只需比较各科室堆顶（O(科室数)），选中后出堆即满足 HC4
+ *
+ * 处理顺序：
+ * - 不同日期之间的耦合是 SC10 的"工作量"与"相邻日连续工作"两个优先级因子，且几乎所有日期共享考官，
+ *   因此选人按日期先后串行进行，每处理完一天立即更新工作量和占用，下一天看到的是最新状态
+ * - 与工作量无关的部分（HC3/HC9 可用性过滤、班组优先级 SC1/SC3/SC5）每天只是一次 O(考官数) 的扫描，
+ *   在处理当天时计算，不单独开线程池（并行的调度开销高于计算本身）
+ * - 同一天内仍按学员风险排序依次处理，高风险学员优先挑选
+ *
+ * 优先级与原 calculateTeacherPrioritySingleDay 一致：
+ * 基础100，晚班+100，休息第一天+80，休息第二天+60，工作量每少1次+10（最多5次），相邻日有排班-50；
+ * 考官2推荐科室+100，备份考官推荐科室+50；同分时按考官列表顺序。
+ *
+ * 注意：单个实例只在 createProblemInstance 单次调用内使用。
+ */
+public class ExaminerPreAssignmentEngine {
+
+    private static final Logger LOGGER = Logger.getLogger(ExaminerPreAssignmentEngine.class.getName());
+
+    private static final int ROLE_COUNT = 3;  // [考官1, 考官2, 备份]
+
+    private final List<Teacher> teachers;
+    private final DepartmentDayCapacityMatrix matrix;
+    private final Function<String, String> departmentNormalizer;
+
+    private final String[] teacherDept;       // 考官 → 标准化科室
+    private final BitSet[] occupied;          // 考官 → 已分配日期（HC4，已提交的结果）
+    private final int[] workload;             // 考官 → 已分配天数（SC10）
+    private final List<Plan> plans = new ArrayList<>();
+
+    public ExaminerPreAssignmentEngine(List<Teacher> teachers,
+                                       DepartmentDayCapacityMatrix matrix,
+                                       Function<String, String> departmentNormalizer) {
+        this.teachers = teachers;
+        this.matrix = matrix;
+        this.departmentNormalizer = departmentNormalizer;
+        this.teacherDept = new String[teachers.size()];
+        this.occupied = new BitSet[teachers.size()];
+        this.workload = new int[teachers.size()];
+        for (int t = 0; t < teachers.size(); t++) {
+            teacherDept[t] = departmentNormalizer.apply(teachers.get(t).getDepartment());
+            occupied[t] = new BitSet(matrix.dayCount());
+        }
+    }
+
+    /**
+     * 登记一个学员的考试日期（按学员处理顺序调用）
+     *
+     * @param day2Date 不需要第二天考试时为 null
+     */
+    public void addPlan(Student student, String day1Date, String day2Date) {
+        plans.add(day2Date == null
+                ? new Plan(student, new String[]{day1Date})
+                : new Plan(student, new String[]{day1Date, day2Date}));
+    }
+
+    /**
+     * 为所有登记的计划分配考官
+     *
+     * @return 分配成功的计划（保持登记顺序）；任意一天分配失败的学员整体跳过，其它天的考官被释放
+     */
+    public List<Plan> assignExaminers() {
+        long start = System.currentTimeMillis();
+
+        // 按日期分组请求，组内保持学员处理顺序
+        Map<Integer, List<Request>> requestsByDay = new LinkedHashMap<>();
+        for (Plan plan : plans) {
+            for (int i = 0; i < plan.dates.length; i++) {
+                int day = matrix.indexOf(plan.dates[i]);
+                if (day < 0) {
+                    LOGGER.severe("❌ [预分配] 学员 " + plan.student.getName() + " 的考试日期 " +
+                                  plan.dates[i] + " 不在可用日期内");
+                    plan.failed = true;
+                    continue;
+                }
+                requestsByDay.computeIfAbsent(day, k -> new ArrayList<>()).add(new Request(plan, i));
+            }
+        }
+
+        // 按日期先后处理（相邻日惩罚只依赖已处理的前一天和已提交的状态）
+        List<Integer> days = new ArrayList<>(requestsByDay.keySet());
+        days.sort(null);
+
+        // 逐日选人并立即提交，工作量（SC10）与占用（HC4）对后续日期实时可见
+        for (int day : days) {
+            commit(assignDay(day, requestsByDay.get(day), shiftPriorities(day)));
+        }
+
+        // 任意一天失败的学员整体跳过，释放其它天已占用的考官
+        List<Plan> succeeded = new ArrayList<>();
+        for (Plan plan : plans) {
+            if (!plan.failed) {
+                succeeded.add(plan);
+                continue;
+            }
+            for (int i = 0; i < plan.dates.length; i++) {
+                int day = matrix.indexOf(plan.dates[i]);
+                for (int t : plan.examinerIndexes[i]) {
+                    if (t >= 0 && day >= 0 && occupied[t].get(day)) {
+                        occupied[t].clear(day);
+                        workload[t]--;
+                    }
+                }
+                plan.examiners[i] = new Teacher[ROLE_COUNT];
+            }
+            LOGGER.warning("🔄 [预分配] 学员 " + plan.student.getName() + " 分配失败，已释放其考官占用并跳过");
+        }
+
+        LOGGER.info("⚡ [预分配] 完成: " + succeeded.size() + "/" + plans.size() + " 名学员, " +
+                    requestsByDay.size() + "个考试日, 耗时" + (System.currentTimeMillis() - start) + "ms");
+        return succeeded;
+    }
+
+    /**
+     * 单个日期的班组优先级（SC1/SC3/SC5），不可用（HC3/HC9）或无科室的考官为 -1
+     */
+    private int[] shiftPriorities(int day) {
+        DutySchedule duty = DutySchedule.forDate(matrix.dateAt(day));
+        int[] priorities = new int[teachers.size()];
+        for (int t = 0; t < teachers.size(); t++) {
+            priorities[t] = teacherDept[t] == null || !matrix.isBaseAvailable(t, day)
+                    ? -1 : shiftPriority(teachers.get(t), duty);
+        }
+        return priorities;
+    }
+
+    /**
+     * 处理单个日期：在预计算的班组优先级上叠加当前工作量和相邻日占用，结果由 commit 写回
+     */
+    private DayResult assignDay(int day, List<Request> requests, int[] shiftPriorities) {
+        String date = matrix.dateAt(day);
+        int prev = matrix.prevCalendarDay(day);
+        int next = matrix.nextCalendarDay(day);
+
+        // 按原始科室名建堆（推荐科室按原始名匹配，同堆内加分一致）
+        Map<String, DeptHeap> heaps = new LinkedHashMap<>();
+        for (int t = 0; t < teachers.size(); t++) {
+            if (shiftPriorities[t] < 0 || occupied[t].get(day)) {
+                continue;
+            }
+            boolean adjacentWork = (prev >= 0 && occupied[t].get(prev)) || (next >= 0 && occupied[t].get(next));
+            int priority = shiftPriorities[t] + dynamicPriority(workload[t], adjacentWork);
+            String dept = teacherDept[t];
+            heaps.computeIfAbsent(teachers.get(t).getDepartment(), k -> new DeptHeap(k, dept))
+                 .queue.add(new Candidate(t, priority));
+        }
+
+        DayResult result = new DayResult(day);
+        for (Request request : requests) {
+            if (request.plan.failed) {
+                continue;  // 之前日期已失败的学员不再占用资源
+            }
+            int[] examiners = assignStudent(request.plan.student, heaps, date);
+            if (examiners == null) {
+                result.failedPlans.add(request.plan);
+            } else {
+                result.assigned.add(request);
+                result.examiners.add(examiners);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return [考官1, 考官2, 备份] 的考官下标（备份可为 -1），考官1/考官2无法满足时返回 null
+     */
+    private int[] assignStudent(Student student, Map<String, DeptHeap> heaps, String date) {
+        String studentDept = departmentNormalizer.apply(student.getDepartment());
+        List<String> recommended = student.getExaminer2RecommendedDepartments();
+
+        // 考官1：同科室或3室/7室互通（HC2）
+        DeptHeap heap1 = best(heaps, h -> isValidExaminer1Department(studentDept, h.dept) ? 0 : null);
+        if (heap1 == null) {
+            logShortage(student, date, "考官1", studentDept, heaps);
+            return null;
+        }
+        Candidate examiner1 = heap1.queue.poll();
+
+        // 考官2：与学员、考官1均不同科室（HC2/HC7），推荐科室+100（SC2）
+        DeptHeap heap2 = best(heaps, h -> h.dept.equals(heap1.dept) || h.dept.equals(studentDept) ? null
+                : isRecommended(recommended, h.rawDept) ? 100 : 0);
+        if (heap2 == null) {
+            heap1.queue.add(examiner1);  // 考官2为必填规划变量，回滚考官1
+            logShortage(student, date, "考官2", studentDept, heaps);
+            return null;
+        }
+        Candidate examiner2 = heap2.queue.poll();
+
+        // 备份考官：与考官1、考官2均不同科室（HC8），推荐科室+50（SC4），可为空
+        DeptHeap heap3 = best(heaps, h -> h.dept.equals(heap1.dept) || h.dept.equals(heap2.dept) ? null
+                : isRecommended(recommended, h.rawDept) ? 50 : 0);
+        Candidate backup = heap3 != null ? heap3.queue.poll() : null;
+
+        LOGGER.fine("✅ [预分配] " + student.getName() + " @" + date +
+                    " 考官1=" + teachers.get(examiner1.teacher).getName() + "(" + examiner1.priority + ")" +
+                    " 考官2=" + teachers.get(examiner2.teacher).getName() + "(" + examiner2.priority + ")" +
+                    " 备份=" + (backup != null ? teachers.get(backup.teacher).getName() : "无"));
+
+        return new int[]{examiner1.teacher, examiner2.teacher, backup != null ? backup.teacher : -1};
+    }
+
+    /**
+     * 在符合条件的科室堆中选出堆顶最优的一个（加分后优先级高者优先，同分按考官列表顺序）
+     *
+     * @param bonus 返回 null 表示该科室不符合条件
+     */
+    private static DeptHeap best(Map<String, DeptHeap> heaps, Function<DeptHeap, Integer> bonus) {
+        DeptHeap best = null;
+        int bestPriority = Integer.MIN_VALUE;
+        int bestTeacher = Integer.MAX_VALUE;
+        for (DeptHeap heap : heaps.values()) {
+            Candidate top = heap.queue.peek();
+            if (top == null) continue;
+            Integer extra = bonus.apply(heap);
+            if (extra == null) continue;
+            int priority = top.priority + extra;
+            if (priority > bestPriority || (priority == bestPriority && top.teacher < bestTeacher)) {
+                best = heap;
+                bestPriority = priority;
+                bestTeacher = top.teacher;
+            }
+        }
+        return best;
+    }
+
+    private void commit(DayResult result) {
+        for (int i = 0; i < result.assigned.size(); i++) {
+            Request request = result.assigned.get(i);
+            int[] examiners = result.examiners.get(i);
+            request.plan.examinerIndexes[request.dateIndex] = examiners;
+            for (int role = 0; role < ROLE_COUNT; role++) {
+                int t = examiners[role];
+                if (t >= 0) {
+                    request.plan.examiners[request.dateIndex][role] = teachers.get(t);
+                    occupied[t].set(result.day);
+                    workload[t]++;
+                }
+            }
+        }
+        for (Plan plan : result.failedPlans) {
+            plan.failed = true;
+        }
+    }
+
+    private void logShortage(Student student, String date, String role, String studentDept,
+                             Map<String, DeptHeap> heaps) {
+        StringBuilder remaining = new StringBuilder();
+        for (DeptHeap heap : heaps.values()) {
+            if (!heap.queue.isEmpty()) {
+                remaining.append(heap.rawDept).append('=').append(heap.queue.size()).append(' ');
+            }
+        }
+        LOGGER.severe("❌ [资源不足] 无法为学员 " + student.getName() + " (科室:" + studentDept + ") 在 " + date +
+                      " 分配" + role + "，当日剩余可用考官: " + (remaining.length() > 0 ? remaining.toString().trim() : "无"));
+    }
+
+    /**
+     * 基础100，晚班+100（SC1），休息第一天+80（SC3），休息第二天+60（SC5）
+     */
+    private static int shiftPriority(Teacher teacher, DutySchedule duty) {
+        int score = 100;
+        String group = teacher.getGroup();
+        if (group != null) {
+            if (group.equals(duty.getNightShift())) {
+                score += 100;  // SC1
+            }
+            List<String> restGroups = duty.getRestGroups();
+            if (restGroups != null && !restGroups.isEmpty() && group.equals(restGroups.get(0))) {
+                score += 80;   // SC3
+            }
+            if (restGroups != null && restGroups.size() > 1 && group.equals(restGroups.get(1))) {
+                score += 60;   // SC5
+            }
+        }
+        return score;
+    }
+
+    /**
+     * 工作量每少1次+10（最多5次，SC10），相邻日有排班-50
+     */
+    private static int dynamicPriority(int currentWorkload, boolean adjacentWork) {
+        int score = Math.max(0, 5 - currentWorkload) * 10;  // SC10 工作量均衡
+        if (adjacentWork) {
+            score -= 50;                                      // 避免连续工作
+        }
+        return score;
+    }
+
+    private static boolean isRecommended(List<String> recommended, String rawDept) {
+        return recommended != null && recommended.contains(rawDept);
+    }
+
+    private static boolean isValidExaminer1Department(String studentDept, String examiner1Dept) {
+        if (studentDept == null || examiner1Dept == null) return false;
+        return studentDept.equals(examiner1Dept)
+                || (studentDept.equals("三") && examiner1Dept.equals("七"))
+                || (studentDept.equals("七") && examiner1Dept.equals("三"));
+    }
+
+    // ==================== 内部数据结构 ====================
+
+    /**
+     * 学员的考试计划：dates[i] 对应 examiners[i] = [考官1, 考官2, 备份]
+     */
+    public static class Plan {
+        private final Student student;
+        private final String[] dates;
+        private final Teacher[][] examiners;
+        private final int[][] examinerIndexes;
+        private volatile boolean failed;
+
+        Plan(Student student, String[] dates) {
+            this.student = student;
+            this.dates = dates;
+            this.examiners = new Teacher[dates.length][ROLE_COUNT];
+            this.examinerIndexes = new int[dates.length][0];
+        }
+
+        public Student getStudent() {
+            return student;
+        }
+
+        public String getDate(int index) {
+            return dates[index];
+        }
+
+        public Teacher[] getExaminers(int index) {
+            return examiners[index];
+        }
+
+        public int getDayCount() {
+            return dates.length;
+        }
+    }
+
+    private static class Request {
+        final Plan plan;
+        final int dateIndex;
+
+        Request(Plan plan, int dateIndex) {
+            this.plan = plan;
+            this.dateIndex = dateIndex;
+        }
+    }
+
+    private static class DayResult {
+        final int day;
+        final List<Request> assigned = new ArrayList<>();
+        final List<int[]> examiners = new ArrayList<>();
+        final List<Plan> failedPlans = new ArrayList<>();
+
+        DayResult(int day) {
+            this.day = day;
+        }
+    }
+
+    private static class DeptHeap {
+        final String rawDept;
+        final String dept;
+        final PriorityQueue<Candidate> queue = new PriorityQueue<>(
+                (a, b) -> a.priority != b.priority ? Integer.compare(b.priority, a.priority)
+                        : Integer.compare(a.teacher, b.teacher));
+
+        DeptHeap(String rawDept, String dept) {
+            this.rawDept = rawDept;
+            this.dept = dept;
+        }
+    }
+
+    private static class Candidate {
+        final int teacher;
+        final int priority;
+
+        Candidate(int teacher, int priority) {
+            this.teacher = teacher;
+            this.priority = priority;
+        }
+    }
+}
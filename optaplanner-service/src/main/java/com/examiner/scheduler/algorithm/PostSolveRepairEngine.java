@@ -0,0 +1,441 @@
+package com.examiner.scheduler.algorithm;
+
+import com.examiner.scheduler.config.HolidayConfig;
+import com.examiner.scheduler.domain.DutySchedule;
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * 🆕 v8.1: 求解后修复引擎（索引驱动，一次遍历）
+ *
+ * 替代 buildScheduleResponse 中依次执行的四个修复步骤：
+ * deduplicateAssignments → fixIncompleteAssignments → HC3 最终修复 → HC4 最终修复。
+ * 原实现每发现一个违反都要重新扫描全部排班 / 全部考官，且 HC3 修复选出的替代考官
+ * 可能又在当天被占用，需要 HC4 步骤再修一次。
+ *
+ * 本引擎：
+ * 1. 去重的同时建立 考官 → 日期 → 占用槽位 索引
+ * 2. 按日期检测所有待修复槽位（考官为空 / HC3 白班 / HC4 同日重复），HC4 冲突按
+ *    考官1 > 考官2 > 备份 的顺序保留第一个
+ * 3. 只为有待修复槽位的日期构建空闲考官池（按科室分堆，优先级：晚班100 > 休息第一天80 >
+ *    休息第二天60 > 行政班40 > 其他10，同分按考官列表顺序），每次替换 O(科室数 + log 考官数)
+ * 4. 替代考官从空闲池出堆，天然满足 HC3/HC4/HC9，不会引入新的冲突
+ *
+ * 每次修复都记录到 {@link RepairReport}，并统计各阶段耗时。
+ */
+public class PostSolveRepairEngine {
+
+    private static final Logger LOGGER = Logger.getLogger(PostSolveRepairEngine.class.getName());
+
+    public static final String ROLE_EXAMINER1 = "考官1";
+    public static final String ROLE_EXAMINER2 = "考官2";
+    public static final String ROLE_BACKUP = "备份";
+
+    public static final String FIX_INCOMPLETE = "INCOMPLETE";
+    public static final String FIX_HC3 = "HC3";
+    public static final String FIX_HC4 = "HC4";
+
+    private final List<Teacher> teachers;
+    private final HolidayConfig holidayConfig;
+    private final Function<String, String> departmentNormalizer;
+    private final String[] teacherDept;
+
+    public PostSolveRepairEngine(List<Teacher> teachers,
+                                 HolidayConfig holidayConfig,
+                                 Function<String, String> departmentNormalizer) {
+        this.teachers = teachers != null ? teachers : new ArrayList<>();
+        this.holidayConfig = holidayConfig;
+        this.departmentNormalizer = departmentNormalizer;
+        this.teacherDept = new String[this.teachers.size()];
+        for (int t = 0; t < this.teachers.size(); t++) {
+            teacherDept[t] = departmentNormalizer.apply(this.teachers.get(t).getDepartment());
+        }
+    }
+
+    /**
+     * 去重并修复求解结果（就地修改 assignment 的考官）
+     *
+     * @return 修复报告，{@link RepairReport#getAssignments()} 为去重后的排班列表
+     */
+    public RepairReport repair(List<ExamAssignment> assignments) {
+        RepairReport report = new RepairReport();
+        long start = System.nanoTime();
+
+        // ==================== 1. 去重 + 建立占用索引 ====================
+        Map<String, ExamAssignment> unique = new LinkedHashMap<>();
+        Map<String, Map<String, List<Slot>>> occupancy = new HashMap<>();   // 考官ID → 日期 → 槽位
+        Map<String, List<ExamAssignment>> byDate = new TreeMap<>();
+        for (ExamAssignment assignment : assignments) {
+            if (assignment == null || assignment.getStudent() == null) {
+                continue;
+            }
+            String key = assignment.getStudent().getId() + "_" +
+                    (assignment.getExamDate() != null ? assignment.getExamDate() : "UNKNOWN") + "_" +
+                    (assignment.getExamType() != null ? assignment.getExamType() : "UNKNOWN");
+            if (unique.putIfAbsent(key, assignment) != null) {
+                report.duplicatesRemoved++;
+                LOGGER.warning("🔍 [去重] 发现重复assignment: 学员=" + assignment.getStudent().getName() +
+                               ", 日期=" + assignment.getExamDate() + ", 类型=" + assignment.getExamType() +
+                               ", ID=" + assignment.getId());
+                continue;
+            }
+            if (assignment.getExamDate() == null) {
+                continue;
+            }
+            byDate.computeIfAbsent(assignment.getExamDate(), k -> new ArrayList<>()).add(assignment);
+            for (String role : new String[]{ROLE_EXAMINER1, ROLE_EXAMINER2, ROLE_BACKUP}) {
+                Teacher examiner = get(assignment, role);
+                if (examiner != null) {
+                    occupancy.computeIfAbsent(teacherKey(examiner), k -> new HashMap<>())
+                             .computeIfAbsent(assignment.getExamDate(), k -> new ArrayList<>())
+                             .add(new Slot(assignment, role));
+                }
+            }
+        }
+        report.assignments = new ArrayList<>(unique.values());
+        report.indexMillis = elapsedMillis(start);
+
+        // ==================== 2. 检测待修复槽位 ====================
+        long detectStart = System.nanoTime();
+        Map<String, List<Slot>> brokenByDate = new TreeMap<>();
+        for (Map.Entry<String, List<ExamAssignment>> entry : byDate.entrySet()) {
+            String date = entry.getKey();
+            String dayShift = DutySchedule.forDate(date).getDayShift();
+            for (ExamAssignment assignment : entry.getValue()) {
+                for (String role : new String[]{ROLE_EXAMINER1, ROLE_EXAMINER2, ROLE_BACKUP}) {
+                    Teacher examiner = get(assignment, role);
+                    if (examiner == null) {
+                        if (!ROLE_BACKUP.equals(role)) {
+                            brokenByDate.computeIfAbsent(date, k -> new ArrayList<>())
+                                        .add(new Slot(assignment, role, FIX_INCOMPLETE, null));
+                        }
+                    } else if (!isAdmin(examiner) && dayShift != null && dayShift.equals(examiner.getGroup())) {
+                        LOGGER.severe("🚨 [HC3违反-最终解] 日期:" + date + ", " + role + ":" + examiner.getName() +
+                                      " (班组:" + examiner.getGroup() + ") 当天执勤白班(" + dayShift + ")");
+                        release(occupancy, examiner, date, assignment, role);
+                        brokenByDate.computeIfAbsent(date, k -> new ArrayList<>())
+                                    .add(new Slot(assignment, role, FIX_HC3, examiner));
+                    }
+                }
+            }
+        }
+        for (Map.Entry<String, Map<String, List<Slot>>> teacherEntry : occupancy.entrySet()) {
+            for (Map.Entry<String, List<Slot>> dayEntry : teacherEntry.getValue().entrySet()) {
+                List<Slot> slots = dayEntry.getValue();
+                if (slots.size() <= 1) continue;
+                slots.sort((a, b) -> Integer.compare(rolePriority(a.role), rolePriority(b.role)));
+                Teacher examiner = get(slots.get(0).assignment, slots.get(0).role);
+                LOGGER.severe("🚨 [HC4违反-最终解] 日期:" + dayEntry.getKey() + ", 考官:" +
+                              (examiner != null ? examiner.getName() : teacherEntry.getKey()) +
+                              " 被分配了" + slots.size() + "次，保留 " + describe(slots.get(0)));
+                for (int i = 1; i < slots.size(); i++) {
+                    Slot slot = slots.get(i);
+                    brokenByDate.computeIfAbsent(dayEntry.getKey(), k -> new ArrayList<>())
+                                .add(new Slot(slot.assignment, slot.role, FIX_HC4, examiner));
+                }
+                slots.subList(1, slots.size()).clear();
+            }
+        }
+        report.detectMillis = elapsedMillis(detectStart);
+
+        // ==================== 3. 按日期从空闲池修复 ====================
+        long repairStart = System.nanoTime();
+        for (Map.Entry<String, List<Slot>> entry : brokenByDate.entrySet()) {
+            String date = entry.getKey();
+            List<Slot> broken = entry.getValue();
+            // 考官1约束最紧先修，考官2依赖考官1的科室，最后是备份
+            broken.sort((a, b) -> Integer.compare(rolePriority(a.role), rolePriority(b.role)));
+
+            Map<String, PriorityQueue<Candidate>> pool = buildFreePool(date, occupancy);
+            for (Slot slot : broken) {
+                Teacher replacement = takeReplacement(pool, slot);
+                set(slot.assignment, slot.role, replacement);
+                if (replacement != null) {
+                    occupancy.computeIfAbsent(teacherKey(replacement), k -> new HashMap<>())
+                             .computeIfAbsent(date, k -> new ArrayList<>())
+                             .add(new Slot(slot.assignment, slot.role));
+                }
+                report.record(new Fix(slot.type, date, slot.assignment, slot.role, slot.previous, replacement));
+            }
+        }
+        report.repairMillis = elapsedMillis(repairStart);
+        report.totalMillis = elapsedMillis(start);
+
+        LOGGER.info("🛠️ [求解后修复] 去重" + report.duplicatesRemoved + "个, 修复" + report.fixes.size() +
+                    "处 (空缺:" + report.countByType(FIX_INCOMPLETE) + ", HC3:" + report.countByType(FIX_HC3) +
+                    ", HC4:" + report.countByType(FIX_HC4) + ", 无替代清空:" + report.unresolvedCount() + ")" +
+                    ", 耗时 索引" + report.indexMillis + "ms / 检测" + report.detectMillis +
+                    "ms / 修复" + report.repairMillis + "ms / 合计" + report.totalMillis + "ms");
+        return report;
+    }
+
+    /**
+     * 构建某一天的空闲考官池：未被占用、非白班（行政班除外）、不在不可用期、行政班周末不排
+     */
+    private Map<String, PriorityQueue<Candidate>> buildFreePool(String date,
+                                                                Map<String, Map<String, List<Slot>>> occupancy) {
+        DutySchedule duty = DutySchedule.forDate(date);
+        boolean weekend = isWeekend(date);
+        Map<String, PriorityQueue<Candidate>> pool = new LinkedHashMap<>();
+        for (int t = 0; t < teachers.size(); t++) {
+            Teacher teacher = teachers.get(t);
+            if (teacherDept[t] == null) continue;
+            Map<String, List<Slot>> days = occupancy.get(teacherKey(teacher));
+            if (days != null && days.get(date) != null && !days.get(date).isEmpty()) continue;
+            boolean admin = isAdmin(teacher);
+            if (!admin && teacher.getGroup().equals(duty.getDayShift())) continue;
+            if (admin && weekend) continue;
+            if (teacher.isUnavailableOnDate(date, holidayConfig)) continue;
+            pool.computeIfAbsent(teacherDept[t], k -> new PriorityQueue<>(
+                    (a, b) -> a.priority != b.priority ? Integer.compare(b.priority, a.priority)
+                            : Integer.compare(a.teacher, b.teacher)))
+                .add(new Candidate(t, replacementPriority(teacher, admin, duty)));
+        }
+        return pool;
+    }
+
+    /**
+     * 按角色规则从空闲池中取出最优替代考官，没有则返回 null
+     */
+    private Teacher takeReplacement(Map<String, PriorityQueue<Candidate>> pool, Slot slot) {
+        Student student = slot.assignment.getStudent();
+        String studentDept = departmentNormalizer.apply(student.getDepartment());
+        Teacher examiner1 = slot.assignment.getExaminer1();
+        Teacher examiner2 = slot.assignment.getExaminer2();
+        String examiner1Dept = examiner1 != null ? departmentNormalizer.apply(examiner1.getDepartment()) : null;
+        String examiner2Dept = examiner2 != null ? departmentNormalizer.apply(examiner2.getDepartment()) : null;
+
+        PriorityQueue<Candidate> best;
+        switch (slot.role) {
+            case ROLE_EXAMINER1:
+                best = bestQueue(pool, dept -> isValidExaminer1Department(studentDept, dept));
+                break;
+            case ROLE_EXAMINER2:
+                best = bestQueue(pool, dept -> !dept.equals(studentDept) && !dept.equals(examiner1Dept));
+                break;
+            default:
+                // 备份优先满足 HC8b（与考官1/考官2不同科室），否则退而求其次
+                best = bestQueue(pool, dept -> !dept.equals(examiner1Dept) && !dept.equals(examiner2Dept));
+                if (best == null) {
+                    best = bestQueue(pool, dept -> true);
+                }
+                break;
+        }
+        return best != null ? teachers.get(best.poll().teacher) : null;
+    }
+
+    private static PriorityQueue<Candidate> bestQueue(Map<String, PriorityQueue<Candidate>> pool,
+                                                      java.util.function.Predicate<String> deptFilter) {
+        PriorityQueue<Candidate> best = null;
+        for (Map.Entry<String, PriorityQueue<Candidate>> entry : pool.entrySet()) {
+            Candidate top = entry.getValue().peek();
+            if (top == null || !deptFilter.test(entry.getKey())) continue;
+            Candidate bestTop = best != null ? best.peek() : null;
+            if (bestTop == null || top.priority > bestTop.priority
+                    || (top.priority == bestTop.priority && top.teacher < bestTop.teacher)) {
+                best = entry.getValue();
+            }
+        }
+        return best;
+    }
+
+    private void release(Map<String, Map<String, List<Slot>>> occupancy, Teacher examiner, String date,
+                         ExamAssignment assignment, String role) {
+        Map<String, List<Slot>> days = occupancy.get(teacherKey(examiner));
+        List<Slot> slots = days != null ? days.get(date) : null;
+        if (slots != null) {
+            slots.removeIf(slot -> slot.assignment == assignment && slot.role.equals(role));
+        }
+    }
+
+    private static int replacementPriority(Teacher teacher, boolean admin, DutySchedule duty) {
+        String group = teacher.getGroup();
+        if (!admin && group.equals(duty.getNightShift())) return 100;
+        List<String> restGroups = duty.getRestGroups();
+        if (!admin && restGroups != null && !restGroups.isEmpty() && group.equals(restGroups.get(0))) return 80;
+        if (!admin && restGroups != null && restGroups.size() > 1 && group.equals(restGroups.get(1))) return 60;
+        return admin ? 40 : 10;
+    }
+
+    private static int rolePriority(String role) {
+        switch (role) {
+            case ROLE_EXAMINER1: return 1;
+            case ROLE_EXAMINER2: return 2;
+            case ROLE_BACKUP: return 3;
+            default: return 999;
+        }
+    }
+
+    private static Teacher get(ExamAssignment assignment, String role) {
+        switch (role) {
+            case ROLE_EXAMINER1: return assignment.getExaminer1();
+            case ROLE_EXAMINER2: return assignment.getExaminer2();
+            default: return assignment.getBackupExaminer();
+        }
+    }
+
+    private static void set(ExamAssignment assignment, String role, Teacher teacher) {
+        switch (role) {
+            case ROLE_EXAMINER1: assignment.setExaminer1(teacher); break;
+            case ROLE_EXAMINER2: assignment.setExaminer2(teacher); break;
+            default: assignment.setBackupExaminer(teacher); break;
+        }
+    }
+
+    private static boolean isAdmin(Teacher teacher) {
+        String group = teacher.getGroup();
+        return group == null || "无".equals(group) || "行政班".equals(group) || group.trim().isEmpty();
+    }
+
+    private static boolean isWeekend(String date) {
+        try {
+            DayOfWeek dayOfWeek = LocalDate.parse(date).getDayOfWeek();
+            return dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static boolean isValidExaminer1Department(String studentDept, String examiner1Dept) {
+        if (studentDept == null || examiner1Dept == null) return false;
+        return studentDept.equals(examiner1Dept)
+                || (studentDept.equals("三") && examiner1Dept.equals("七"))
+                || (studentDept.equals("七") && examiner1Dept.equals("三"));
+    }
+
+    private static String teacherKey(Teacher teacher) {
+        return String.valueOf(teacher.getId());
+    }
+
+    private static String describe(Slot slot) {
+        Student student = slot.assignment.getStudent();
+        return (student != null ? student.getName() : "未知") + " 的 " + slot.role;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    // ==================== 内部数据结构 ====================
+
+    private static class Slot {
+        final ExamAssignment assignment;
+        final String role;
+        final String type;
+        final Teacher previous;
+
+        Slot(ExamAssignment assignment, String role) {
+            this(assignment, role, null, null);
+        }
+
+        Slot(ExamAssignment assignment, String role, String type, Teacher previous) {
+            this.assignment = assignment;
+            this.role = role;
+            this.type = type;
+            this.previous = previous;
+        }
+    }
+
+    private static class Candidate {
+        final int teacher;
+        final int priority;
+
+        Candidate(int teacher, int priority) {
+            this.teacher = teacher;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * 单次修复记录
+     */
+    public static class Fix {
+        private final String type;
+        private final String date;
+        private final String assignmentId;
+        private final String studentName;
+        private final String role;
+        private final String previousExaminer;
+        private final String newExaminer;
+
+        Fix(String type, String date, ExamAssignment assignment, String role, Teacher previous, Teacher replacement) {
+            this.type = type;
+            this.date = date;
+            this.assignmentId = assignment.getId();
+            this.studentName = assignment.getStudent() != null ? assignment.getStudent().getName() : "未知";
+            this.role = role;
+            this.previousExaminer = previous != null ? previous.getName() : null;
+            this.newExaminer = replacement != null ? replacement.getName() : null;
+        }
+
+        public String getType() { return type; }
+        public String getDate() { return date; }
+        public String getAssignmentId() { return assignmentId; }
+        public String getStudentName() { return studentName; }
+        public String getRole() { return role; }
+        public String getPreviousExaminer() { return previousExaminer; }
+        public String getNewExaminer() { return newExaminer; }
+
+        public boolean isResolved() {
+            return newExaminer != null;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + type + "] " + date + " " + studentName + " 的" + role + ": " +
+                   (previousExaminer != null ? previousExaminer : "空") + " → " +
+                   (newExaminer != null ? newExaminer : "空(无可用替代)");
+        }
+    }
+
+    /**
+     * 修复报告：去重结果、修复明细与各阶段耗时
+     */
+    public static class RepairReport {
+        private List<ExamAssignment> assignments = new ArrayList<>();
+        private final List<Fix> fixes = new ArrayList<>();
+        private int duplicatesRemoved;
+        private long indexMillis;
+        private long detectMillis;
+        private long repairMillis;
+        private long totalMillis;
+
+        void record(Fix fix) {
+            fixes.add(fix);
+            if (fix.isResolved()) {
+                LOGGER.info("    ✅ " + fix);
+            } else {
+                LOGGER.warning("    ⚠️ " + fix);
+            }
+        }
+
+        public long countByType(String type) {
+            return fixes.stream().filter(f -> f.getType().equals(type)).count();
+        }
+
+        public long unresolvedCount() {
+            return fixes.stream().filter(f -> !f.isResolved()).count();
+        }
+
+        public List<ExamAssignment> getAssignments() { return assignments; }
+        public List<Fix> getFixes() { return fixes; }
+        public int getDuplicatesRemoved() { return duplicatesRemoved; }
+        public long getIndexMillis() { return indexMillis; }
+        public long getDetectMillis() { return detectMillis; }
+        public long getRepairMillis() { return repairMillis; }
+        public long getTotalMillis() { return totalMillis; }
+    }
+}
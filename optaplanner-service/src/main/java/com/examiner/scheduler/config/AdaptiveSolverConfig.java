@@ -7,6 +7,9 @@ import org.optaplanner.core.config.solver.SolverConfig;
 import org.optaplanner.core.config.solver.termination.TerminationConfig;
 import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicPhaseConfig;
 import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicType;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.partitionedsearch.PartitionedSearchPhaseConfig;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,6 +24,47 @@ public class AdaptiveSolverConfig {
     
     private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveSolverConfig.class);
     
+    /**
+     * 🆕 v8.1: 启用分区求解的学员规模阈值（多院区合并后可达1500名学员）
+     */
+    public static final int PARTITIONED_SEARCH_THRESHOLD = 300;
+    
+    /**
+     * 🆕 v8.1: 是否加载离线调优结果（SolverTuningProfile）
+     */
+    @ConfigProperty(name = "examiner.solver.tuning-enabled", defaultValue = "true")
+    boolean tuningEnabled;
+    
+    @ConfigProperty(name = "examiner.solver.tuning-dir", defaultValue = "data/solver-tuning")
+    String tuningDirectory;
+    
+    /**
+     * 🆕 v8.1: 分区求解的分区大小与各阶段时间预算
+     */
+    @ConfigProperty(name = "examiner.partition.max-part-size", defaultValue = "200")
+    int partitionMaxPartSize;
+    
+    @ConfigProperty(name = "examiner.partition.min-part-size", defaultValue = "40")
+    int partitionMinPartSize;
+    
+    @ConfigProperty(name = "examiner.partition.part-seconds", defaultValue = "60")
+    long partitionPartSeconds;
+    
+    @ConfigProperty(name = "examiner.partition.part-unimproved-seconds", defaultValue = "15")
+    long partitionPartUnimprovedSeconds;
+    
+    @ConfigProperty(name = "examiner.partition.global-seconds", defaultValue = "90")
+    long partitionGlobalSeconds;
+    
+    @ConfigProperty(name = "examiner.partition.global-unimproved-seconds", defaultValue = "20")
+    long partitionGlobalUnimprovedSeconds;
+    
+    @ConfigProperty(name = "examiner.partition.total-seconds", defaultValue = "180")
+    long partitionTotalSeconds;
+    
+    private volatile SolverTuningProfile tuningProfile;
+    private volatile boolean tuningProfileLoaded;
+    
     /**
      * Level 1: 闪电模式配置（快速初始解）
      * 目标：快速获得可用解
@@ -97,19 +141,214 @@ public class AdaptiveSolverConfig {
                 .withMoveThreadCount("AUTO");
     }
     
+    /**
+     * 🆕 v8.1: 分区求解配置（超大规模学员）
+     * 阶段1：Partitioned Search，按日期窗口/科室簇切分，各分区在独立线程上做LocalSearch
+     * 阶段2：全局LocalSearch打磨，消除跨分区冲突（HC4同日同考官、工作量均衡等）
+     * 
+     * @param studentCount 学员数量
+     * @param partitionStrategy 切分策略：DATE_WINDOW / DEPARTMENT_CLUSTER（请求 solverConfig.partitionStrategy），为空时按日期窗口
+     */
+    public SolverConfig createPartitionedConfig(int studentCount, String partitionStrategy) {
+        String strategy = partitionStrategy != null ? partitionStrategy
+                : com.examiner.scheduler.solver.ExamSchedulePartitioner.STRATEGY_DATE_WINDOW;
+        LOGGER.info("🧩 [分区模式] 学员数量: {}, 切分策略: {}, 分区并行LocalSearch + 全局打磨", studentCount, strategy);
+        
+        java.util.Map<String, String> partitionerProperties = new java.util.HashMap<>();
+        partitionerProperties.put("partitionStrategy", strategy);
+        partitionerProperties.put("maxPartSize", String.valueOf(partitionMaxPartSize));
+        partitionerProperties.put("minPartSize", String.valueOf(partitionMinPartSize));
+        
+        // 分区内：标准模式的LocalSearch，按分区自身的收敛情况停止
+        LocalSearchPhaseConfig partLocalSearch = createStandardLocalSearchConfig();
+        partLocalSearch.setTerminationConfig(new TerminationConfig()
+                .withSecondsSpentLimit(partitionPartSeconds)
+                .withUnimprovedSecondsSpentLimit(partitionPartUnimprovedSeconds));
+        
+        PartitionedSearchPhaseConfig partitionedPhase = new PartitionedSearchPhaseConfig();
+        partitionedPhase.setSolutionPartitionerClass(com.examiner.scheduler.solver.ExamSchedulePartitioner.class);
+        partitionedPhase.setSolutionPartitionerCustomProperties(partitionerProperties);
+        partitionedPhase.setRunnablePartThreadLimit("AUTO");
+        partitionedPhase.setPhaseConfigList(java.util.Collections.singletonList(partLocalSearch));
+        
+        // 全局：精细模式的LocalSearch，修复分区边界上的冲突
+        LocalSearchPhaseConfig globalLocalSearch = createPreciseLocalSearchConfig();
+        globalLocalSearch.setTerminationConfig(new TerminationConfig()
+                .withSecondsSpentLimit(partitionGlobalSeconds)
+                .withUnimprovedSecondsSpentLimit(partitionGlobalUnimprovedSeconds));
+        
+        return new SolverConfig()
+                .withSolutionClass(ExamSchedule.class)
+                .withEntityClasses(com.examiner.scheduler.domain.ExamAssignment.class)
+                .withConstraintProviderClass(OptimizedExamScheduleConstraintProvider.class)
+                // 与其他模式一致：跳过ConstructionHeuristic，保留createProblemInstance的预分配
+                .withPhaseList(java.util.Arrays.asList(
+                    partitionedPhase,
+                    globalLocalSearch
+                ))
+                .withTerminationConfig(new TerminationConfig()
+                        .withSecondsSpentLimit(partitionTotalSeconds)
+                        .withBestScoreLimit("0hard/*soft"));
+    }
+    
+    /**
+     * 🆕 v8.1: 热启动配置（从历史排班/快照恢复的初始解直接进入LocalSearch）
+     * 初始解已接近最优，只需修复名单变化带来的少量冲突，不做逐级升级也不做分区
+     */
+    public SolverConfig createWarmStartConfig(int studentCount) {
+        return createWarmStartConfig(studentCount, null);
+    }
+
+    /**
+     * 🆕 v8.1: 热启动配置，指定最长求解时间（从检查点恢复时使用中断级别的剩余时间）
+     */
+    public SolverConfig createWarmStartConfig(int studentCount, Long spentLimitSeconds) {
+        long spentLimit = spentLimitSeconds != null ? spentLimitSeconds
+                : studentCount < PARTITIONED_SEARCH_THRESHOLD ? 30L : 90L;
+        long unimprovedLimit = studentCount < PARTITIONED_SEARCH_THRESHOLD ? 8L : 20L;
+        if (spentLimitSeconds != null) {
+            // 恢复的是较长级别（如精细模式）时，无改进容忍时间随剩余时间放宽
+            unimprovedLimit = Math.max(unimprovedLimit, spentLimit / 5);
+        }
+        LOGGER.info("🔥 [热启动] 配置：最多{}秒，{}秒无改进停止（初始解完整时跳过ConstructionHeuristic）", spentLimit, unimprovedLimit);
+
+        return new SolverConfig()
+                .withSolutionClass(ExamSchedule.class)
+                .withEntityClasses(com.examiner.scheduler.domain.ExamAssignment.class)
+                .withConstraintProviderClass(OptimizedExamScheduleConstraintProvider.class)
+                .withPhaseList(java.util.Arrays.asList(
+                    // 初始解不完整时补全空槽位；完整时由调用方移除（skipConstructionHeuristic）
+                    createFastConstructionHeuristicConfig(),
+                    createStandardLocalSearchConfig()
+                ))
+                .withTerminationConfig(new TerminationConfig()
+                        .withSecondsSpentLimit(spentLimit)
+                        .withUnimprovedSecondsSpentLimit(unimprovedLimit)
+                        .withBestScoreLimit("0hard/*soft"))
+                .withMoveThreadCount("AUTO");
+    }
+
+    /**
+     * 🆕 v8.1: 是否应使用分区求解
+     */
+    public boolean shouldUsePartitionedSearch(int studentCount) {
+        return studentCount >= PARTITIONED_SEARCH_THRESHOLD;
+    }
+    
     /**
      * 根据问题规模自动选择配置
+     * 🆕 v8.1: 有离线调优结果时使用对应规模分级的LocalSearch参数
      */
     public SolverConfig createAdaptiveConfig(int studentCount) {
-        if (studentCount < 10) {
+        return createAdaptiveConfig(studentCount, true);
+    }
+    
+    /**
+     * 根据问题规模自动选择配置
+     * @param tuned 是否应用离线调优结果（调优器以未调优的配置为基线）
+     */
+    public SolverConfig createAdaptiveConfig(int studentCount, boolean tuned) {
+        SolverConfig config;
+        if (shouldUsePartitionedSearch(studentCount)) {
+            LOGGER.info("📊 学员数量: {}, 选择分区模式", studentCount);
+            config = createPartitionedConfig(studentCount, null);
+        } else if (studentCount < 10) {
             LOGGER.info("📊 学员数量: {}, 选择闪电模式", studentCount);
-            return createFlashConfig();
+            config = createFlashConfig();
         } else if (studentCount < 30) {
             LOGGER.info("📊 学员数量: {}, 选择标准模式", studentCount);
-            return createStandardConfig();
+            config = createStandardConfig();
         } else {
             LOGGER.info("📊 学员数量: {}, 选择精细模式", studentCount);
-            return createPreciseConfig();
+            config = createPreciseConfig();
+        }
+        if (tuned) {
+            applyTunedProfile(config, sizeClass(studentCount), studentCount);
+        }
+        return config;
+    }
+    
+    /**
+     * 🆕 v8.1: 规模分级（与 createAdaptiveConfig 的选择一致）
+     * @return flash / standard / precise / partitioned
+     */
+    public static String sizeClass(int studentCount) {
+        if (studentCount >= PARTITIONED_SEARCH_THRESHOLD) {
+            return "partitioned";
+        } else if (studentCount < 10) {
+            return "flash";
+        } else if (studentCount < 30) {
+            return "standard";
+        }
+        return "precise";
+    }
+    
+    /**
+     * 🆕 v8.1: 应用离线调优的LocalSearch参数
+     * 调优结果针对"某规模分级 + 该分级对应的配置"得出，因此只在 level 与问题的规模分级一致时生效；
+     * 逐级升级中的其他级别保持手工参数。分区配置的分区内和全局打磨阶段都会应用。
+     * @param level 配置所属的级别（flash / standard / precise / partitioned）
+     * @return 是否应用了调优参数
+     */
+    public boolean applyTunedProfile(SolverConfig config, String level, int studentCount) {
+        if (!tuningEnabled || !sizeClass(studentCount).equals(level)) {
+            return false;
+        }
+        SolverTuningProfile profile = getTuningProfile();
+        SolverTuningProfile.Parameters parameters = profile != null ? profile.parametersFor(level) : null;
+        if (parameters == null || config.getPhaseConfigList() == null) {
+            return false;
+        }
+        applyParameters(config, parameters);
+        LOGGER.info("🎛️ [调优参数] {} 使用调优配置 v{}: {}", level, profile.version, parameters);
+        return true;
+    }
+    
+    /**
+     * 🆕 v8.1: 丢弃已加载的调优结果，下次使用时重新读取目录中的最新版本
+     */
+    public void reloadTuningProfile() {
+        tuningProfileLoaded = false;
+    }
+    
+    private SolverTuningProfile getTuningProfile() {
+        if (!tuningProfileLoaded) {
+            synchronized (this) {
+                if (!tuningProfileLoaded) {
+                    try {
+                        tuningProfile = SolverTuningProfile.loadLatest(java.nio.file.Paths.get(tuningDirectory));
+                        if (tuningProfile != null) {
+                            LOGGER.info("🎛️ [调优参数] 已加载调优配置 v{}（{}）", tuningProfile.version, tuningProfile.createdAt);
+                        }
+                    } catch (java.io.IOException | RuntimeException e) {
+                        tuningProfile = null;
+                        LOGGER.warn("⚠️ [调优参数] 读取调优配置失败，使用手工参数: {}", e.getMessage());
+                    }
+                    tuningProfileLoaded = true;
+                }
+            }
+        }
+        return tuningProfile;
+    }
+    
+    /**
+     * 🆕 v8.1: 用指定参数覆盖配置中所有LocalSearch阶段（含分区内阶段）的接受器和采集器
+     */
+    public static void applyParameters(SolverConfig config, SolverTuningProfile.Parameters parameters) {
+        if (config.getPhaseConfigList() != null) {
+            applyToLocalSearchPhases(config.getPhaseConfigList(), parameters);
+        }
+    }
+    
+    private static void applyToLocalSearchPhases(java.util.List<org.optaplanner.core.config.phase.PhaseConfig> phases,
+                                                 SolverTuningProfile.Parameters parameters) {
+        for (org.optaplanner.core.config.phase.PhaseConfig phase : phases) {
+            if (phase instanceof LocalSearchPhaseConfig) {
+                parameters.applyTo((LocalSearchPhaseConfig) phase);
+            } else if (phase instanceof PartitionedSearchPhaseConfig
+                    && ((PartitionedSearchPhaseConfig) phase).getPhaseConfigList() != null) {
+                applyToLocalSearchPhases(((PartitionedSearchPhaseConfig) phase).getPhaseConfigList(), parameters);
+            }
         }
     }
     
@@ -182,8 +421,8 @@ public class AdaptiveSolverConfig {
     /**
      * 创建快速构造启发式配置（闪电模式）
      * 🚀 v5.5.6: 升级到FIRST_FIT_DECREASING，提升初始解质量20%
+     * 🆕 v8.1: 热启动配置用它补全未初始化的槽位（只处理考官为空的排班，不覆盖已有分配）
      */
-    @SuppressWarnings("unused")
     private ConstructionHeuristicPhaseConfig createFastConstructionHeuristicConfig() {
         ConstructionHeuristicPhaseConfig config = new ConstructionHeuristicPhaseConfig();
         
@@ -256,7 +495,7 @@ public class AdaptiveSolverConfig {
      * 创建标准LocalSearch配置（标准模式）
      * 🔧 v7.1.2修复: 使用Late Acceptance + 禁忌搜索组合
      */
-    private org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig createStandardLocalSearchConfig() {
+    private LocalSearchPhaseConfig createStandardLocalSearchConfig() {
         org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig config = 
             new org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig();
         
@@ -280,7 +519,7 @@ public class AdaptiveSolverConfig {
      * 创建精确LocalSearch配置（精细模式）
      * 🔧 v7.1.2修复: 使用Late Acceptance + 禁忌搜索组合进行深度优化
      */
-    private org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig createPreciseLocalSearchConfig() {
+    private LocalSearchPhaseConfig createPreciseLocalSearchConfig() {
         org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig config = 
             new org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig();
         
@@ -25,6 +25,17 @@ public class DroolsEarlyConfig {
     }
     
     public static void main(String... args) {
+        // 🆕 v8.1: "tune" 子命令运行离线超参数调优（SolverHyperparameterTuner），结束后退出
+        // 使用独立的 tune 配置文件：不监听HTTP端口、不迁移数据库、不运行定时任务和检查点/归档
+        if (args.length > 0 && "tune".equals(args[0])) {
+            System.err.println("🎛️ 启动求解器超参数调优");
+            if (System.getProperty("quarkus.profile") == null) {
+                System.setProperty("quarkus.profile", "tune");
+            }
+            Quarkus.run(com.examiner.scheduler.optimizer.SolverHyperparameterTuner.class,
+                    java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         System.err.println("✅ DroolsEarlyConfig主类启动");
         Quarkus.run(QuarkusAppWrapper.class, args);
     }
@@ -0,0 +1,176 @@
+package com.examiner.scheduler.config;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.localsearch.decider.acceptor.LocalSearchAcceptorConfig;
+import org.optaplanner.core.config.localsearch.decider.forager.LocalSearchForagerConfig;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 🆕 v8.1: 求解器超参数调优结果（版本化配置文件）
+ *
+ * 由 SolverHyperparameterTuner 离线生成，按规模分级（flash / standard / precise / partitioned，
+ * 与 AdaptiveSolverConfig.createAdaptiveConfig 的分级一致）保存 LocalSearch 接受器/采集器参数。
+ * 文件名为 profile-v{版本}.json，每次调优写入新版本，运行时加载目录中版本号最大的文件；
+ * 回滚只需删除最新版本的文件。
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SolverTuningProfile {
+
+    private static final Pattern FILE_NAME = Pattern.compile("profile-v(\\d+)\\.json");
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public int version;
+    public String createdAt;
+    /** 调优使用的随机种子，便于复现 */
+    public long seed;
+    /** 每个评估中各 LocalSearch 阶段的基础步数预算（逐轮翻倍） */
+    public int budgetSteps;
+    public Map<String, SizeClass> sizeClasses = new LinkedHashMap<>();
+
+    /**
+     * 单个规模分级的调优结果
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class SizeClass {
+        public Parameters parameters;
+        /** 调优时使用的问题数（合成 + 归档） */
+        public int problems;
+        public int candidates;
+        /** 最优参数在最后一轮的平均分数 */
+        public String meanScore;
+        /** 原有手工参数在同一轮的平均分数（未进入最后一轮时为空） */
+        public String baselineScore;
+    }
+
+    /**
+     * LocalSearch 接受器/采集器参数；0 表示不启用对应接受器
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Parameters {
+        public int entityTabuSize;
+        public int valueTabuSize;
+        public int lateAcceptanceSize;
+        public int acceptedCountLimit;
+
+        public Parameters() {
+        }
+
+        public Parameters(int entityTabuSize, int valueTabuSize, int lateAcceptanceSize, int acceptedCountLimit) {
+            this.entityTabuSize = entityTabuSize;
+            this.valueTabuSize = valueTabuSize;
+            this.lateAcceptanceSize = lateAcceptanceSize;
+            this.acceptedCountLimit = acceptedCountLimit;
+        }
+
+        /**
+         * 接受器至少需要启用一项，采集器数量必须为正
+         */
+        public boolean isValid() {
+            return (entityTabuSize > 0 || valueTabuSize > 0 || lateAcceptanceSize > 0) && acceptedCountLimit > 0;
+        }
+
+        /**
+         * 覆盖 LocalSearch 阶段的接受器和采集器（移动选择器与终止条件保持不变）
+         */
+        public void applyTo(LocalSearchPhaseConfig phase) {
+            LocalSearchAcceptorConfig acceptor = new LocalSearchAcceptorConfig();
+            acceptor.setEntityTabuSize(entityTabuSize > 0 ? entityTabuSize : null);
+            acceptor.setValueTabuSize(valueTabuSize > 0 ? valueTabuSize : null);
+            acceptor.setLateAcceptanceSize(lateAcceptanceSize > 0 ? lateAcceptanceSize : null);
+            LocalSearchForagerConfig forager = phase.getForagerConfig() != null
+                    ? phase.getForagerConfig() : new LocalSearchForagerConfig();
+            forager.setAcceptedCountLimit(acceptedCountLimit);
+            phase.setAcceptorConfig(acceptor);
+            phase.setForagerConfig(forager);
+        }
+
+        /**
+         * 读取 LocalSearch 阶段当前的参数（作为调优基线）
+         */
+        public static Parameters of(LocalSearchPhaseConfig phase) {
+            LocalSearchAcceptorConfig acceptor = phase.getAcceptorConfig();
+            LocalSearchForagerConfig forager = phase.getForagerConfig();
+            return new Parameters(
+                    acceptor != null && acceptor.getEntityTabuSize() != null ? acceptor.getEntityTabuSize() : 0,
+                    acceptor != null && acceptor.getValueTabuSize() != null ? acceptor.getValueTabuSize() : 0,
+                    acceptor != null && acceptor.getLateAcceptanceSize() != null ? acceptor.getLateAcceptanceSize() : 0,
+                    forager != null && forager.getAcceptedCountLimit() != null ? forager.getAcceptedCountLimit() : 1);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Parameters other)) {
+                return false;
+            }
+            return entityTabuSize == other.entityTabuSize && valueTabuSize == other.valueTabuSize
+                    && lateAcceptanceSize == other.lateAcceptanceSize && acceptedCountLimit == other.acceptedCountLimit;
+        }
+
+        @Override
+        public int hashCode() {
+            return java.util.Objects.hash(entityTabuSize, valueTabuSize, lateAcceptanceSize, acceptedCountLimit);
+        }
+
+        @Override
+        public String toString() {
+            return "entityTabu=" + entityTabuSize + ", valueTabu=" + valueTabuSize
+                    + ", lateAcceptance=" + lateAcceptanceSize + ", acceptedCount=" + acceptedCountLimit;
+        }
+    }
+
+    public Parameters parametersFor(String sizeClass) {
+        SizeClass entry = sizeClasses.get(sizeClass);
+        return entry != null && entry.parameters != null && entry.parameters.isValid() ? entry.parameters : null;
+    }
+
+    /**
+     * 加载目录中版本号最大的配置文件
+     * @return 目录不存在或没有配置文件时为null
+     */
+    public static SolverTuningProfile loadLatest(Path directory) throws IOException {
+        Path latest = null;
+        int latestVersion = -1;
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "profile-v*.json")) {
+            for (Path file : files) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && Integer.parseInt(matcher.group(1)) > latestVersion) {
+                    latestVersion = Integer.parseInt(matcher.group(1));
+                    latest = file;
+                }
+            }
+        }
+        return latest != null ? MAPPER.readValue(latest.toFile(), SolverTuningProfile.class) : null;
+    }
+
+    /**
+     * 以下一个版本号写入新文件（不覆盖已有版本）
+     * @return 写入的文件
+     */
+    public Path saveAsNextVersion(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        SolverTuningProfile previous = loadLatest(directory);
+        version = previous != null ? previous.version + 1 : 1;
+        Path file = directory.resolve("profile-v" + version + ".json");
+        Path temp = directory.resolve("profile-v" + version + ".json.tmp");
+        MAPPER.writeValue(temp.toFile(), this);
+        Files.move(temp, file);
+        return file;
+    }
+}
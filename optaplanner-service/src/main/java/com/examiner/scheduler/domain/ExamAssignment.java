@@ -14,8 +14,9 @@ import java.util.Objects;
  * 每个实例代表一个学员的一次考试安排
  * 
  * 🚀 性能优化：添加难度比较器优先处理困难的分配
+ * 🆕 v8.1: 难度/强度改用预计算的排序权重工厂（按当天可用考官的稀缺度排序）
  */
-@PlanningEntity(difficultyComparatorClass = com.examiner.scheduler.solver.ExamAssignmentDifficultyComparator.class)
+@PlanningEntity(difficultyWeightFactoryClass = com.examiner.scheduler.solver.ExamAssignmentDifficultyWeightFactory.class)
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class ExamAssignment {
     
@@ -44,21 +45,21 @@ public class ExamAssignment {
     @PlanningVariable(
         valueRangeProviderRefs = "teacherRange", 
         nullable = false,
-        strengthComparatorClass = com.examiner.scheduler.solver.TeacherStrengthComparator.class
+        strengthWeightFactoryClass = com.examiner.scheduler.solver.TeacherStrengthWeightFactory.class
     )
     private Teacher examiner1;      // 考官1 - 同科室（规划变量，不允许为null）
     
     @PlanningVariable(
         valueRangeProviderRefs = "teacherRange", 
         nullable = false,
-        strengthComparatorClass = com.examiner.scheduler.solver.TeacherStrengthComparator.class
+        strengthWeightFactoryClass = com.examiner.scheduler.solver.TeacherStrengthWeightFactory.class
     )
     private Teacher examiner2;      // 考官2 - 不同科室（规划变量，不允许为null）
     
     @PlanningVariable(
         valueRangeProviderRefs = "teacherRange", 
         nullable = true,
-        strengthComparatorClass = com.examiner.scheduler.solver.TeacherStrengthComparator.class
+        strengthWeightFactoryClass = com.examiner.scheduler.solver.TeacherStrengthWeightFactory.class
     )
     private Teacher backupExaminer; // 备份考官 - 不同科室（规划变量，备份可选）
     
@@ -314,6 +315,26 @@ public class ExamAssignment {
         this.originalExamDate = examDate;
     }
     
+    /**
+     * 🆕 v8.1: 复制排班（规划变量与固定标记逐个复制，学员、考官等问题事实共享）
+     * 分区子问题和 what-if 会话在副本上修改考官，不影响原排班
+     */
+    public ExamAssignment copy() {
+        ExamAssignment copy = new ExamAssignment(id, student, examType, subjects);
+        copy.examDate = examDate;
+        copy.examiner1 = examiner1;
+        copy.examiner2 = examiner2;
+        copy.backupExaminer = backupExaminer;
+        copy.location = location;
+        copy.timeSlot = timeSlot;
+        copy.pinned = pinned;
+        copy.originalExaminer1Name = originalExaminer1Name;
+        copy.originalExaminer2Name = originalExaminer2Name;
+        copy.originalBackupExaminerName = originalBackupExaminerName;
+        copy.originalExamDate = originalExamDate;
+        return copy;
+    }
+    
     @Override
     public String toString() {
         return "ExamAssignment{" +
@@ -7,6 +7,7 @@ import org.optaplanner.core.api.domain.solution.PlanningSolution;
 import org.optaplanner.core.api.domain.solution.ProblemFactCollectionProperty;
 import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import java.time.LocalDate;
@@ -218,6 +219,18 @@ public class ExamSchedule {
         return this.constraintConfig;
     }
     
+    /**
+     * 🆕 v8.1: 节假日配置（分区子问题等派生问题需要沿用原问题的配置）
+     */
+    @JsonIgnore
+    public HolidayConfig getHolidayConfig() {
+        return holidayConfig;
+    }
+    
+    public void setHolidayConfig(HolidayConfig holidayConfig) {
+        this.holidayConfig = holidayConfig;
+    }
+    
     /**
      * 根据日期获取值班调度信息
      */
@@ -1,11 +1,16 @@
 package com.examiner.scheduler.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.examiner.scheduler.config.HolidayConfig;
 import org.optaplanner.core.api.domain.lookup.PlanningId;
 import java.util.Objects;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
 import java.time.LocalDate;
 
 /**
@@ -26,6 +31,10 @@ public class Teacher {
     // 🆕 不可用日期期间列表
     private List<UnavailablePeriod> unavailablePeriods = new ArrayList<>();
     
+    // 🆕 v8.1: 不可用日期索引（由不可用期展开，HC9每次打分都会查询；懒构建，增删不可用期时增量维护）
+    @JsonIgnore
+    private transient volatile Set<LocalDate> unavailableDateIndex;
+    
     /**
      * 不可用期类
      */
@@ -127,12 +136,117 @@ public class Teacher {
         this.consecutiveDays = consecutiveDays;
     }
     
+    /**
+     * 🔧 v8.1: 只读视图，增删请使用 addUnavailablePeriod / removeUnavailablePeriod（同时维护日期索引）
+     */
     public List<UnavailablePeriod> getUnavailablePeriods() {
-        return unavailablePeriods;
+        return Collections.unmodifiableList(unavailablePeriods);
     }
     
     public void setUnavailablePeriods(List<UnavailablePeriod> unavailablePeriods) {
-        this.unavailablePeriods = unavailablePeriods != null ? unavailablePeriods : new ArrayList<>();
+        this.unavailablePeriods = unavailablePeriods != null ? new ArrayList<>(unavailablePeriods) : new ArrayList<>();
+        this.unavailableDateIndex = null;
+    }
+    
+    /**
+     * 🆕 v8.1: 复制考官（不可用期逐个复制）
+     * 求解器的工作解与原问题、各级求解共享考官对象，实时变更只能修改副本
+     */
+    public Teacher copy() {
+        Teacher copy = new Teacher(id, name, department, group);
+        copy.workload = workload;
+        copy.consecutiveDays = consecutiveDays;
+        for (UnavailablePeriod period : unavailablePeriods) {
+            copy.unavailablePeriods.add(new UnavailablePeriod(
+                    period.getId(), period.getStartDate(), period.getEndDate(), period.getReason()));
+        }
+        return copy;
+    }
+    
+    /**
+     * 🆕 v8.1: 追加不可用期并增量更新日期索引（实时规划 ProblemChange 使用）
+     * @return false 表示同ID的不可用期已存在（重复提交）
+     */
+    public boolean addUnavailablePeriod(UnavailablePeriod period) {
+        if (period.getId() != null) {
+            for (UnavailablePeriod existing : unavailablePeriods) {
+                if (period.getId().equals(existing.getId())) {
+                    return false;
+                }
+            }
+        }
+        unavailablePeriods.add(period);
+        if (unavailableDateIndex != null) {
+            indexPeriod(unavailableDateIndex, period);
+        }
+        return true;
+    }
+    
+    /**
+     * 🆕 v8.1: 按ID移除不可用期，只重算该期间覆盖的日期
+     * @return 被移除的不可用期，不存在时返回null
+     */
+    public UnavailablePeriod removeUnavailablePeriod(String periodId) {
+        UnavailablePeriod removed = null;
+        for (Iterator<UnavailablePeriod> it = unavailablePeriods.iterator(); it.hasNext(); ) {
+            UnavailablePeriod period = it.next();
+            if (Objects.equals(periodId, period.getId())) {
+                it.remove();
+                removed = period;
+                break;
+            }
+        }
+        if (removed != null && unavailableDateIndex != null) {
+            Set<LocalDate> affected = new HashSet<>();
+            indexPeriod(affected, removed);
+            for (LocalDate date : affected) {
+                if (!isCoveredByAnyPeriod(date)) {
+                    unavailableDateIndex.remove(date);
+                }
+            }
+        }
+        return removed;
+    }
+    
+    private Set<LocalDate> unavailableDates() {
+        Set<LocalDate> index = unavailableDateIndex;
+        if (index == null) {
+            index = new HashSet<>();
+            for (UnavailablePeriod period : unavailablePeriods) {
+                indexPeriod(index, period);
+            }
+            unavailableDateIndex = index;
+        }
+        return index;
+    }
+    
+    private boolean isCoveredByAnyPeriod(LocalDate date) {
+        for (UnavailablePeriod period : unavailablePeriods) {
+            try {
+                if (period.getStartDate() != null && period.getEndDate() != null
+                        && !date.isBefore(LocalDate.parse(period.getStartDate()))
+                        && !date.isAfter(LocalDate.parse(period.getEndDate()))) {
+                    return true;
+                }
+            } catch (Exception e) {
+                // 日期解析失败，静默忽略
+            }
+        }
+        return false;
+    }
+    
+    private static void indexPeriod(Set<LocalDate> index, UnavailablePeriod period) {
+        if (period.getStartDate() == null || period.getEndDate() == null) {
+            return;
+        }
+        try {
+            LocalDate endDate = LocalDate.parse(period.getEndDate());
+            for (LocalDate date = LocalDate.parse(period.getStartDate()); !date.isAfter(endDate); date = date.plusDays(1)) {
+                index.add(date);
+            }
+        } catch (Exception e) {
+            // 日期解析失败，静默忽略
+        }
     }
     
     /**
@@ -166,19 +280,8 @@ public class Teacher {
                 return false;
             }
             
-            for (UnavailablePeriod period : unavailablePeriods) {
-                if (period.getStartDate() == null || period.getEndDate() == null) {
-                    continue;
-                }
-                
-                LocalDate startDate = LocalDate.parse(period.getStartDate());
-                LocalDate endDate = LocalDate.parse(period.getEndDate());
-                
-                // 检查日期是否在不可用期间内（包含起始和结束日期）
-                if (!checkDate.isBefore(startDate) && !checkDate.isAfter(endDate)) {
-                    return true;
-                }
-            }
+            // 🆕 v8.1: 查日期索引，不再逐个解析不可用期（包含起始和结束日期）
+            return unavailableDates().contains(checkDate);
         } catch (Exception e) {
             // 日期解析失败，静默忽略
         }
@@ -268,6 +371,7 @@ public class Teacher {
         }
         
         unavailablePeriods = filteredPeriods;
+        unavailableDateIndex = null;
         return removedCount;
     }
     
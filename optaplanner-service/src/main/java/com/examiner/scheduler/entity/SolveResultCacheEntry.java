@@ -0,0 +1,85 @@
+package com.examiner.scheduler.entity;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 🆕 v8.1: 求解结果缓存实体
+ * 以输入指纹为键保存 /solve 的完整响应，服务重启后仍可直接返回
+ */
+@Entity
+@Table(name = "solve_result_cache")
+public class SolveResultCacheEntry extends PanacheEntity {
+
+    /**
+     * 输入指纹（SHA-256 十六进制）
+     */
+    @Column(nullable = false, length = 64, unique = true)
+    public String fingerprint;
+
+    @Column(name = "created_at", nullable = false)
+    public LocalDateTime createdAt;
+
+    /**
+     * 最近一次写入或命中的时间（LRU 淘汰依据）
+     */
+    @Column(name = "last_hit_at")
+    public LocalDateTime lastHitAt;
+
+    @Column(name = "hit_count")
+    public Integer hitCount;
+
+    /**
+     * 原始响应的HTTP状态码
+     */
+    @Column(name = "status_code", nullable = false)
+    public int statusCode;
+
+    /**
+     * 原始响应体（JSON）
+     */
+    @Column(name = "response_json", columnDefinition = "CLOB")
+    public String responseJson;
+
+    @Column(name = "total_students")
+    public Integer totalStudents;
+
+    @Column(name = "total_teachers")
+    public Integer totalTeachers;
+
+    @Column(name = "start_date")
+    public String startDate;
+
+    @Column(name = "end_date")
+    public String endDate;
+
+    @PrePersist
+    public void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (lastHitAt == null) {
+            lastHitAt = createdAt;
+        }
+        if (hitCount == null) {
+            hitCount = 0;
+        }
+    }
+
+    public static SolveResultCacheEntry findByFingerprint(String fingerprint) {
+        return find("fingerprint", fingerprint).firstResult();
+    }
+
+    /**
+     * 只保留最近使用的若干条记录（按ID删除，不加载响应体）
+     * @return 删除的记录数
+     */
+    public static long deleteAllButMostRecentlyUsed(int keep) {
+        List<Long> overflow = getEntityManager()
+                .createQuery("select e.id from SolveResultCacheEntry e order by e.lastHitAt desc, e.id desc", Long.class)
+                .setFirstResult(keep)
+                .getResultList();
+        return overflow.isEmpty() ? 0 : delete("id in ?1", overflow);
+    }
+}
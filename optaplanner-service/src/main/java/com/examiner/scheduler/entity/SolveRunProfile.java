@@ -0,0 +1,95 @@
+package com.examiner.scheduler.entity;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import io.quarkus.panache.common.Page;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 🆕 v8.1: 求解运行记录实体
+ * 每一级求解（闪电/标准/精细/热启动…）结束时保存问题规模和分数改进序列，供终止时间预测使用
+ */
+@Entity
+@Table(name = "solve_run_profile")
+public class SolveRunProfile extends PanacheEntity {
+
+    @Column(name = "created_at", nullable = false)
+    public LocalDateTime createdAt;
+
+    /**
+     * 求解级别（flash / standard / precise / warm / 其他求解模式）
+     */
+    @Column(nullable = false, length = 32)
+    public String level;
+
+    @Column(name = "total_students", nullable = false)
+    public int totalStudents;
+
+    @Column(name = "total_teachers", nullable = false)
+    public int totalTeachers;
+
+    @Column(name = "total_dates", nullable = false)
+    public int totalDates;
+
+    @Column(name = "spent_millis", nullable = false)
+    public long spentMillis;
+
+    /**
+     * 最后一次有效改进距求解开始的时间
+     */
+    @Column(name = "last_improvement_millis", nullable = false)
+    public long lastImprovementMillis;
+
+    /**
+     * 相邻两次有效改进之间的最大间隔
+     */
+    @Column(name = "max_gap_millis", nullable = false)
+    public long maxGapMillis;
+
+    @Column(name = "improvement_count", nullable = false)
+    public int improvementCount;
+
+    /**
+     * 最后一次有效改进发生在求解末尾，说明求解可能被时间限制截断
+     */
+    @Column(name = "truncated")
+    public Boolean truncated;
+
+    @Column(name = "initial_score", length = 64)
+    public String initialScore;
+
+    @Column(name = "final_score", length = 64)
+    public String finalScore;
+
+    /**
+     * 分数改进序列（JSON）：[[已用毫秒, 硬约束分, 软约束分], ...]
+     */
+    @Column(name = "series_json", columnDefinition = "CLOB")
+    public String seriesJson;
+
+    @PrePersist
+    public void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * 指定级别最近的若干条记录（从新到旧）
+     */
+    public static List<SolveRunProfile> findRecentByLevel(String level, int limit) {
+        return find("level = ?1 order by createdAt desc", level).page(Page.ofSize(limit)).list();
+    }
+
+    /**
+     * 只保留最新的若干条记录（按ID删除，不加载改进序列）
+     * @return 删除的记录数
+     */
+    public static long deleteAllButNewest(int keep) {
+        List<Long> overflow = getEntityManager()
+                .createQuery("select p.id from SolveRunProfile p order by p.createdAt desc, p.id desc", Long.class)
+                .setFirstResult(keep)
+                .getResultList();
+        return overflow.isEmpty() ? 0 : delete("id in ?1", overflow);
+    }
+}
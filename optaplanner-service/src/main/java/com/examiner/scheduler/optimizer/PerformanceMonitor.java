@@ -87,12 +87,9 @@ public class PerformanceMonitor<Solution_> implements SolverEventListener<Soluti
         if (bestScore == null) {
             improved = true;
         } else {
-            // 使用字符串比较作为简化方案
+            // 🆕 v8.1: 按分数本身比较（字符串比较会把 -10hard 判为优于 -9hard，改进序列因此失真）
             try {
-                String newScoreStr = newScore.toString();
-                String bestScoreStr = bestScore.toString();
-                // 简单的启发式：比较分数字符串
-                improved = newScoreStr.compareTo(bestScoreStr) > 0;
+                improved = compareScores(newScore, bestScore) > 0;
             } catch (Exception e) {
                 // 如果比较失败，假设有改进
                 improved = true;
@@ -125,6 +122,11 @@ public class PerformanceMonitor<Solution_> implements SolverEventListener<Soluti
         scoreCalculationCount.incrementAndGet();
     }
     
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareScores(Score<?> left, Score<?> right) {
+        return ((Score) left).compareTo(right);
+    }
+    
     /**
      * 检查是否已收敛
      * 收敛判断：最近N次改进的时间间隔越来越长，且变化率递减
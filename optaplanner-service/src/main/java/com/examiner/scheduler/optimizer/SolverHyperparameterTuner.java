@@ -0,0 +1,306 @@
+package com.examiner.scheduler.optimizer;
+
+import com.examiner.scheduler.config.AdaptiveSolverConfig;
+import com.examiner.scheduler.config.SolverTuningProfile;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.rest.ScheduleRequest;
+import com.examiner.scheduler.service.ExamScheduleService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.runtime.QuarkusApplication;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.partitionedsearch.PartitionedSearchPhaseConfig;
+import org.optaplanner.core.config.phase.PhaseConfig;
+import org.optaplanner.core.config.solver.EnvironmentMode;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 🆕 v8.1: 求解器超参数离线调优（命令行）
+ *
+ * 运行：java -jar quarkus-run.jar tune [--seed 42] [--candidates 16] [--budget-steps 500]
+ *       [--synthetic 3] [--archive data/tuning-archive] [--classes flash,standard,precise] [--output data/solver-tuning]
+ *       以 tune 配置文件启动：不监听HTTP端口、不执行数据库迁移、不运行定时任务
+ *
+ * - 搜索空间：entityTabuSize / valueTabuSize / lateAcceptanceSize / acceptedCountLimit
+ * - 每个规模分级以 createAdaptiveConfig 的未调优配置为基础，原有手工参数作为第一个候选
+ * - 按种子随机抽取候选，Successive Halving：每轮所有存活候选在全部问题上以相同步数预算求解，
+ *   按各问题上的排名之和保留前一半，下一轮预算翻倍，直到只剩一个
+ * - 评估使用 REPRODUCIBLE 模式、固定随机种子、单线程，所有LocalSearch阶段（含分区内阶段）按步数终止，
+ *   不使用任何时间终止条件，结果与机器速度无关、可复现
+ * - 结果写入 SolverTuningProfile 的新版本文件，AdaptiveSolverConfig 在运行时加载
+ */
+public class SolverHyperparameterTuner implements QuarkusApplication {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SolverHyperparameterTuner.class);
+
+    private static final int[] ENTITY_TABU_SIZES = {0, 3, 5, 7, 10, 15};
+    private static final int[] VALUE_TABU_SIZES = {0, 0, 3, 5, 7};
+    private static final int[] LATE_ACCEPTANCE_SIZES = {0, 50, 100, 200, 400, 800};
+    private static final int[] ACCEPTED_COUNT_LIMITS = {1, 2, 4, 8, 16, 32, 100, 1000};
+    /** 每轮保留的比例为 1/ETA */
+    private static final int ETA = 2;
+
+    @Inject
+    AdaptiveSolverConfig adaptiveSolverConfig;
+
+    @Inject
+    ExamScheduleService examScheduleService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "examiner.solver.tuning-dir", defaultValue = "data/solver-tuning")
+    String tuningDirectory;
+
+    @ConfigProperty(name = "examiner.tuning.archive.dir", defaultValue = "data/tuning-archive")
+    String archiveDirectory;
+
+    @Override
+    public int run(String... args) {
+        Map<String, String> options = parseOptions(args);
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        int candidateCount = Math.max(2, Integer.parseInt(options.getOrDefault("candidates", "16")));
+        int budgetSteps = Math.max(1, Integer.parseInt(options.getOrDefault("budget-steps", "500")));
+        int syntheticCount = Math.max(0, Integer.parseInt(options.getOrDefault("synthetic", "3")));
+        Path archive = Paths.get(options.getOrDefault("archive", archiveDirectory));
+        Path output = Paths.get(options.getOrDefault("output", tuningDirectory));
+        List<String> classes = Arrays.asList(options.getOrDefault("classes", "flash,standard,precise").split(","));
+
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        LOGGER.info("🎛️ [超参数调优] seed={}, 候选={}, 基础预算={}步, 合成问题={}/级, 归档目录={}",
+                seed, candidateCount, budgetSteps, syntheticCount, archive);
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+
+        List<TuningDataset.TuningProblem> archived = TuningDataset.archived(archive, objectMapper);
+        SolverTuningProfile profile = new SolverTuningProfile();
+        profile.createdAt = LocalDateTime.now().toString();
+        profile.seed = seed;
+        profile.budgetSteps = budgetSteps;
+
+        for (String sizeClass : classes) {
+            sizeClass = sizeClass.trim();
+            List<TuningDataset.TuningProblem> problems = new ArrayList<>(TuningDataset.synthetic(sizeClass, syntheticCount, seed));
+            for (TuningDataset.TuningProblem problem : archived) {
+                if (problem.sizeClass().equals(sizeClass)) {
+                    problems.add(problem);
+                }
+            }
+            if (problems.isEmpty()) {
+                LOGGER.warn("⚠️ [超参数调优] {} 没有可用的问题，跳过", sizeClass);
+                continue;
+            }
+            SolverTuningProfile.SizeClass result = tune(sizeClass, problems, candidateCount, budgetSteps, seed);
+            if (result != null) {
+                profile.sizeClasses.put(sizeClass, result);
+            }
+        }
+
+        if (profile.sizeClasses.isEmpty()) {
+            LOGGER.error("❌ [超参数调优] 没有任何规模分级得到结果，未写入配置");
+            return 1;
+        }
+        try {
+            Path file = profile.saveAsNextVersion(output);
+            LOGGER.info("✅ [超参数调优] 已写入调优配置 v{}: {}", profile.version, file.toAbsolutePath());
+            return 0;
+        } catch (Exception e) {
+            LOGGER.error("❌ [超参数调优] 写入调优配置失败: {}", e.getMessage(), e);
+            return 1;
+        }
+    }
+
+    private SolverTuningProfile.SizeClass tune(String sizeClass, List<TuningDataset.TuningProblem> problems,
+                                               int candidateCount, int budgetSteps, long seed) {
+        int representative = problems.get(0).request().getStudents().size();
+        SolverTuningProfile.Parameters baseline = baselineParameters(
+                adaptiveSolverConfig.createAdaptiveConfig(representative, false));
+        List<SolverTuningProfile.Parameters> survivors = sampleCandidates(baseline, candidateCount, new Random(seed));
+        LOGGER.info("🎛️ [超参数调优] {}: 问题={}, 候选={}, 基线=[{}]", sizeClass, problems.size(), survivors.size(), baseline);
+
+        int steps = budgetSteps;
+        Map<SolverTuningProfile.Parameters, HardSoftScore[]> scores = new HashMap<>();
+        int round = 0;
+        while (true) {
+            round++;
+            scores.clear();
+            for (SolverTuningProfile.Parameters candidate : survivors) {
+                HardSoftScore[] candidateScores = new HardSoftScore[problems.size()];
+                for (int i = 0; i < problems.size(); i++) {
+                    candidateScores[i] = evaluate(problems.get(i).request(), candidate, steps, seed);
+                }
+                scores.put(candidate, candidateScores);
+                LOGGER.info("   第{}轮 [{}] → 平均 {}", round, candidate, mean(candidateScores));
+            }
+            survivors = rank(survivors, scores, problems.size());
+            if (survivors.size() == 1) {
+                break;
+            }
+            survivors = new ArrayList<>(survivors.subList(0, (survivors.size() + ETA - 1) / ETA));
+            steps *= 2;
+        }
+
+        SolverTuningProfile.Parameters winner = survivors.get(0);
+        SolverTuningProfile.SizeClass result = new SolverTuningProfile.SizeClass();
+        result.parameters = winner;
+        result.problems = problems.size();
+        result.candidates = candidateCount;
+        result.meanScore = mean(scores.get(winner));
+        result.baselineScore = scores.containsKey(baseline) ? mean(scores.get(baseline)) : null;
+        LOGGER.info("🏆 [超参数调优] {} 最优参数: [{}]，平均 {}（基线 {}）",
+                sizeClass, winner, result.meanScore, result.baselineScore != null ? result.baselineScore : "已淘汰");
+        return result;
+    }
+
+    /**
+     * 在相同步数预算下求解一次，返回最终分数
+     */
+    private HardSoftScore evaluate(ScheduleRequest request, SolverTuningProfile.Parameters parameters,
+                                   int steps, long seed) {
+        SolverConfig config = adaptiveSolverConfig.createAdaptiveConfig(request.getStudents().size(), false);
+        AdaptiveSolverConfig.applyParameters(config, parameters);
+        config.setTerminationConfig(null);
+        replaceTerminations(config.getPhaseConfigList(), steps);
+        config.setEnvironmentMode(EnvironmentMode.REPRODUCIBLE);
+        config.setRandomSeed(seed);
+        config.setMoveThreadCount(null);
+
+        ExamSchedule problem = examScheduleService.createProblemInstance(
+                request.getStudents(), request.getTeachers(), request.getStartDate(), request.getEndDate(),
+                request.getExamDates(), request.getConstraints());
+        Solver<ExamSchedule> solver = SolverFactory.<ExamSchedule>create(config).buildSolver();
+        HardSoftScore score = solver.solve(problem).getScore();
+        return score != null ? score : HardSoftScore.ofUninitialized(-1, Integer.MIN_VALUE / 2, Integer.MIN_VALUE / 2);
+    }
+
+    /**
+     * 按各问题上的排名之和排序（排名对不同规模问题的分数量级不敏感），并列时比较平均分
+     */
+    private static List<SolverTuningProfile.Parameters> rank(List<SolverTuningProfile.Parameters> candidates,
+                                                            Map<SolverTuningProfile.Parameters, HardSoftScore[]> scores,
+                                                            int problemCount) {
+        Map<SolverTuningProfile.Parameters, Integer> rankSums = new HashMap<>();
+        for (int i = 0; i < problemCount; i++) {
+            final int problem = i;
+            List<SolverTuningProfile.Parameters> ordered = new ArrayList<>(candidates);
+            ordered.sort(Comparator.comparing(
+                    (SolverTuningProfile.Parameters candidate) -> scores.get(candidate)[problem]).reversed());
+            for (int r = 0; r < ordered.size(); r++) {
+                rankSums.merge(ordered.get(r), r, Integer::sum);
+            }
+        }
+        List<SolverTuningProfile.Parameters> ranked = new ArrayList<>(candidates);
+        ranked.sort(Comparator.comparing((SolverTuningProfile.Parameters candidate) -> rankSums.get(candidate))
+                .thenComparing(candidate -> meanScore(scores.get(candidate))[0], Comparator.reverseOrder())
+                .thenComparing(candidate -> meanScore(scores.get(candidate))[1], Comparator.reverseOrder()));
+        return ranked;
+    }
+
+    private static List<SolverTuningProfile.Parameters> sampleCandidates(SolverTuningProfile.Parameters baseline,
+                                                                        int count, Random random) {
+        Set<SolverTuningProfile.Parameters> candidates = new LinkedHashSet<>();
+        candidates.add(baseline);
+        // 搜索空间有限，尝试次数封顶避免死循环
+        for (int attempt = 0; candidates.size() < count && attempt < count * 20; attempt++) {
+            SolverTuningProfile.Parameters candidate = new SolverTuningProfile.Parameters(
+                    pick(ENTITY_TABU_SIZES, random), pick(VALUE_TABU_SIZES, random),
+                    pick(LATE_ACCEPTANCE_SIZES, random), pick(ACCEPTED_COUNT_LIMITS, random));
+            if (candidate.isValid()) {
+                candidates.add(candidate);
+            }
+        }
+        return new ArrayList<>(candidates);
+    }
+
+    /**
+     * 基础配置中第一个LocalSearch阶段（分区配置取分区内阶段）的手工参数
+     */
+    @SuppressWarnings("rawtypes")
+    private static SolverTuningProfile.Parameters baselineParameters(SolverConfig config) {
+        List<PhaseConfig> phases = config.getPhaseConfigList();
+        while (phases != null) {
+            List<PhaseConfig> nested = null;
+            for (PhaseConfig phase : phases) {
+                if (phase instanceof LocalSearchPhaseConfig) {
+                    return SolverTuningProfile.Parameters.of((LocalSearchPhaseConfig) phase);
+                }
+                if (phase instanceof PartitionedSearchPhaseConfig && nested == null) {
+                    nested = ((PartitionedSearchPhaseConfig) phase).getPhaseConfigList();
+                }
+            }
+            phases = nested;
+        }
+        return new SolverTuningProfile.Parameters(7, 0, 0, 8);
+    }
+
+    /**
+     * 去掉所有阶段（含分区求解内的阶段）的时间终止条件：LocalSearch 阶段改为按步数终止，
+     * 构造启发式自然结束，分区阶段在各分区的阶段结束后结束
+     */
+    @SuppressWarnings("rawtypes")
+    static void replaceTerminations(List<PhaseConfig> phases, int steps) {
+        if (phases == null) {
+            return;
+        }
+        for (PhaseConfig phase : phases) {
+            if (phase instanceof LocalSearchPhaseConfig) {
+                phase.setTerminationConfig(new TerminationConfig().withStepCountLimit(steps));
+            } else {
+                phase.setTerminationConfig(null);
+                if (phase instanceof PartitionedSearchPhaseConfig) {
+                    replaceTerminations(((PartitionedSearchPhaseConfig) phase).getPhaseConfigList(), steps);
+                }
+            }
+        }
+    }
+
+    private static int pick(int[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static double[] meanScore(HardSoftScore[] scores) {
+        double hard = 0;
+        double soft = 0;
+        for (HardSoftScore score : scores) {
+            hard += score.hardScore();
+            soft += score.softScore();
+        }
+        return new double[]{hard / scores.length, soft / scores.length};
+    }
+
+    private static String mean(HardSoftScore[] scores) {
+        double[] mean = meanScore(scores);
+        return String.format("%.1fhard/%.1fsoft", mean[0], mean[1]);
+    }
+
+    private static Map<String, String> parseOptions(String... args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--") && i + 1 < args.length) {
+                options.put(args[i].substring(2), args[++i]);
+            } else {
+                LOGGER.warn("⚠️ [超参数调优] 忽略无法识别的参数: {}", args[i]);
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,181 @@
+package com.examiner.scheduler.optimizer;
+
+import com.examiner.scheduler.config.AdaptiveSolverConfig;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.rest.ScheduleRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 🆕 v8.1: 超参数调优数据集
+ *
+ * - 合成问题：按规模分级的代表性学员数生成，科室/班组/不可用期由种子决定，可复现
+ * - 归档问题：读取 SolveArchiveService 在求解正常完成时写入的归档（*.request.json.gz，已匿名化）
+ *   或任意 ScheduleRequest JSON，学员/考官的ID和姓名替换为序号，不可用原因清空，热启动信息丢弃
+ */
+public final class TuningDataset {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TuningDataset.class);
+
+    private static final String[] DEPARTMENTS = {"区域一室", "区域二室", "区域三室", "区域四室", "区域五室", "区域六室", "区域七室"};
+    private static final String[] GROUPS = {"一组", "二组", "三组", "四组"};
+    /** 考官/学员比例，与实际排班数据的常见范围一致 */
+    private static final double TEACHERS_PER_STUDENT = 1.6;
+    /** 合成问题的考试窗口（工作日） */
+    private static final int EXAM_WINDOW_DAYS = 10;
+
+    private TuningDataset() {
+    }
+
+    /**
+     * 调优问题（每次评估都从请求重新创建问题实例，避免求解器之间共享状态）
+     */
+    public record TuningProblem(String name, String sizeClass, ScheduleRequest request) {
+    }
+
+    /**
+     * 各规模分级的代表性学员数
+     */
+    static int representativeStudents(String sizeClass, Random random) {
+        switch (sizeClass) {
+            case "flash":
+                return 4 + random.nextInt(6);
+            case "standard":
+                return 12 + random.nextInt(16);
+            case "precise":
+                return 40 + random.nextInt(60);
+            default:
+                return AdaptiveSolverConfig.PARTITIONED_SEARCH_THRESHOLD + random.nextInt(200);
+        }
+    }
+
+    /**
+     * 生成合成问题
+     */
+    public static List<TuningProblem> synthetic(String sizeClass, int count, long seed) {
+        Random random = new Random(seed ^ sizeClass.hashCode());
+        List<TuningProblem> problems = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int students = representativeStudents(sizeClass, random);
+            problems.add(new TuningProblem("synthetic-" + sizeClass + "-" + (i + 1), sizeClass,
+                    generate(students, random)));
+        }
+        return problems;
+    }
+
+    private static ScheduleRequest generate(int studentCount, Random random) {
+        List<String> examDates = new ArrayList<>();
+        LocalDate day = LocalDate.of(2025, 3, 3);
+        while (examDates.size() < EXAM_WINDOW_DAYS) {
+            if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                examDates.add(day.toString());
+            }
+            day = day.plusDays(1);
+        }
+
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < studentCount; i++) {
+            Student student = new Student(String.format("S%04d", i + 1), String.format("学员%04d", i + 1),
+                    DEPARTMENTS[random.nextInt(DEPARTMENTS.length)].substring(2, 3), GROUPS[random.nextInt(GROUPS.length)]);
+            // 少量学员只考一天
+            student.setExamDays(random.nextDouble() < 0.1 ? 1 : 2);
+            students.add(student);
+        }
+
+        int teacherCount = Math.max(6, (int) Math.round(studentCount * TEACHERS_PER_STUDENT));
+        List<Teacher> teachers = new ArrayList<>();
+        for (int i = 0; i < teacherCount; i++) {
+            Teacher teacher = new Teacher(String.format("T%04d", i + 1), String.format("考官%04d", i + 1),
+                    DEPARTMENTS[i % DEPARTMENTS.length], GROUPS[random.nextInt(GROUPS.length)]);
+            // 约五分之一的考官有一段1-3天的不可用期
+            if (random.nextDouble() < 0.2) {
+                LocalDate start = LocalDate.parse(examDates.get(random.nextInt(examDates.size())));
+                teacher.addUnavailablePeriod(new Teacher.UnavailablePeriod(
+                        "U" + (i + 1), start.toString(), start.plusDays(random.nextInt(3)).toString(), null));
+            }
+            teachers.add(teacher);
+        }
+
+        ScheduleRequest request = new ScheduleRequest();
+        request.setStudents(students);
+        request.setTeachers(teachers);
+        request.setStartDate(examDates.get(0));
+        request.setEndDate(examDates.get(examDates.size() - 1));
+        request.setExamDates(examDates);
+        return request;
+    }
+
+    /**
+     * 读取归档的请求并匿名化
+     * @param directory 问题归档目录或任意包含 ScheduleRequest JSON（可 gzip）的目录
+     */
+    public static List<TuningProblem> archived(Path directory, ObjectMapper objectMapper) {
+        List<TuningProblem> problems = new ArrayList<>();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return problems;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.{json,json.gz}")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                // 检查点文件只有考官ID，不是完整请求
+                if (name.endsWith(".checkpoint.json.gz")) {
+                    continue;
+                }
+                try (InputStream in = name.endsWith(".gz")
+                        ? new GZIPInputStream(Files.newInputStream(file)) : Files.newInputStream(file)) {
+                    ScheduleRequest request = objectMapper.readValue(in, ScheduleRequest.class);
+                    if (request.getStudents() == null || request.getStudents().isEmpty()
+                            || request.getTeachers() == null || request.getTeachers().isEmpty()) {
+                        continue;
+                    }
+                    anonymize(request);
+                    problems.add(new TuningProblem("archived-" + (problems.size() + 1),
+                            AdaptiveSolverConfig.sizeClass(request.getStudents().size()), request));
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.warn("⚠️ [调优数据] 跳过无法解析的文件 {}: {}", name, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("⚠️ [调优数据] 读取归档目录失败 {}: {}", directory, e.getMessage());
+        }
+        return problems;
+    }
+
+    /**
+     * 替换姓名和ID（科室/班组/日期/不可用期保持原样以保留问题结构）
+     */
+    public static void anonymize(ScheduleRequest request) {
+        int index = 0;
+        for (Student student : request.getStudents()) {
+            index++;
+            student.setId(String.format("S%04d", index));
+            student.setName(String.format("学员%04d", index));
+        }
+        index = 0;
+        for (Teacher teacher : request.getTeachers()) {
+            index++;
+            teacher.setId(String.format("T%04d", index));
+            teacher.setName(String.format("考官%04d", index));
+            if (teacher.getUnavailablePeriods() != null) {
+                for (Teacher.UnavailablePeriod period : teacher.getUnavailablePeriods()) {
+                    period.setReason(null);
+                }
+            }
+        }
+        request.setWarmStart(null);
+    }
+}
@@ -1,7 +1,9 @@
 package com.examiner.scheduler.rest;
 
+import com.examiner.scheduler.service.ScoreExplanationCache;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 
+import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -78,16 +80,29 @@ public class ConstraintViolationSyncResource {
     // 存储最新的约束违反信息（实际应用中应该使用缓存或数据库）
     private static volatile ConstraintViolationSummary latestViolationSummary = new ConstraintViolationSummary();
     
+    // 🆕 v8.1: 求解完成后基于 SolutionManager.explain 构建的按版本索引，优先于上面的计数器汇总
+    @Inject
+    ScoreExplanationCache explanationCache;
+    
     /**
      * 获取最新的约束违反汇总信息
+     * @param version 排班版本（求解会话ID），为空时取最新版本
      */
     @GET
     @Path("/summary")
-    public Response getViolationSummary() {
+    public Response getViolationSummary(@QueryParam("version") String version) {
         try {
-            LOGGER.info("🔗 [约束同步] 前端请求约束违反汇总信息");
+            LOGGER.info("🔗 [约束同步] 前端请求约束违反汇总信息" + (version != null ? ", version=" + version : ""));
             
-            // 返回最新的约束违反汇总
+            ScoreExplanationCache.Explanation explanation = explanationCache.get(version);
+            if (explanation != null) {
+                return Response.ok(explanation.getSummary()).build();
+            }
+            if (version != null && !version.isBlank()) {
+                return versionNotFound(version);
+            }
+            
+            // 尚无解释缓存时退回约束提供者同步的计数器汇总
             return Response.ok(latestViolationSummary).build();
             
         } catch (Exception e) {
@@ -103,10 +118,21 @@ public class ConstraintViolationSyncResource {
      */
     @GET
     @Path("/details/{constraintId}")
-    public Response getConstraintViolationDetails(@PathParam("constraintId") String constraintId) {
+    public Response getConstraintViolationDetails(@PathParam("constraintId") String constraintId,
+                                                  @QueryParam("version") String version) {
         try {
                          LOGGER.info("🔍 [约束同步] 前端请求约束 " + constraintId + " 的详细违反信息");
             
+            ScoreExplanationCache.Explanation explanation = explanationCache.get(version);
+            if (explanation != null) {
+                Map<String, Object> response = indexedResponse(explanation, explanation.byConstraint(constraintId));
+                response.put("constraintId", constraintId);
+                return Response.ok(response).build();
+            }
+            if (version != null && !version.isBlank()) {
+                return versionNotFound(version);
+            }
+            
             // 过滤出特定约束的违反信息
             List<ConstraintViolationDetail> constraintDetails = latestViolationSummary.violations.stream()
                     .filter(violation -> violation.constraintId.equals(constraintId))
@@ -128,6 +154,67 @@ public class ConstraintViolationSyncResource {
         }
     }
     
+    /**
+     * 🆕 v8.1: 获取某学员涉及的全部约束违反（来自解释缓存索引）
+     */
+    @GET
+    @Path("/students/{studentId}")
+    public Response getStudentViolations(@PathParam("studentId") String studentId,
+                                         @QueryParam("version") String version) {
+        ScoreExplanationCache.Explanation explanation = explanationCache.get(version);
+        if (explanation == null) {
+            return versionNotFound(version);
+        }
+        Map<String, Object> response = indexedResponse(explanation, explanation.byStudent(studentId));
+        response.put("studentId", studentId);
+        return Response.ok(response).build();
+    }
+    
+    /**
+     * 🆕 v8.1: 获取某考官涉及的全部约束违反（来自解释缓存索引）
+     */
+    @GET
+    @Path("/teachers/{teacherId}")
+    public Response getTeacherViolations(@PathParam("teacherId") String teacherId,
+                                         @QueryParam("version") String version) {
+        ScoreExplanationCache.Explanation explanation = explanationCache.get(version);
+        if (explanation == null) {
+            return versionNotFound(version);
+        }
+        Map<String, Object> response = indexedResponse(explanation, explanation.byTeacher(teacherId));
+        response.put("teacherId", teacherId);
+        return Response.ok(response).build();
+    }
+    
+    /**
+     * 🆕 v8.1: 获取某日期的全部约束违反（来自解释缓存索引）
+     */
+    @GET
+    @Path("/dates/{date}")
+    public Response getDateViolations(@PathParam("date") String date,
+                                      @QueryParam("version") String version) {
+        ScoreExplanationCache.Explanation explanation = explanationCache.get(version);
+        if (explanation == null) {
+            return versionNotFound(version);
+        }
+        Map<String, Object> response = indexedResponse(explanation, explanation.byDate(date));
+        response.put("date", date);
+        return Response.ok(response).build();
+    }
+    
+    /**
+     * 🆕 v8.1: 排班被手工编辑后，前端通知使该版本的解释失效
+     */
+    @DELETE
+    @Path("/cache/{version}")
+    public Response invalidateExplanation(@PathParam("version") String version) {
+        boolean removed = explanationCache.invalidate(version);
+        Map<String, Object> response = new HashMap<>();
+        response.put("version", version);
+        response.put("invalidated", removed);
+        return Response.ok(response).build();
+    }
+    
     /**
      * 验证前端排班结果与后端约束
      */
@@ -178,6 +265,25 @@ public class ConstraintViolationSyncResource {
                     ", 硬约束=" + newSummary.hardConstraintViolations + ", 软约束=" + newSummary.softConstraintViolations);
     }
     
+    private Map<String, Object> indexedResponse(ScoreExplanationCache.Explanation explanation,
+                                                List<ConstraintViolationDetail> details) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("version", explanation.getVersion());
+        response.put("violationCount", details.size());
+        response.put("violations", details);
+        response.put("lastUpdated", explanation.getBuiltAt());
+        return response;
+    }
+    
+    private Response versionNotFound(String version) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", version == null || version.isBlank()
+                ? "尚无可用的约束解释，请先完成一次排班"
+                : "排班版本 " + version + " 的约束解释不存在或已失效");
+        return Response.status(Response.Status.NOT_FOUND).entity(response).build();
+    }
+    
     /**
      * 验证前端排班分配
      */
@@ -290,8 +396,10 @@ public class ConstraintViolationSyncResource {
             frontendStats.merge(v.constraintId, 1, Integer::sum)
         );
         
-        // 后端统计
-        Map<String, Integer> backendStats = latestViolationSummary.violationsByConstraint;
+        // 后端统计（优先使用最新解释缓存）
+        ScoreExplanationCache.Explanation explanation = explanationCache.latest();
+        ConstraintViolationSummary backend = explanation != null ? explanation.getSummary() : latestViolationSummary;
+        Map<String, Integer> backendStats = backend.violationsByConstraint;
         
         // 差异分析
         Map<String, Object> differences = new HashMap<>();
@@ -313,7 +421,7 @@ public class ConstraintViolationSyncResource {
         }
         
         comparison.put("frontendViolations", frontendViolations);
-        comparison.put("backendViolations", latestViolationSummary.violations);
+        comparison.put("backendViolations", backend.violations);
         comparison.put("frontendStats", frontendStats);
         comparison.put("backendStats", backendStats);
         comparison.put("differences", differences);
@@ -6,7 +6,6 @@ import com.examiner.scheduler.config.OptimizedSolverConfig;
 import com.examiner.scheduler.config.AdaptiveSolverConfig;
 import com.examiner.scheduler.config.EnhancedSolverConfig;
 import com.examiner.scheduler.websocket.ScheduleProgressWebSocket;
-import com.examiner.scheduler.util.AssignmentMapper;
 import com.examiner.scheduler.solver.OptimizedExamScheduleConstraintProvider;
 import com.examiner.scheduler.diagnosis.ConstraintViolationDiagnostics;
 import org.optaplanner.core.api.solver.Solver;
@@ -21,7 +20,11 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Uni;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.logging.Logger;
@@ -64,13 +67,166 @@ public class ExamScheduleResource {
     @Inject
     private com.examiner.scheduler.config.FastSolverConfig fastSolverConfig;
     
+    @Inject
+    private com.examiner.scheduler.service.FeasibilityPrecheckService feasibilityPrecheckService;
+    
+    @Inject
+    private com.examiner.scheduler.service.ScoreExplanationCache scoreExplanationCache;
+    
+    @Inject
+    private com.examiner.scheduler.service.AsyncSolverService asyncSolverService;
+    
+    @Inject
+    private com.examiner.scheduler.service.SolveResultCache solveResultCache;
+    
+    @Inject
+    private com.examiner.scheduler.service.WarmStartService warmStartService;
+    
+    @Inject
+    private com.examiner.scheduler.service.RealTimePlanningService realTimePlanningService;
+    
+    @Inject
+    private com.examiner.scheduler.service.WhatIfSessionService whatIfSessionService;
+    
+    @Inject
+    private com.examiner.scheduler.service.LocalRescheduleService localRescheduleService;
+    
+    @Inject
+    private com.examiner.scheduler.service.SolveCheckpointService solveCheckpointService;
+    
+    @Inject
+    private com.examiner.scheduler.service.SolveLivenessService solveLivenessService;
+    
+    @Inject
+    private com.examiner.scheduler.service.SolveArchiveService solveArchiveService;
+    
+    @Inject
+    private com.examiner.scheduler.service.SolveAdmissionService solveAdmissionService;
+    
+    @Inject
+    private com.examiner.scheduler.optimizer.LowEndSolverConfig lowEndSolverConfig;
+    
+    @Inject
+    private com.examiner.scheduler.service.TerminationPredictorService terminationPredictorService;
+    
     /**
-     * 同步排班计算
+     * 🆕 v8.1: 非阻塞排班计算
+     * 求解在求解作业线程池上执行，返回 Uni，求解期间不占用HTTP工作线程（快照列表、节假日检查等请求不再被饿死）
+     * 响应内容与 /solve-blocking 完全一致
      */
     @POST
     @Path("/solve")
+    public Uni<Response> solveSchedule(ScheduleRequest request, @HeaderParam("X-Session-Id") String clientSessionId,
+                                       @HeaderParam("Cache-Control") String cacheControl) {
+        // 🆕 v8.1: 相同输入直接返回缓存结果 / 加入正在进行的求解（Cache-Control: no-cache 跳过结果缓存）
+        // 指纹要序列化全部学员和考官，缓存查询可能读库，都放到工作线程上，不占用事件循环
+        boolean bypassCache = cacheControl != null && cacheControl.contains("no-cache");
+        return Uni.createFrom().item(() -> solveResultCache.fingerprint(request))
+                .runSubscriptionOn(io.smallrye.mutiny.infrastructure.Infrastructure.getDefaultWorkerPool())
+                .flatMap(fingerprint -> solveOrJoin(request, clientSessionId, fingerprint, bypassCache));
+    }
+    
+    /**
+     * 🆕 v8.1: 在工作线程上执行：缓存命中直接返回，相同输入的在途求解直接加入，否则提交求解作业
+     */
+    private Uni<Response> solveOrJoin(ScheduleRequest request, String clientSessionId,
+                                      String fingerprint, boolean bypassCache) {
+        if (fingerprint == null) {
+            return asyncSolverService.submitRequestJob("solve", () -> solveScheduleBlocking(request, clientSessionId))
+                    .onFailure(RejectedExecutionException.class).recoverWithItem(ExamScheduleResource::solverBusyResponse);
+        }
+        if (!bypassCache) {
+            com.examiner.scheduler.service.SolveResultCache.CachedResult cached = solveResultCache.lookup(fingerprint);
+            if (cached != null) {
+                return Uni.createFrom().item(cached.toResponse("HIT", fingerprint));
+            }
+        }
+        // 发起者的会话ID在登记在途求解之前确定：加入者据此订阅进度并保活，不能是空串
+        String sessionId = (clientSessionId != null && !clientSessionId.isBlank())
+                ? clientSessionId
+                : java.util.UUID.randomUUID().toString();
+        com.examiner.scheduler.service.SolveResultCache.InFlight existing =
+                solveResultCache.joinOrBegin(fingerprint, sessionId);
+        if (existing != null) {
+            // 加入者的进度推送在发起者的会话上，通过 X-Solve-Session 告知前端
+            // 有人在等待结果，发起者断开后也不能提前终止
+            solveLivenessService.retain(existing.sessionId);
+            return Uni.createFrom().completionStage(existing.future)
+                    .map(result -> Response.fromResponse(result.toResponse("JOINED", fingerprint))
+                            .header("X-Solve-Session", existing.sessionId)
+                            .build());
+        }
+        return asyncSolverService.submitRequestJob("solve",
+                        () -> solveWithResultCache(request, sessionId, fingerprint))
+                .onFailure().invoke(e -> {
+                    solveResultCache.fail(fingerprint, e);
+                    // 求解未开始（排队被拒）时清理加入者提前登记的保活标记
+                    solveLivenessService.close(sessionId);
+                })
+                .onFailure(RejectedExecutionException.class).recoverWithItem(ExamScheduleResource::solverBusyResponse);
+    }
+    
+    /**
+     * 🆕 v8.1: 从检查点恢复被中断的求解
+     * jobId 即原 /solve 的会话ID；以检查点中的最优解热启动，只使用中断级别剩余的时间，进度继续推送到原会话
+     */
+    @POST
+    @Path("/solve/resume/{jobId}")
+    public Uni<Response> resumeSolve(@PathParam("jobId") String jobId) {
+        if (realTimePlanningService.isRunning(jobId)) {
+            return Uni.createFrom().item(Response.status(Response.Status.CONFLICT)
+                    .entity(java.util.Map.of("success", false, "message", "求解 " + jobId + " 仍在运行"))
+                    .build());
+        }
+        ScheduleRequest request;
+        try {
+            request = solveCheckpointService.prepareResume(jobId);
+        } catch (java.io.IOException e) {
+            LOGGER.warning("⚠️ [检查点] 读取检查点失败: " + e.getMessage());
+            request = null;
+        }
+        if (request == null) {
+            return Uni.createFrom().item(Response.status(Response.Status.NOT_FOUND)
+                    .entity(java.util.Map.of("success", false, "message", "求解 " + jobId + " 没有可用的检查点"))
+                    .build());
+        }
+        ScheduleRequest resumeRequest = request;
+        return asyncSolverService.submitRequestJob("solve-resume", () -> solveScheduleBlocking(resumeRequest, jobId))
+                .onFailure(RejectedExecutionException.class).recoverWithItem(ExamScheduleResource::solverBusyResponse);
+    }
+    
+    /**
+     * 🆕 v8.1: 在求解作业线程上执行：求解并写入缓存，最后唤醒加入的请求
+     */
+    private Response solveWithResultCache(ScheduleRequest request, String clientSessionId,
+                                          String fingerprint) {
+        try {
+            Response response = solveScheduleBlocking(request, clientSessionId);
+            com.examiner.scheduler.service.SolveResultCache.CachedResult result = solveResultCache.toCachedResult(response);
+            if (result.isCacheable()) {
+                try {
+                    solveResultCache.store(fingerprint, request, result);
+                } catch (Exception e) {
+                    LOGGER.warning("⚠️ [求解缓存] 保存求解结果失败: " + e.getMessage());
+                }
+            }
+            solveResultCache.complete(fingerprint, result);
+            return result.toResponse("MISS", fingerprint);
+        } catch (Exception e) {
+            solveResultCache.fail(fingerprint, e);
+            throw new RuntimeException(e);
+        }
+    }
+    
+    /**
+     * 同步排班计算
+     * 🆕 v8.1: 保留为兼容入口（/solve-blocking），在HTTP工作线程上阻塞直到求解结束
+     */
+    @POST
+    @Path("/solve-blocking")
+    @Blocking
     @SuppressWarnings({"deprecation", "removal"})  // 使用OptaPlanner已废弃API进行得分验证
-    public Response solveSchedule(ScheduleRequest request, @HeaderParam("X-Session-Id") String clientSessionId) {
+    public Response solveScheduleBlocking(ScheduleRequest request, @HeaderParam("X-Session-Id") String clientSessionId) {
         try {
             System.err.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
             System.err.println("🔴 [REST入口] solveSchedule被调用!");
@@ -162,6 +318,37 @@ public class ExamScheduleResource {
                 }
             }
             
+            // 配置求解器
+            SolverConfig solverConfig;
+            String solvingMode = request.getSolverConfig() != null ? 
+                request.getSolverConfig().getSolvingMode() : "adaptive";  // 🚀 默认使用自适应模式
+            // 调用方未指定具体模式时，准入降级可以改为低配置模式；指定了模式时只缩短该模式的时间预算
+            boolean modeChosenByCaller = !"adaptive".equals(solvingMode);
+            
+            // 🆕 为所有模式统一生成并启用 WebSocket 会话
+            String sessionId = (clientSessionId != null && !clientSessionId.isBlank())
+                    ? clientSessionId
+                    : java.util.UUID.randomUUID().toString();
+            
+            // 🆕 v8.1: 内存准入控制——在构建问题实例之前估算峰值堆内存，放不下时降级、排队或拒绝
+            boolean warmStartRequested = request.getWarmStart() != null && !request.getWarmStart().isEmpty();
+            com.examiner.scheduler.service.SolveAdmissionService.Decision admission = solveAdmissionService.admit(
+                sessionId,
+                request.getStudents().size(),
+                request.getTeachers().size(),
+                estimateExamDateCount(request),
+                "fast".equals(solvingMode) || (warmStartRequested && !modeChosenByCaller)
+                    ? com.examiner.scheduler.service.SolveAdmissionService.Level.STANDARD
+                    : com.examiner.scheduler.service.SolveAdmissionService.Level.PRECISE);
+            if (!admission.admitted()) {
+                return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                        .header("Retry-After", String.valueOf(admission.retryAfterSeconds()))
+                        .entity("{\"success\":false,\"message\":\"服务器内存不足，请在" + admission.retryAfterSeconds() + "秒后重试\"}")
+                        .build();
+            }
+            
+            try {
+            
             // 创建问题实例
             ExamSchedule problem = examScheduleService.createProblemInstance(
                 request.getStudents(), 
@@ -172,22 +359,31 @@ public class ExamScheduleResource {
                 request.getConstraints()
             );
             
-            // 配置求解器
-            SolverConfig solverConfig;
-            String solvingMode = request.getSolverConfig() != null ? 
-                request.getSolverConfig().getSolvingMode() : "adaptive";  // 🚀 默认使用自适应模式
+            // 🆕 v8.1: 热启动——用历史排班/快照中仍然有效的考官分配覆盖启发式初始解
+            com.examiner.scheduler.service.WarmStartService.WarmStartResult warmStartResult = null;
+            if (request.getWarmStart() != null && !request.getWarmStart().isEmpty()) {
+                warmStartResult = warmStartService.apply(problem, request.getWarmStart());
+                LOGGER.info("🔥 " + warmStartResult.summary());
+            }
+            boolean warmStarted = warmStartResult != null && warmStartResult.applied();
+            
+            // 🆕 v8.1: 求解前可行性预检（二分图匹配），毫秒级证明硬约束不可满足
+            com.examiner.scheduler.service.FeasibilityPrecheckService.FeasibilityReport feasibilityReport =
+                feasibilityPrecheckService.checkAndNotify(problem);
             
-            // 🆕 为所有模式统一生成并启用 WebSocket 会话
-            String sessionId = (clientSessionId != null && !clientSessionId.isBlank())
-                    ? clientSessionId
-                    : java.util.UUID.randomUUID().toString();
             LOGGER.info("📡 [WebSocket] 使用会话ID: " + sessionId + " (mode=" + solvingMode + ")");
             
             // 启用日志推送至前端（非仅 adaptive 模式）
             com.examiner.scheduler.util.WebSocketLogger.enable(sessionId);
             com.examiner.scheduler.websocket.WebSocketLogPusher.setSessionId(sessionId);
             com.examiner.scheduler.util.WebSocketLogger.info("System initializing...");
-            com.examiner.scheduler.websocket.ScheduleProgressWebSocket.sendHeartbeat(sessionId);
+            // 🆕 v8.1: 登记为实时规划作业，求解期间可通过 /api/schedule/jobs/{sessionId} 提交名单变化
+            realTimePlanningService.open(sessionId);
+            // 🆕 v8.1: 求解期间定期写检查点，异常中断后可通过 /solve/resume/{sessionId} 继续
+            solveCheckpointService.open(sessionId, request);
+            // 🆕 v8.1: 订阅者全部断开超过宽限期后提前终止求解
+            solveLivenessService.open(sessionId);
+            boolean solveCompleted = false;
 
             try {
             
@@ -196,6 +392,30 @@ public class ExamScheduleResource {
             System.err.println("🔴 [求解模式] request.getSolverConfig() = " + request.getSolverConfig());
             System.err.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
                 
+            // 🆕 v8.1: 热启动的初始解已接近最优，自适应模式改为单阶段LocalSearch，不再逐级升级或分区
+            // 分级配置没有构造启发式阶段，只有所有槽位都已赋值时才切换
+            if (warmStarted && warmStartResult.fullyInitialized() && "adaptive".equals(solvingMode)) {
+                solvingMode = "warm";
+            }
+                
+            // 🆕 v8.1: 超大规模学员直接走分区求解，跳过闪电/标准/精细逐级升级
+            if ("adaptive".equals(solvingMode)
+                    && adaptiveSolverConfig.shouldUsePartitionedSearch(request.getStudents().size())) {
+                LOGGER.info("🧩 [分区求解] 学员数量 " + request.getStudents().size() + " 超过阈值 "
+                        + AdaptiveSolverConfig.PARTITIONED_SEARCH_THRESHOLD + "，切换为分区求解模式");
+                solvingMode = "partitioned";
+            }
+            
+            // 🆕 v8.1: 准入降级——分级求解限制最高级别；调用方指定的模式保持不变，构建配置后按比例缩短时间预算
+            String maxAdaptiveLevel = "precise";
+            if (admission.downgraded() && !modeChosenByCaller) {
+                if (admission.level() == com.examiner.scheduler.service.SolveAdmissionService.Level.LOW_END) {
+                    solvingMode = "lowend";
+                } else if ("adaptive".equals(solvingMode)) {
+                    maxAdaptiveLevel = admission.level().label;
+                }
+            }
+                
             // 🚀 新增：自适应分级求解模式
             if ("adaptive".equals(solvingMode)) {
                 System.err.println("✅ 进入adaptive分支！");
@@ -206,14 +426,41 @@ public class ExamScheduleResource {
                     problem, 
                     request.getStudents().size(),
                     request.getConstraints(),
-                    sessionId  // 传递sessionId用于WebSocket推送
+                    sessionId,  // 传递sessionId用于WebSocket推送
+                    !feasibilityReport.feasible(),
+                    maxAdaptiveLevel
                 );
+                adaptiveResponse.getWarnings().addAll(feasibilityReport.toWarnings());
+                if (admission.downgraded()) {
+                    adaptiveResponse.getWarnings().add(admission.warning());
+                }
 
                 // 在响应中包含sessionId，供前端建立WebSocket连接
                 adaptiveResponse.setSessionId(sessionId);
                 
-                return Response.ok(adaptiveResponse).build();
+                solveCompleted = true;
+                return markAbandoned(Response.ok(adaptiveResponse), sessionId).build();
                 
+            } else if ("warm".equals(solvingMode)) {
+                // 🔥 热启动：直接从恢复的初始解做LocalSearch
+                // 从检查点恢复时只使用中断级别剩余的时间
+                String checkpointId = request.getWarmStart().getCheckpointId();
+                solverConfig = adaptiveSolverConfig.createWarmStartConfig(request.getStudents().size(),
+                    checkpointId != null ? solveCheckpointService.remainingSeconds(checkpointId) : null);
+                problem.setConstraintConfiguration(request.getConstraints());
+                com.examiner.scheduler.util.WebSocketLogger.info("Starting warm-start solver from " + warmStartResult.source() + "...");
+            } else if ("lowend".equals(solvingMode)) {
+                // 🧠 内存准入降级：低配置模式（FIRST_FIT + 受限的本地搜索）
+                LOGGER.warning("🧠 [准入控制] 内存不足，使用低配置求解器");
+                solverConfig = lowEndSolverConfig.createLowEndSolverConfig(request.getStudents().size());
+                problem.setConstraintConfiguration(request.getConstraints());
+                com.examiner.scheduler.util.WebSocketLogger.warning("Low memory, starting low-end mode solver...");
+            } else if ("partitioned".equals(solvingMode)) {
+                // 🧩 分区求解：按日期窗口（或请求指定的科室簇）切分并行求解，再全局打磨
+                solverConfig = adaptiveSolverConfig.createPartitionedConfig(request.getStudents().size(),
+                    request.getSolverConfig() != null ? request.getSolverConfig().getPartitionStrategy() : null);
+                problem.setConstraintConfiguration(request.getConstraints());
+                com.examiner.scheduler.util.WebSocketLogger.info("Starting partitioned mode solver...");
             } else if ("fast".equals(solvingMode)) {
                 // ⚡ 使用快速配置 - 大幅提升速度（推荐）
                 LOGGER.info("⚡ [快速模式] 使用FastSolverConfig，根据学员数量自适应");
@@ -256,76 +503,47 @@ public class ExamScheduleResource {
                 com.examiner.scheduler.util.WebSocketLogger.info("Starting default mode solver...");
             }
             
-            // 🔧 [内存泄漏修复] 创建求解器并求解（使用try-finally确保资源释放）
-            SolverFactory<ExamSchedule> solverFactory = null;
-            Solver<ExamSchedule> solver = null;
-            ExamSchedule solution = null;
-            org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore initialScore = null;
-            long startTime = System.currentTimeMillis();
+            // 🆕 v8.1: 热启动后所有排班都已有考官，构造启发式无事可做，直接进入LocalSearch
+            if (warmStarted && warmStartResult.fullyInitialized()) {
+                skipConstructionHeuristic(solverConfig);
+            }
             
-            try {
-                // 记录排班开始前的内存使用
-                logMemoryUsage("排班开始前");
-                
-                solverFactory = SolverFactory.create(solverConfig);
-                solver = solverFactory.buildSolver();
-                
-                // 在求解前设置约束配置到约束提供者 - 临时注释解决编译问题
-                // if (request.getConstraints() != null) {
-                //     OptimizedExamScheduleConstraintProvider.setConstraintConfiguration(request.getConstraints());
-                //     LOGGER.info("已设置动态约束配置到约束提供者");
-                // }
-                
-                // 🔍 计算初始解得分 (使用已废弃API但功能仍正常)
-                org.optaplanner.core.api.score.ScoreManager<ExamSchedule, org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore> scoreManager = 
-                    org.optaplanner.core.api.score.ScoreManager.create(solverFactory);
-                initialScore = scoreManager.updateScore(problem);
-                LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-                LOGGER.info("🔍 [初始解] 得分: " + initialScore);
-                LOGGER.info("   硬约束: " + initialScore.hardScore());
-                LOGGER.info("   软约束: " + initialScore.softScore());
-                LOGGER.info("   是否可行: " + initialScore.isFeasible());
-                LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-                
-                LOGGER.info("🚀 [智能算法] 开始OptaPlanner智能求解: 学员=" + request.getStudents().size() + 
-                           ", 考官=" + request.getTeachers().size() + ", 模式=" + solvingMode);
-                
-                // 标记约束执行开始（如果约束提供者已创建） - 临时注释解决编译问题
-                // try {
-                //     OptimizedExamScheduleConstraintProvider constraintProvider = new OptimizedExamScheduleConstraintProvider();
-                //     constraintProvider.markConstraintExecutionStart();
-                // } catch (Exception e) {
-                //     LOGGER.warning("无法标记约束执行开始: " + e.getMessage());
-                // }
-                
-                // 🎯 智能求解：使用智能终止条件
-                LOGGER.info("⚡ [智能优化] 启用智能终止条件，将根据解的质量和收敛情况自动终止");
-                solution = solver.solve(problem);
-                
-                // 记录排班完成后的内存使用
-                logMemoryUsage("排班完成后");
-                
-            } finally {
-                // 🔧 [内存泄漏修复] 强制释放Solver资源
-                if (solver != null) {
-                    try {
-                        solver.terminateEarly();
-                        LOGGER.info("✅ [资源释放] Solver已终止并释放资源");
-                    } catch (Exception e) {
-                        LOGGER.warning("⚠️ [资源释放] 终止Solver时出错: " + e.getMessage());
-                    }
-                }
-                
-                // 显式清空引用，帮助GC
-                solver = null;
-                
-                // 记录资源释放后的内存
-                logMemoryUsage("资源释放后");
+            // 🆕 v8.1: 内存不足时按降级比例缩短时间预算（低配置模式本身已是最低配置）
+            if (admission.downgraded() && !"lowend".equals(solvingMode)) {
+                scaleTimeBudget(solverConfig, admission.budgetRatio());
             }
             
+            // 🆕 v8.1: 已证明无解时不再等满spentLimit，收敛停滞即结束
+            if (!feasibilityReport.feasible()) {
+                capUnimprovedTermination(solverConfig);
+                com.examiner.scheduler.util.WebSocketLogger.warning("Feasibility pre-check failed, solving for best effort only");
+            }
+            
+            // 🆕 v8.1: 与分级求解共用同一套求解器生命周期（终止预测、实时进度与增量中间结果、实时规划、检查点、资源释放）
+            long startTime = System.currentTimeMillis();
+            
+            LOGGER.info("🚀 [智能算法] 开始OptaPlanner智能求解: 学员=" + request.getStudents().size() + 
+                       ", 考官=" + request.getTeachers().size() + ", 模式=" + solvingMode);
+            // 未指定模式时按"default"记录终止预测历史
+            String level = solvingMode != null ? solvingMode : "default";
+            LevelSolveResult levelResult = solveLevel(sessionId, problem, solverConfig, level,
+                3, "partitioned".equals(level) ? "分区模式" : level, 0, 95, null);
+            ExamSchedule solution = levelResult.solution();
+            SolverFactory<ExamSchedule> solverFactory = levelResult.solverFactory();
+            
             // 记录求解结束
             long endTime = System.currentTimeMillis();
             long duration = endTime - startTime;
+            logMemoryUsage("资源释放后");
+            
+            // 🔍 初始解得分（求解在规划克隆上进行，problem 仍是初始解）
+            HardSoftScore initialScore = ScoreManager.create(solverFactory).updateScore(problem);
+            LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+            LOGGER.info("🔍 [初始解] 得分: " + initialScore);
+            LOGGER.info("   硬约束: " + initialScore.hardScore());
+            LOGGER.info("   软约束: " + initialScore.softScore());
+            LOGGER.info("   是否可行: " + initialScore.isFeasible());
+            LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
             
             // 🔧 关键修复：强制重新计算得分，确保增量计算没有遗漏violations
             LOGGER.info("🔍 [得分验证] 开始重新计算最终得分...");
@@ -362,6 +580,11 @@ public class ExamScheduleResource {
             // 构建响应
             ScheduleResponse response = examScheduleService.buildScheduleResponse(solution);
             
+            // 🆕 v8.1: 以会话ID为版本构建约束解释索引，供 /api/constraints/violations 直接查询
+            // buildScheduleResponse 会就地修复考官分配，必须在修复之后记录，与返回给前端的排班一致
+            scoreExplanationCache.record(sessionId, solution);
+            whatIfSessionService.remember(sessionId, solution);
+            
             LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
             LOGGER.info("✅ [最终解] 得分: " + solution.getScore());
             LOGGER.info("   硬约束: " + (solution.getScore() != null ? solution.getScore().hardScore() : "N/A"));
@@ -396,12 +619,34 @@ public class ExamScheduleResource {
 
             // 在响应中包含sessionId，供前端建立WebSocket连接
             response.setSessionId(sessionId);
-            return Response.ok(response).build();
+            response.getWarnings().addAll(feasibilityReport.toWarnings());
+            if (admission.downgraded()) {
+                response.getWarnings().add(admission.warning());
+            }
+            if (warmStartResult != null) {
+                if (warmStarted) {
+                    response.getWarnings().add(warmStartResult.summary());
+                }
+                response.getWarnings().addAll(warmStartResult.warnings());
+            }
+            solveCompleted = true;
+            return markAbandoned(Response.ok(response), sessionId).build();
 
             } finally {
                 // 确保所有模式都释放WebSocket会话上下文，避免串话/泄露
                 com.examiner.scheduler.util.WebSocketLogger.disable();
                 com.examiner.scheduler.websocket.WebSocketLogPusher.clearSessionId();
+                realTimePlanningService.close(sessionId);
+                boolean abandoned = solveLivenessService.close(sessionId);
+                solveCheckpointService.close(sessionId, solveCompleted && !abandoned);
+                // 🆕 v8.1: 正常完成的问题匿名化归档，供离线超参数调优使用
+                if (solveCompleted && !abandoned) {
+                    solveArchiveService.archive(sessionId, request);
+                }
+            }
+            
+            } finally {
+                solveAdmissionService.release(sessionId);
             }
             
         } catch (Exception e) {
@@ -524,6 +769,27 @@ public class ExamScheduleResource {
         }
     }
     
+    /**
+     * 🆕 v8.1: 客户端断开后被提前终止的结果加上 X-Solve-Abandoned 标记，不写入求解结果缓存
+     */
+    private Response.ResponseBuilder markAbandoned(Response.ResponseBuilder builder, String sessionId) {
+        if (solveLivenessService.isAbandoned(sessionId)) {
+            builder.header(com.examiner.scheduler.service.SolveResultCache.ABANDONED_HEADER, "true");
+        }
+        return builder;
+    }
+    
+    /**
+     * 🆕 v8.1: 求解作业线程池和队列都已满
+     */
+    private static Response solverBusyResponse(Throwable e) {
+        LOGGER.warning("⚠️ 求解作业已满，拒绝新请求: " + e.getMessage());
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "30")
+                .entity("{\"success\":false,\"message\":\"当前排班任务较多，请稍后重试\"}")
+                .build();
+    }
+    
     /**
      * 健康检查端点
      */
@@ -626,7 +892,9 @@ public class ExamScheduleResource {
             ExamSchedule problem, 
             int studentCount,
             OptimizedConstraintConfiguration constraints,
-            String sessionId) {
+            String sessionId,
+            boolean provenInfeasible,
+            String maxLevel) {
         
         long overallStartTime = System.currentTimeMillis();
         ExamSchedule bestSolution = null;
@@ -685,50 +953,15 @@ public class ExamScheduleResource {
             }
             System.err.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
             
-            // 🔧 发送心跳保持WebSocket连接活跃
-            ScheduleProgressWebSocket.sendHeartbeat(sessionId);
-            
-            // 🔧 [内存泄漏修复] Flash Solver使用try-finally确保资源释放
             com.examiner.scheduler.util.WebSocketLogger.info("Building solver configuration...");
             SolverConfig flashConfig = adaptiveSolverConfig.createFlashConfig();
-            SolverFactory<ExamSchedule> flashFactory = SolverFactory.create(flashConfig);
-            Solver<ExamSchedule> flashSolver = null;
-            ExamSchedule flashSolution = null;
-            
-            try {
-                logMemoryUsage("Flash求解开始前");
-                flashSolver = flashFactory.buildSolver();
-                
-                // 🎯 添加实时进度监听器 - Level 1: 0%-30%
-                // 🔧 v5.5.3: 预估时长从5秒增加到15秒
-                com.examiner.scheduler.solver.RealTimeProgressListener<ExamSchedule> flashProgressListener = 
-                    new com.examiner.scheduler.solver.RealTimeProgressListener<>(
-                        sessionId, 1, "闪电模式", 0, 30, 15000L  // 🔧 v5.5.3: 预估15秒
-                    );
-                flashSolver.addEventListener(flashProgressListener);
-                
-                com.examiner.scheduler.util.WebSocketLogger.info("Solver created, starting computation...");
-                com.examiner.scheduler.util.WebSocketLogger.info("Analyzing " + (problem.getExamAssignments() != null ? problem.getExamAssignments().size() : 0) + " assignment tasks...");
-                flashSolution = flashSolver.solve(problem);
-                
-                // 🎯 求解完成，推送最终进度
-                flashProgressListener.pushFinalProgress();
-                LOGGER.info("📊 [Level 1] " + flashProgressListener.getStatistics());
-                com.examiner.scheduler.util.WebSocketLogger.success("Flash mode computation completed");
-                
-                logMemoryUsage("Flash求解完成后");
-            } finally {
-                if (flashSolver != null) {
-                    try {
-                        flashSolver.terminateEarly();
-                        LOGGER.info("✅ [资源释放] Flash Solver已终止");
-                    } catch (Exception e) {
-                        LOGGER.warning("⚠️ [资源释放] 终止Flash Solver时出错: " + e.getMessage());
-                    }
-                }
-                flashSolver = null;
-                flashFactory = null;
-            }
+            // 🆕 v8.1: 问题规模与本级别一致时使用离线调优的LocalSearch参数
+            adaptiveSolverConfig.applyTunedProfile(flashConfig, "flash", studentCount);
+            com.examiner.scheduler.util.WebSocketLogger.info("Analyzing " + (problem.getExamAssignments() != null ? problem.getExamAssignments().size() : 0) + " assignment tasks...");
+            // 🎯 Level 1: 0%-30%（🔧 v5.5.3: 预估15秒）
+            ExamSchedule flashSolution = solveLevel(sessionId, problem, flashConfig, "flash",
+                1, "闪电模式", 0, 30, 15000L).solution();
+            com.examiner.scheduler.util.WebSocketLogger.success("Flash mode computation completed");
             
             // 🔍 DEBUG: 检查solve()之后的结果
             System.err.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
@@ -755,16 +988,16 @@ public class ExamScheduleResource {
             LOGGER.info("📡 [Level 1] 准备发送中间结果，包含 " + flashAssignmentCount + " 个排班分配");
             com.examiner.scheduler.util.WebSocketLogger.info("Sending intermediate result: " + flashAssignmentCount + " assignments");
             
-            // 🔧 修复：转换为DTO避免序列化问题
+            // 🆕 v8.1: 增量编码发送（首帧全量基线，之后只发送考官变化的排班）
             ScheduleProgressWebSocket.sendIntermediateResult(sessionId,
                 new ScheduleProgressWebSocket.IntermediateResult(
                     flashScore.toString(),
                     flashAssignmentCount,
                     0.7,  // 闪电模式置信度70%
                     assessSolutionQuality(flashScore),
-                    flashTime,
-                    AssignmentMapper.toDTOList(flashSolution.getExamAssignments())  // 🔧 使用DTO避免循环引用
-                )
+                    flashTime
+                ),
+                flashSolution.getExamAssignments()
             );
             
             LOGGER.info("✅ [Level 1] 已发送闪电模式中间结果到前端 (sessionId: " + sessionId + ")");
@@ -778,6 +1011,28 @@ public class ExamScheduleResource {
                 flashScore.softScore()
             );
             
+            // 🆕 v8.1: 预检已证明硬约束不可满足时，升级只会空耗CPU，直接返回闪电模式结果
+            if (provenInfeasible) {
+                LOGGER.warning("🚫 [Level 1] 可行性预检已证明无解，跳过标准/精细模式升级");
+                com.examiner.scheduler.util.WebSocketLogger.warning("Problem proven infeasible by pre-check, skipping upgrades");
+                ScheduleResponse response = buildAdaptiveResponse(bestSolution, finalLevel, flashTime, overallStartTime, sessionId);
+                pushPostProcessingProgress(sessionId, 30, 100, "排班完成");
+                return response;
+            }
+            
+            if (solveLivenessService.isAbandoned(sessionId)) {
+                LOGGER.warning("🔌 [Level 1] 客户端已断开，跳过标准/精细模式升级");
+                return buildAdaptiveResponse(bestSolution, finalLevel, flashTime, overallStartTime, sessionId);
+            }
+            
+            // 🆕 v8.1: 内存准入控制限制了最高级别
+            if ("flash".equals(maxLevel)) {
+                LOGGER.warning("🧠 [Level 1] 内存准入限制为闪电模式，跳过标准/精细模式升级");
+                ScheduleResponse response = buildAdaptiveResponse(bestSolution, finalLevel, flashTime, overallStartTime, sessionId);
+                pushPostProcessingProgress(sessionId, 30, 100, "排班完成");
+                return response;
+            }
+            
             if (!adaptiveSolverConfig.shouldUpgrade(flashScoreLong, "flash")) {
                 LOGGER.info("🎉 [Level 1] 闪电模式结果优秀，无需升级");
                 com.examiner.scheduler.util.WebSocketLogger.success("Result is excellent, no upgrade needed");
@@ -810,54 +1065,17 @@ public class ExamScheduleResource {
             
             long standardStart = System.currentTimeMillis();
             
-            // 🔧 发送心跳保持WebSocket连接活跃
-            ScheduleProgressWebSocket.sendHeartbeat(sessionId);
-            
-            // 🔧 [内存泄漏修复] Standard Solver使用try-finally确保资源释放
             com.examiner.scheduler.util.WebSocketLogger.info("Reconfiguring solver for standard mode...");
             SolverConfig standardConfig = adaptiveSolverConfig.createStandardConfig();
-            SolverFactory<ExamSchedule> standardFactory = SolverFactory.create(standardConfig);
-            Solver<ExamSchedule> standardSolver = null;
-            ExamSchedule standardSolution = null;
-            HardSoftScore standardScore = null;
-            long standardTime = 0;
-            
-            try {
-                logMemoryUsage("Standard求解开始前");
-                standardSolver = standardFactory.buildSolver();
-                
-                // 🎯 添加实时进度监听器 - Level 2: 30%-60%
-                // 🔧 v5.5.3: 预估时长从15秒增加到120秒
-                com.examiner.scheduler.solver.RealTimeProgressListener<ExamSchedule> standardProgressListener = 
-                    new com.examiner.scheduler.solver.RealTimeProgressListener<>(
-                        sessionId, 2, "标准模式", 30, 60, 120000L  // 🔧 v5.5.3: 预估120秒
-                    );
-                standardSolver.addEventListener(standardProgressListener);
-                
-                com.examiner.scheduler.util.WebSocketLogger.info("Standard solver initialized");
-                com.examiner.scheduler.util.WebSocketLogger.info("Running deeper optimization algorithms...");
-                standardSolution = standardSolver.solve(problem);
-                standardTime = System.currentTimeMillis() - standardStart;
-                
-                // 🎯 求解完成，推送最终进度
-                standardProgressListener.pushFinalProgress();
-                LOGGER.info("📊 [Level 2] " + standardProgressListener.getStatistics());
-                com.examiner.scheduler.util.WebSocketLogger.success("Level 2 computation completed");
-                standardScore = standardSolution.getScore();
-                
-                logMemoryUsage("Standard求解完成后");
-            } finally {
-                if (standardSolver != null) {
-                    try {
-                        standardSolver.terminateEarly();
-                        LOGGER.info("✅ [资源释放] Standard Solver已终止");
-                    } catch (Exception e) {
-                        LOGGER.warning("⚠️ [资源释放] 终止Standard Solver时出错: " + e.getMessage());
-                    }
-                }
-                standardSolver = null;
-                standardFactory = null;
-            }
+            // 🆕 v8.1: 问题规模与本级别一致时使用离线调优的LocalSearch参数
+            adaptiveSolverConfig.applyTunedProfile(standardConfig, "standard", studentCount);
+            com.examiner.scheduler.util.WebSocketLogger.info("Running deeper optimization algorithms...");
+            // 🎯 Level 2: 30%-60%（🔧 v5.5.3: 预估120秒）
+            ExamSchedule standardSolution = solveLevel(sessionId, problem, standardConfig, "standard",
+                2, "标准模式", 30, 60, 120000L).solution();
+            long standardTime = System.currentTimeMillis() - standardStart;
+            com.examiner.scheduler.util.WebSocketLogger.success("Level 2 computation completed");
+            HardSoftScore standardScore = standardSolution.getScore();
             
             LOGGER.info("✅ [Level 2] 标准模式完成 - 耗时: " + standardTime + "ms, 分数: " + standardScore);
             
@@ -865,16 +1083,16 @@ public class ExamScheduleResource {
             int standardAssignmentCount = standardSolution.getExamAssignments() != null ? standardSolution.getExamAssignments().size() : 0;
             LOGGER.info("📡 [Level 2] 准备发送中间结果，包含 " + standardAssignmentCount + " 个排班分配");
             
-            // 🔧 修复：转换为DTO避免序列化问题
+            // 🆕 v8.1: 增量编码发送（首帧全量基线，之后只发送考官变化的排班）
             ScheduleProgressWebSocket.sendIntermediateResult(sessionId,
                 new ScheduleProgressWebSocket.IntermediateResult(
                     standardScore.toString(),
                     standardAssignmentCount,
                     0.85,  // 标准模式置信度85%
                     assessSolutionQuality(standardScore),
-                    flashTime + standardTime,
-                    AssignmentMapper.toDTOList(standardSolution.getExamAssignments())  // 🔧 使用DTO避免循环引用
-                )
+                    flashTime + standardTime
+                ),
+                standardSolution.getExamAssignments()
             );
             
             LOGGER.info("✅ [Level 2] 已发送标准模式中间结果到前端 (sessionId: " + sessionId + ")");
@@ -888,6 +1106,18 @@ public class ExamScheduleResource {
                 standardScore.softScore()
             );
             
+            if (solveLivenessService.isAbandoned(sessionId)) {
+                LOGGER.warning("🔌 [Level 2] 客户端已断开，跳过精细模式升级");
+                return buildAdaptiveResponse(bestSolution, finalLevel, flashTime + standardTime, overallStartTime, sessionId);
+            }
+            
+            if ("standard".equals(maxLevel)) {
+                LOGGER.warning("🧠 [Level 2] 内存准入限制为标准模式，跳过精细模式升级");
+                ScheduleResponse response = buildAdaptiveResponse(bestSolution, finalLevel, flashTime + standardTime, overallStartTime, sessionId);
+                pushPostProcessingProgress(sessionId, 60, 100, "排班完成");
+                return response;
+            }
+            
             if (!adaptiveSolverConfig.shouldUpgrade(standardScoreLong, "standard")) {
                 LOGGER.info("🎉 [Level 2] 标准模式结果优秀，无需升级");
                 long totalTime = flashTime + standardTime;
@@ -915,66 +1145,33 @@ public class ExamScheduleResource {
             
             // Level 3的实时进度将由监听器自动推送
             
-            // 🔧 [内存泄漏修复] Precise Solver使用try-finally确保资源释放
             long preciseStart = System.currentTimeMillis();
             
             SolverConfig preciseConfig = adaptiveSolverConfig.createPreciseConfig();
-            SolverFactory<ExamSchedule> preciseFactory = SolverFactory.create(preciseConfig);
-            Solver<ExamSchedule> preciseSolver = null;
-            ExamSchedule preciseSolution = null;
-            HardSoftScore preciseScore = null;
-            long preciseTime = 0;
+            // 🆕 v8.1: 问题规模与本级别一致时使用离线调优的LocalSearch参数
+            adaptiveSolverConfig.applyTunedProfile(preciseConfig, "precise", studentCount);
+            // 🎯 Level 3: 60%-95%（🔧 v5.5.3: 预估180秒）
+            ExamSchedule preciseSolution = solveLevel(sessionId, problem, preciseConfig, "precise",
+                3, "精细模式", 60, 95, 180000L).solution();
+            long preciseTime = System.currentTimeMillis() - preciseStart;
+            HardSoftScore preciseScore = preciseSolution.getScore();
             
-            try {
-                logMemoryUsage("Precise求解开始前");
-                preciseSolver = preciseFactory.buildSolver();
-                
-                // 🎯 添加实时进度监听器 - Level 3: 60%-95%
-                // 🔧 v5.5.3: 预估时长从40秒增加到180秒
-                com.examiner.scheduler.solver.RealTimeProgressListener<ExamSchedule> preciseProgressListener = 
-                    new com.examiner.scheduler.solver.RealTimeProgressListener<>(
-                        sessionId, 3, "精细模式", 60, 95, 180000L  // 🔧 v5.5.3: 预估180秒
-                    );
-                preciseSolver.addEventListener(preciseProgressListener);
-                
-                preciseSolution = preciseSolver.solve(problem);
-                preciseTime = System.currentTimeMillis() - preciseStart;
-                preciseScore = preciseSolution.getScore();
-                
-                // 🎯 求解完成，推送最终进度
-                preciseProgressListener.pushFinalProgress();
-                LOGGER.info("📊 [Level 3] " + preciseProgressListener.getStatistics());
-                
-                // 🔧 新增：后处理进度（95% → 100%）
-                pushPostProcessingProgress(sessionId, 95, 97, "转换结果数据");
-                
-                logMemoryUsage("Precise求解完成后");
-            } finally {
-                if (preciseSolver != null) {
-                    try {
-                        preciseSolver.terminateEarly();
-                        LOGGER.info("✅ [资源释放] Precise Solver已终止");
-                    } catch (Exception e) {
-                        LOGGER.warning("⚠️ [资源释放] 终止Precise Solver时出错: " + e.getMessage());
-                    }
-                }
-                preciseSolver = null;
-                preciseFactory = null;
-            }
+            // 🔧 新增：后处理进度（95% → 100%）
+            pushPostProcessingProgress(sessionId, 95, 97, "转换结果数据");
             
             LOGGER.info("✅ [Level 3] 精细模式完成 - 耗时: " + preciseTime + "ms, 分数: " + preciseScore);
             
             // 🆕 发送最终中间结果（包含实际排班数据）
-            // 🔧 修复：转换为DTO避免序列化问题
+            // 🆕 v8.1: 增量编码发送（首帧全量基线，之后只发送考官变化的排班）
             ScheduleProgressWebSocket.sendIntermediateResult(sessionId,
                 new ScheduleProgressWebSocket.IntermediateResult(
                     preciseScore.toString(),
                     preciseSolution.getExamAssignments() != null ? preciseSolution.getExamAssignments().size() : 0,
                     0.95,  // 精细模式置信度95%
                     assessSolutionQuality(preciseScore),
-                    flashTime + standardTime + preciseTime,
-                    AssignmentMapper.toDTOList(preciseSolution.getExamAssignments())  // 🔧 使用DTO避免循环引用
-                )
+                    flashTime + standardTime + preciseTime
+                ),
+                preciseSolution.getExamAssignments()
             );
             
             int preciseAssignmentCount = preciseSolution.getExamAssignments() != null ? preciseSolution.getExamAssignments().size() : 0;
@@ -1080,6 +1277,156 @@ public class ExamScheduleResource {
         }
     }
     
+    /**
+     * 🆕 v8.1: 单个求解级别的完整生命周期（分级求解的三个级别与非分级模式共用）
+     * 终止预测调参 → 构建求解器 → 挂接进度推送/实时规划/检查点/收敛跟踪 → 求解 → 记录运行历史 → 释放求解器
+     * @param level 级别标识（终止预测历史与检查点按此区分）
+     * @param estimatedMillis 进度预估时长；null 时取（终止预测调整后的）时间上限，没有上限按60秒
+     */
+    private LevelSolveResult solveLevel(String sessionId, ExamSchedule problem, SolverConfig config, String level,
+                                        int levelIndex, String levelName, int progressStart, int progressEnd,
+                                        Long estimatedMillis) {
+        // 按历史收敛曲线预测终止时间（必须在创建求解器工厂之前改写终止条件）
+        com.examiner.scheduler.service.TerminationPredictorService.Prediction prediction =
+            terminationPredictorService.tune(config, level, problem);
+        SolverFactory<ExamSchedule> solverFactory = SolverFactory.create(config);
+        Solver<ExamSchedule> solver = null;
+        com.examiner.scheduler.service.TerminationPredictorService.RunTracker run = null;
+        
+        try {
+            logMemoryUsage(levelName + "求解开始前");
+            solver = solverFactory.buildSolver();
+            
+            if (estimatedMillis == null) {
+                Long spentLimitMillis = config.getTerminationConfig() != null
+                    ? config.getTerminationConfig().calculateTimeMillisSpentLimit() : null;
+                estimatedMillis = spentLimitMillis != null ? spentLimitMillis : 60000L;
+            }
+            com.examiner.scheduler.solver.RealTimeProgressListener<ExamSchedule> progressListener =
+                new com.examiner.scheduler.solver.RealTimeProgressListener<>(
+                    sessionId, levelIndex, levelName, progressStart, progressEnd, estimatedMillis);
+            solver.addEventListener(progressListener);
+            realTimePlanningService.attach(sessionId, solver);
+            solveCheckpointService.attach(sessionId, solver, level, config);
+            run = terminationPredictorService.track(solver, level, problem, prediction);
+            
+            ExamSchedule solution = solver.solve(problem);
+            terminationPredictorService.record(run, !solveLivenessService.isAbandoned(sessionId));
+            
+            // 🎯 求解完成，推送最终进度
+            progressListener.pushFinalProgress();
+            LOGGER.info("📊 [" + levelName + "] " + progressListener.getStatistics());
+            logMemoryUsage(levelName + "求解完成后");
+            return new LevelSolveResult(solution, solverFactory);
+        } finally {
+            // 🔧 [内存泄漏修复] 强制释放Solver资源
+            terminationPredictorService.stop(run);
+            if (solver != null) {
+                realTimePlanningService.detach(sessionId, solver);
+                try {
+                    solver.terminateEarly();
+                    LOGGER.info("✅ [资源释放] " + levelName + " Solver已终止");
+                } catch (Exception e) {
+                    LOGGER.warning("⚠️ [资源释放] 终止" + levelName + " Solver时出错: " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * 单个级别的求解结果（求解器工厂供调用方复用打分，如初始解与最终得分校验）
+     */
+    private record LevelSolveResult(ExamSchedule solution, SolverFactory<ExamSchedule> solverFactory) {
+    }
+    
+    /**
+     * 🆕 v8.1: 可行性预检失败时收紧终止条件（无改进5秒即停止）
+     */
+    private void capUnimprovedTermination(SolverConfig solverConfig) {
+        org.optaplanner.core.config.solver.termination.TerminationConfig termination = solverConfig.getTerminationConfig();
+        if (termination == null) {
+            termination = new org.optaplanner.core.config.solver.termination.TerminationConfig();
+            solverConfig.setTerminationConfig(termination);
+        }
+        Long unimproved = termination.getUnimprovedSecondsSpentLimit();
+        if (unimproved == null || unimproved > 5L) {
+            termination.setUnimprovedSecondsSpentLimit(5L);
+        }
+        LOGGER.info("⏱️ [可行性预检] 已将无改进终止时间收紧为 " + termination.getUnimprovedSecondsSpentLimit() + " 秒");
+    }
+    
+    /**
+     * 🆕 v8.1: 准入前按请求估算考试日期数（问题实例尚未构建）
+     */
+    private static int estimateExamDateCount(ScheduleRequest request) {
+        if (request.getExamDates() != null && !request.getExamDates().isEmpty()) {
+            return request.getExamDates().size();
+        }
+        try {
+            return (int) java.time.temporal.ChronoUnit.DAYS.between(
+                java.time.LocalDate.parse(request.getStartDate()), java.time.LocalDate.parse(request.getEndDate())) + 1;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+    
+    /**
+     * 🆕 v8.1: 按比例缩短求解总时长和各阶段时长（准入降级时使用，保留调用方选择的求解模式）
+     */
+    private void scaleTimeBudget(SolverConfig solverConfig, double ratio) {
+        scaleTimeLimits(solverConfig.getTerminationConfig(), ratio);
+        if (solverConfig.getPhaseConfigList() != null) {
+            for (org.optaplanner.core.config.phase.PhaseConfig<?> phase : solverConfig.getPhaseConfigList()) {
+                scaleTimeLimits(phase.getTerminationConfig(), ratio);
+            }
+        }
+        LOGGER.warning("🧠 [准入控制] 内存不足，时间预算缩短为原来的 " + Math.round(ratio * 100) + "%");
+    }
+    
+    private static void scaleTimeLimits(org.optaplanner.core.config.solver.termination.TerminationConfig termination, double ratio) {
+        if (termination == null) {
+            return;
+        }
+        Long spent = termination.calculateTimeMillisSpentLimit();
+        Long unimproved = termination.calculateUnimprovedTimeMillisSpentLimit();
+        if (spent != null) {
+            termination.setSpentLimit(null);
+            termination.setDaysSpentLimit(null);
+            termination.setHoursSpentLimit(null);
+            termination.setMinutesSpentLimit(null);
+            termination.setSecondsSpentLimit(null);
+            termination.setMillisecondsSpentLimit(Math.max(1000L, (long) (spent * ratio)));
+        }
+        if (unimproved != null) {
+            termination.setUnimprovedSpentLimit(null);
+            termination.setUnimprovedDaysSpentLimit(null);
+            termination.setUnimprovedHoursSpentLimit(null);
+            termination.setUnimprovedMinutesSpentLimit(null);
+            termination.setUnimprovedSecondsSpentLimit(null);
+            termination.setUnimprovedMillisecondsSpentLimit(Math.max(1000L, (long) (unimproved * ratio)));
+        }
+    }
+    
+    /**
+     * 🆕 v8.1: 移除顶层的构造启发式阶段（热启动的初始解已完整，CH只会白白遍历一遍实体）
+     */
+    private void skipConstructionHeuristic(SolverConfig solverConfig) {
+        java.util.List<org.optaplanner.core.config.phase.PhaseConfig> phases = solverConfig.getPhaseConfigList();
+        if (phases == null) {
+            return;
+        }
+        java.util.List<org.optaplanner.core.config.phase.PhaseConfig> remaining = new java.util.ArrayList<>();
+        for (org.optaplanner.core.config.phase.PhaseConfig phase : phases) {
+            if (!(phase instanceof org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicPhaseConfig)) {
+                remaining.add(phase);
+            }
+        }
+        if (remaining.size() < phases.size() && !remaining.isEmpty()) {
+            solverConfig.setPhaseConfigList(remaining);
+            LOGGER.info("🔥 [热启动] 已跳过 " + (phases.size() - remaining.size()) + " 个ConstructionHeuristic阶段");
+        }
+    }
+    
     /**
      * 构建自适应求解响应
      * @param sessionId WebSocket会话ID
@@ -1093,6 +1440,10 @@ public class ExamScheduleResource {
         
         ScheduleResponse response = examScheduleService.buildScheduleResponse(solution);
         
+        // 🆕 v8.1: 以会话ID为版本构建约束解释索引，供 /api/constraints/violations 直接查询（在就地修复之后）
+        scoreExplanationCache.record(sessionId, solution);
+        whatIfSessionService.remember(sessionId, solution);
+        
         // 添加分级求解信息到统计数据
         ScheduleResponse.ScheduleStatistics stats = response.getStatistics();
         if (stats != null) {
@@ -1274,7 +1625,19 @@ public class ExamScheduleResource {
      */
     @Path("/partial-reschedule")
     @POST
-    public Response partialReschedule(PartialRescheduleRequest request) {
+    public CompletionStage<Response> partialReschedule(PartialRescheduleRequest request) {
+        return asyncSolverService.submitRequestJob("partial-reschedule", () -> partialRescheduleBlocking(request))
+                .onFailure(RejectedExecutionException.class).recoverWithItem(ExamScheduleResource::solverBusyResponse)
+                .subscribeAsCompletionStage();
+    }
+    
+    /**
+     * 🆕 v8.1: 局部重排的阻塞兼容入口
+     */
+    @Path("/partial-reschedule-blocking")
+    @POST
+    @Blocking
+    public Response partialRescheduleBlocking(PartialRescheduleRequest request) {
         String sessionId = java.util.UUID.randomUUID().toString();
         LOGGER.info("🔄 [局部重排] 开始处理请求，sessionId: " + sessionId);
         LOGGER.info("📊 [局部重排] 固定排班数量: " + 
@@ -1291,56 +1654,26 @@ public class ExamScheduleResource {
             // 2. 构建问题
             ExamSchedule problem = buildPartialRescheduleProblem(request, sessionId);
             
-            // 3. 使用优化的局部重排求解器配置
-            SolverConfig solverConfig;
-            
-            // 根据问题规模选择合适的配置
-            int unpinnedCount = (int) problem.getExamAssignments().stream()
-                .filter(a -> !a.isPinned())
-                .count();
-            
-            if (unpinnedCount <= 10) {
-                LOGGER.info("⚡ [局部重排] 使用快速配置（小规模问题，未固定排班数: " + unpinnedCount + "）");
-                solverConfig = com.examiner.scheduler.solver.PartialRescheduleSolverConfig.createFastConfig();
-            } else if (unpinnedCount <= 30) {
-                LOGGER.info("🔍 [局部重排] 使用标准配置（中等规模问题，未固定排班数: " + unpinnedCount + "）");
-                solverConfig = com.examiner.scheduler.solver.PartialRescheduleSolverConfig.createConfig();
-            } else {
-                LOGGER.info("🔥 [局部重排] 使用深度配置（大规模问题，未固定排班数: " + unpinnedCount + "）");
-                solverConfig = com.examiner.scheduler.solver.PartialRescheduleSolverConfig.createDeepConfig();
-            }
-            
-            // 4. 创建求解器
-            SolverFactory<ExamSchedule> solverFactory = SolverFactory.create(solverConfig);
-            Solver<ExamSchedule> solver = solverFactory.buildSolver();
-            
-            // 5. 添加进度监听器（WebSocket推送）
-            solver.addEventListener(event -> {
-                if (event.isEveryProblemChangeProcessed()) {
-                    pushPartialRescheduleProgress(sessionId, event);
+            // 3. 🆕 v8.1: 优先只求解受影响的邻域，邻域过大或写回校验不通过时回退完整求解
+            ExamSchedule solution = null;
+            if (!"full".equalsIgnoreCase(request.getMode())) {
+                com.examiner.scheduler.service.LocalRescheduleService.LocalRescheduleResult local =
+                    localRescheduleService.reschedule(problem, solver -> solver.addEventListener(event -> {
+                        if (event.isEveryProblemChangeProcessed()) {
+                            pushPartialRescheduleProgress(sessionId, event);
+                        }
+                    }));
+                if (local.accepted()) {
+                    solution = problem;
+                    LOGGER.info("🎯 [局部重排] 邻域求解完成，邻域=" + local.neighbourhoodSize() +
+                        "，耗时: " + local.elapsedMs() + "ms，分数: " + local.score());
+                } else {
+                    LOGGER.info("↩️ [局部重排] 邻域求解未采用（" + local.rejectReason() + "），回退完整求解");
                 }
-            });
-            
-            LOGGER.info("🚀 [局部重排] 开始求解...");
-            
-            // 🔍 求解前日志：打印固定排班的日期
-            LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-            LOGGER.info("🔍 [求解前] 检查固定排班的日期:");
-            problem.getExamAssignments().stream()
-                .filter(ExamAssignment::isPinned)
-                .forEach(a -> LOGGER.info("  📌 " + a.getStudentName() + 
-                    ": examDate=" + a.getExamDate() + 
-                    ", originalDate=" + a.getOriginalExamDate() +
-                    ", pinned=" + a.isPinned()));
-            LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-            
-            long startTime = System.currentTimeMillis();
-            
-            // 6. 求解
-            ExamSchedule solution = solver.solve(problem);
-            
-            long solveTime = System.currentTimeMillis() - startTime;
-            LOGGER.info("✅ [局部重排] 求解完成，耗时: " + (solveTime / 1000.0) + "秒，分数: " + solution.getScore());
+            }
+            if (solution == null) {
+                solution = solvePartialRescheduleFull(problem, sessionId);
+            }
             
             // 🔍 求解后日志：检查固定排班是否被改变
             LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
@@ -1388,10 +1721,16 @@ public class ExamScheduleResource {
             LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
             
             // 🔧 修改solution对象，只包含未固定的排班
+            java.util.List<ExamAssignment> allAssignments = solution.getExamAssignments();
             solution.setExamAssignments(unpinnedAssignments);
             
             // 8. 转换结果（只包含未固定的排班）
             ScheduleResponse response = examScheduleService.buildScheduleResponse(solution);
+            
+            // 🆕 v8.1: 局部重排产生新的排班版本，在就地修复之后用完整排班（含固定排班）构建约束解释
+            solution.setExamAssignments(allAssignments);
+            scoreExplanationCache.record(sessionId, solution);
+            solution.setExamAssignments(unpinnedAssignments);
             if (response.isSuccess()) {
                 response.setMessage("局部重排完成");
             }
@@ -1419,6 +1758,63 @@ public class ExamScheduleResource {
         }
     }
     
+    /**
+     * 局部重排：带全部固定排班完整求解（🆕 v8.1: 由 partialRescheduleBlocking 拆出，作为邻域求解的回退）
+     */
+    private ExamSchedule solvePartialRescheduleFull(ExamSchedule problem, String sessionId) {
+        // 3. 使用优化的局部重排求解器配置
+        SolverConfig solverConfig;
+        
+        // 根据问题规模选择合适的配置
+        int unpinnedCount = (int) problem.getExamAssignments().stream()
+            .filter(a -> !a.isPinned())
+            .count();
+        
+        if (unpinnedCount <= 10) {
+            LOGGER.info("⚡ [局部重排] 使用快速配置（小规模问题，未固定排班数: " + unpinnedCount + "）");
+            solverConfig = com.examiner.scheduler.solver.PartialRescheduleSolverConfig.createFastConfig();
+        } else if (unpinnedCount <= 30) {
+            LOGGER.info("🔍 [局部重排] 使用标准配置（中等规模问题，未固定排班数: " + unpinnedCount + "）");
+            solverConfig = com.examiner.scheduler.solver.PartialRescheduleSolverConfig.createConfig();
+        } else {
+            LOGGER.info("🔥 [局部重排] 使用深度配置（大规模问题，未固定排班数: " + unpinnedCount + "）");
+            solverConfig = com.examiner.scheduler.solver.PartialRescheduleSolverConfig.createDeepConfig();
+        }
+        
+        // 4. 创建求解器
+        SolverFactory<ExamSchedule> solverFactory = SolverFactory.create(solverConfig);
+        Solver<ExamSchedule> solver = solverFactory.buildSolver();
+        
+        // 5. 添加进度监听器（WebSocket推送）
+        solver.addEventListener(event -> {
+            if (event.isEveryProblemChangeProcessed()) {
+                pushPartialRescheduleProgress(sessionId, event);
+            }
+        });
+        
+        LOGGER.info("🚀 [局部重排] 开始求解...");
+        
+        // 🔍 求解前日志：打印固定排班的日期
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        LOGGER.info("🔍 [求解前] 检查固定排班的日期:");
+        problem.getExamAssignments().stream()
+            .filter(ExamAssignment::isPinned)
+            .forEach(a -> LOGGER.info("  📌 " + a.getStudentName() + 
+                ": examDate=" + a.getExamDate() + 
+                ", originalDate=" + a.getOriginalExamDate() +
+                ", pinned=" + a.isPinned()));
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        
+        long startTime = System.currentTimeMillis();
+        
+        // 6. 求解
+        ExamSchedule solution = solver.solve(problem);
+        
+        long solveTime = System.currentTimeMillis() - startTime;
+        LOGGER.info("✅ [局部重排] 求解完成，耗时: " + (solveTime / 1000.0) + "秒，分数: " + solution.getScore());
+        return solution;
+    }
+    
     /**
      * 构建局部重排问题
      */
@@ -26,6 +26,7 @@ class ConflictCheckRequest {
     public String newValue;
     public String originalValue;
     public String department;
+    public String whatIfSessionId;  // 🆕 v8.1: 提供时用 what-if 会话的增量打分检测冲突
 }
 
 /**
@@ -39,6 +40,12 @@ public class LearningResource {
     @Inject
     ObjectMapper objectMapper;
     
+    @Inject
+    com.examiner.scheduler.service.WhatIfSessionService whatIfSessionService;
+    
+    @Inject
+    com.examiner.scheduler.service.ReplacementSuggestionService replacementSuggestionService;
+    
     /**
      * 🔧 灵活的日期解析方法
      * 支持多种日期格式：
@@ -445,6 +452,12 @@ public class LearningResource {
                     .build();
             }
             
+            // 🆕 v8.1: 有 what-if 会话时直接用求解器的约束增量打分，不再走手写规则
+            Response whatIfResponse = checkConflictsWithWhatIf(request);
+            if (whatIfResponse != null) {
+                return whatIfResponse;
+            }
+            
             List<Map<String, Object>> conflicts = new ArrayList<>();
             
             // 1. 检查时间冲突（同一考官同一天被多次安排）
@@ -479,6 +492,57 @@ public class LearningResource {
         }
     }
     
+    /**
+     * 🆕 v8.1: 基于 what-if 会话的冲突检测
+     * @return 会话不存在或字段无法定位时返回null，由原有规则兜底
+     */
+    private Response checkConflictsWithWhatIf(ConflictCheckRequest request) {
+        com.examiner.scheduler.service.WhatIfSessionService.WhatIfSession session =
+            whatIfSessionService.get(request.whatIfSessionId);
+        if (session == null) {
+            return null;
+        }
+        String[] target = session.resolveField(request.studentName, request.fieldName);
+        com.examiner.scheduler.domain.Teacher teacher = session.findTeacher(request.newValue);
+        if (target == null || (teacher == null && !"backupExaminer".equals(target[1]))) {
+            return null;
+        }
+        
+        com.examiner.scheduler.service.WhatIfSessionService.WhatIfResult result;
+        try {
+            result = session.evaluate(target[0], target[1], teacher);
+        } catch (IllegalArgumentException e) {
+            // 已固定的排班不允许修改
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(Map.of("success", false, "error", e.getMessage()))
+                .build();
+        }
+        List<Map<String, Object>> conflicts = new ArrayList<>();
+        for (com.examiner.scheduler.service.WhatIfSessionService.ConstraintDelta delta : result.constraintDeltas()) {
+            if (!delta.isBroken()) {
+                continue;
+            }
+            conflicts.add(Map.of(
+                "type", delta.isHard() ? "hard" : "soft",
+                "code", delta.code(),
+                "constraint", delta.name(),
+                "scoreDelta", delta.delta().toString(),
+                "message", delta.code() + " " + delta.name() + " " + delta.delta()
+            ));
+        }
+        
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", true);
+        body.put("hasConflicts", !conflicts.isEmpty());
+        body.put("conflicts", conflicts);
+        body.put("severity", calculateSeverity(conflicts));
+        body.put("message", conflicts.isEmpty() ? "无冲突" : "发现 " + conflicts.size() + " 个冲突");
+        body.put("scoreBefore", result.scoreBefore().toString());
+        body.put("scoreAfter", result.scoreAfter().toString());
+        body.put("elapsedMicros", result.elapsedMicros());
+        return Response.ok(body).build();
+    }
+    
     /**
      * 🆕 检查时间冲突
      */
@@ -541,6 +605,7 @@ public class LearningResource {
     /**
      * 🆕 获取推荐考官API
      * 基于历史修改数据，返回推荐考官列表
+     * 🆕 v8.1: 提供 whatIfSessionId 时按真实分数变化排序（见 ReplacementSuggestionService）
      */
     @GET
     @Path("/recommendations")
@@ -549,7 +614,10 @@ public class LearningResource {
         @QueryParam("studentName") String studentName,
         @QueryParam("fieldName") String fieldName,
         @QueryParam("examDate") String examDate,
-        @QueryParam("department") String department
+        @QueryParam("department") String department,
+        @QueryParam("whatIfSessionId") String whatIfSessionId,
+        @QueryParam("limit") @DefaultValue("5") int limit,
+        @QueryParam("budgetMs") @DefaultValue("0") long budgetMs
     ) {
         try {
             // 参数验证
@@ -562,6 +630,11 @@ public class LearningResource {
                     .build();
             }
             
+            Response scored = getScoredRecommendations(whatIfSessionId, studentName, fieldName, limit, budgetMs);
+            if (scored != null) {
+                return scored;
+            }
+            
             List<Map<String, Object>> recommendations = new ArrayList<>();
             
             // 1. 基于历史修改数据计算推荐
@@ -609,6 +682,48 @@ public class LearningResource {
         }
     }
     
+    /**
+     * 🆕 v8.1: 基于 what-if 会话的推荐（逐一增量试算候选考官，按分数变化排序）
+     * @return 会话不存在或字段无法定位时返回null，由历史频次推荐兜底
+     */
+    private Response getScoredRecommendations(String whatIfSessionId, String studentName, String fieldName,
+                                              int limit, long budgetMs) {
+        com.examiner.scheduler.service.WhatIfSessionService.WhatIfSession session =
+            whatIfSessionService.get(whatIfSessionId);
+        if (session == null) {
+            return null;
+        }
+        String[] target = session.resolveField(studentName, fieldName);
+        if (target == null) {
+            return null;
+        }
+        
+        com.examiner.scheduler.service.ReplacementSuggestionService.SuggestionResult result;
+        try {
+            result = replacementSuggestionService.suggest(session, target[0], target[1], limit, budgetMs);
+        } catch (IllegalArgumentException e) {
+            // 已固定的排班不提供推荐
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity(Map.of("success", false, "message", e.getMessage()))
+                .build();
+        }
+        List<Map<String, Object>> recommendations = result.suggestionMaps();
+        for (Map<String, Object> rec : recommendations) {
+            rec.put("reason", Boolean.TRUE.equals(rec.get("feasible")) ? "按求解器得分排序" : "按求解器得分排序（存在硬约束冲突）");
+        }
+        
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", true);
+        body.put("recommendations", recommendations);
+        body.put("total", recommendations.size());
+        body.put("candidates", result.candidates());
+        body.put("evaluated", result.evaluated());
+        body.put("truncated", result.truncated());
+        body.put("elapsedMs", result.elapsedMs());
+        body.put("message", recommendations.isEmpty() ? "暂无推荐数据" : "找到 " + recommendations.size() + " 个推荐");
+        return Response.ok(body).build();
+    }
+    
     /**
      * 🆕 撤销修改API
      * 撤销指定ID的人工修改
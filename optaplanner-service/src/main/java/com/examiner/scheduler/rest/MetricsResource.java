@@ -2,6 +2,8 @@ package com.examiner.scheduler.rest;
 
 import com.examiner.scheduler.cache.EnterpriseCacheManager;
 import com.examiner.scheduler.service.AsyncSolverService;
+import com.examiner.scheduler.service.SolveResultCache;
+import com.examiner.scheduler.websocket.WebSocketSessionHub;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.search.Search;
 import org.slf4j.Logger;
@@ -42,6 +44,9 @@ public class MetricsResource {
     @Inject
     EnterpriseCacheManager cacheManager;
 
+    @Inject
+    SolveResultCache solveResultCache;
+
     /**
      * 获取完整监控仪表板数据
      */
@@ -74,6 +79,8 @@ public class MetricsResource {
         metrics.put("failedTasks", stats.failedTasks());
         metrics.put("poolSize", stats.poolSize());
         metrics.put("activeThreads", stats.activeThreads());
+        metrics.put("activeRequestJobs", stats.activeRequestJobs());
+        metrics.put("queuedRequestJobs", stats.queuedRequestJobs());
         
         // Micrometer指标
         metrics.put("totalDuration", getTimerValue("solver.duration"));
@@ -136,6 +143,24 @@ public class MetricsResource {
         return Response.ok(metrics).build();
     }
 
+    /**
+     * 🆕 v8.1: 获取WebSocket会话背压指标（每会话队列深度、发送/丢弃/失败次数）
+     */
+    @GET
+    @Path("/websocket")
+    public Response getWebSocketMetrics() {
+        return Response.ok(WebSocketSessionHub.metrics()).build();
+    }
+
+    /**
+     * 🆕 v8.1: 求解结果缓存统计（命中 / 加入在途求解 / 未命中）
+     */
+    @GET
+    @Path("/solve-cache")
+    public Response getSolveCacheMetrics() {
+        return Response.ok(solveResultCache.stats()).build();
+    }
+
     /**
      * 获取健康状态
      */
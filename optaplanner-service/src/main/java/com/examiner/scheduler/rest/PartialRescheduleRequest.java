@@ -49,6 +49,13 @@ public class PartialRescheduleRequest {
      */
     private Object constraints;
     
+    /**
+     * 🆕 v8.1: 求解方式
+     * auto（默认）：先只求解受影响的邻域子问题，邻域过大或校验不通过时回退完整求解
+     * full：始终带全部固定排班完整求解
+     */
+    private String mode;
+    
     // Getters and Setters
     
     public List<String> getPinnedScheduleIds() {
@@ -107,6 +114,14 @@ public class PartialRescheduleRequest {
         this.constraints = constraints;
     }
     
+    public String getMode() {
+        return mode;
+    }
+    
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+    
     /**
      * 现有排班数据DTO
      */
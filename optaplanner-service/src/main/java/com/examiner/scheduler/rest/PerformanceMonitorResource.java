@@ -1,6 +1,8 @@
 package com.examiner.scheduler.rest;
 
 import com.examiner.scheduler.service.ConcurrencyControlService;
+import com.examiner.scheduler.service.SolveAdmissionService;
+import com.examiner.scheduler.service.TerminationPredictorService;
 import com.examiner.scheduler.optimizer.MemoryLeakPreventer;
 
 import javax.inject.Inject;
@@ -28,6 +30,12 @@ public class PerformanceMonitorResource {
     @Inject
     private ConcurrencyControlService concurrencyService;
     
+    @Inject
+    private SolveAdmissionService solveAdmissionService;
+    
+    @Inject
+    private TerminationPredictorService terminationPredictorService;
+    
     /**
      * 获取完整的性能指标
      */
@@ -61,6 +69,12 @@ public class PerformanceMonitorResource {
                 metrics.put("concurrency", concurrency);
             }
             
+            // 🆕 v8.1: 内存准入控制状态
+            metrics.put("admission", solveAdmissionService.status());
+            
+            // 🆕 v8.1: 终止时间预测状态
+            metrics.put("terminationPredictor", terminationPredictorService.status());
+            
             // 5. 缓存统计（从MemoryLeakPreventer获取）
             metrics.put("cache", MemoryLeakPreventer.getCacheStatistics());
             
@@ -0,0 +1,146 @@
+package com.examiner.scheduler.rest;
+
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.service.RealTimePlanningService;
+import com.examiner.scheduler.solver.ExamScheduleProblemChanges;
+import org.optaplanner.core.api.solver.change.ProblemChange;
+
+import javax.inject.Inject;
+import javax.ws.rs.*;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 🆕 v8.1: 实时规划接口 —— 求解过程中提交名单变化
+ *
+ * sessionId 即 /solve 的 X-Session-Id（响应中的 sessionId）。变更以 202 Accepted 返回，
+ * 求解器从当前最优解继续搜索；GET /{sessionId}/changes 可查看每个变更是否已被吸收。
+ */
+@Path("/api/schedule/jobs")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class RealTimePlanningResource {
+
+    @Inject
+    RealTimePlanningService realTimePlanningService;
+
+    /**
+     * 查看作业的变更记录
+     */
+    @GET
+    @Path("/{sessionId}/changes")
+    public Response getChanges(@PathParam("sessionId") String sessionId) {
+        Map<String, Object> status = realTimePlanningService.status(sessionId);
+        if (status == null) {
+            return notRunning(sessionId);
+        }
+        return Response.ok(status).build();
+    }
+
+    /**
+     * 为考官追加不可用期（如临时请假）
+     */
+    @POST
+    @Path("/{sessionId}/teachers/{teacherId}/unavailable-periods")
+    public Response addUnavailablePeriod(@PathParam("sessionId") String sessionId,
+                                         @PathParam("teacherId") String teacherId,
+                                         Teacher.UnavailablePeriod period) {
+        if (period == null || period.getStartDate() == null || period.getEndDate() == null) {
+            return badRequest("startDate 和 endDate 不能为空");
+        }
+        try {
+            if (LocalDate.parse(period.getEndDate()).isBefore(LocalDate.parse(period.getStartDate()))) {
+                return badRequest("endDate 不能早于 startDate");
+            }
+        } catch (DateTimeParseException e) {
+            return badRequest("日期格式应为 YYYY-MM-DD");
+        }
+        if (period.getId() == null || period.getId().isBlank()) {
+            period.setId("rt-" + UUID.randomUUID());
+        }
+        return submit(sessionId,
+                "考官 " + teacherId + " 新增不可用期 " + period.getStartDate() + "~" + period.getEndDate(),
+                ExamScheduleProblemChanges.addUnavailablePeriod(teacherId, period));
+    }
+
+    /**
+     * 撤销考官的不可用期
+     */
+    @DELETE
+    @Path("/{sessionId}/teachers/{teacherId}/unavailable-periods/{periodId}")
+    public Response removeUnavailablePeriod(@PathParam("sessionId") String sessionId,
+                                            @PathParam("teacherId") String teacherId,
+                                            @PathParam("periodId") String periodId) {
+        return submit(sessionId, "考官 " + teacherId + " 撤销不可用期 " + periodId,
+                ExamScheduleProblemChanges.removeUnavailablePeriod(teacherId, periodId));
+    }
+
+    /**
+     * 移除考官（其排班会被改派）
+     */
+    @DELETE
+    @Path("/{sessionId}/teachers/{teacherId}")
+    public Response removeTeacher(@PathParam("sessionId") String sessionId,
+                                  @PathParam("teacherId") String teacherId) {
+        return submit(sessionId, "移除考官 " + teacherId,
+                ExamScheduleProblemChanges.removeTeacher(teacherId));
+    }
+
+    /**
+     * 固定排班
+     */
+    @PUT
+    @Path("/{sessionId}/assignments/{assignmentId}/pin")
+    public Response pinAssignment(@PathParam("sessionId") String sessionId,
+                                  @PathParam("assignmentId") String assignmentId) {
+        return submit(sessionId, "固定排班 " + assignmentId,
+                ExamScheduleProblemChanges.setPinned(assignmentId, true));
+    }
+
+    /**
+     * 解除固定
+     */
+    @DELETE
+    @Path("/{sessionId}/assignments/{assignmentId}/pin")
+    public Response unpinAssignment(@PathParam("sessionId") String sessionId,
+                                    @PathParam("assignmentId") String assignmentId) {
+        return submit(sessionId, "解除固定排班 " + assignmentId,
+                ExamScheduleProblemChanges.setPinned(assignmentId, false));
+    }
+
+    private Response submit(String sessionId, String description, ProblemChange<ExamSchedule> change) {
+        RealTimePlanningService.ChangeRecord record;
+        try {
+            record = realTimePlanningService.submit(sessionId, description, change);
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(Map.of("success", false, "message", e.getMessage()))
+                    .build();
+        }
+        if (record == null) {
+            return notRunning(sessionId);
+        }
+        return Response.accepted(Map.of(
+                "success", true,
+                "sessionId", sessionId,
+                "change", record.toMap()))
+                .build();
+    }
+
+    private static Response notRunning(String sessionId) {
+        return Response.status(Response.Status.NOT_FOUND)
+                .entity(Map.of("success", false, "message", "会话 " + sessionId + " 没有正在运行的求解作业"))
+                .build();
+    }
+
+    private static Response badRequest(String message) {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .entity(Map.of("success", false, "message", message))
+                .build();
+    }
+}
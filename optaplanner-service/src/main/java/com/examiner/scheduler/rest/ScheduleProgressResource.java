@@ -1,18 +1,22 @@
 package com.examiner.scheduler.rest;
 
+import com.examiner.scheduler.websocket.ProgressEventStream;
 import com.examiner.scheduler.websocket.ScheduleProgressWebSocket;
+import io.smallrye.mutiny.Multi;
+import org.jboss.resteasy.reactive.RestStreamElementType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 🔧 新增：排班进度 REST 接口
  * 用于 HTTP 轮询替代 WebSocket（解决 403 问题）
+ * 🆕 v8.1: 新增 SSE 事件流 /{sessionId}/stream，客户端无需再高频轮询
  */
 @Path("/api/schedule/progress")
 @Produces(MediaType.APPLICATION_JSON)
@@ -22,7 +26,7 @@ public class ScheduleProgressResource {
     private static final Logger LOGGER = LoggerFactory.getLogger(ScheduleProgressResource.class);
     
     // 存储每个 sessionId 的最新进度信息
-    private static final Map<String, ProgressSnapshot> progressCache = new HashMap<>();
+    private static final Map<String, ProgressSnapshot> progressCache = new ConcurrentHashMap<>();
     
     /**
      * 获取指定 session 的最新进度
@@ -51,6 +55,19 @@ public class ScheduleProgressResource {
         }
     }
     
+    /**
+     * 🆕 v8.1: 进度事件流（Server-Sent Events）
+     * 连接时回放最新状态，之后推送合并后的 progress 以及 score_improvement / level_upgrade，
+     * 收到 final_result 或 error 后结束。返回 Multi，在事件循环上执行，不为每个订阅者占用工作线程。
+     */
+    @GET
+    @Path("/{sessionId}/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<ScheduleProgressWebSocket.ProgressMessage> streamProgress(@PathParam("sessionId") String sessionId) {
+        return ProgressEventStream.subscribe(sessionId);
+    }
+    
     /**
      * 更新进度（由排班服务调用）
      * 🔧 v5.5.4.1: 增加全局进度回退保护
@@ -20,6 +20,7 @@ public class ScheduleRequest {
     private List<String> examDates; // 🆕 前端计算好的可用日期（已排除不可用日期和周末）
     private OptimizedConstraintConfiguration constraints;
     private SolverConfiguration solverConfig;
+    private WarmStart warmStart; // 🆕 v8.1: 以历史排班/快照作为初始解
     
     // 构造函数
     public ScheduleRequest() {}
@@ -91,6 +92,14 @@ public class ScheduleRequest {
         this.solverConfig = solverConfig;
     }
     
+    public WarmStart getWarmStart() {
+        return warmStart;
+    }
+    
+    public void setWarmStart(WarmStart warmStart) {
+        this.warmStart = warmStart;
+    }
+    
     @Override
     public String toString() {
         return "ScheduleRequest{" +
@@ -98,9 +107,60 @@ public class ScheduleRequest {
                 ", teachers=" + (teachers != null ? teachers.size() : 0) +
                 ", startDate='" + startDate + '\'' +
                 ", endDate='" + endDate + '\'' +
+                (warmStart != null ? ", warmStart=" + warmStart : "") +
                 '}';
     }
     
+    /**
+     * 🆕 v8.1: 热启动配置内部类
+     * snapshotId 与 historyId 二选一（都提供时以快照为准）
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class WarmStart {
+        private Long snapshotId;  // ScheduleSnapshot.id
+        private Long historyId;   // ScheduleHistory.id
+        private String checkpointId;  // 🆕 求解检查点（即被中断作业的 sessionId），由 /solve/resume 设置
+        
+        public WarmStart() {}
+        
+        public Long getSnapshotId() {
+            return snapshotId;
+        }
+        
+        public void setSnapshotId(Long snapshotId) {
+            this.snapshotId = snapshotId;
+        }
+        
+        public Long getHistoryId() {
+            return historyId;
+        }
+        
+        public void setHistoryId(Long historyId) {
+            this.historyId = historyId;
+        }
+        
+        public String getCheckpointId() {
+            return checkpointId;
+        }
+        
+        public void setCheckpointId(String checkpointId) {
+            this.checkpointId = checkpointId;
+        }
+        
+        @com.fasterxml.jackson.annotation.JsonIgnore
+        public boolean isEmpty() {
+            return snapshotId == null && historyId == null && checkpointId == null;
+        }
+        
+        @Override
+        public String toString() {
+            if (checkpointId != null) {
+                return "checkpoint#" + checkpointId;
+            }
+            return snapshotId != null ? "snapshot#" + snapshotId : "history#" + historyId;
+        }
+    }
+    
     /**
      * 求解器配置内部类
      */
@@ -111,6 +171,7 @@ public class ScheduleRequest {
         private boolean enableMultiThreading = true;
         private String mode = "balanced"; // 新增求解模式字段
         private String description;
+        private String partitionStrategy; // 🆕 v8.1: 分区求解切分策略 DATE_WINDOW / DEPARTMENT_CLUSTER，为空时按日期窗口
         
         public SolverConfiguration() {}
         
@@ -158,6 +219,14 @@ public class ScheduleRequest {
             return mode;
         }
         
+        public String getPartitionStrategy() {
+            return partitionStrategy;
+        }
+        
+        public void setPartitionStrategy(String partitionStrategy) {
+            this.partitionStrategy = partitionStrategy;
+        }
+        
         @Override
         public String toString() {
             return "SolverConfiguration{" +
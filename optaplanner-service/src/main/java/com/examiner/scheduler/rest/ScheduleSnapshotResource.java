@@ -3,6 +3,7 @@ package com.examiner.scheduler.rest;
 import com.examiner.scheduler.entity.ScheduleSnapshot;
 import com.examiner.scheduler.service.ScheduleSnapshotService;
 import com.examiner.scheduler.service.ExcelExportService;
+import com.examiner.scheduler.service.ScoreExplanationCache;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
 import javax.ws.rs.*;
@@ -31,6 +32,9 @@ public class ScheduleSnapshotResource {
     @Inject
     ExcelExportService excelExportService;
 
+    @Inject
+    ScoreExplanationCache explanationCache;
+
     /**
      * 创建新的排班快照
      */
@@ -129,6 +133,12 @@ public class ScheduleSnapshotResource {
                         .build();
             }
             
+            // 🆕 v8.1: 手工编辑后，来源排班版本的约束解释已过期
+            Object metadata = request.get("metadata");
+            if (metadata instanceof Map && ((Map<?, ?>) metadata).get("sessionId") != null) {
+                explanationCache.invalidate(String.valueOf(((Map<?, ?>) metadata).get("sessionId")));
+            }
+            
             LOG.info("✅ 更新成功");
             return Response.ok(snapshot).build();
         } catch (Exception e) {
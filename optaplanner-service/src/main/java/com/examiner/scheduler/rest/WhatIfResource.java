@@ -0,0 +1,171 @@
+package com.examiner.scheduler.rest;
+
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.service.ReplacementSuggestionService;
+import com.examiner.scheduler.service.WhatIfSessionService;
+
+import javax.inject.Inject;
+import javax.ws.rs.*;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 🆕 v8.1: 交互式 what-if 打分接口
+ *
+ * 以某次 /solve 的结果（sessionId）打开会话，之后每次人工调整前先 evaluate 试算，
+ * 得到分数变化和新违反的约束；确认修改后调用 apply，使后续试算以修改后的排班为基准。
+ */
+@Path("/api/what-if")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class WhatIfResource {
+
+    @Inject
+    WhatIfSessionService whatIfSessionService;
+
+    @Inject
+    ReplacementSuggestionService replacementSuggestionService;
+
+    /**
+     * 打开会话
+     */
+    @POST
+    @Path("/sessions")
+    public Response open(OpenRequest request) {
+        if (request == null || request.solveSessionId == null) {
+            return error(Response.Status.BAD_REQUEST, "solveSessionId 不能为空");
+        }
+        WhatIfSessionService.WhatIfSession session = whatIfSessionService.open(request.solveSessionId);
+        if (session == null) {
+            return error(Response.Status.NOT_FOUND, "求解结果 " + request.solveSessionId + " 已不在内存中，请重新排班");
+        }
+        return Response.ok(describe(session)).build();
+    }
+
+    @GET
+    @Path("/sessions/{id}")
+    public Response get(@PathParam("id") String id) {
+        WhatIfSessionService.WhatIfSession session = whatIfSessionService.get(id);
+        if (session == null) {
+            return sessionNotFound(id);
+        }
+        return Response.ok(describe(session)).build();
+    }
+
+    /**
+     * 试算（不修改会话中的排班）
+     */
+    @POST
+    @Path("/sessions/{id}/evaluate")
+    public Response evaluate(@PathParam("id") String id, EditRequest request) {
+        return change(id, request, false);
+    }
+
+    /**
+     * 确认修改
+     */
+    @POST
+    @Path("/sessions/{id}/apply")
+    public Response apply(@PathParam("id") String id, EditRequest request) {
+        return change(id, request, true);
+    }
+
+    /**
+     * 替换考官推荐：按真实分数变化排序的前 limit 名
+     */
+    @POST
+    @Path("/sessions/{id}/suggestions")
+    public Response suggest(@PathParam("id") String id, SuggestRequest request) {
+        WhatIfSessionService.WhatIfSession session = whatIfSessionService.get(id);
+        if (session == null) {
+            return sessionNotFound(id);
+        }
+        if (request == null || request.assignmentId == null || request.variable == null) {
+            return error(Response.Status.BAD_REQUEST, "assignmentId 和 variable 不能为空");
+        }
+        try {
+            ReplacementSuggestionService.SuggestionResult result = replacementSuggestionService.suggest(
+                    session, request.assignmentId, request.variable, request.limit, request.budgetMs);
+            Map<String, Object> body = new LinkedHashMap<>(result.toMap());
+            body.put("success", true);
+            return Response.ok(body).build();
+        } catch (IllegalArgumentException e) {
+            return error(Response.Status.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @DELETE
+    @Path("/sessions/{id}")
+    public Response close(@PathParam("id") String id) {
+        if (!whatIfSessionService.close(id)) {
+            return sessionNotFound(id);
+        }
+        return Response.ok(Map.of("success", true)).build();
+    }
+
+    private Response change(String id, EditRequest request, boolean keep) {
+        WhatIfSessionService.WhatIfSession session = whatIfSessionService.get(id);
+        if (session == null) {
+            return sessionNotFound(id);
+        }
+        if (request == null || request.assignmentId == null || request.variable == null) {
+            return error(Response.Status.BAD_REQUEST, "assignmentId 和 variable 不能为空");
+        }
+        Teacher teacher = session.findTeacher(request.teacherId);
+        if (teacher == null && request.teacherId != null && !request.teacherId.isBlank()) {
+            return error(Response.Status.BAD_REQUEST, "考官不存在或姓名不唯一: " + request.teacherId);
+        }
+        try {
+            WhatIfSessionService.WhatIfResult result = keep
+                    ? session.apply(request.assignmentId, request.variable, teacher)
+                    : session.evaluate(request.assignmentId, request.variable, teacher);
+            Map<String, Object> body = new LinkedHashMap<>(result.toMap());
+            body.put("success", true);
+            body.put("applied", keep);
+            return Response.ok(body).build();
+        } catch (IllegalArgumentException e) {
+            return error(Response.Status.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> describe(WhatIfSessionService.WhatIfSession session) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", true);
+        body.put("whatIfSessionId", session.getId());
+        body.put("solveSessionId", session.getSourceSessionId());
+        body.put("score", session.getCurrentScore().toString());
+        body.put("appliedEdits", session.getAppliedEdits());
+        return body;
+    }
+
+    private static Response sessionNotFound(String id) {
+        return error(Response.Status.NOT_FOUND, "what-if 会话 " + id + " 不存在或已过期");
+    }
+
+    private static Response error(Response.Status status, String message) {
+        return Response.status(status).entity(Map.of("success", false, "message", message)).build();
+    }
+
+    public static class OpenRequest {
+        public String solveSessionId;
+    }
+
+    public static class EditRequest {
+        public String assignmentId;
+        /** examiner1 / examiner2 / backupExaminer */
+        public String variable;
+        /** 考官ID或唯一姓名；备份考官可为空 */
+        public String teacherId;
+    }
+
+    public static class SuggestRequest {
+        public String assignmentId;
+        public String variable;
+        /** 返回数量，默认5，最多20 */
+        public int limit;
+        /** 评估时间预算（毫秒），默认500，最多5000 */
+        public long budgetMs;
+    }
+}
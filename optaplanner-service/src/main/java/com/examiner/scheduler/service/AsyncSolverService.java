@@ -6,11 +6,13 @@ import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import io.quarkus.scheduler.Scheduled;
 import io.smallrye.mutiny.Uni;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.optaplanner.core.api.solver.Solver;
 import org.optaplanner.core.api.solver.SolverFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import java.time.Duration;
@@ -19,6 +21,7 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * 异步求解服务
@@ -48,6 +51,18 @@ public class AsyncSolverService {
     // 求解器线程池
     private final ThreadPoolExecutor solverExecutor;
     
+    // 🆕 v8.1: 请求级求解作业线程池（/solve、/partial-reschedule），求解期间不占用HTTP线程
+    // 使用 AbortPolicy：队列满时直接拒绝，避免 CallerRunsPolicy 把求解放到事件循环线程上执行
+    @ConfigProperty(name = "examiner.solve.request-concurrency", defaultValue = "5")
+    int requestJobConcurrency;
+    
+    /** 排队上限，0 表示不排队（线程全忙时直接拒绝） */
+    @ConfigProperty(name = "examiner.solve.request-queue-capacity", defaultValue = "10")
+    int requestJobQueueCapacity;
+    
+    private ThreadPoolExecutor requestJobExecutor;
+    private final AtomicInteger activeRequestJobs = new AtomicInteger(0);
+    
     // 任务管理
     private final Map<String, SolverTask> tasks = new ConcurrentHashMap<>();
     
@@ -76,6 +91,50 @@ public class AsyncSolverService {
         logger.info("🚀 异步求解服务初始化完成，核心线程:{}, 最大线程:{}, 队列容量:10", 
             corePoolSize, maxPoolSize);
     }
+    
+    /**
+     * 🆕 v8.1: 请求级求解作业线程池依赖配置，在注入完成后创建
+     */
+    @PostConstruct
+    void initRequestJobExecutor() {
+        int concurrency = Math.max(1, requestJobConcurrency);
+        BlockingQueue<Runnable> queue = requestJobQueueCapacity > 0
+            ? new LinkedBlockingQueue<>(requestJobQueueCapacity)
+            : new SynchronousQueue<>();
+        this.requestJobExecutor = new ThreadPoolExecutor(
+            concurrency,
+            concurrency,
+            60L,
+            TimeUnit.SECONDS,
+            queue,
+            new SolverThreadFactory("solve-request-"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.requestJobExecutor.allowCoreThreadTimeOut(true);
+        logger.info("🚀 求解作业线程池: 并发{}, 排队上限{}", concurrency, Math.max(0, requestJobQueueCapacity));
+    }
+
+    /**
+     * 🆕 v8.1: 在求解作业线程池上执行一次请求级求解，返回的 Uni 在求解完成时发出结果
+     * 订阅时才提交；线程池和队列都满时以 RejectedExecutionException 失败
+     *
+     * @param label 作业名称（日志用）
+     * @param job 阻塞的求解过程
+     */
+    public <T> Uni<T> submitRequestJob(String label, Supplier<T> job) {
+        return Uni.createFrom().completionStage(() -> CompletableFuture.supplyAsync(() -> {
+            activeRequestJobs.incrementAndGet();
+            try {
+                return job.get();
+            } finally {
+                activeRequestJobs.decrementAndGet();
+            }
+        }, requestJobExecutor).whenComplete((result, error) -> {
+            if (error != null) {
+                logger.error("❌ 求解作业 {} 失败: {}", label, error.getMessage());
+            }
+        }));
+    }
 
     /**
      * 提交求解请求
@@ -184,7 +243,9 @@ public class AsyncSolverService {
             completedTasks.get(),
             failedTasks.get(),
             solverExecutor.getPoolSize(),
-            solverExecutor.getActiveCount()
+            solverExecutor.getActiveCount(),
+            activeRequestJobs.get(),
+            requestJobExecutor.getQueue().size()
         );
     }
 
@@ -418,7 +479,9 @@ public class AsyncSolverService {
         int completedTasks,
         int failedTasks,
         int poolSize,
-        int activeThreads
+        int activeThreads,
+        int activeRequestJobs,
+        int queuedRequestJobs
     ) {}
 
     /**
@@ -426,10 +489,19 @@ public class AsyncSolverService {
      */
     private static class SolverThreadFactory implements ThreadFactory {
         private final AtomicInteger counter = new AtomicInteger(0);
+        private final String prefix;
+
+        SolverThreadFactory() {
+            this("solver-");
+        }
+
+        SolverThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
 
         @Override
         public Thread newThread(Runnable r) {
-            Thread thread = new Thread(r, "solver-" + counter.incrementAndGet());
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
             thread.setDaemon(true);
             thread.setPriority(Thread.NORM_PRIORITY);
             return thread;
@@ -23,10 +23,14 @@ public class DataManagementService {
     @Inject
     ObjectMapper objectMapper;
     
+    @Inject
+    SolveResultCache solveResultCache;
+    
     // ==================== 考官管理 ====================
     
     @Transactional
     public Teacher saveTeacher(Teacher teacher) {
+        solveResultCache.invalidateAll("考官数据变更"); // 🆕 v8.1: 输入数据变化，已缓存的求解结果失效
         if (teacher.id == null) {
             // 新增考官
             Teacher existing = Teacher.findByTeacherId(teacher.teacherId);
@@ -46,6 +50,7 @@ public class DataManagementService {
     
     @Transactional
     public void deleteTeacher(Long teacherId) {
+        solveResultCache.invalidateAll("考官数据变更");
         Teacher teacher = Teacher.findById(teacherId);
         if (teacher != null) {
             teacher.isActive = false;
@@ -67,6 +72,7 @@ public class DataManagementService {
     
     @Transactional
     public Student saveStudent(Student student) {
+        solveResultCache.invalidateAll("学员数据变更");
         if (student.id == null) {
             // 新增学员
             Student existing = Student.findByStudentId(student.studentId);
@@ -86,6 +92,7 @@ public class DataManagementService {
     
     @Transactional
     public void deleteStudent(Long studentId) {
+        solveResultCache.invalidateAll("学员数据变更");
         Student student = Student.findById(studentId);
         if (student != null) {
             student.isActive = false;
@@ -107,6 +114,7 @@ public class DataManagementService {
     
     @Transactional
     public void importStudents(List<com.examiner.scheduler.domain.Student> domainStudents) {
+        solveResultCache.invalidateAll("学员数据导入");
         LOGGER.info("开始批量导入学员，数量: " + domainStudents.size());
         
         for (com.examiner.scheduler.domain.Student domainStudent : domainStudents) {
@@ -174,6 +182,7 @@ public class DataManagementService {
     
     @Transactional
     public void importTeachers(List<com.examiner.scheduler.domain.Teacher> domainTeachers) {
+        solveResultCache.invalidateAll("考官数据导入");
         LOGGER.info("开始批量导入考官，数量: " + domainTeachers.size());
         
         for (com.examiner.scheduler.domain.Teacher domainTeacher : domainTeachers) {
@@ -230,6 +239,7 @@ public class DataManagementService {
     
     @Transactional
     public void saveDutySchedules(List<com.examiner.scheduler.domain.DutySchedule> domainDuties) {
+        solveResultCache.invalidateAll("值班数据变更");
         LOGGER.info("开始保存值班数据，数量: " + domainDuties.size());
         
         for (com.examiner.scheduler.domain.DutySchedule domainDuty : domainDuties) {
@@ -1,9 +1,14 @@
 package com.examiner.scheduler.service;
 
+import com.examiner.scheduler.algorithm.DepartmentDayCapacityMatrix;
+import com.examiner.scheduler.algorithm.ExaminerPreAssignmentEngine;
+import com.examiner.scheduler.algorithm.PostSolveRepairEngine;
 import com.examiner.scheduler.domain.*;
 import com.examiner.scheduler.rest.ScheduleResponse;
+import com.examiner.scheduler.validation.ScheduleStatisticsAggregator;
 import com.examiner.scheduler.config.HolidayConfig;
 import com.examiner.scheduler.entity.ScheduleHistory;
+import com.examiner.scheduler.util.DepartmentNames;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 
@@ -13,7 +18,6 @@ import javax.transaction.Transactional;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
@@ -61,11 +65,6 @@ public class ExamScheduleService {
                                              String endDate,
                                              List<String> frontendExamDates,
                                              OptimizedConstraintConfiguration constraints) {
-        // ⭐ HC4约束修复：跟踪每天已分配的考官及其角色，避免同一考官在同一天多次分配
-        // 🔧 关键修复：使用Map<日期, Map<考官ID, 分配详情>>结构，区分角色
-        // 从：Map<String, Set<String>> 改为：Map<String, Map<String, ExaminerAssignmentDetail>>
-        Map<String, Map<String, ExaminerAssignmentDetail>> examinerDailyAssignments = new HashMap<>();
-        
         LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
         LOGGER.info("🔍 [接收数据] 创建问题实例");
         LOGGER.info("   学员数量: " + students.size());
@@ -140,8 +139,14 @@ public class ExamScheduleService {
         // 🔧 创建考试分配实体（确保HC6连续日期 + HC5避免冲突）
         List<ExamAssignment> assignments = new ArrayList<>();
         
-        // ⭐ 跟踪已使用的日期对，避免所有学员挤在同一天
-        List<String> usedDates = new ArrayList<>();
+        // 🚀 v8.1: 科室×日期容量矩阵，替代 usedDates 列表与逐考官扫描（日期选择 O(日期数)/学员）
+        // ⭐ 同时跟踪每天已安排的考试数，避免所有学员挤在同一天
+        DepartmentDayCapacityMatrix capacityMatrix =
+            new DepartmentDayCapacityMatrix(teachers, availableDates, holidayConfig, DepartmentNames::normalize);
+        
+        // 🚀 v8.1: 考官预分配改为"先定日期、再按日期并行分配考官"（科室候选堆，HC4由出堆保证）
+        ExaminerPreAssignmentEngine preAssignmentEngine =
+            new ExaminerPreAssignmentEngine(teachers, capacityMatrix, DepartmentNames::normalize);
         
         // 🔧 优化策略：按科室分组学员，优先处理资源紧张科室
         // 这样可以避免某些科室的教员被过早耗尽
@@ -163,7 +168,7 @@ public class ExamScheduleService {
         LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
         
         Map<Student, StudentResourceProfile> resourceProfiles = 
-            analyzeStudentResourceProfiles(students, teachers, availableDates);
+            analyzeStudentResourceProfiles(students, teachers, capacityMatrix);
         
         // 🎯 ****第二阶段：智能排序（考虑资源冲突风险）****
         List<Student> sortedStudents = sortStudentsByResourceRisk(students, teachers, resourceProfiles);
@@ -205,10 +210,10 @@ public class ExamScheduleService {
             }
             
             // 🔍 检查学员姓名+科室是否重复
-            String studentKey = student.getName() + "_" + normalizeDepartment(student.getDepartment());
+            String studentKey = student.getName() + "_" + DepartmentNames.normalize(student.getDepartment());
             if (processedStudentNames.contains(studentKey)) {
                 LOGGER.severe("🚨 [数据异常] 检测到重复的学员: " + student.getName() + " (" + 
-                             normalizeDepartment(student.getDepartment()) + ")，跳过");
+                             DepartmentNames.normalize(student.getDepartment()) + ")，跳过");
                 continue;
             }
             
@@ -218,26 +223,25 @@ public class ExamScheduleService {
             // Step 1: 🎯 确定连续的考试日期对（强制满足HC6，且尽量分散）
             // ========================================
             System.err.println("━━━ 开始为学员分配日期: " + student.getName() + " (科室:" + 
-                       normalizeDepartment(student.getDepartment()) + ", 班组:" + student.getGroup() + ") ━━━");
+                       DepartmentNames.normalize(student.getDepartment()) + ", 班组:" + student.getGroup() + ") ━━━");
             LOGGER.info("━━━ 开始为学员分配日期: " + student.getName() + " (科室:" + 
-                       normalizeDepartment(student.getDepartment()) + ", 班组:" + student.getGroup() + ") ━━━");
+                       DepartmentNames.normalize(student.getDepartment()) + ", 班组:" + student.getGroup() + ") ━━━");
             
             String day1Date;
             String day2Date;
             if (student.needsDay2Exam()) {
-                String[] examDates = findConsecutiveDatePairWithResourceCheck(
-                    student, teachers, availableDates, usedDates, examinerDailyAssignments);
+                String[] examDates = findConsecutiveDatePairWithResourceCheck(student, capacityMatrix);
 
                 // 🆕 修复：添加回退逻辑，避免学员被跳过
                 if (examDates == null || examDates[0] == null || examDates[1] == null) {
                     LOGGER.warning("⚠️ [HC6+资源] 理想连续日期对不足，启用回退策略为学员 " + student.getName());
                     
                     // 回退策略：尝试找到任何可用的连续日期（不严格检查资源）
-                    examDates = findAnyConsecutiveDatePair(student, availableDates);
+                    examDates = findAnyConsecutiveDatePair(student, capacityMatrix);
                     
                     if (examDates == null) {
                         LOGGER.severe("❌ [HC6+资源] 无法为学员 " + student.getName() + " 找到任何连续日期对");
-                        LOGGER.severe("   学员科室: " + normalizeDepartment(student.getDepartment()));
+                        LOGGER.severe("   学员科室: " + DepartmentNames.normalize(student.getDepartment()));
                         LOGGER.severe("   建议: 扩大排班日期范围或增加考官数量");
                         continue; // 只有在完全无法安排时才跳过
                     }
@@ -251,22 +255,21 @@ public class ExamScheduleService {
 
                 System.err.println("✅ 选定日期: " + day1Date + " → " + day2Date + " (学员:" + student.getName() + ")");
                 LOGGER.info("✅ 选定日期: " + day1Date + " → " + day2Date + " (学员:" + student.getName() + ", 科室:" +
-                           normalizeDepartment(student.getDepartment()) + ")");
+                           DepartmentNames.normalize(student.getDepartment()) + ")");
                 LOGGER.info("✅ [HC6] 学员 " + student.getName() + " 连续日期: " + day1Date + " → " + day2Date);
             } else {
-                day1Date = findSingleExamDateWithResourceCheck(
-                    student, teachers, availableDates, usedDates, examinerDailyAssignments);
+                day1Date = findSingleExamDateWithResourceCheck(student, capacityMatrix);
                 
                 // 🆕 修复：添加回退逻辑
                 if (day1Date == null) {
                     LOGGER.warning("⚠️ [资源] 理想日期不足，启用回退策略为学员 " + student.getName());
                     
                     // 回退策略：找到任何非白班的可用日期
-                    day1Date = findAnyAvailableDate(student, availableDates);
+                    day1Date = findAnyAvailableDate(student, capacityMatrix);
                     
                     if (day1Date == null) {
                         LOGGER.severe("❌ [资源] 无法为学员 " + student.getName() + " 找到任何可用考试日期");
-                        LOGGER.severe("   学员科室: " + normalizeDepartment(student.getDepartment()));
+                        LOGGER.severe("   学员科室: " + DepartmentNames.normalize(student.getDepartment()));
                         LOGGER.severe("   建议: 扩大排班日期范围或检查白班安排");
                         continue; // 只有在完全无法安排时才跳过
                     }
@@ -277,77 +280,35 @@ public class ExamScheduleService {
 
                 System.err.println("✅ 选定日期: " + day1Date + " (学员:" + student.getName() + ")");
                 LOGGER.info("✅ 选定日期: " + day1Date + " (学员:" + student.getName() + ", 科室:" +
-                           normalizeDepartment(student.getDepartment()) + ")");
+                           DepartmentNames.normalize(student.getDepartment()) + ")");
             }
 
             // ========================================
-            // Step 2: 🚀 为day1分配考官（满足HC2、HC5）
+            // Step 2: 📝 登记日期计划，为考官1/考官2/备份考官预留容量（具体考官在所有学员定好日期后统一分配）
             // ========================================
-            LOGGER.info("🔍 [Step 2.1] 为Day1分配考官 - 学员:" + student.getName() + " 日期:" + day1Date);
-            Teacher[] day1Examiners = intelligentPreAssignExaminersForSingleDay(
-                student, teachers, day1Date, examinerDailyAssignments);
-
-            if (day1Examiners == null || day1Examiners[0] == null) {
-                LOGGER.severe("❌ [资源不足-Day1] 无法为学员 " + student.getName() + " Day1智能分配考官！");
-                LOGGER.severe("   学员科室: " + normalizeDepartment(student.getDepartment()));
-                LOGGER.severe("   考试日期: " + day1Date);
-                LOGGER.severe("   当前该科室考官在此日期的占用情况:");
-
-                // 🔍 详细诊断：显示该科室所有考官的状态
-                String studentDeptNorm = normalizeDepartment(student.getDepartment());
-                for (Teacher t : teachers) {
-                    String tDept = normalizeDepartment(t.getDepartment());
-                    if (isValidExaminer1Department(studentDeptNorm, tDept)) {
-                        boolean available = isExaminerAvailable(t, day1Date, examinerDailyAssignments);
-                        LOGGER.severe("     考官: " + t.getName() + " (科室:" + tDept + ", 班组:" + t.getGroup() +
-                                     ") - " + (available ? "✅可用" : "❌已占用"));
-                    }
-                }
-
-                LOGGER.severe("   ⚠️ 跳过该学员，避免生成违反HC2约束的初始解");
-                continue;
+            String studentDeptNorm = DepartmentNames.normalize(student.getDepartment());
+            capacityMatrix.recordExam(day1Date);
+            capacityMatrix.reserveExaminers(studentDeptNorm, capacityMatrix.indexOf(day1Date));
+            if (day2Date != null) {
+                capacityMatrix.recordExam(day2Date);
+                capacityMatrix.reserveExaminers(studentDeptNorm, capacityMatrix.indexOf(day2Date));
             }
+            preAssignmentEngine.addPlan(student, day1Date, day2Date);
+        }
 
-            // ========================================
-            // Step 2.2: 🚀 为day2分配考官（仅当需要Day2考试时）
-            // ========================================
-            Teacher[] day2Examiners = null;
-            if (student.needsDay2Exam()) {
-                LOGGER.info("🔍 [Step 2.2] 为Day2分配考官 - 学员:" + student.getName() + " 日期:" + day2Date);
-                day2Examiners = intelligentPreAssignExaminersForSingleDay(
-                    student, teachers, day2Date, examinerDailyAssignments);
-
-                if (day2Examiners == null || day2Examiners[0] == null) {
-                    LOGGER.severe("❌ [资源不足-Day2] 无法为学员 " + student.getName() + " Day2智能分配考官！");
-                    LOGGER.severe("   学员科室: " + normalizeDepartment(student.getDepartment()));
-                    LOGGER.severe("   考试日期: " + day2Date);
-                    LOGGER.severe("   当前该科室考官在此日期的占用情况:");
-
-                    // 🔍 详细诊断：显示该科室所有考官的状态
-                    String studentDeptNorm = normalizeDepartment(student.getDepartment());
-                    for (Teacher t : teachers) {
-                        String tDept = normalizeDepartment(t.getDepartment());
-                        if (isValidExaminer1Department(studentDeptNorm, tDept)) {
-                            boolean available = isExaminerAvailable(t, day2Date, examinerDailyAssignments);
-                            LOGGER.severe("     考官: " + t.getName() + " (科室:" + tDept + ", 班组:" + t.getGroup() +
-                                         ") - " + (available ? "✅可用" : "❌已占用"));
-                        }
-                    }
+        // ========================================
+        // Step 3: 🚀 按日期并行分配考官（满足HC2、HC3、HC4、HC7、HC8、HC9）
+        // ========================================
+        List<ExaminerPreAssignmentEngine.Plan> plans = preAssignmentEngine.assignExaminers();
 
-                    // 🔧 关键：如果Day2分配失败，需要释放Day1的考官标记
-                    LOGGER.warning("   🔄 开始回滚Day1的考官标记...");
-                    if (day1Examiners[0] != null) unmarkExaminerAsAssigned(day1Examiners[0], day1Date, examinerDailyAssignments);
-                    if (day1Examiners[1] != null) unmarkExaminerAsAssigned(day1Examiners[1], day1Date, examinerDailyAssignments);
-                    if (day1Examiners[2] != null) unmarkExaminerAsAssigned(day1Examiners[2], day1Date, examinerDailyAssignments);
-                    LOGGER.warning("   ✅ 已释放Day1的考官标记");
-                    LOGGER.severe("   ⚠️ 跳过该学员");
-                    continue;
-                }
-            }
+        // ========================================
+        // Step 4: 创建 assignment（Day2 仅当学员需要第二天考试时）
+        // ========================================
+        for (ExaminerPreAssignmentEngine.Plan plan : plans) {
+            Student student = plan.getStudent();
+            String day1Date = plan.getDate(0);
+            Teacher[] day1Examiners = plan.getExaminers(0);
 
-            // ========================================
-            // Step 3: 创建day1 assignment
-            // ========================================
             ExamAssignment day1Assignment = new ExamAssignment();
             String uniqueId1 = "EXAM_" + student.getId() + "_DAY1_" + day1Date.replace("-", "") + "_" + System.nanoTime();
             day1Assignment.setId(uniqueId1);
@@ -355,27 +316,15 @@ public class ExamScheduleService {
             day1Assignment.setExamType("day1");
             day1Assignment.setSubjects(List.of("现场", "模拟机1"));
             day1Assignment.setExamDate(day1Date);
-
-            if (day1Examiners[0] != null) {
-                day1Assignment.setExaminer1(day1Examiners[0]);
-                LOGGER.info("📋 Day1 考官1: " + day1Examiners[0].getName());
-            }
-            if (day1Examiners[1] != null) {
-                day1Assignment.setExaminer2(day1Examiners[1]);
-                LOGGER.info("📋 Day1 考官2: " + day1Examiners[1].getName());
-            }
-            if (day1Examiners[2] != null) {
-                day1Assignment.setBackupExaminer(day1Examiners[2]);
-                LOGGER.info("📋 Day1 备份: " + day1Examiners[2].getName());
-            }
-
+            day1Assignment.setExaminer1(day1Examiners[0]);
+            day1Assignment.setExaminer2(day1Examiners[1]);
+            day1Assignment.setBackupExaminer(day1Examiners[2]);
             assignments.add(day1Assignment);
-            usedDates.add(day1Date);
 
-            // ========================================
-            // Step 4: 🆕 根据学员考试天数决定是否创建day2 assignment
-            // ========================================
-            if (student.needsDay2Exam()) {
+            if (plan.getDayCount() > 1) {
+                String day2Date = plan.getDate(1);
+                Teacher[] day2Examiners = plan.getExaminers(1);
+
                 ExamAssignment day2Assignment = new ExamAssignment();
                 String uniqueId2 = "EXAM_" + student.getId() + "_DAY2_" + day2Date.replace("-", "") + "_" + System.nanoTime();
                 day2Assignment.setId(uniqueId2);
@@ -383,26 +332,14 @@ public class ExamScheduleService {
                 day2Assignment.setExamType("day2");
                 day2Assignment.setSubjects(List.of("模拟机2", "口试"));
                 day2Assignment.setExamDate(day2Date);
-
-                if (day2Examiners != null && day2Examiners[0] != null) {
-                    day2Assignment.setExaminer1(day2Examiners[0]);
-                    LOGGER.info("📋 Day2 考官1: " + day2Examiners[0].getName());
-                }
-                if (day2Examiners != null && day2Examiners[1] != null) {
-                    day2Assignment.setExaminer2(day2Examiners[1]);
-                    LOGGER.info("📋 Day2 考官2: " + day2Examiners[1].getName());
-                }
-                if (day2Examiners != null && day2Examiners[2] != null) {
-                    day2Assignment.setBackupExaminer(day2Examiners[2]);
-                    LOGGER.info("📋 Day2 备份: " + day2Examiners[2].getName());
-                }
-
+                day2Assignment.setExaminer1(day2Examiners[0]);
+                day2Assignment.setExaminer2(day2Examiners[1]);
+                day2Assignment.setBackupExaminer(day2Examiners[2]);
                 assignments.add(day2Assignment);
-                usedDates.add(day2Date);
 
                 LOGGER.info("✅ [Assignment创建] 学员 " + student.getName() + " 两天考试已分配：" + uniqueId1 + ", " + uniqueId2);
             } else {
-                LOGGER.info("✅ [Assignment创建] 学员 " + student.getName() + " 一天考试已分配：" + uniqueId1 + " (释放Day2考官资源)");
+                LOGGER.info("✅ [Assignment创建] 学员 " + student.getName() + " 一天考试已分配：" + uniqueId1);
             }
         }
 
@@ -434,8 +371,8 @@ public class ExamScheduleService {
 
             if (assignment.getExaminer1() != null) {
                 String studentDept = assignment.getStudent() != null ?
-                    normalizeDepartment(assignment.getStudent().getDepartment()) : "未知";
-                String examiner1Dept = normalizeDepartment(assignment.getExaminer1().getDepartment());
+                    DepartmentNames.normalize(assignment.getStudent().getDepartment()) : "未知";
+                String examiner1Dept = DepartmentNames.normalize(assignment.getExaminer1().getDepartment());
                 LOGGER.info("  🔓 可优化: " + assignment.getId() +
                            " | 学员:" + (assignment.getStudent() != null ? assignment.getStudent().getName() : "null") +
                            " (" + studentDept + ")" +
@@ -455,28 +392,23 @@ public class ExamScheduleService {
         return schedule;
     }
 
-     private String findSingleExamDateWithResourceCheck(
+    private String findSingleExamDateWithResourceCheck(
             Student student,
-            List<Teacher> teachers,
-            List<String> availableDates,
-            List<String> usedDates,
-            Map<String, Map<String, ExaminerAssignmentDetail>> examinerDailyAssignments) {
+            DepartmentDayCapacityMatrix capacityMatrix) {
 
         String studentGroup = student.getGroup();
-        String bestDate = null;
+        String studentDept = DepartmentNames.normalize(student.getDepartment());
+        int bestDay = -1;
         int bestScore = Integer.MIN_VALUE;
 
-        // 🆕 智能填充：计算哪些日期是"间隙日期"（前一天或后一天有考试安排）
-        Set<String> gapDates = findGapDates(availableDates, usedDates);
-        LOGGER.info("🎯 [智能填充-1天学员] 检测到的间隙日期: " + gapDates);
-
-        for (String date : availableDates) {
-            if (isStudentOnDayShift(studentGroup, date)) {
+        // 🚀 v8.1: 基于容量矩阵，每个日期 O(1) 评估，不再扫描全部考官
+        for (int day = 0; day < capacityMatrix.dayCount(); day++) {
+            if (capacityMatrix.isStudentOnDayShift(studentGroup, day)) {
                 continue;
             }
 
-            int availableExaminers = countAvailableExaminersForDate(student, teachers, date, examinerDailyAssignments);
-            if (availableExaminers <= 0) {
+            int availableExaminers = capacityMatrix.examiner1Capacity(studentDept, day);
+            if (availableExaminers <= 0 || capacityMatrix.examiner2Capacity(studentDept, day) <= 0) {
                 continue;
             }
 
@@ -485,150 +417,97 @@ public class ExamScheduleService {
             // - 已使用日期次之（可以叠加多人考试）
             // - 全新日期得分较低（避免创造新间隙）
             int baseScore;
-            if (gapDates.contains(date)) {
+            if (capacityMatrix.isGapDate(day)) {
                 baseScore = 200;  // 🆕 间隙日期优先级最高
-                LOGGER.info("  📍 日期 " + date + " 是间隙日期，优先填充 (基础分:200)");
-            } else if (usedDates.contains(date)) {
+            } else if (capacityMatrix.isUsed(day)) {
                 baseScore = 150;  // 已使用日期次高（可叠加）
             } else {
                 baseScore = 50;   // 全新日期得分较低
             }
             
-            int useCount = (int) usedDates.stream().filter(d -> d.equals(date)).count();
-            int finalScore = baseScore + (availableExaminers * 50) - (useCount * 5);
+            int finalScore = baseScore + (availableExaminers * 50) - (capacityMatrix.examCount(day) * 5);
 
             if (finalScore > bestScore) {
                 bestScore = finalScore;
-                bestDate = date;
+                bestDay = day;
             }
         }
 
-        if (bestDate != null && gapDates.contains(bestDate)) {
+        if (bestDay < 0) {
+            return null;
+        }
+        String bestDate = capacityMatrix.dateAt(bestDay);
+        if (capacityMatrix.isGapDate(bestDay)) {
             LOGGER.info("✅ [智能填充] 学员 " + student.getName() + " 将填充间隙日期: " + bestDate);
         }
 
         return bestDate;
     }
     
-    /**
-     * 🆕 智能填充：找出所有间隙日期（前一天或后一天有考试安排的日期）
-     * 这些日期是最适合安排1天考试学员的，可以充分利用时间资源
-     */
-    private Set<String> findGapDates(List<String> availableDates, List<String> usedDates) {
-        Set<String> gapDates = new HashSet<>();
-        
-        for (String date : availableDates) {
-            if (usedDates.contains(date)) {
-                continue; // 已使用的日期不是"间隙"
-            }
-            
-            try {
-                LocalDate currentDate = LocalDate.parse(date);
-                LocalDate prevDate = currentDate.minusDays(1);
-                LocalDate nextDate = currentDate.plusDays(1);
-                
-                String prevDateStr = prevDate.toString();
-                String nextDateStr = nextDate.toString();
-                
-                // 如果前一天或后一天有考试安排，则当前日期是间隙日期
-                if (usedDates.contains(prevDateStr) || usedDates.contains(nextDateStr)) {
-                    gapDates.add(date);
-                }
-            } catch (Exception e) {
-                LOGGER.warning("⚠️ [间隙检测] 日期解析失败: " + date);
-            }
-        }
-        
-        return gapDates;
-    }
-    
     /**
      * 🎯 HC6+资源评估：寻找连续的考试日期对（考官资源充足度优先）
      * 🔧 核心策略：评估每个日期对在该科室有多少可用考官
      * 优先选择考官资源充足的日期对，避免资源局部耗尽导致后续学员无法分配
      * 
-     * @param teachers 所有考官列表
-     * @param examinerDailyAssignments 考官每日占用情况
+     * @param capacityMatrix 科室×日期容量矩阵（随预分配实时扣减）
      * @return [day1, day2] 其中 day2 = day1 + 1天，或 null
      */
     private String[] findConsecutiveDatePairWithResourceCheck(
             Student student, 
-            List<Teacher> teachers,
-            List<String> availableDates, 
-            List<String> usedDates,
-            Map<String, Map<String, ExaminerAssignmentDetail>> examinerDailyAssignments) {
-        List<DatePairScore> allPairs = new ArrayList<>();
+            DepartmentDayCapacityMatrix capacityMatrix) {
+        DatePairScore best = null;
+        int candidateCount = 0;
         
         String studentGroup = student.getGroup(); // 学员班组
-        String studentDept = normalizeDepartment(student.getDepartment());
+        String studentDept = DepartmentNames.normalize(student.getDepartment());
         
         LOGGER.info("🔍 [智能日期选择] 为学员 " + student.getName() + " (科室:" + studentDept + 
                    ", 班组:" + studentGroup + ") 评估可用日期对");
         
-        // 收集并评分所有连续日期对
-        for (int i = 0; i < availableDates.size() - 1; i++) {
-            String date1 = availableDates.get(i);
-            try {
-                LocalDate day1 = LocalDate.parse(date1);
-                LocalDate day2 = day1.plusDays(1);
-                String date2 = day2.toString();
-                
-                if (!availableDates.contains(date2)) continue;
-                
-                // ✅ 检查是否是学员白班日
-                    boolean date1IsDayShift = isStudentOnDayShift(studentGroup, date1);
-                    boolean date2IsDayShift = isStudentOnDayShift(studentGroup, date2);
-                    
-                    if (date1IsDayShift || date2IsDayShift) {
-                    LOGGER.fine("⚠️ [日期筛选] 跳过白班日: " + date1 + "~" + date2);
-                        continue; // 跳过白班日
-                    }
-                
-                // 🔧 **关键优化：评估这个日期对的考官资源充足度**
-                int baseScore = evaluateDatePairResourceScore(date1, date2, usedDates);
-                
-                // 🎯 **核心新增：评估该日期对该科室有多少可用考官**
-                int availableExaminersDay1 = countAvailableExaminersForDate(student, teachers, date1, examinerDailyAssignments);
-                int availableExaminersDay2 = countAvailableExaminersForDate(student, teachers, date2, examinerDailyAssignments);
-                
-                // 资源加成：可用考官越多，得分越高
-                int resourceBonus = (availableExaminersDay1 + availableExaminersDay2) * 50;
-                
-                int finalScore = baseScore + resourceBonus;
-                
-                LOGGER.fine("📊 [日期评分] " + date1 + "~" + date2 + 
-                          " | 基础:" + baseScore + 
-                          " | Day1可用考官:" + availableExaminersDay1 +
-                          " | Day2可用考官:" + availableExaminersDay2 +
-                          " | 资源加成:" + resourceBonus +
-                          " | 总分:" + finalScore);
-                
-                // 🚨 **如果两天都没有可用考官，直接跳过**
-                if (availableExaminersDay1 == 0 || availableExaminersDay2 == 0) {
-                    LOGGER.fine("⚠️ [资源不足] 跳过日期对 " + date1 + "~" + date2 + 
-                              " (Day1考官:" + availableExaminersDay1 + 
-                              ", Day2考官:" + availableExaminersDay2 + ")");
-                    continue;
-                }
-                
-                allPairs.add(new DatePairScore(date1, date2, finalScore));
-                
-            } catch (Exception e) {
-                LOGGER.warning("⚠️ 日期解析失败: " + date1);
+        // 🚀 v8.1: 基于容量矩阵评估所有连续日期对，每个日期对 O(1)
+        for (int day1 = 0; day1 < capacityMatrix.dayCount(); day1++) {
+            int day2 = capacityMatrix.nextCalendarDay(day1);
+            if (day2 < 0) continue;
+            
+            // ✅ 检查是否是学员白班日
+            if (capacityMatrix.isStudentOnDayShift(studentGroup, day1) ||
+                capacityMatrix.isStudentOnDayShift(studentGroup, day2)) {
+                continue; // 跳过白班日
+            }
+            
+            // 🎯 评估该日期对该科室有多少可用考官
+            int availableExaminersDay1 = capacityMatrix.examiner1Capacity(studentDept, day1);
+            int availableExaminersDay2 = capacityMatrix.examiner1Capacity(studentDept, day2);
+            
+            // 🚨 **如果任意一天没有可用考官（考官1或考官2），直接跳过**
+            if (availableExaminersDay1 == 0 || availableExaminersDay2 == 0
+                    || capacityMatrix.examiner2Capacity(studentDept, day1) == 0
+                    || capacityMatrix.examiner2Capacity(studentDept, day2) == 0) {
+                continue;
+            }
+            
+            // 🔧 **关键优化：评估这个日期对的考官资源充足度**
+            int baseScore = evaluateDatePairResourceScore(day1, day2, capacityMatrix);
+            
+            // 资源加成：可用考官越多，得分越高
+            int resourceBonus = (availableExaminersDay1 + availableExaminersDay2) * 50;
+            
+            int finalScore = baseScore + resourceBonus;
+            candidateCount++;
+            
+            // 保持与排序后取首个一致：同分时保留较早的日期对
+            if (best == null || finalScore > best.score) {
+                best = new DatePairScore(capacityMatrix.dateAt(day1), capacityMatrix.dateAt(day2), finalScore);
             }
         }
         
-        if (allPairs.isEmpty()) {
+        if (best == null) {
             LOGGER.severe("❌ [日期选择] 没有找到任何可用的连续日期对！");
             return null;
         }
         
-        // 按得分排序，选择资源最充足的日期对
-        allPairs.sort((a, b) -> Integer.compare(b.score, a.score));
-        
-        DatePairScore best = allPairs.get(0);
         LOGGER.info("✅ [智能日期选择] 选定日期对: " + best.date1 + " → " + best.date2 + 
-                   " (得分:" + best.score + ", 共有" + allPairs.size() + "个候选)");
+                   " (得分:" + best.score + ", 共有" + candidateCount + "个候选)");
         
         return new String[]{best.date1, best.date2};
     }
@@ -638,34 +517,23 @@ public class ExamScheduleService {
      * 不严格检查考官资源，只确保日期连续且不是白班日
      * 
      * @param student 学员
-     * @param availableDates 可用日期列表
+     * @param capacityMatrix 科室×日期容量矩阵
      * @return [day1, day2] 或 null
      */
-    private String[] findAnyConsecutiveDatePair(Student student, List<String> availableDates) {
+    private String[] findAnyConsecutiveDatePair(Student student, DepartmentDayCapacityMatrix capacityMatrix) {
         String studentGroup = student.getGroup();
         
-        for (int i = 0; i < availableDates.size() - 1; i++) {
-            String date1 = availableDates.get(i);
-            try {
-                LocalDate day1 = LocalDate.parse(date1);
-                LocalDate day2 = day1.plusDays(1);
-                String date2 = day2.toString();
-                
-                if (!availableDates.contains(date2)) continue;
-                
-                // 只检查白班日，不严格检查资源
-                boolean date1IsDayShift = isStudentOnDayShift(studentGroup, date1);
-                boolean date2IsDayShift = isStudentOnDayShift(studentGroup, date2);
-                
-                if (date1IsDayShift || date2IsDayShift) {
-                    continue;
-                }
-                
-                return new String[]{date1, date2};
-                
-            } catch (Exception e) {
-                LOGGER.fine("日期解析失败: " + date1);
+        for (int day1 = 0; day1 < capacityMatrix.dayCount(); day1++) {
+            int day2 = capacityMatrix.nextCalendarDay(day1);
+            if (day2 < 0) continue;
+            
+            // 只检查白班日，不严格检查资源
+            if (capacityMatrix.isStudentOnDayShift(studentGroup, day1) ||
+                capacityMatrix.isStudentOnDayShift(studentGroup, day2)) {
+                continue;
             }
+            
+            return new String[]{capacityMatrix.dateAt(day1), capacityMatrix.dateAt(day2)};
         }
         
         return null;
@@ -675,15 +543,15 @@ public class ExamScheduleService {
      * 🆕 回退策略：当资源检查找不到日期时，尝试找到任何非白班的可用日期
      * 
      * @param student 学员
-     * @param availableDates 可用日期列表
+     * @param capacityMatrix 科室×日期容量矩阵
      * @return 可用日期 或 null
      */
-    private String findAnyAvailableDate(Student student, List<String> availableDates) {
+    private String findAnyAvailableDate(Student student, DepartmentDayCapacityMatrix capacityMatrix) {
         String studentGroup = student.getGroup();
         
-        for (String date : availableDates) {
-            if (!isStudentOnDayShift(studentGroup, date)) {
-                return date;
+        for (int day = 0; day < capacityMatrix.dayCount(); day++) {
+            if (!capacityMatrix.isStudentOnDayShift(studentGroup, day)) {
+                return capacityMatrix.dateAt(day);
             }
         }
         
@@ -703,44 +571,36 @@ public class ExamScheduleService {
     private Map<Student, StudentResourceProfile> analyzeStudentResourceProfiles(
             List<Student> students,
             List<Teacher> teachers,
-            List<String> availableDates) {
+            DepartmentDayCapacityMatrix capacityMatrix) {
         
         Map<Student, StudentResourceProfile> profiles = new HashMap<>();
-        Map<String, Map<String, ExaminerAssignmentDetail>> emptyAssignments = new HashMap<>(); // 空的占用情况（初始分析）
         
         for (Student student : students) {
             StudentResourceProfile profile = new StudentResourceProfile();
             profile.availableDatePairs = new ArrayList<>();
             
-            String studentDept = normalizeDepartment(student.getDepartment());
+            String studentDept = DepartmentNames.normalize(student.getDepartment());
             String studentGroup = student.getGroup();
             
-            // 分析所有连续日期对
-            for (int i = 0; i < availableDates.size() - 1; i++) {
-                String date1 = availableDates.get(i);
-                try {
-                    LocalDate day1 = LocalDate.parse(date1);
-                    LocalDate day2 = day1.plusDays(1);
-                    String date2 = day2.toString();
-                    
-                    if (!availableDates.contains(date2)) continue;
-                    
-                    // 检查学员白班日
-                    if (isStudentOnDayShift(studentGroup, date1) || isStudentOnDayShift(studentGroup, date2)) {
-                        continue;
-                    }
-                    
-                    // 统计该日期对的可用考官数量
-                    int availDay1 = countAvailableExaminersForDate(student, teachers, date1, emptyAssignments);
-                    int availDay2 = countAvailableExaminersForDate(student, teachers, date2, emptyAssignments);
-                    
-                    if (availDay1 > 0 && availDay2 > 0) {
-                        DatePairResource pair = new DatePairResource();
-                        pair.minAvailable = Math.min(availDay1, availDay2);
-                        profile.availableDatePairs.add(pair);
-                    }
-                } catch (Exception e) {
-                    // 跳过无效日期
+            // 分析所有连续日期对（此时尚未预分配，矩阵即为初始容量）
+            for (int day1 = 0; day1 < capacityMatrix.dayCount(); day1++) {
+                int day2 = capacityMatrix.nextCalendarDay(day1);
+                if (day2 < 0) continue;
+                
+                // 检查学员白班日
+                if (capacityMatrix.isStudentOnDayShift(studentGroup, day1) ||
+                    capacityMatrix.isStudentOnDayShift(studentGroup, day2)) {
+                    continue;
+                }
+                
+                // 统计该日期对的可用考官数量
+                int availDay1 = capacityMatrix.examiner1Capacity(studentDept, day1);
+                int availDay2 = capacityMatrix.examiner1Capacity(studentDept, day2);
+                
+                if (availDay1 > 0 && availDay2 > 0) {
+                    DatePairResource pair = new DatePairResource();
+                    pair.minAvailable = Math.min(availDay1, availDay2);
+                    profile.availableDatePairs.add(pair);
                 }
             }
             
@@ -799,14 +659,14 @@ public class ExamScheduleService {
             if (minExaminerCompare != 0) return minExaminerCompare;
             
             // 4. 科室资源紧张度（保留原有逻辑）
-            String dept1 = normalizeDepartment(s1.getDepartment());
-            String dept2 = normalizeDepartment(s2.getDepartment());
+            String dept1 = DepartmentNames.normalize(s1.getDepartment());
+            String dept2 = DepartmentNames.normalize(s2.getDepartment());
             
             // 统计科室学员数和考官数
-            long studentCount1 = students.stream().filter(s -> normalizeDepartment(s.getDepartment()).equals(dept1)).count();
-            long studentCount2 = students.stream().filter(s -> normalizeDepartment(s.getDepartment()).equals(dept2)).count();
-            long teacherCount1 = teachers.stream().filter(t -> normalizeDepartment(t.getDepartment()).equals(dept1)).count();
-            long teacherCount2 = teachers.stream().filter(t -> normalizeDepartment(t.getDepartment()).equals(dept2)).count();
+            long studentCount1 = students.stream().filter(s -> DepartmentNames.normalize(s.getDepartment()).equals(dept1)).count();
+            long studentCount2 = students.stream().filter(s -> DepartmentNames.normalize(s.getDepartment()).equals(dept2)).count();
+            long teacherCount1 = teachers.stream().filter(t -> DepartmentNames.normalize(t.getDepartment()).equals(dept1)).count();
+            long teacherCount2 = teachers.stream().filter(t -> DepartmentNames.normalize(t.getDepartment()).equals(dept2)).count();
             
             double pressure1 = teacherCount1 > 0 ? (double)studentCount1 / teacherCount1 : Double.MAX_VALUE;
             double pressure2 = teacherCount2 > 0 ? (double)studentCount2 / teacherCount2 : Double.MAX_VALUE;
@@ -902,49 +762,6 @@ public class ExamScheduleService {
         }
     }
     
-    /**
-     * 🎯 统计某个日期对某个学员科室有多少可用考官
-     * @return 可用考官数量（满足HC2、HC3、HC5的考官）
-     */
-    private int countAvailableExaminersForDate(
-            Student student,
-            List<Teacher> teachers,
-            String examDate,
-            Map<String, Map<String, ExaminerAssignmentDetail>> examinerDailyAssignments) {
-        
-        String studentDept = normalizeDepartment(student.getDepartment());
-        DutySchedule duty = DutySchedule.forDate(examDate);
-        int count = 0;
-        
-        for (Teacher teacher : teachers) {
-            String teacherDept = normalizeDepartment(teacher.getDepartment());
-            
-            // HC2检查：考官1必须与学员同科室（或3/7互通）
-            if (!isValidExaminer1Department(studentDept, teacherDept)) {
-                continue;
-            }
-            
-            // HC3检查：不能是白班执勤
-            if (!isTeacherAvailableOnDate(teacher, duty)) {
-                continue;
-            }
-            
-            // HC9检查：考官不可用期不能安排 ⭐ 新增（传入holidayConfig过滤节假日）
-            if (teacher.isUnavailableOnDate(examDate, holidayConfig)) {
-                continue;
-            }
-            
-            // HC5检查：该天不能已被分配
-            if (!isExaminerAvailable(teacher, examDate, examinerDailyAssignments)) {
-                continue;
-            }
-            
-            count++;
-        }
-        
-        return count;
-    }
-    
     /**
      * 🎯 评估日期对的资源充足度得分
      * 得分越高表示这个日期对越适合分配（考官资源越充足）
@@ -955,20 +772,20 @@ public class ExamScheduleService {
      * - 全部已使用的日期对：+20分（最后选择，但仍可用）
      * - 考虑日期的分散性：避免所有学员挤在开头几天
      */
-    private int evaluateDatePairResourceScore(String date1, String date2, List<String> usedDates) {
+    private int evaluateDatePairResourceScore(int day1, int day2, DepartmentDayCapacityMatrix capacityMatrix) {
         int score = 0;
-                    
-                    boolean date1Used = usedDates.contains(date1);
-                    boolean date2Used = usedDates.contains(date2);
-                    
-                    if (!date1Used && !date2Used) {
+        
+        boolean date1Used = capacityMatrix.isUsed(day1);
+        boolean date2Used = capacityMatrix.isUsed(day2);
+        
+        if (!date1Used && !date2Used) {
             // 完全未使用：最优选择
             score += 100;
         } else if (!date1Used || !date2Used) {
             // 部分使用：次优，但仍然可用
             // 关键：同一天可以有多个学员，只要考官不同！
             score += 50;
-                    } else {
+        } else {
             // 都已使用：最后选择
             // 但仍然可用，因为考官可以在同一天监考不同学员
             score += 20;
@@ -976,9 +793,7 @@ public class ExamScheduleService {
         
         // 🔧 优化：鼓励日期分散，避免所有学员挤在一起
         // 已使用次数越多，轻微降低得分（鼓励使用更分散的日期）
-        int date1UseCount = (int) usedDates.stream().filter(d -> d.equals(date1)).count();
-        int date2UseCount = (int) usedDates.stream().filter(d -> d.equals(date2)).count();
-        score -= (date1UseCount + date2UseCount) * 5; // 每次使用-5分
+        score -= (capacityMatrix.examCount(day1) + capacityMatrix.examCount(day2)) * 5; // 每次使用-5分
         
         return score;
     }
@@ -999,2710 +814,767 @@ public class ExamScheduleService {
     }
     
     /**
-     * 🚀 智能预分配考官（单天版本）
-     * ✨ 为一天的考试分配考官，避免冲突
-     * 🔧 考虑因素：晚班优先、休息日优先、工作量均衡、推荐科室
+     * 获取学员的推荐科室（用于SC2、SC4）
+     * @deprecated 已废弃。现在使用Student对象的getExaminer2RecommendedDepartments()方法
+     * 该方法使用硬编码规则，不如使用Student对象中实际的推荐科室字段
      */
-    private Teacher[] intelligentPreAssignExaminersForSingleDay(
-            Student student, List<Teacher> teachers, String examDate,
-            Map<String, Map<String, ExaminerAssignmentDetail>> examinerDailyAssignments) {
-        
-        Teacher[] result = new Teacher[3]; // [考官1, 考官2, 备份]
-        String studentDept = normalizeDepartment(student.getDepartment());
+    @Deprecated
+    @SuppressWarnings("unused")
+    private List<String> getRecommendedDepartments(String studentDept) {
+        // 根据业务规则返回推荐科室
+        List<String> recommended = new ArrayList<>();
         
-        LOGGER.info("🔍 [智能预分配-单天] 开始为学员 " + student.getName() + " (科室:" + studentDept + 
-                   ") 选择考官，日期:" + examDate);
+        // 示例规则：每个科室都有2个推荐科室
+        switch (studentDept) {
+            case "一":
+                recommended.add("区域五室");
+                recommended.add("区域六室");
+                break;
+            case "二":
+                recommended.add("区域四室");
+                recommended.add("区域六室");
+                break;
+            case "三":
+                recommended.add("区域五室");
+                recommended.add("区域七室");
+                break;
+            case "四":
+                recommended.add("区域二室");
+                recommended.add("区域六室");
+                break;
+            case "五":
+                recommended.add("区域一室");
+                recommended.add("区域三室");
+                break;
+            case "六":
+                recommended.add("区域一室");
+                recommended.add("区域二室");
+                break;
+            case "七":
+                recommended.add("区域三室");
+                recommended.add("区域五室");
+                break;
+        }
         
-        // 🔧 获取该日期的班组轮换状态
-        DutySchedule duty = DutySchedule.forDate(examDate);
+        return recommended;
+    }
+    
+    /**
+     * ✅ 验证初始解的HC4约束：每名考官每天只能监考一名考生
+     * 检查是否有考官在同一天被分配了多次（仅报告，不修复）
+     */
+    private void validateHC4Constraint(List<ExamAssignment> assignments) {
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        LOGGER.info("🔍 [HC4验证] 开始验证初始解的HC4约束（每名考官每天只能监考一名考生）");
         
-        // ========================================
-        // Step 1: 选择考官1（满足HC2 + 软约束优化）
-        // ========================================
-        List<TeacherCandidate> examiner1Candidates = new ArrayList<>();
+        // Map<日期, Map<考官ID, List<分配详情>>>
+        Map<String, Map<String, List<String>>> dailyExaminerAssignments = new HashMap<>();
+        int violationCount = 0;
         
-        for (Teacher teacher : teachers) {
-            String teacherDept = normalizeDepartment(teacher.getDepartment());
+        for (ExamAssignment assignment : assignments) {
+            String date = assignment.getExamDate();
+            if (date == null) continue;
             
-            // HC2检查：考官1必须与学员同科室（或3/7互通）
-            if (!isValidExaminer1Department(studentDept, teacherDept)) {
-                continue;
-            }
+            dailyExaminerAssignments.putIfAbsent(date, new HashMap<>());
+            Map<String, List<String>> dateMap = dailyExaminerAssignments.get(date);
             
-            // HC3检查：不能是白班执勤
-            if (!isTeacherAvailableOnDate(teacher, duty)) {
-                continue;
-            }
+            String studentName = assignment.getStudent() != null ? assignment.getStudent().getName() : "未知";
             
-            // HC9检查：考官不可用期不能安排 ⭐ 新增（传入holidayConfig过滤节假日）
-            if (teacher.isUnavailableOnDate(examDate, holidayConfig)) {
-                continue;
+            // 检查考官1
+            if (assignment.getExaminer1() != null) {
+                String examiner1Id = String.valueOf(assignment.getExaminer1().getId());
+                String examiner1Name = assignment.getExaminer1().getName();
+                dateMap.putIfAbsent(examiner1Id, new ArrayList<>());
+                dateMap.get(examiner1Id).add(studentName + "(考官1)");
+                
+                if (dateMap.get(examiner1Id).size() > 1) {
+                    LOGGER.severe("🚨 [HC4违反-初始解] 日期:" + date + ", 考官:" + examiner1Name + 
+                                " 被分配了" + dateMap.get(examiner1Id).size() + "次: " + 
+                                String.join(", ", dateMap.get(examiner1Id)));
+                    violationCount++;
+                }
             }
             
-            // HC5检查：该天不能已被分配
-            if (!isExaminerAvailable(teacher, examDate, examinerDailyAssignments)) {
-                continue;
+            // 检查考官2
+            if (assignment.getExaminer2() != null) {
+                String examiner2Id = String.valueOf(assignment.getExaminer2().getId());
+                String examiner2Name = assignment.getExaminer2().getName();
+                dateMap.putIfAbsent(examiner2Id, new ArrayList<>());
+                dateMap.get(examiner2Id).add(studentName + "(考官2)");
+                
+                if (dateMap.get(examiner2Id).size() > 1) {
+                    LOGGER.severe("🚨 [HC4违反-初始解] 日期:" + date + ", 考官:" + examiner2Name + 
+                                " 被分配了" + dateMap.get(examiner2Id).size() + "次: " + 
+                                String.join(", ", dateMap.get(examiner2Id)));
+                    violationCount++;
+                }
             }
             
-            // ✨ 计算优先级分数（考虑软约束）
-            int priority = calculateTeacherPrioritySingleDay(teacher, examDate, duty, examinerDailyAssignments);
-            examiner1Candidates.add(new TeacherCandidate(teacher, priority));
-        }
-        
-        if (examiner1Candidates.isEmpty()) {
-            LOGGER.severe("❌ [智能预分配-单天] 无法为学员 " + student.getName() + " 找到满足HC2+HC3+HC5的考官1");
-        return null;
+            // 检查备份考官
+            if (assignment.getBackupExaminer() != null) {
+                String backupId = String.valueOf(assignment.getBackupExaminer().getId());
+                String backupName = assignment.getBackupExaminer().getName();
+                dateMap.putIfAbsent(backupId, new ArrayList<>());
+                dateMap.get(backupId).add(studentName + "(备份)");
+                
+                if (dateMap.get(backupId).size() > 1) {
+                    LOGGER.severe("🚨 [HC4违反-初始解] 日期:" + date + ", 考官:" + backupName + 
+                                " 被分配了" + dateMap.get(backupId).size() + "次: " + 
+                                String.join(", ", dateMap.get(backupId)));
+                    violationCount++;
+                }
+            }
         }
         
-        // 按优先级排序，选择最优的
-        examiner1Candidates.sort((a, b) -> Integer.compare(b.priority, a.priority));
-        result[0] = examiner1Candidates.get(0).teacher;
-        markExaminerAsAssigned(result[0], examDate, student, "examiner1", examinerDailyAssignments);
-        
-        LOGGER.info("✅ [考官1] " + result[0].getName() + " (科室:" + 
-                   normalizeDepartment(result[0].getDepartment()) + 
-                   ", 优先级:" + examiner1Candidates.get(0).priority + ")");
-        
-        // ========================================
-        // Step 2: 选择考官2（满足HC7 + 软约束优化）
-        // ========================================
-        String examiner1Dept = normalizeDepartment(result[0].getDepartment());
-        List<TeacherCandidate> examiner2Candidates = new ArrayList<>();
-        
-        // 获取学员的推荐科室
-        List<String> recommendedDepts = student.getExaminer2RecommendedDepartments();
-        
-        for (Teacher teacher : teachers) {
-            if (teacher.equals(result[0])) continue;
-            
-            String teacherDept = normalizeDepartment(teacher.getDepartment());
-            
-            // HC7检查：考官2必须与考官1不同科室
-            if (teacherDept.equals(examiner1Dept)) continue;
-            
-            // HC2检查：考官2必须与学员不同科室
-            if (teacherDept.equals(studentDept)) continue;
-            
-            // HC3检查
-            if (!isTeacherAvailableOnDate(teacher, duty)) {
-                continue;
-            }
-            
-            // HC9检查：考官不可用期不能安排 ⭐ 新增（传入holidayConfig过滤节假日）
-            if (teacher.isUnavailableOnDate(examDate, holidayConfig)) {
-                continue;
-            }
-            
-            // HC5检查
-            if (!isExaminerAvailable(teacher, examDate, examinerDailyAssignments)) {
-                continue;
-            }
-            
-            // ✨ 计算优先级分数
-            int priority = calculateTeacherPrioritySingleDay(teacher, examDate, duty, examinerDailyAssignments);
-            
-            // ✨ SC2加分：如果来自推荐科室，优先级+100
-            if (recommendedDepts != null && recommendedDepts.contains(teacher.getDepartment())) {
-                priority += 100;
-                LOGGER.fine("💡 [SC2加分] " + teacher.getName() + " 来自推荐科室 " + teacher.getDepartment());
-            }
-            
-            examiner2Candidates.add(new TeacherCandidate(teacher, priority));
-        }
-        
-        if (!examiner2Candidates.isEmpty()) {
-            examiner2Candidates.sort((a, b) -> Integer.compare(b.priority, a.priority));
-            result[1] = examiner2Candidates.get(0).teacher;
-            markExaminerAsAssigned(result[1], examDate, student, "examiner2", examinerDailyAssignments);
-            
-            LOGGER.info("✅ [考官2] " + result[1].getName() + " (科室:" + 
-                       normalizeDepartment(result[1].getDepartment()) + 
-                       ", 优先级:" + examiner2Candidates.get(0).priority + ")");
+        if (violationCount > 0) {
+            LOGGER.severe("🚨🚨🚨 [HC4验证失败] 初始解存在 " + violationCount + " 个HC4约束违反！");
+            LOGGER.severe("   这表示初始解生成逻辑存在Bug，需要修复！");
         } else {
-            // examiner2 是必需的规划变量（nullable=false），没有候选则该日期不可用
-            unmarkExaminerAsAssigned(result[0], examDate, examinerDailyAssignments);
-            return null;
-        }
-        
-        // ========================================
-        // Step 3: 选择备份考官（软约束优化）
-        // ========================================
-        List<TeacherCandidate> backupCandidates = new ArrayList<>();
-        // 🔧 复用Step 2中定义的examiner1Dept，只定义examiner2Dept
-        String examiner2Dept = normalizeDepartment(result[1].getDepartment());
-        
-        for (Teacher teacher : teachers) {
-            // HC8检查：备份考官不能与考官1和考官2是同一人
-            if (teacher.equals(result[0]) || teacher.equals(result[1])) continue;
-            
-            String teacherDept = normalizeDepartment(teacher.getDepartment());
-            
-            // 🔧 HC8b检查：备份考官不能与考官1和考官2同科室 ⭐ 新增
-            if (teacherDept.equals(examiner1Dept) || teacherDept.equals(examiner2Dept)) {
-                continue; // 同科室，跳过
-            }
-            
-            // HC3检查
-            if (!isTeacherAvailableOnDate(teacher, duty)) {
-                continue;
-            }
-            
-            // HC9检查：考官不可用期不能安排 ⭐ 新增（传入holidayConfig过滤节假日）
-            if (teacher.isUnavailableOnDate(examDate, holidayConfig)) {
-                continue;
-            }
-            
-            // HC5检查
-            if (!isExaminerAvailable(teacher, examDate, examinerDailyAssignments)) {
-                continue;
-            }
-            
-            // ✨ 计算优先级分数
-            int priority = calculateTeacherPrioritySingleDay(teacher, examDate, duty, examinerDailyAssignments);
-            
-            // ✨ SC4加分：如果来自推荐科室，优先级+50
-            if (recommendedDepts != null && recommendedDepts.contains(teacher.getDepartment())) {
-                priority += 50;
-            }
-            
-            backupCandidates.add(new TeacherCandidate(teacher, priority));
-        }
-        
-        if (!backupCandidates.isEmpty()) {
-            backupCandidates.sort((a, b) -> Integer.compare(b.priority, a.priority));
-            result[2] = backupCandidates.get(0).teacher;
-            markExaminerAsAssigned(result[2], examDate, student, "backup", examinerDailyAssignments);
-            
-            LOGGER.info("✅ [备份考官] " + result[2].getName() + " (科室:" + 
-                       normalizeDepartment(result[2].getDepartment()) + 
-                       ", 优先级:" + backupCandidates.get(0).priority + ")");
+            LOGGER.info("✅ [HC4验证通过] 初始解满足HC4约束，没有考官在同一天被重复分配");
         }
         
-        return result;
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
     }
     
     /**
-     * ✨ 计算考官优先级分数（单天版本）
-     * 分数越高，越优先被选择
+     * 🔍 资源可用性诊断
+     * 分析学员、考官、日期的分布情况，帮助定位约束违反的原因
      */
-    private int calculateTeacherPrioritySingleDay(Teacher teacher, String examDate,
-                                                 DutySchedule duty,
-                                                 Map<String, Map<String, ExaminerAssignmentDetail>> examinerDailyAssignments) {
-        int score = 100; // 基础分数
+    private void diagnoseResourceAvailability(
+            List<Student> students, 
+            List<Teacher> teachers, 
+            List<String> availableDates,
+            List<ExamAssignment> assignments) {
         
-        // SC1: 晚班考官优先 (+100分)
-        if (isTeacherOnNightShift(teacher, duty)) {
-            score += 100;
-            LOGGER.fine("💡 [SC1] " + teacher.getName() + " 晚班考官 +100");
-        }
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        LOGGER.info("🔍 [资源诊断] 开始分析资源分布情况");
         
-        // SC3: 休息第一天考官优先 (+80分)
-        if (isTeacherOnFirstRestDay(teacher, duty)) {
-            score += 80;
-            LOGGER.fine("💡 [SC3] " + teacher.getName() + " 休息第一天 +80");
+        // 1. 学员科室分布
+        Map<String, Integer> studentDeptCount = new java.util.HashMap<>();
+        for (Student student : students) {
+            String dept = DepartmentNames.normalize(student.getDepartment());
+            studentDeptCount.put(dept, studentDeptCount.getOrDefault(dept, 0) + 1);
         }
-        
-        // SC5: 休息第二天考官次优先 (+60分)
-        if (isTeacherOnSecondRestDay(teacher, duty)) {
-            score += 60;
-            LOGGER.fine("💡 [SC5] " + teacher.getName() + " 休息第二天 +60");
+        LOGGER.info("📊 [学员科室分布] 总计" + students.size() + "名学员");
+        for (Map.Entry<String, Integer> entry : studentDeptCount.entrySet()) {
+            LOGGER.info("   - " + entry.getKey() + "室: " + entry.getValue() + "名");
         }
         
-        // SC10: 工作量较少的考官优先 (工作量每少1次 +10分)
-        int currentWorkload = getTeacherCurrentWorkload(teacher, examinerDailyAssignments);
-        int workloadBonus = Math.max(0, (5 - currentWorkload)) * 10;
-        score += workloadBonus;
-        if (workloadBonus > 0) {
-            LOGGER.fine("💡 [SC10] " + teacher.getName() + " 工作量较少(" + currentWorkload + "次) +" + workloadBonus);
+        // 2. 考官科室分布
+        Map<String, Integer> teacherDeptCount = new java.util.HashMap<>();
+        for (Teacher teacher : teachers) {
+            String dept = DepartmentNames.normalize(teacher.getDepartment());
+            teacherDeptCount.put(dept, teacherDeptCount.getOrDefault(dept, 0) + 1);
         }
-        
-        // 避免连续工作惩罚
-        if (hasConsecutiveWorkSingleDay(teacher, examDate, examinerDailyAssignments)) {
-            score -= 50;
-            LOGGER.fine("⚠️ [SC10] " + teacher.getName() + " 有连续工作 -50");
+        LOGGER.info("📊 [考官科室分布] 总计" + teachers.size() + "名考官");
+        for (Map.Entry<String, Integer> entry : teacherDeptCount.entrySet()) {
+            LOGGER.info("   - " + entry.getKey() + "室: " + entry.getValue() + "名");
         }
         
-        return score;
-    }
-    
-    /**
-     * 检查考官是否有连续工作（单天版本）
-     */
-    private boolean hasConsecutiveWorkSingleDay(Teacher teacher, String examDate,
-                                               Map<String, Map<String, ExaminerAssignmentDetail>> examinerDailyAssignments) {
-        try {
-            java.time.LocalDate date = java.time.LocalDate.parse(examDate);
-            String beforeDate = date.minusDays(1).toString();
-            String afterDate = date.plusDays(1).toString();
-            
-            String teacherId = String.valueOf(teacher.getId());
-            Map<String, ExaminerAssignmentDetail> beforeAssignments = examinerDailyAssignments.get(beforeDate);
-            Map<String, ExaminerAssignmentDetail> afterAssignments = examinerDailyAssignments.get(afterDate);
+        // 3. 资源充足性分析
+        LOGGER.info("📊 [资源充足性分析]");
+        for (Map.Entry<String, Integer> entry : studentDeptCount.entrySet()) {
+            String dept = entry.getKey();
+            int studentCount = entry.getValue();
+            int teacherCount = teacherDeptCount.getOrDefault(dept, 0);
+            int requiredTeachers = studentCount * 2; // 每个学员2天，每天需要1个考官1
             
-            return (beforeAssignments != null && beforeAssignments.containsKey(teacherId)) ||
-                   (afterAssignments != null && afterAssignments.containsKey(teacherId));
-        } catch (Exception e) {
-            return false;
-        }
-    }
-    /**
-     * 检查考官是否在晚班
-     */
-    private boolean isTeacherOnNightShift(Teacher teacher, DutySchedule dutySchedule) {
-        String group = teacher.getGroup();
-        return dutySchedule != null && group != null && group.equals(dutySchedule.getNightShift());
-    }
-    
-    /**
-     * 检查考官是否在休息第一天
-     */
-    private boolean isTeacherOnFirstRestDay(Teacher teacher, DutySchedule dutySchedule) {
-        String group = teacher.getGroup();
-        List<String> restGroups = dutySchedule != null ? dutySchedule.getRestGroups() : null;
-        return restGroups != null && !restGroups.isEmpty() && group != null && group.equals(restGroups.get(0));
-    }
-    
-    /**
-     * 检查考官是否在休息第二天
-     */
-    private boolean isTeacherOnSecondRestDay(Teacher teacher, DutySchedule dutySchedule) {
-        String group = teacher.getGroup();
-        List<String> restGroups = dutySchedule != null ? dutySchedule.getRestGroups() : null;
-        return restGroups != null && restGroups.size() > 1 && group != null && group.equals(restGroups.get(1));
-    }
-    
-    /**
-     * 获取考官当前工作量
-     */
-    private int getTeacherCurrentWorkload(Teacher teacher, Map<String, Map<String, ExaminerAssignmentDetail>> examinerDailyAssignments) {
-        int count = 0;
-        String teacherId = String.valueOf(teacher.getId());
-        for (Map<String, ExaminerAssignmentDetail> dateMap : examinerDailyAssignments.values()) {
-            if (dateMap.containsKey(teacherId)) {
-                count++;
+            if (teacherCount < requiredTeachers) {
+                LOGGER.severe("⚠️ [资源不足] " + dept + "室：需要至少" + requiredTeachers + 
+                            "名考官（" + studentCount + "名学员×2天），但只有" + teacherCount + "名");
+            } else {
+                LOGGER.info("✅ [资源充足] " + dept + "室：" + studentCount + "名学员，" + 
+                          teacherCount + "名考官（充足）");
             }
         }
-        return count;
-    }
-    
-    /**
-     * 获取学员的推荐科室（用于SC2、SC4）
-     * @deprecated 已废弃。现在使用Student对象的getExaminer2RecommendedDepartments()方法
-     * 该方法使用硬编码规则，不如使用Student对象中实际的推荐科室字段
-     */
-    @Deprecated
-    @SuppressWarnings("unused")
-    private List<String> getRecommendedDepartments(String studentDept) {
-        // 根据业务规则返回推荐科室
-        List<String> recommended = new ArrayList<>();
-        
-        // 示例规则：每个科室都有2个推荐科室
-        switch (studentDept) {
-            case "一":
-                recommended.add("区域五室");
-                recommended.add("区域六室");
-                break;
-            case "二":
-                recommended.add("区域四室");
-                recommended.add("区域六室");
-                break;
-            case "三":
-                recommended.add("区域五室");
-                recommended.add("区域七室");
-                break;
-            case "四":
-                recommended.add("区域二室");
-                recommended.add("区域六室");
-                break;
-            case "五":
-                recommended.add("区域一室");
-                recommended.add("区域三室");
-                break;
-            case "六":
-                recommended.add("区域一室");
-                recommended.add("区域二室");
-                break;
-            case "七":
-                recommended.add("区域三室");
-                recommended.add("区域五室");
-                break;
-        }
         
-        return recommended;
-    }
-    
-    /**
-     * 考官候选者（用于排序）
-     */
-    private static class TeacherCandidate {
-        Teacher teacher;
-        int priority;
+        // 4. 日期使用分析
+        LOGGER.info("📊 [日期范围] " + availableDates.size() + "个可用日期");
+        LOGGER.info("   起始: " + availableDates.get(0));
+        LOGGER.info("   结束: " + availableDates.get(availableDates.size() - 1));
         
-        TeacherCandidate(Teacher teacher, int priority) {
-            this.teacher = teacher;
-            this.priority = priority;
-        }
-    }
-    
-    /**
-     * 内部类：考官分配详情
-     * 用于跟踪考官在特定日期的分配情况（角色和学员信息）
-     */
-    private static class ExaminerAssignmentDetail {
-        @SuppressWarnings("unused")
-        String studentId;
-        String studentName;
-        String role;  // "examiner1", "examiner2", "backup"
-        
-        ExaminerAssignmentDetail(String studentId, String studentName, String role) {
-            this.studentId = studentId;
-            this.studentName = studentName;
-            this.role = role;
+        // 5. 初始解统计
+        LOGGER.info("📊 [初始解统计] 成功分配" + assignments.size() + "个考试");
+        int expectedAssignments = students.size() * 2; // 每个学员2天
+        if (assignments.size() < expectedAssignments) {
+            LOGGER.severe("⚠️ [初始解不完整] 预期" + expectedAssignments + "个，实际" + 
+                        assignments.size() + "个，缺少" + (expectedAssignments - assignments.size()) + "个");
+            LOGGER.severe("   这意味着某些学员无法找到符合HC2约束的考官1");
+            LOGGER.severe("   可能原因: 1.该科室考官不足 2.白班执勤冲突 3.考官时间冲突");
         }
         
-        @Override
-        public String toString() {
-            return studentName + "-" + role;
-        }
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
     }
     
     /**
-     * ⭐ HC4：检查考官在指定日期是否可用（改进版）
-     * 不仅检查是否被分配，还区分角色
+     * 验证考官1科室是否有效（只允许同科室或三七室互通）
      */
-    private boolean isExaminerAvailable(Teacher teacher, String date, Map<String, Map<String, ExaminerAssignmentDetail>> examinerDailyAssignments) {
-        if (teacher == null || date == null) return false;
+    private boolean isValidExaminer1Department(String studentDept, String examiner1Dept) {
+        if (studentDept == null || examiner1Dept == null) return false;
         
-        // 初始化日期映射
-        if (!examinerDailyAssignments.containsKey(date)) {
-            examinerDailyAssignments.put(date, new HashMap<>());
+        // 同科室（优先匹配）
+        if (studentDept.equals(examiner1Dept)) {
+            return true;
         }
         
-        String teacherId = String.valueOf(teacher.getId());
-        Map<String, ExaminerAssignmentDetail> dateMap = examinerDailyAssignments.get(date);
-        
-        // 检查该考官是否已被分配（无论什么角色）
-        boolean available = !dateMap.containsKey(teacherId);
-        
-        // 🔍 添加调试日志
-        if (!available) {
-            ExaminerAssignmentDetail detail = dateMap.get(teacherId);
-            LOGGER.fine("⚠️ [HC4检查] 考官 " + teacher.getName() + " 在 " + date + 
-                       " 已被分配为" + detail.role + " (学员:" + detail.studentName + ")，跳过");
+        // 三室七室互通（特殊规则）
+        if ((studentDept.equals("三") && examiner1Dept.equals("七")) ||
+            (studentDept.equals("七") && examiner1Dept.equals("三"))) {
+            return true;
         }
         
-        return available;
+        return false;
     }
     
     /**
-     * ⭐ HC4：标记考官在指定日期已被分配（改进版，包含角色和学员信息）
+     * 构建排班响应结果
      */
-    private void markExaminerAsAssigned(Teacher teacher, String date, Student student, String role,
-                                       Map<String, Map<String, ExaminerAssignmentDetail>> examinerDailyAssignments) {
-        if (teacher == null || date == null || student == null) return;
-        
-        // 初始化日期映射
-        if (!examinerDailyAssignments.containsKey(date)) {
-            examinerDailyAssignments.put(date, new HashMap<>());
-        }
+    public ScheduleResponse buildScheduleResponse(ExamSchedule solution) {
+        ScheduleResponse response = new ScheduleResponse();
         
-        String teacherId = String.valueOf(teacher.getId());
-        Map<String, ExaminerAssignmentDetail> dateMap = examinerDailyAssignments.get(date);
+        // 设置基本信息
+        response.setSuccess(true);
+        response.setScore(solution.getScore());
         
-        // 创建分配详情
-        ExaminerAssignmentDetail detail = new ExaminerAssignmentDetail(
-            String.valueOf(student.getId()),
-            student.getName(),
-            role
-        );
+        // 设置分配结果
+        List<ExamAssignment> assignments = solution.getExamAssignments();
         
-        // 检查是否已存在（这是错误情况）
-        if (dateMap.containsKey(teacherId)) {
-            ExaminerAssignmentDetail existing = dateMap.get(teacherId);
-            LOGGER.severe("🚨 [HC4冲突] 考官 " + teacher.getName() + " (ID:" + teacherId + ") 在 " + date + 
-                         " 已经被标记过！");
-            LOGGER.severe("    已有分配: 学员=" + existing.studentName + ", 角色=" + existing.role);
-            LOGGER.severe("    新分配: 学员=" + student.getName() + ", 角色=" + role);
-            LOGGER.severe("    ⚠️ 这表示HC4约束检查逻辑存在Bug，需要立即修复！");
-        } else {
-            dateMap.put(teacherId, detail);
-            LOGGER.fine("✅ [HC4标记] 考官 " + teacher.getName() + " (ID:" + teacherId + ") 在 " + date + 
-                       " 被标记为 " + role + " (学员:" + student.getName() + ")");
-        }
-    }
-    
-    /**
-     * ⭐ HC4：取消标记考官在指定日期的分配（改进版）
-     * 用于回滚操作，当Day2分配失败时释放Day1的标记
-     */
-    private void unmarkExaminerAsAssigned(Teacher teacher, String date, 
-                                         Map<String, Map<String, ExaminerAssignmentDetail>> examinerDailyAssignments) {
-        if (teacher == null || date == null) return;
-        if (!examinerDailyAssignments.containsKey(date)) {
-            return;
+        // 🚀 v8.1: 去重 + 空缺/HC3/HC4 修复合并为一次索引驱动的遍历
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        LOGGER.info("🔍 [求解后修复] 去重并修复空缺考官、HC3（白班）、HC4（同日重复）...");
+        PostSolveRepairEngine.RepairReport repairReport =
+            new PostSolveRepairEngine(solution.getTeachers(), holidayConfig, DepartmentNames::normalize)
+                .repair(assignments);
+        assignments = repairReport.getAssignments();
+        if (repairReport.unresolvedCount() > 0) {
+            LOGGER.warning("⚠️ [用户提示] " + repairReport.unresolvedCount() + " 个考官位置没有可用替代，需要手动重新分配！");
+            response.getWarnings().add("有 " + repairReport.unresolvedCount() + " 个考官位置在求解后修复中找不到可用替代，请手动调整");
         }
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
         
-        String teacherId = String.valueOf(teacher.getId());
-        Map<String, ExaminerAssignmentDetail> dateMap = examinerDailyAssignments.get(date);
+        response.setAssignments(assignments);
         
-        ExaminerAssignmentDetail removed = dateMap.remove(teacherId);
+        // 分配统计
+        OptimizedConstraintConfiguration constraintConfig = solution.getConstraintConfiguration();
+        long completeAssignments = assignments.stream()
+                .mapToLong(assignment -> isAssignmentComplete(assignment, constraintConfig) ? 1 : 0)
+                .sum();
         
-        if (removed != null) {
-            LOGGER.info("🔄 [HC4回滚] 考官 " + teacher.getName() + " (ID:" + teacherId + ") 在 " + date + 
-                       " 的标记已被取消 (原角色:" + removed.role + ", 学员:" + removed.studentName + ")");
-        } else {
-            LOGGER.warning("⚠️ [HC4回滚] 考官 " + teacher.getName() + " (ID:" + teacherId + ") 在 " + date + 
-                          " 没有被标记过，无需取消");
-        }
-    }
-    
-    /**
-     * 🔧 随机分配考官（当智能分配失败时的fallback）
-     * 虽然可能不满足约束，但至少给OptaPlanner一个非null的起点
-     * OptaPlanner会在求解过程中调整这些分配以满足所有约束
-     * 
-     * 注意：此方法已不再使用，但保留以备将来需要
-     */
-    @SuppressWarnings("unused")
-    private Teacher[] assignRandomTeachers(Student student, List<Teacher> teachers) {
-        if (teachers == null || teachers.isEmpty()) {
-            return null;
+        // 🔍 详细诊断：列出所有不完整的assignment
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        LOGGER.info("🔍 [分配完整性检查] 总数=" + assignments.size() + ", 完整=" + completeAssignments);
+        int incompleteIndex = 1;
+        for (ExamAssignment assignment : assignments) {
+            if (!isAssignmentComplete(assignment, constraintConfig)) {
+                LOGGER.severe("❌ [不完整#" + incompleteIndex + "] ID=" + assignment.getId() + 
+                            " | 学员=" + (assignment.getStudent() != null ? assignment.getStudent().getName() : "NULL") +
+                            " | 日期=" + assignment.getExamDate() +
+                            " | 考官1=" + (assignment.getExaminer1() != null ? assignment.getExaminer1().getName() : "NULL") +
+                            " | 考官2=" + (assignment.getExaminer2() != null ? assignment.getExaminer2().getName() : "NULL") +
+                            " | 备份=" + (assignment.getBackupExaminer() != null ? assignment.getBackupExaminer().getName() : "NULL"));
+                incompleteIndex++;
+            }
         }
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
         
-        Teacher[] result = new Teacher[3];
-        String studentDept = normalizeDepartment(student.getDepartment());
-        
-        LOGGER.warning("🎲 随机分配考官给学员: " + student.getName() + " (科室:" + studentDept + ")");
+        response.setTotalAssignments(assignments.size());
+        response.setCompleteAssignments((int) completeAssignments);
+        response.setIncompleteAssignments(assignments.size() - (int) completeAssignments);
         
-        // 🔧 [HC2修复] 严格遵守HC2约束：只分配符合科室规则的考官1
-        // 尝试找一个同科室的作为考官1（或符合3室7室互通规则）
-        for (Teacher teacher : teachers) {
-            if (isValidExaminer1Department(studentDept, normalizeDepartment(teacher.getDepartment()))) {
-                result[0] = teacher;
-                LOGGER.info("✅ [HC2] 找到符合科室规则的考官1: " + teacher.getName() + " (科室:" + teacher.getDepartment() + ")");
-                break;
-            }
-        }
+        // 构建并设置统计数据
+        ScheduleResponse.ScheduleStatistics statistics = new ScheduleResponse.ScheduleStatistics();
         
-        // 🚨 [HC2修复] 如果找不到符合HC2的考官1，直接返回null，不生成违反约束的初始解
-        if (result[0] == null) {
-            LOGGER.severe("🚨 [HC2] 严重错误：无法为学员 " + student.getName() + " (科室:" + studentDept + ") 找到符合HC2约束的考官1！");
-            LOGGER.severe("💡 [HC2] 建议：检查是否有足够的" + studentDept + "室考官，或考虑3室7室互通规则");
-            LOGGER.severe("⚠️ [HC2] 该学员将被跳过，不生成初始解，避免HC2违反");
-            return null; // 🔧 关键修复：返回null而不是部分填充的数组
-        }
+        // 设置基本统计
+        statistics.setTotalStudents(assignments.size() / 2); // 每个学员有两次考试
+        statistics.setAssignedStudents((int) completeAssignments / 2);
+        statistics.setCompletionPercentage(assignments.isEmpty() ? 0 : (double) completeAssignments / assignments.size() * 100);
         
-        // 找一个不同的作为考官2
-        for (Teacher teacher : teachers) {
-            if (!teacher.equals(result[0])) {
-                result[1] = teacher;
-                break;
+        // 🔍 先验证约束违反情况，获取准确的违反数量
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        LOGGER.info("🔍 [约束验证] 开始验证最终解的约束情况...");
+        List<ScheduleResponse.ConstraintViolation> conflictDetails = new ArrayList<>();
+
+        // 🚀 v8.1: 单次遍历统计所有硬约束、考官工作量与每日负载（替代逐个 validateHC* 方法）
+        List<Teacher> allTeachers = solution.getTeachers() != null ? solution.getTeachers() : java.util.Collections.emptyList();
+        ScheduleStatisticsAggregator.Result aggregate =
+            new ScheduleStatisticsAggregator(holidayConfig, DepartmentNames::normalize).aggregate(assignments);
+        Map<String, java.util.Set<String>> teacherAssignedDatesIndex = aggregate.getTeacherAssignedDates();
+        int hc2ViolationCount = aggregate.count("HC2");
+        
+        // HC2 冲突详情：只处理聚合器标记的违反排班
+        for (ExamAssignment assignment : aggregate.getHc2Violations()) {
+            String studentName = assignment.getStudent().getName();
+            String studentDept = DepartmentNames.normalize(assignment.getStudent().getDepartment());
+            String examiner1Name = assignment.getExaminer1().getName();
+            String examiner1Dept = DepartmentNames.normalize(assignment.getExaminer1().getDepartment());
+            String examiner2Name = assignment.getExaminer2().getName();
+            String examiner2Dept = DepartmentNames.normalize(assignment.getExaminer2().getDepartment());
+            String examDate = assignment.getExamDate();
+            
+            // 检查考官1是否与学员同科室（或三七互通）
+            boolean examiner1Valid = isValidExaminer1Department(studentDept, examiner1Dept);
+            
+            // 检查考官2是否与学员不同科室
+            boolean examiner2Valid = !Objects.equals(studentDept, examiner2Dept);
+            
+            // 检查两个考官是否来自不同科室
+            boolean differentExaminers = !Objects.equals(examiner1Dept, examiner2Dept);
+            
+            LOGGER.severe("🚨 [HC2违反] 学员: " + studentName + " (" + studentDept + "), " +
+                        "日期: " + examDate + ", " +
+                        "考官1: " + examiner1Name + " (" + examiner1Dept + ") " + 
+                        (examiner1Valid ? "✅" : "❌") + ", " +
+                        "考官2: " + examiner2Name + " (" + examiner2Dept + ") " +
+                        (examiner2Valid ? "✅" : "❌") + ", " +
+                        "考官间: " + (differentExaminers ? "✅异科室" : "❌同科室"));
+
+            ScheduleResponse.ConstraintViolation conflict = new ScheduleResponse.ConstraintViolation();
+            conflict.setType("hard");
+            conflict.setConstraint("HC2");
+            conflict.setSeverity("high");
+            conflict.setDescription(
+                    "HC2违反: 学员(" + studentName + "/" + studentDept + "), 日期(" + examDate + "), " +
+                            "考官1(" + examiner1Name + "/" + examiner1Dept + "), " +
+                            "考官2(" + examiner2Name + "/" + examiner2Dept + ")"
+            );
+            conflict.setAffectedEntities(java.util.Arrays.asList(
+                    "student=" + studentName,
+                    "date=" + examDate,
+                    "examiner1=" + examiner1Name,
+                    "examiner2=" + examiner2Name
+            ));
+
+            CandidateFeasibility feasibility = analyzeExaminer1Feasibility(
+                    assignment.getStudent(),
+                    examDate,
+                    allTeachers,
+                    teacherAssignedDatesIndex
+            );
+
+            String feasibilityMsg = "可行性诊断: 同科室考官1候选=" + feasibility.candidateCount +
+                    " (同科室匹配=" + feasibility.sameDeptMatchCount +
+                    ", 白班排除=" + feasibility.excludedDayShift +
+                    ", 不可用排除=" + feasibility.excludedUnavailable +
+                    ", 已占用排除=" + feasibility.excludedAlreadyAssigned +
+                    ", 科室无效排除=" + feasibility.excludedInvalidDept + ")";
+
+            String baseSuggestion;
+            if (feasibility.candidateCount <= 0) {
+                baseSuggestion = "该日期可能没有任何可用的同科室考官1，属于资源不可满足。建议: 增加该科室考官/调整不可用期/调整白班执勤或放宽规则，或扩大可排日期范围。";
+            } else {
+                baseSuggestion = "该日期存在可用同科室考官1，但求解结果仍违约。建议: 提高求解时间或更换求解模式(standard/precise)以确保找到0hard可行解；同时检查是否有其他硬约束把候选全部挤占。";
             }
+
+            String candidatesPreview = feasibility.candidateNamesPreview != null && !feasibility.candidateNamesPreview.isEmpty()
+                    ? (" 候选示例: " + String.join("、", feasibility.candidateNamesPreview))
+                    : "";
+
+            conflict.setSuggestion(baseSuggestion + " " + feasibilityMsg + candidatesPreview);
+            conflictDetails.add(conflict);
         }
-        
-        // 找一个不同的作为备份
-        for (Teacher teacher : teachers) {
-            if (!teacher.equals(result[0]) && !teacher.equals(result[1])) {
-                result[2] = teacher;
-                break;
-            }
+
+        if (!conflictDetails.isEmpty()) {
+            response.setConflicts(conflictDetails);
         }
         
-        LOGGER.info("✅ 随机分配完成: 考官1=" + result[0].getName() +
-                   ", 考官2=" + (result[1] != null ? result[1].getName() : "null") +
-                   ", 备份=" + (result[2] != null ? result[2].getName() : "null"));
-        
-        return result;
-    }
-    
-    /**
-     * 🎯 智能预分配考官方法
-     * 🔧 修复：集成班组轮换算法，基于科室规则和班组状态为学员预分配最合适的考官组合
-     * 
-     * ⚠️ 注意：此方法已被 intelligentPreAssignExaminersWithConflictCheck 替代
-     * 保留此方法以备将来参考或特殊用途
-     * 
-     * @param student 学员
-     * @param teachers 考官列表  
-     * @param availableDates 可用日期
-     * @return 预分配的考官数组 [考官1, 考官2, 备份考官]
-     */
-    @SuppressWarnings("unused")  // 此方法已被新版本替代，但保留以备将来使用
-    private Teacher[] intelligentPreAssignExaminers(Student student, List<Teacher> teachers, List<String> availableDates) {
-        Teacher[] result = new Teacher[3]; // [考官1, 考官2, 备份考官]
-        String studentDept = normalizeDepartment(student.getDepartment());
-        
-        LOGGER.info("🎯 开始为学员 " + student.getName() + " (科室:" + studentDept + ") 智能预分配考官");
-        
-        // 🔧 获取学员适合的考试日期（非白班执勤日）
-        String bestExamDate = findBestExamDateForStudent(student, availableDates);
-        if (bestExamDate == null) {
-            LOGGER.warning("⚠️ 学员 " + student.getName() + " 没有合适的考试日期");
-            return result;
+        if (hc2ViolationCount > 0) {
+            LOGGER.severe("🚨🚨🚨 [HC2验证失败] 最终解存在 " + hc2ViolationCount + " 个HC2约束违反！");
+            LOGGER.severe("🚨 这表示后端约束检查逻辑存在严重Bug，或数据在求解后被意外修改！");
+        } else {
+            LOGGER.info("✅ [HC2验证通过] 所有分配都满足HC2约束");
         }
-        
-        // 🔧 获取该日期的班组轮换状态
-        DutySchedule dutySchedule = DutySchedule.forDate(bestExamDate);
-        LOGGER.info("📅 选择考试日期: " + bestExamDate + " (白班:" + dutySchedule.getDayShift() + 
-                    ", 晚班:" + dutySchedule.getNightShift() + ", 休息:" + dutySchedule.getRestGroups() + ")");
-        
-        // 🔍 第一步：寻找考官1（同科室或三七室互通，且非白班执勤）
-        for (Teacher teacher : teachers) {
-            if (result[0] != null) break;
-            
-            String teacherDept = normalizeDepartment(teacher.getDepartment());
-            if (isValidExaminer1Department(studentDept, teacherDept) && 
-                isTeacherAvailableOnDate(teacher, dutySchedule)) {
-                result[0] = teacher;
-                LOGGER.info("✅ 找到合适考官1: " + teacher.getName() + " (科室:" + teacherDept + 
-                           ", 班组:" + teacher.getGroup() + ")");
-                break;
-            }
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+
+        // ✅ HC2是硬约束：如果违反，不能当作成功排班结果返回
+        if (hc2ViolationCount > 0) {
+            response.setSuccess(false);
         }
         
-        // 🔍 第二步：寻找考官2（异科室，优先晚班或休息班组）
-        // 🔧 修复：不再找到第一个就用，而是按优先级选择最佳考官
-        Teacher bestExaminer2 = null;
-        int bestExaminer2Priority = -1;
+        // 🔧 🆕 新增：全面验证其他硬约束（HC1, HC3, HC4, HC6, HC7, HC8, HC8b, HC9, HC10）
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
+        LOGGER.info("🔍 [全面约束验证] 开始验证其他硬约束...");
         
-        for (Teacher teacher : teachers) {
-            if (teacher.equals(result[0])) continue; // 不能与考官1重复
-            
-            String teacherDept = normalizeDepartment(teacher.getDepartment());
-            if (!studentDept.equals(teacherDept) && 
-                (result[0] == null || !teacherDept.equals(normalizeDepartment(result[0].getDepartment()))) &&
-                isTeacherAvailableOnDate(teacher, dutySchedule)) {
-                
-                // 🔧 计算考官优先级：晚班100 > 休息第一天80 > 休息第二天60 > 其他10
-                int priority = calculateTeacherPriority(teacher, dutySchedule);
-                
-                if (priority > bestExaminer2Priority) {
-                    bestExaminer2 = teacher;
-                    bestExaminer2Priority = priority;
-                    LOGGER.info("🎯 发现更优考官2候选: " + teacher.getName() + " (科室:" + teacherDept + 
-                               ", 班组:" + teacher.getGroup() + ", 优先级:" + priority + ")");
-                }
-            }
-        }
+        int hc1ViolationCount = aggregate.count("HC1");
+        int hc3ViolationCount = aggregate.count("HC3");
+        int hc4ViolationCount = aggregate.count("HC4");
+        int hc6ViolationCount = aggregate.count("HC6");
+        int hc7ViolationCount = aggregate.count("HC7");
+        int hc8ViolationCount = aggregate.count("HC8");
+        int hc8bViolationCount = aggregate.count("HC8b");
+        int hc9ViolationCount = aggregate.count("HC9");
+        int hc10ViolationCount = aggregate.count("HC10");
+        int totalHardConstraintViolations = aggregate.getTotalHardViolations();
+        
+        LOGGER.info("📊 [全面约束验证结果] 总违反数: " + totalHardConstraintViolations);
+        LOGGER.info("   HC1(节假日): " + hc1ViolationCount);
+        LOGGER.info("   HC2(科室): " + hc2ViolationCount);
+        LOGGER.info("   HC3(白班): " + hc3ViolationCount);
+        LOGGER.info("   HC4(考官每天一场): " + hc4ViolationCount);
+        LOGGER.info("   HC6(连续): " + hc6ViolationCount);
+        LOGGER.info("   HC7(两名考官): " + hc7ViolationCount);
+        LOGGER.info("   HC8(备份不重复): " + hc8ViolationCount);
+        LOGGER.info("   HC8b(备份不同科室): " + hc8bViolationCount);
+        LOGGER.info("   HC9(不可用期): " + hc9ViolationCount);
+        LOGGER.info("   HC10(固定排班): " + hc10ViolationCount);
+        LOGGER.info("   考官工作量: 参与" + aggregate.getExaminerWorkload().size() + "人, 最多" +
+                   aggregate.getMaxWorkload() + "场, 平均" + String.format("%.1f", aggregate.getAverageWorkload()) +
+                   "场; 考试日" + aggregate.getDateLoad().size() + "天 (统计耗时" + aggregate.getElapsedMillis() + "ms)");
         
-        if (bestExaminer2 != null) {
-            result[1] = bestExaminer2;
-            LOGGER.info("✅ 最终选择考官2: " + bestExaminer2.getName() + " (优先级:" + bestExaminer2Priority + ")");
+        if (totalHardConstraintViolations > 0) {
+            LOGGER.severe("🚨🚨🚨 [全面约束验证失败] 发现 " + totalHardConstraintViolations + " 个硬约束违反！");
+            response.setSuccess(false);
+        } else {
+            LOGGER.info("✅ [全面约束验证通过] 所有硬约束都已满足");
         }
+        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
         
-        // 🔍 第三步：寻找备份考官（不同于考官1和考官2，优先晚班或休息班组）
-        // 🔧 修复：按优先级选择最佳备份考官
-        Teacher bestBackup = null;
-        int bestBackupPriority = -1;
+        statistics.setTotalTeachers(allTeachers.size());
+        statistics.setActiveTeachers(aggregate.getExaminerWorkload().size());
+        statistics.setMaxWorkload(aggregate.getMaxWorkload());
+        statistics.setAverageWorkload(aggregate.getAverageWorkload());
         
-        for (Teacher teacher : teachers) {
-            if (teacher.equals(result[0]) || teacher.equals(result[1])) continue;
+        // 🔧 修复：使用实际的约束违反数量，而不是得分的绝对值
+        // 设置得分信息
+        if (solution.getScore() != null) {
+            HardSoftScore score = solution.getScore();
+            statistics.setFinalScore(score);
             
-            if (isTeacherAvailableOnDate(teacher, dutySchedule)) {
-                int priority = calculateTeacherPriority(teacher, dutySchedule);
-                
-                if (priority > bestBackupPriority) {
-                    bestBackup = teacher;
-                    bestBackupPriority = priority;
-                    LOGGER.info("🎯 发现更优备份考官候选: " + teacher.getName() + " (科室:" + 
-                               normalizeDepartment(teacher.getDepartment()) + ", 班组:" + teacher.getGroup() + 
-                               ", 优先级:" + priority + ")");
-                }
-            }
-        }
-        
-        if (bestBackup != null) {
-            result[2] = bestBackup;
-            LOGGER.info("✅ 最终选择备份考官: " + bestBackup.getName() + " (优先级:" + bestBackupPriority + ")");
+            // ✅ 使用实际验证得到的违反数量（现在包括所有硬约束）
+            // 注意：hardScore是得分（带权重），不是违反数量！
+            // 例如：21个违反 × 权重(-4) = -84分
+            statistics.setHardConstraintViolations(totalHardConstraintViolations);
+            statistics.setSoftConstraintsScore(score.softScore());
+            
+            LOGGER.info("📊 [统计信息] 硬约束违反数: " + totalHardConstraintViolations + " (得分: " + score.hardScore() + ")");
         }
         
-        // 📊 预分配结果统计
-        int successCount = 0;
-        if (result[0] != null) successCount++;
-        if (result[1] != null) successCount++;
-        if (result[2] != null) successCount++;
-        
-        LOGGER.info("📊 学员 " + student.getName() + " 预分配完成: " + successCount + "/3 个考官已分配");
-        
-        return result;
-    }
-    
-    /**
-     * ✅ 检查学员是否在指定日期为白班执勤
-     * @param studentGroup 学员班组
-     * @param examDate 考试日期
-     * @return true=白班执勤不能考试, false=可以考试
-     */
-    private boolean isStudentOnDayShift(String studentGroup, String examDate) {
-        if (studentGroup == null || examDate == null) {
-            return false; // 没有班组信息，默认可以考试
-        }
+        response.setStatistics(statistics);
         
-        try {
-            // 使用DutySchedule获取该日期的白班班组
-            DutySchedule dutySchedule = DutySchedule.forDate(examDate);
-            String dayShiftGroup = dutySchedule.getDayShift();
-            
-            // 判断学员班组是否为白班班组
-            boolean isDayShift = studentGroup.equals(dayShiftGroup);
-            
-            if (isDayShift) {
-                String msg = "🚨 [白班检查] 日期:" + examDate + " 白班班组:" + dayShiftGroup + 
-                           " 学员班组:" + studentGroup + " → 是白班执勤日，需跳过";
-                System.err.println(msg);
-                LOGGER.info(msg);
+        // 设置消息
+        if (solution.getScore() != null) {
+            HardSoftScore score = solution.getScore();
+            if (score.hardScore() < 0 || totalHardConstraintViolations > 0) {
+                response.setSuccess(false);
+                response.setMessage("排班完成，但存在 " + totalHardConstraintViolations + " 个硬约束违反 (HC1:" + hc1ViolationCount + 
+                    ", HC2:" + hc2ViolationCount + ", HC3:" + hc3ViolationCount + ", HC4:" + hc4ViolationCount +
+                    ", HC6:" + hc6ViolationCount + ", HC7:" + hc7ViolationCount + 
+                    ", HC8:" + hc8ViolationCount + ", HC8b:" + hc8bViolationCount +
+                    ", HC9:" + hc9ViolationCount + ", HC10:" + hc10ViolationCount +
+                    ", 硬约束得分: " + score.hardScore() + ")");
             } else {
-                System.err.println("✅ [白班检查] 日期:" + examDate + " 白班:" + dayShiftGroup + 
-                                 " 学员:" + studentGroup + " → 可以考试");
+                response.setMessage("排班成功完成 (得分: " + score + ")");
             }
-            
-            return isDayShift;
-        } catch (Exception e) {
-            LOGGER.warning("⚠️ 白班检查失败: " + examDate + " - " + e.getMessage());
-            return false; // 发生异常，默认可以考试
+        } else {
+            response.setMessage("排班计算完成");
         }
-    }
-    
-    /**
-     * 科室名称标准化
-     */
-    private String normalizeDepartment(String department) {
-        if (department == null) return null;
-        
-        String normalized = department.trim();
-        
-        // 🔧 v7.1.2: 优先精确匹配单字符（已标准化的情况）
-        if (normalized.equals("一") || normalized.equals("1")) return "一";
-        if (normalized.equals("二") || normalized.equals("2")) return "二";
-        if (normalized.equals("三") || normalized.equals("3")) return "三";
-        if (normalized.equals("四") || normalized.equals("4")) return "四";
-        if (normalized.equals("五") || normalized.equals("5")) return "五";
-        if (normalized.equals("六") || normalized.equals("6")) return "六";
-        if (normalized.equals("七") || normalized.equals("7")) return "七";
-        if (normalized.equals("八") || normalized.equals("8")) return "八";
-        if (normalized.equals("九") || normalized.equals("9")) return "九";
-        if (normalized.equals("十") || normalized.equals("10")) return "十";
-        
-        // 标准化映射（与前端保持完全一致，包括"第X科室"格式）
-        if (normalized.contains("区域一室") || normalized.contains("一室") || normalized.contains("1室") || normalized.contains("第1科室")) return "一";
-        if (normalized.contains("区域二室") || normalized.contains("二室") || normalized.contains("2室") || normalized.contains("第2科室")) return "二";
-        if (normalized.contains("区域三室") || normalized.contains("三室") || normalized.contains("3室") || normalized.contains("第3科室")) return "三";
-        if (normalized.contains("区域四室") || normalized.contains("四室") || normalized.contains("4室") || normalized.contains("第4科室")) return "四";
-        if (normalized.contains("区域五室") || normalized.contains("五室") || normalized.contains("5室") || normalized.contains("第5科室")) return "五";
-        if (normalized.contains("区域六室") || normalized.contains("六室") || normalized.contains("6室") || normalized.contains("第6科室")) return "六";
-        if (normalized.contains("区域七室") || normalized.contains("七室") || normalized.contains("7室") || normalized.contains("第7科室")) return "七";
-        if (normalized.contains("区域八室") || normalized.contains("八室") || normalized.contains("8室") || normalized.contains("第8科室")) return "八";
-        if (normalized.contains("区域九室") || normalized.contains("九室") || normalized.contains("9室") || normalized.contains("第9科室")) return "九";
-        if (normalized.contains("区域十室") || normalized.contains("十室") || normalized.contains("10室") || normalized.contains("第10科室")) return "十";
-        
-        return normalized;
-    }
-    
-    /**
-     * ✅ 验证并修复最终解的HC3约束：考官执勤白班不能安排考试（行政班除外）
-     * 🔧 增强版：尝试智能重新分配考官，而不是简单地设为null
-     * @return 修复的违反数量
-     */
-    private int validateAndFixHC3ConstraintInFinalSolution(List<ExamAssignment> assignments, List<Teacher> allTeachers) {
-        LOGGER.info("🔍 [HC3最终验证] 开始验证最终解的HC3约束（白班限制）并尝试自动修复");
         
-        int violationCount = 0;
-        int fixedCount = 0;
-        int reassignedCount = 0;
-        int nulledCount = 0;
+        LOGGER.info("构建响应完成: 总分配=" + assignments.size() + 
+                   ", 完整分配=" + completeAssignments + 
+                   ", 硬约束违反=" + totalHardConstraintViolations +
+                   ", 得分=" + solution.getScore());
         
-        for (ExamAssignment assignment : assignments) {
-            String date = assignment.getExamDate();
-            if (date == null) continue;
-            
-            DutySchedule dutySchedule = new DutySchedule(date);
-            String dayShiftGroup = dutySchedule.getDayShift();
-            
-            // 检查考官1
-            if (assignment.getExaminer1() != null) {
-                Teacher examiner1 = assignment.getExaminer1();
-                if (!isAdminTeacher(examiner1) && 
-                    Objects.equals(examiner1.getGroup(), dayShiftGroup)) {
-                    violationCount++;
-                    LOGGER.severe("🚨 [HC3违反-最终解] 日期:" + date + ", 考官1:" + examiner1.getName() + 
-                                " (班组:" + examiner1.getGroup() + ") 当天执勤白班(" + dayShiftGroup + ")");
-                    
-                    // 尝试重新分配考官1
-                    Teacher replacement = findReplacementForHC3Violation(
-                        assignment, "考官1", allTeachers, dutySchedule
-                    );
-                    
-                    if (replacement != null) {
-                        assignment.setExaminer1(replacement);
-                        reassignedCount++;
-                        LOGGER.info("    ✅ 重新分配考官1: " + replacement.getName());
-                    } else {
-                        assignment.setExaminer1(null);
-                        nulledCount++;
-                        LOGGER.warning("    ⚠️ 无法找到替代考官1，设为null");
+        // 🆕 生成智能指导信息（如果存在未分配或约束违反）
+        if (incompleteIndex > 1 || totalHardConstraintViolations > 0) {
+            try {
+                LOGGER.info("📋 [指导信息] 检测到排班问题，生成指导信息...");
+                
+                // 获取当前日期范围（从solution或assignments中推断）
+                String startDate = null;
+                String endDate = null;
+                if (!assignments.isEmpty()) {
+                    List<String> dates = assignments.stream()
+                        .map(ExamAssignment::getExamDate)
+                        .filter(d -> d != null)
+                        .sorted()
+                        .distinct()
+                        .collect(java.util.stream.Collectors.toList());
+                    if (!dates.isEmpty()) {
+                        startDate = dates.get(0);
+                        endDate = dates.get(dates.size() - 1);
                     }
-                    fixedCount++;
                 }
-            }
-            
-            // 检查考官2
-            if (assignment.getExaminer2() != null) {
-                Teacher examiner2 = assignment.getExaminer2();
-                if (!isAdminTeacher(examiner2) && 
-                    Objects.equals(examiner2.getGroup(), dayShiftGroup)) {
-                    violationCount++;
-                    LOGGER.severe("🚨 [HC3违反-最终解] 日期:" + date + ", 考官2:" + examiner2.getName() + 
-                                " (班组:" + examiner2.getGroup() + ") 当天执勤白班(" + dayShiftGroup + ")");
-                    
-                    // 尝试重新分配考官2
-                    Teacher replacement = findReplacementForHC3Violation(
-                        assignment, "考官2", allTeachers, dutySchedule
-                    );
-                    
-                    if (replacement != null) {
-                        assignment.setExaminer2(replacement);
-                        reassignedCount++;
-                        LOGGER.info("    ✅ 重新分配考官2: " + replacement.getName());
-                    } else {
-                        assignment.setExaminer2(null);
-                        nulledCount++;
-                        LOGGER.warning("    ⚠️ 无法找到替代考官2，设为null");
-                    }
-                    fixedCount++;
+                
+                if (startDate == null) {
+                    startDate = LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE);
+                    endDate = LocalDate.now().plusDays(14).format(DateTimeFormatter.ISO_LOCAL_DATE);
                 }
-            }
-            
-            // 检查备份考官
-            if (assignment.getBackupExaminer() != null) {
-                Teacher backup = assignment.getBackupExaminer();
-                if (!isAdminTeacher(backup) && 
-                    Objects.equals(backup.getGroup(), dayShiftGroup)) {
-                    violationCount++;
-                    LOGGER.severe("🚨 [HC3违反-最终解] 日期:" + date + ", 备份考官:" + backup.getName() + 
-                                " (班组:" + backup.getGroup() + ") 当天执勤白班(" + dayShiftGroup + ")");
-                    
-                    // 尝试重新分配备份考官
-                    Teacher replacement = findReplacementForHC3Violation(
-                        assignment, "备份", allTeachers, dutySchedule
+                
+                com.examiner.scheduler.dto.SchedulingGuidanceDTO guidance = 
+                    guidanceService.generateGuidance(
+                        assignments,
+                        solution.getStudents(),
+                        solution.getTeachers(),
+                        startDate,
+                        endDate,
+                        response
                     );
-                    
-                    if (replacement != null) {
-                        assignment.setBackupExaminer(replacement);
-                        reassignedCount++;
-                        LOGGER.info("    ✅ 重新分配备份考官: " + replacement.getName());
-                    } else {
-                        assignment.setBackupExaminer(null);
-                        nulledCount++;
-                        LOGGER.warning("    ⚠️ 无法找到替代备份考官，设为null");
-                    }
-                    fixedCount++;
+                
+                if (guidance.isHasIssue()) {
+                    response.setGuidance(guidance);
+                    response.setShowGuidance(true);
+                    LOGGER.info("✅ [指导信息] 已生成并添加到响应中");
                 }
+            } catch (Exception e) {
+                LOGGER.warning("⚠️ [指导信息] 生成失败（不影响排班结果）: " + e.getMessage());
             }
         }
         
-        LOGGER.info("📊 [HC3最终验证] 完成: 发现 " + violationCount + " 个违反, 修复 " + fixedCount + 
-                   " 个 (重新分配:" + reassignedCount + ", 设为null:" + nulledCount + ")");
-        
-        return fixedCount;
+        return response;
     }
-    
-    /**
-     * 🔧 为HC3违反（白班冲突）寻找替代考官
-     */
-    private Teacher findReplacementForHC3Violation(ExamAssignment assignment, String role, 
-                                                   List<Teacher> allTeachers, DutySchedule dutySchedule) {
-        Student student = assignment.getStudent();
-        String studentDept = student != null ? normalizeDepartment(student.getDepartment()) : "";
-        String date = dutySchedule.getDate();
-        
-        // 过滤可用考官
-        List<Teacher> candidates = new ArrayList<>();
-        
-        for (Teacher teacher : allTeachers) {
-            // 跳过当前已分配的考官
-            if (role.equals("考官1") && assignment.getExaminer1() != null && 
-                teacher.getId() == assignment.getExaminer1().getId()) continue;
-            if (role.equals("考官2") && assignment.getExaminer2() != null && 
-                teacher.getId() == assignment.getExaminer2().getId()) continue;
-            if (role.equals("备份") && assignment.getBackupExaminer() != null && 
-                teacher.getId() == assignment.getBackupExaminer().getId()) continue;
-            
-            // HC3检查：不能是白班执勤
-            if (!isTeacherAvailableOnDate(teacher, dutySchedule)) {
-                continue;
-            }
-            
-            String teacherDept = normalizeDepartment(teacher.getDepartment());
-            
-            // 根据角色检查科室约束
-            if (role.equals("考官1")) {
-                // 考官1必须与学员同科室
-                if (!isValidExaminer1Department(studentDept, teacherDept)) {
-                    continue;
-                }
-            } else if (role.equals("考官2")) {
-                // 考官2必须与学员不同科室
-                if (teacherDept.equals(studentDept)) continue;
-                // 不能与考官1同科室
-                if (assignment.getExaminer1() != null) {
-                    String examiner1Dept = normalizeDepartment(assignment.getExaminer1().getDepartment());
-                    if (teacherDept.equals(examiner1Dept)) continue;
-                }
-            } else if (role.equals("备份")) {
-                // 备份不能与考官1或考官2是同一人
-                if (assignment.getExaminer1() != null && teacher.getId() == assignment.getExaminer1().getId()) continue;
-                if (assignment.getExaminer2() != null && teacher.getId() == assignment.getExaminer2().getId()) continue;
-            }
-            
-            candidates.add(teacher);
-        }
-        
-        if (candidates.isEmpty()) {
-            return null;
-        }
-        
-        // 按优先级排序
-        candidates.sort((a, b) -> {
-            int priorityA = calculateTeacherPriorityForReplacement(a, date);
-            int priorityB = calculateTeacherPriorityForReplacement(b, date);
-            return Integer.compare(priorityB, priorityA); // 降序
-        });
-        
-        return candidates.get(0);
-    }
-    
-    /**
-     * ✅ 验证并修复最终解的HC4约束：每名考官每天只能监考一名考生
-     * 🔧 增强版：尝试智能重新分配考官，而不是简单地设为null
-     * @return 修复的违反数量
-     */
-    private int validateAndFixHC4ConstraintInFinalSolution(List<ExamAssignment> assignments, List<Teacher> allTeachers) {
-        LOGGER.info("🔍 [HC4最终验证] 开始验证最终解的HC4约束并尝试自动修复");
-        
-        // Map<日期, Map<考官ID, List<assignment和角色>>>
-        Map<String, Map<String, List<AssignmentRole>>> dailyExaminerAssignments = new HashMap<>();
-        int violationCount = 0;
-        int fixedCount = 0;
-        int reassignedCount = 0;
-        
-        // 第一遍：收集所有分配
-        for (ExamAssignment assignment : assignments) {
-            String date = assignment.getExamDate();
-            if (date == null) continue;
-            
-            dailyExaminerAssignments.putIfAbsent(date, new HashMap<>());
-            Map<String, List<AssignmentRole>> dateMap = dailyExaminerAssignments.get(date);
-            
-            // 记录考官1
-            if (assignment.getExaminer1() != null) {
-                String examiner1Id = String.valueOf(assignment.getExaminer1().getId());
-                dateMap.putIfAbsent(examiner1Id, new ArrayList<>());
-                dateMap.get(examiner1Id).add(new AssignmentRole(assignment, "考官1", assignment.getExaminer1().getName()));
-            }
-            
-            // 记录考官2
-            if (assignment.getExaminer2() != null) {
-                String examiner2Id = String.valueOf(assignment.getExaminer2().getId());
-                dateMap.putIfAbsent(examiner2Id, new ArrayList<>());
-                dateMap.get(examiner2Id).add(new AssignmentRole(assignment, "考官2", assignment.getExaminer2().getName()));
-            }
-            
-            // 记录备份考官
-            if (assignment.getBackupExaminer() != null) {
-                String backupId = String.valueOf(assignment.getBackupExaminer().getId());
-                dateMap.putIfAbsent(backupId, new ArrayList<>());
-                dateMap.get(backupId).add(new AssignmentRole(assignment, "备份", assignment.getBackupExaminer().getName()));
-            }
-        }
-        
-        // 第二遍：检测并修复违反
-        for (Map.Entry<String, Map<String, List<AssignmentRole>>> dateEntry : dailyExaminerAssignments.entrySet()) {
-            String date = dateEntry.getKey();
-            Map<String, List<AssignmentRole>> examinerMap = dateEntry.getValue();
-            
-            for (Map.Entry<String, List<AssignmentRole>> examinerEntry : examinerMap.entrySet()) {
-                String examinerId = examinerEntry.getKey();
-                List<AssignmentRole> roles = examinerEntry.getValue();
-                
-                if (roles.size() > 1) {
-                    violationCount++;
-                    String examinerName = roles.get(0).examinerName;
-                    
-                    LOGGER.severe("🚨 [HC4违反-最终解] 日期:" + date + ", 考官:" + examinerName + 
-                                " (ID:" + examinerId + ") 被分配了" + roles.size() + "次:");
-                    
-                    for (AssignmentRole role : roles) {
-                        String studentName = role.assignment.getStudent() != null ? 
-                            role.assignment.getStudent().getName() : "未知";
-                        LOGGER.severe("    - " + studentName + " 的 " + role.role);
-                    }
-                    
-                    // 🔧 修复策略：保留第一个分配，尝试为其他分配重新分配考官
-                    // 保留考官1的分配（最重要），其次是考官2，最后是备份
-                    roles.sort((a, b) -> {
-                        int priorityA = getRolePriority(a.role);
-                        int priorityB = getRolePriority(b.role);
-                        return Integer.compare(priorityA, priorityB);
-                    });
-                    
-                    AssignmentRole toKeep = roles.get(0);
-                    LOGGER.info("    ✅ 保留: " + (toKeep.assignment.getStudent() != null ? 
-                               toKeep.assignment.getStudent().getName() : "未知") + " 的 " + toKeep.role);
-                    
-                    // 为其他分配尝试重新分配考官
-                    for (int i = 1; i < roles.size(); i++) {
-                        AssignmentRole toFix = roles.get(i);
-                        ExamAssignment assignment = toFix.assignment;
-                        String role = toFix.role;
-                        Student student = assignment.getStudent();
-                        
-                        // 🔧 尝试重新分配考官
-                        Teacher replacement = findReplacementExaminer(
-                            assignment, role, allTeachers, dailyExaminerAssignments, date
-                        );
-                        
-                        if (replacement != null) {
-                            // 成功找到替代考官
-                            switch (role) {
-                                case "考官1":
-                                    assignment.setExaminer1(replacement);
-                                    break;
-                                case "考官2":
-                                    assignment.setExaminer2(replacement);
-                                    break;
-                                case "备份":
-                                    assignment.setBackupExaminer(replacement);
-                                    break;
-                            }
-                            reassignedCount++;
-                            LOGGER.info("    ✅ 重新分配: " + (student != null ? student.getName() : "未知") + 
-                                       " 的 " + role + " -> " + replacement.getName());
-                        } else {
-                            // 无法找到替代考官，设为null
-                            switch (role) {
-                                case "考官1":
-                                    assignment.setExaminer1(null);
-                                    break;
-                                case "考官2":
-                                    assignment.setExaminer2(null);
-                                    break;
-                                case "备份":
-                                    assignment.setBackupExaminer(null);
-                                    break;
-                            }
-                            fixedCount++;
-                            LOGGER.warning("    🔧 已清空(无替代): " + (student != null ? 
-                                         student.getName() : "未知") + " 的 " + role);
-                        }
-                    }
-                }
-            }
-        }
-        
-        if (violationCount > 0) {
-            LOGGER.severe("🚨 [HC4最终验证] 发现 " + violationCount + " 个HC4约束违反");
-            if (reassignedCount > 0) {
-                LOGGER.info("✅ [HC4修复] 成功重新分配 " + reassignedCount + " 个考官");
-            }
-            if (fixedCount > 0) {
-                LOGGER.warning("⚠️ [HC4修复] 已清空 " + fixedCount + " 个无法替代的考官分配");
-                LOGGER.warning("⚠️ [用户提示] 这些学员的考官需要手动重新分配！");
-            }
-        } else {
-            LOGGER.info("✅ [HC4最终验证] 最终解满足HC4约束，没有考官重复分配");
-        }
-        
-        return fixedCount + reassignedCount;
-    }
-    
-    /**
-     * 🔧 为违反HC4的分配寻找替代考官
-     */
-    private Teacher findReplacementExaminer(ExamAssignment assignment, String role, 
-                                           List<Teacher> allTeachers,
-                                           Map<String, Map<String, List<AssignmentRole>>> dailyExaminerAssignments,
-                                           String date) {
-        if (assignment.getStudent() == null) return null;
-        
-        Student student = assignment.getStudent();
-        String studentDept = normalizeDepartment(student.getDepartment());
-        
-        // 获取当天已占用的考官
-        Set<String> occupiedExaminers = new HashSet<>();
-        Map<String, List<AssignmentRole>> dateMap = dailyExaminerAssignments.get(date);
-        if (dateMap != null) {
-            occupiedExaminers.addAll(dateMap.keySet());
-        }
-        
-        // 获取当前分配的其他考官（避免重复）
-        Set<String> currentExaminers = new HashSet<>();
-        if (assignment.getExaminer1() != null) {
-            currentExaminers.add(String.valueOf(assignment.getExaminer1().getId()));
-        }
-        if (assignment.getExaminer2() != null) {
-            currentExaminers.add(String.valueOf(assignment.getExaminer2().getId()));
-        }
-        if (assignment.getBackupExaminer() != null) {
-            currentExaminers.add(String.valueOf(assignment.getBackupExaminer().getId()));
-        }
-        
-        // 根据角色筛选合适的替代考官
-        List<Teacher> candidates = new ArrayList<>();
-        
-        for (Teacher teacher : allTeachers) {
-            String teacherId = String.valueOf(teacher.getId());
-            
-            // 跳过已占用的考官
-            if (occupiedExaminers.contains(teacherId)) continue;
-            
-            // 跳过当前已分配的考官（避免同一学员重复考官）
-            if (currentExaminers.contains(teacherId)) continue;
-            
-            String teacherDept = normalizeDepartment(teacher.getDepartment());
-            boolean isAdmin = isAdminTeacher(teacher);
-            boolean isDayShift = isDayShiftTeacher(teacher, date);
-            
-            // 根据角色检查约束
-            boolean isValid = false;
-            
-            switch (role) {
-                case "考官1":
-                    // 考官1必须与学员同科室（或三/七互通）
-                    isValid = isValidExaminer1Department(studentDept, teacherDept);
-                    // 不能是白班（行政班除外）
-                    if (isDayShift && !isAdmin) isValid = false;
-                    break;
-                    
-                case "考官2":
-                    // 考官2必须与学员不同科室
-                    isValid = !studentDept.equals(teacherDept);
-                    // 不能是白班（行政班除外）
-                    if (isDayShift && !isAdmin) isValid = false;
-                    break;
-                    
-                case "备份":
-                    // 备份考官约束较宽松
-                    isValid = true;
-                    // 不能是白班（行政班除外）
-                    if (isDayShift && !isAdmin) isValid = false;
-                    break;
-            }
-            
-            if (isValid) {
-                candidates.add(teacher);
-            }
-        }
-        
-        if (candidates.isEmpty()) {
-            return null;
-        }
-        
-        // 选择优先级最高的考官（晚班 > 休息第一天 > 休息第二天 > 其他）
-        candidates.sort((t1, t2) -> {
-            int p1 = calculateTeacherPriorityForReplacement(t1, date);
-            int p2 = calculateTeacherPriorityForReplacement(t2, date);
-            return Integer.compare(p2, p1); // 降序
-        });
-        
-        return candidates.get(0);
-    }
-    
-    /**
-     * 计算替代考官的优先级
-     */
-    private int calculateTeacherPriorityForReplacement(Teacher teacher, String date) {
-        int priority = 0;
-        
-        // 晚班最高优先级
-        if (isNightShiftTeacher(teacher, date)) {
-            priority += 100;
-        }
-        // 休息第一天次之
-        else if (isFirstRestDayTeacher(teacher, date)) {
-            priority += 80;
-        }
-        // 休息第二天再次
-        else if (isSecondRestDayTeacher(teacher, date)) {
-            priority += 60;
-        }
-        // 行政班
-        else if (isAdminTeacher(teacher)) {
-            priority += 40;
-        }
-        // 其他最低
-        else {
-            priority += 10;
-        }
-        
-        return priority;
-    }
-    
-    /**
-     * 获取角色的优先级（用于决定保留哪个分配）
-     * 考官1最重要（优先级最高=1），其次是考官2，最后是备份
-     */
-    private int getRolePriority(String role) {
-        switch (role) {
-            case "考官1": return 1;  // 最高优先级
-            case "考官2": return 2;
-            case "备份": return 3;
-            default: return 999;
+
+    private static final class CandidateFeasibility {
+        private final int candidateCount;
+        private final int sameDeptMatchCount;
+        private final int excludedDayShift;
+        private final int excludedUnavailable;
+        private final int excludedAlreadyAssigned;
+        private final int excludedInvalidDept;
+        private final java.util.List<String> candidateNamesPreview;
+
+        private CandidateFeasibility(
+                int candidateCount,
+                int sameDeptMatchCount,
+                int excludedDayShift,
+                int excludedUnavailable,
+                int excludedAlreadyAssigned,
+                int excludedInvalidDept,
+                java.util.List<String> candidateNamesPreview
+        ) {
+            this.candidateCount = candidateCount;
+            this.sameDeptMatchCount = sameDeptMatchCount;
+            this.excludedDayShift = excludedDayShift;
+            this.excludedUnavailable = excludedUnavailable;
+            this.excludedAlreadyAssigned = excludedAlreadyAssigned;
+            this.excludedInvalidDept = excludedInvalidDept;
+            this.candidateNamesPreview = candidateNamesPreview;
         }
     }
-    
-    /**
-     * 辅助类：记录assignment和角色
-     */
-    private static class AssignmentRole {
-        ExamAssignment assignment;
-        String role;
-        String examinerName;
-        
-        AssignmentRole(ExamAssignment assignment, String role, String examinerName) {
-            this.assignment = assignment;
-            this.role = role;
-            this.examinerName = examinerName;
+
+    private CandidateFeasibility analyzeExaminer1Feasibility(
+            Student student,
+            String examDate,
+            List<Teacher> allTeachers,
+            Map<String, java.util.Set<String>> teacherAssignedDatesIndex
+    ) {
+        if (student == null || examDate == null) {
+            return new CandidateFeasibility(0, 0, 0, 0, 0, 0, java.util.Collections.emptyList());
         }
-    }
-    
-    /**
-     * 🔧 彻底去重：移除重复的assignment
-     * 去重规则：同一个学员+同一个日期+同一个考试类型 = 重复
-     * 如果有重复，保留第一个
-     */
-    private List<ExamAssignment> deduplicateAssignments(List<ExamAssignment> assignments) {
-        Map<String, ExamAssignment> uniqueMap = new java.util.LinkedHashMap<>();
-        int duplicateCount = 0;
-        
-        for (ExamAssignment assignment : assignments) {
-            if (assignment == null || assignment.getStudent() == null) {
+
+        String studentDept = DepartmentNames.normalize(student.getDepartment());
+        DutySchedule duty = DutySchedule.forDate(examDate);
+
+        int sameDeptMatch = 0;
+        int excludedDayShift = 0;
+        int excludedUnavailable = 0;
+        int excludedAlreadyAssigned = 0;
+        int excludedInvalidDept = 0;
+
+        java.util.List<String> candidateNames = new java.util.ArrayList<>();
+
+        for (Teacher t : allTeachers) {
+            if (t == null) {
                 continue;
             }
-            
-            // 生成唯一键：学员ID + 考试日期 + 考试类型
-            String studentId = String.valueOf(assignment.getStudent().getId());
-            String examDate = assignment.getExamDate() != null ? assignment.getExamDate() : "UNKNOWN";
-            String examType = assignment.getExamType() != null ? assignment.getExamType() : "UNKNOWN";
-            String uniqueKey = studentId + "_" + examDate + "_" + examType;
-            
-            if (uniqueMap.containsKey(uniqueKey)) {
-                duplicateCount++;
-                LOGGER.warning("🔍 [去重] 发现重复assignment: 学员=" + assignment.getStudent().getName() + 
-                             ", 日期=" + examDate + 
-                             ", 类型=" + examType +
-                             ", ID=" + assignment.getId());
-            } else {
-                uniqueMap.put(uniqueKey, assignment);
-            }
-        }
-        
-        if (duplicateCount > 0) {
-            LOGGER.warning("⚠️ [去重] 总共发现 " + duplicateCount + " 个重复的assignment");
-            LOGGER.info("✅ [去重] 去重后保留 " + uniqueMap.size() + " 个唯一assignment");
-        } else {
-            LOGGER.info("✅ [去重] 没有发现重复的assignment");
-        }
-        
-        return new ArrayList<>(uniqueMap.values());
-    }
-    
-    /**
-     * ✅ 验证初始解的HC4约束：每名考官每天只能监考一名考生
-     * 检查是否有考官在同一天被分配了多次（仅报告，不修复）
-     */
-    private void validateHC4Constraint(List<ExamAssignment> assignments) {
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        LOGGER.info("🔍 [HC4验证] 开始验证初始解的HC4约束（每名考官每天只能监考一名考生）");
-        
-        // Map<日期, Map<考官ID, List<分配详情>>>
-        Map<String, Map<String, List<String>>> dailyExaminerAssignments = new HashMap<>();
-        int violationCount = 0;
-        
-        for (ExamAssignment assignment : assignments) {
-            String date = assignment.getExamDate();
-            if (date == null) continue;
-            
-            dailyExaminerAssignments.putIfAbsent(date, new HashMap<>());
-            Map<String, List<String>> dateMap = dailyExaminerAssignments.get(date);
-            
-            String studentName = assignment.getStudent() != null ? assignment.getStudent().getName() : "未知";
-            
-            // 检查考官1
-            if (assignment.getExaminer1() != null) {
-                String examiner1Id = String.valueOf(assignment.getExaminer1().getId());
-                String examiner1Name = assignment.getExaminer1().getName();
-                dateMap.putIfAbsent(examiner1Id, new ArrayList<>());
-                dateMap.get(examiner1Id).add(studentName + "(考官1)");
-                
-                if (dateMap.get(examiner1Id).size() > 1) {
-                    LOGGER.severe("🚨 [HC4违反-初始解] 日期:" + date + ", 考官:" + examiner1Name + 
-                                " 被分配了" + dateMap.get(examiner1Id).size() + "次: " + 
-                                String.join(", ", dateMap.get(examiner1Id)));
-                    violationCount++;
-                }
+
+            String teacherDept = DepartmentNames.normalize(t.getDepartment());
+            if (studentDept == null || teacherDept == null ||
+                    "__INVALID_DEPARTMENT__".equals(studentDept) || "__INVALID_DEPARTMENT__".equals(teacherDept)) {
+                excludedInvalidDept++;
+                continue;
             }
-            
-            // 检查考官2
-            if (assignment.getExaminer2() != null) {
-                String examiner2Id = String.valueOf(assignment.getExaminer2().getId());
-                String examiner2Name = assignment.getExaminer2().getName();
-                dateMap.putIfAbsent(examiner2Id, new ArrayList<>());
-                dateMap.get(examiner2Id).add(studentName + "(考官2)");
-                
-                if (dateMap.get(examiner2Id).size() > 1) {
-                    LOGGER.severe("🚨 [HC4违反-初始解] 日期:" + date + ", 考官:" + examiner2Name + 
-                                " 被分配了" + dateMap.get(examiner2Id).size() + "次: " + 
-                                String.join(", ", dateMap.get(examiner2Id)));
-                    violationCount++;
-                }
+
+            if (!isValidExaminer1Department(studentDept, teacherDept)) {
+                continue;
             }
-            
-            // 检查备份考官
-            if (assignment.getBackupExaminer() != null) {
-                String backupId = String.valueOf(assignment.getBackupExaminer().getId());
-                String backupName = assignment.getBackupExaminer().getName();
-                dateMap.putIfAbsent(backupId, new ArrayList<>());
-                dateMap.get(backupId).add(studentName + "(备份)");
-                
-                if (dateMap.get(backupId).size() > 1) {
-                    LOGGER.severe("🚨 [HC4违反-初始解] 日期:" + date + ", 考官:" + backupName + 
-                                " 被分配了" + dateMap.get(backupId).size() + "次: " + 
-                                String.join(", ", dateMap.get(backupId)));
-                    violationCount++;
-                }
+            sameDeptMatch++;
+
+            if (t.isUnavailableOnDate(examDate, holidayConfig)) {
+                excludedUnavailable++;
+                continue;
             }
-        }
-        
-        if (violationCount > 0) {
-            LOGGER.severe("🚨🚨🚨 [HC4验证失败] 初始解存在 " + violationCount + " 个HC4约束违反！");
-            LOGGER.severe("   这表示初始解生成逻辑存在Bug，需要修复！");
-        } else {
-            LOGGER.info("✅ [HC4验证通过] 初始解满足HC4约束，没有考官在同一天被重复分配");
-        }
-        
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-    }
-    
-    /**
-     * 🔍 资源可用性诊断
-     * 分析学员、考官、日期的分布情况，帮助定位约束违反的原因
-     */
-    private void diagnoseResourceAvailability(
-            List<Student> students, 
-            List<Teacher> teachers, 
-            List<String> availableDates,
-            List<ExamAssignment> assignments) {
-        
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        LOGGER.info("🔍 [资源诊断] 开始分析资源分布情况");
-        
-        // 1. 学员科室分布
-        Map<String, Integer> studentDeptCount = new java.util.HashMap<>();
-        for (Student student : students) {
-            String dept = normalizeDepartment(student.getDepartment());
-            studentDeptCount.put(dept, studentDeptCount.getOrDefault(dept, 0) + 1);
-        }
-        LOGGER.info("📊 [学员科室分布] 总计" + students.size() + "名学员");
-        for (Map.Entry<String, Integer> entry : studentDeptCount.entrySet()) {
-            LOGGER.info("   - " + entry.getKey() + "室: " + entry.getValue() + "名");
-        }
-        
-        // 2. 考官科室分布
-        Map<String, Integer> teacherDeptCount = new java.util.HashMap<>();
-        for (Teacher teacher : teachers) {
-            String dept = normalizeDepartment(teacher.getDepartment());
-            teacherDeptCount.put(dept, teacherDeptCount.getOrDefault(dept, 0) + 1);
-        }
-        LOGGER.info("📊 [考官科室分布] 总计" + teachers.size() + "名考官");
-        for (Map.Entry<String, Integer> entry : teacherDeptCount.entrySet()) {
-            LOGGER.info("   - " + entry.getKey() + "室: " + entry.getValue() + "名");
-        }
-        
-        // 3. 资源充足性分析
-        LOGGER.info("📊 [资源充足性分析]");
-        for (Map.Entry<String, Integer> entry : studentDeptCount.entrySet()) {
-            String dept = entry.getKey();
-            int studentCount = entry.getValue();
-            int teacherCount = teacherDeptCount.getOrDefault(dept, 0);
-            int requiredTeachers = studentCount * 2; // 每个学员2天，每天需要1个考官1
-            
-            if (teacherCount < requiredTeachers) {
-                LOGGER.severe("⚠️ [资源不足] " + dept + "室：需要至少" + requiredTeachers + 
-                            "名考官（" + studentCount + "名学员×2天），但只有" + teacherCount + "名");
-            } else {
-                LOGGER.info("✅ [资源充足] " + dept + "室：" + studentCount + "名学员，" + 
-                          teacherCount + "名考官（充足）");
-            }
-        }
-        
-        // 4. 日期使用分析
-        LOGGER.info("📊 [日期范围] " + availableDates.size() + "个可用日期");
-        LOGGER.info("   起始: " + availableDates.get(0));
-        LOGGER.info("   结束: " + availableDates.get(availableDates.size() - 1));
-        
-        // 5. 初始解统计
-        LOGGER.info("📊 [初始解统计] 成功分配" + assignments.size() + "个考试");
-        int expectedAssignments = students.size() * 2; // 每个学员2天
-        if (assignments.size() < expectedAssignments) {
-            LOGGER.severe("⚠️ [初始解不完整] 预期" + expectedAssignments + "个，实际" + 
-                        assignments.size() + "个，缺少" + (expectedAssignments - assignments.size()) + "个");
-            LOGGER.severe("   这意味着某些学员无法找到符合HC2约束的考官1");
-            LOGGER.severe("   可能原因: 1.该科室考官不足 2.白班执勤冲突 3.考官时间冲突");
-        }
-        
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-    }
-    
-    /**
-     * 验证考官1科室是否有效（只允许同科室或三七室互通）
-     */
-    private boolean isValidExaminer1Department(String studentDept, String examiner1Dept) {
-        if (studentDept == null || examiner1Dept == null) return false;
-        
-        // 同科室（优先匹配）
-        if (studentDept.equals(examiner1Dept)) {
-            return true;
-        }
-        
-        // 三室七室互通（特殊规则）
-        if ((studentDept.equals("三") && examiner1Dept.equals("七")) ||
-            (studentDept.equals("七") && examiner1Dept.equals("三"))) {
-            return true;
-        }
-        
-        return false;
-    }
-    
-    /**
-     * 构建排班响应结果
-     */
-    public ScheduleResponse buildScheduleResponse(ExamSchedule solution) {
-        ScheduleResponse response = new ScheduleResponse();
-        
-        // 设置基本信息
-        response.setSuccess(true);
-        response.setScore(solution.getScore());
-        
-        // 设置分配结果
-        List<ExamAssignment> assignments = solution.getExamAssignments();
-        
-        // 🔧 **第一步：彻底去重（按学员+日期+考试类型）**
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        LOGGER.info("🔍 [去重检查] 开始检查并去除重复的assignment...");
-        List<ExamAssignment> deduplicatedAssignments = deduplicateAssignments(assignments);
-        if (deduplicatedAssignments.size() < assignments.size()) {
-            LOGGER.warning("⚠️ [去重] 移除了 " + (assignments.size() - deduplicatedAssignments.size()) + " 个重复的assignment");
-        }
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        
-        // 使用去重后的列表
-        assignments = deduplicatedAssignments;
-        
-        // 🔧 **关键修复：确保所有assignment都有有效的考官分配**
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        LOGGER.info("🔍 [数据完整性检查] 检查并修复考官分配...");
-        int fixedCount = fixIncompleteAssignments(assignments, solution.getTeachers());
-        if (fixedCount > 0) {
-            LOGGER.warning("⚠️ [数据完整性] 修复了 " + fixedCount + " 个不完整的考官分配");
-        }
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        
-        // ✅ 关键：在返回前再次验证并尝试修复HC3约束违反（白班限制）
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        LOGGER.info("🔍 [最终验证] 对求解后的solution进行HC3约束（白班限制）最终验证和修复");
-        int hc3ViolationsFixed = validateAndFixHC3ConstraintInFinalSolution(assignments, solution.getTeachers());
-        if (hc3ViolationsFixed > 0) {
-            LOGGER.warning("⚠️ [最终验证] 修复了 " + hc3ViolationsFixed + " 个HC3约束（白班）违反");
-        }
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        
-        // ✅ 关键：在返回前再次验证并尝试修复HC4约束违反
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        LOGGER.info("🔍 [最终验证] 对求解后的solution进行HC4约束最终验证和修复");
-        int hc4ViolationsFixed = validateAndFixHC4ConstraintInFinalSolution(assignments, solution.getTeachers());
-        if (hc4ViolationsFixed > 0) {
-            LOGGER.warning("⚠️ [最终验证] 修复了 " + hc4ViolationsFixed + " 个HC4约束违反");
-        }
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        
-        response.setAssignments(assignments);
-        
-        // 分配统计
-        OptimizedConstraintConfiguration constraintConfig = solution.getConstraintConfiguration();
-        long completeAssignments = assignments.stream()
-                .mapToLong(assignment -> isAssignmentComplete(assignment, constraintConfig) ? 1 : 0)
-                .sum();
-        
-        // 🔍 详细诊断：列出所有不完整的assignment
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        LOGGER.info("🔍 [分配完整性检查] 总数=" + assignments.size() + ", 完整=" + completeAssignments);
-        int incompleteIndex = 1;
-        for (ExamAssignment assignment : assignments) {
-            if (!isAssignmentComplete(assignment, constraintConfig)) {
-                LOGGER.severe("❌ [不完整#" + incompleteIndex + "] ID=" + assignment.getId() + 
-                            " | 学员=" + (assignment.getStudent() != null ? assignment.getStudent().getName() : "NULL") +
-                            " | 日期=" + assignment.getExamDate() +
-                            " | 考官1=" + (assignment.getExaminer1() != null ? assignment.getExaminer1().getName() : "NULL") +
-                            " | 考官2=" + (assignment.getExaminer2() != null ? assignment.getExaminer2().getName() : "NULL") +
-                            " | 备份=" + (assignment.getBackupExaminer() != null ? assignment.getBackupExaminer().getName() : "NULL"));
-                incompleteIndex++;
-            }
-        }
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        
-        response.setTotalAssignments(assignments.size());
-        response.setCompleteAssignments((int) completeAssignments);
-        response.setIncompleteAssignments(assignments.size() - (int) completeAssignments);
-        
-        // 构建并设置统计数据
-        ScheduleResponse.ScheduleStatistics statistics = new ScheduleResponse.ScheduleStatistics();
-        
-        // 设置基本统计
-        statistics.setTotalStudents(assignments.size() / 2); // 每个学员有两次考试
-        statistics.setAssignedStudents((int) completeAssignments / 2);
-        statistics.setCompletionPercentage(assignments.isEmpty() ? 0 : (double) completeAssignments / assignments.size() * 100);
-        
-        // 🔍 先验证约束违反情况，获取准确的违反数量
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        LOGGER.info("🔍 [约束验证] 开始验证最终解的约束情况...");
-        int hc2ViolationCount = 0;
-        List<ScheduleResponse.ConstraintViolation> conflictDetails = new ArrayList<>();
-
-        List<Teacher> allTeachers = solution.getTeachers() != null ? solution.getTeachers() : java.util.Collections.emptyList();
-        Map<String, java.util.Set<String>> teacherAssignedDatesIndex = buildTeacherAssignedDatesIndex(assignments);
-        
-        for (ExamAssignment assignment : assignments) {
-            if (assignment.getStudent() != null && 
-                assignment.getExaminer1() != null && 
-                assignment.getExaminer2() != null) {
-                
-                String studentName = assignment.getStudent().getName();
-                // #region agent log - 追踪原始科室数据
-                String studentDeptRaw = assignment.getStudent().getDepartment();
-                String examiner1DeptRaw = assignment.getExaminer1().getDepartment();
-                String examiner2DeptRaw = assignment.getExaminer2().getDepartment();
-                // #endregion
-                String studentDept = normalizeDepartment(studentDeptRaw);
-                String examiner1Name = assignment.getExaminer1().getName();
-                String examiner1Dept = normalizeDepartment(examiner1DeptRaw);
-                String examiner2Name = assignment.getExaminer2().getName();
-                String examiner2Dept = normalizeDepartment(examiner2DeptRaw);
-                String examDate = assignment.getExamDate();
-                
-                // #region agent log - 输出原始和标准化科室数据用于调试 (使用WARNING级别确保输出)
-                // 输出字节信息帮助诊断编码问题
-                String e1RawBytes = examiner1DeptRaw != null ? java.util.Arrays.toString(examiner1DeptRaw.getBytes(java.nio.charset.StandardCharsets.UTF_8)) : "null";
-                String e2RawBytes = examiner2DeptRaw != null ? java.util.Arrays.toString(examiner2DeptRaw.getBytes(java.nio.charset.StandardCharsets.UTF_8)) : "null";
-                LOGGER.warning("[DEBUG-HC2] Student:" + studentName + " rawDept=[" + studentDeptRaw + "] normalized=[" + studentDept + "]");
-                LOGGER.warning("[DEBUG-HC2] Examiner1:" + examiner1Name + " rawDept=[" + examiner1DeptRaw + "] rawBytes=" + e1RawBytes + " normalized=[" + examiner1Dept + "]");
-                LOGGER.warning("[DEBUG-HC2] Examiner2:" + examiner2Name + " rawDept=[" + examiner2DeptRaw + "] rawBytes=" + e2RawBytes + " normalized=[" + examiner2Dept + "]");
-                LOGGER.warning("[DEBUG-HC2] COMPARE: e1Dept=[" + examiner1Dept + "] e2Dept=[" + examiner2Dept + "] equals=" + examiner1Dept.equals(examiner2Dept));
-                // #endregion
-                
-                // 检查考官1是否与学员同科室（或三七互通）
-                boolean examiner1Valid = isValidExaminer1Department(studentDept, examiner1Dept);
-                
-                // 检查考官2是否与学员不同科室
-                boolean examiner2Valid = !studentDept.equals(examiner2Dept);
-                
-                // 检查两个考官是否来自不同科室
-                boolean differentExaminers = !examiner1Dept.equals(examiner2Dept);
-                
-                if (!examiner1Valid || !examiner2Valid || !differentExaminers) {
-                    hc2ViolationCount++;
-                    LOGGER.severe("🚨 [HC2违反] 学员: " + studentName + " (" + studentDept + "), " +
-                                "日期: " + examDate + ", " +
-                                "考官1: " + examiner1Name + " (" + examiner1Dept + ") " + 
-                                (examiner1Valid ? "✅" : "❌") + ", " +
-                                "考官2: " + examiner2Name + " (" + examiner2Dept + ") " +
-                                (examiner2Valid ? "✅" : "❌") + ", " +
-                                "考官间: " + (differentExaminers ? "✅异科室" : "❌同科室"));
-
-                    ScheduleResponse.ConstraintViolation conflict = new ScheduleResponse.ConstraintViolation();
-                    conflict.setType("hard");
-                    conflict.setConstraint("HC2");
-                    conflict.setSeverity("high");
-                    conflict.setDescription(
-                            "HC2违反: 学员(" + studentName + "/" + studentDept + "), 日期(" + examDate + "), " +
-                                    "考官1(" + examiner1Name + "/" + examiner1Dept + "), " +
-                                    "考官2(" + examiner2Name + "/" + examiner2Dept + ")"
-                    );
-                    conflict.setAffectedEntities(java.util.Arrays.asList(
-                            "student=" + studentName,
-                            "date=" + examDate,
-                            "examiner1=" + examiner1Name,
-                            "examiner2=" + examiner2Name
-                    ));
-
-                    CandidateFeasibility feasibility = analyzeExaminer1Feasibility(
-                            assignment.getStudent(),
-                            examDate,
-                            allTeachers,
-                            teacherAssignedDatesIndex
-                    );
-
-                    String feasibilityMsg = "可行性诊断: 同科室考官1候选=" + feasibility.candidateCount +
-                            " (同科室匹配=" + feasibility.sameDeptMatchCount +
-                            ", 白班排除=" + feasibility.excludedDayShift +
-                            ", 不可用排除=" + feasibility.excludedUnavailable +
-                            ", 已占用排除=" + feasibility.excludedAlreadyAssigned +
-                            ", 科室无效排除=" + feasibility.excludedInvalidDept + ")";
-
-                    String baseSuggestion;
-                    if (feasibility.candidateCount <= 0) {
-                        baseSuggestion = "该日期可能没有任何可用的同科室考官1，属于资源不可满足。建议: 增加该科室考官/调整不可用期/调整白班执勤或放宽规则，或扩大可排日期范围。";
-                    } else {
-                        baseSuggestion = "该日期存在可用同科室考官1，但求解结果仍违约。建议: 提高求解时间或更换求解模式(standard/precise)以确保找到0hard可行解；同时检查是否有其他硬约束把候选全部挤占。";
-                    }
-
-                    String candidatesPreview = feasibility.candidateNamesPreview != null && !feasibility.candidateNamesPreview.isEmpty()
-                            ? (" 候选示例: " + String.join("、", feasibility.candidateNamesPreview))
-                            : "";
-
-                    conflict.setSuggestion(baseSuggestion + " " + feasibilityMsg + candidatesPreview);
-                    conflictDetails.add(conflict);
-                } else {
-                    LOGGER.fine("✅ [HC2合规] 学员: " + studentName + " (" + studentDept + "), " +
-                              "考官1: " + examiner1Name + " (" + examiner1Dept + "), " +
-                              "考官2: " + examiner2Name + " (" + examiner2Dept + ")");
-                }
-            }
-        }
-
-        if (!conflictDetails.isEmpty()) {
-            response.setConflicts(conflictDetails);
-        }
-        
-        if (hc2ViolationCount > 0) {
-            LOGGER.severe("🚨🚨🚨 [HC2验证失败] 最终解存在 " + hc2ViolationCount + " 个HC2约束违反！");
-            LOGGER.severe("🚨 这表示后端约束检查逻辑存在严重Bug，或数据在求解后被意外修改！");
-        } else {
-            LOGGER.info("✅ [HC2验证通过] 所有分配都满足HC2约束");
-        }
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-
-        // ✅ HC2是硬约束：如果违反，不能当作成功排班结果返回
-        if (hc2ViolationCount > 0) {
-            response.setSuccess(false);
-        }
-        
-        // 🔧 🆕 新增：全面验证其他硬约束（HC1, HC3, HC4, HC6, HC7, HC8, HC8b, HC9, HC10）
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        LOGGER.info("🔍 [全面约束验证] 开始验证其他硬约束...");
-        
-        // HC1验证：法定节假日不能安排考试
-        int hc1ViolationCount = validateHC1Constraint(assignments);
-        
-        // HC3验证：考官执勤白班不能安排考试
-        int hc3ViolationCount = validateHC3Constraint(assignments);
-        
-        // HC4验证：每名考官每天只能监考一名考生
-        int hc4ViolationCount = validateHC4ConstraintForStats(assignments);
-        
-        // HC6验证：考生需要在连续两天完成考试
-        int hc6ViolationCount = validateHC6Constraint(assignments);
-        
-        // HC7验证：必须有考官1和考官2两名考官，且不能同科室
-        int hc7ViolationCount = validateHC7Constraint(assignments);
-        
-        // HC8验证：备份考官不能与考官1和考官2是同一人
-        int hc8ViolationCount = validateHC8Constraint(assignments);
-        
-        // HC8b验证：备份考官不能与考官1和考官2同科室
-        int hc8bViolationCount = validateHC8bConstraint(assignments);
-        
-        // HC9验证：考官不可用期不能安排考试
-        int hc9ViolationCount = validateHC9Constraint(assignments);
-        
-        // HC10验证：固定的排班不能改变（仅当存在固定排班时）
-        int hc10ViolationCount = validateHC10Constraint(assignments);
-        
-        // 汇总所有约束违反
-        int totalHardConstraintViolations = hc1ViolationCount + hc2ViolationCount + 
-                                           hc3ViolationCount + hc4ViolationCount + hc6ViolationCount + 
-                                           hc7ViolationCount + hc8ViolationCount + hc8bViolationCount + 
-                                           hc9ViolationCount + hc10ViolationCount;
-        
-        LOGGER.info("📊 [全面约束验证结果] 总违反数: " + totalHardConstraintViolations);
-        LOGGER.info("   HC1(节假日): " + hc1ViolationCount);
-        LOGGER.info("   HC2(科室): " + hc2ViolationCount);
-        LOGGER.info("   HC3(白班): " + hc3ViolationCount);
-        LOGGER.info("   HC4(考官每天一场): " + hc4ViolationCount);
-        LOGGER.info("   HC6(连续): " + hc6ViolationCount);
-        LOGGER.info("   HC7(两名考官): " + hc7ViolationCount);
-        LOGGER.info("   HC8(备份不重复): " + hc8ViolationCount);
-        LOGGER.info("   HC8b(备份不同科室): " + hc8bViolationCount);
-        LOGGER.info("   HC9(不可用期): " + hc9ViolationCount);
-        LOGGER.info("   HC10(固定排班): " + hc10ViolationCount);
-        
-        if (totalHardConstraintViolations > 0) {
-            LOGGER.severe("🚨🚨🚨 [全面约束验证失败] 发现 " + totalHardConstraintViolations + " 个硬约束违反！");
-            response.setSuccess(false);
-        } else {
-            LOGGER.info("✅ [全面约束验证通过] 所有硬约束都已满足");
-        }
-        LOGGER.info("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-        
-        // 🔧 修复：使用实际的约束违反数量，而不是得分的绝对值
-        // 设置得分信息
-        if (solution.getScore() != null) {
-            HardSoftScore score = solution.getScore();
-            statistics.setFinalScore(score);
-            
-            // ✅ 使用实际验证得到的违反数量（现在包括所有硬约束）
-            // 注意：hardScore是得分（带权重），不是违反数量！
-            // 例如：21个违反 × 权重(-4) = -84分
-            statistics.setHardConstraintViolations(totalHardConstraintViolations);
-            statistics.setSoftConstraintsScore(score.softScore());
-            
-            LOGGER.info("📊 [统计信息] 硬约束违反数: " + totalHardConstraintViolations + " (得分: " + score.hardScore() + ")");
-        }
-        
-        response.setStatistics(statistics);
-        
-        // 设置消息
-        if (solution.getScore() != null) {
-            HardSoftScore score = solution.getScore();
-            if (score.hardScore() < 0 || totalHardConstraintViolations > 0) {
-                response.setSuccess(false);
-                response.setMessage("排班完成，但存在 " + totalHardConstraintViolations + " 个硬约束违反 (HC1:" + hc1ViolationCount + 
-                    ", HC2:" + hc2ViolationCount + ", HC3:" + hc3ViolationCount + ", HC4:" + hc4ViolationCount +
-                    ", HC6:" + hc6ViolationCount + ", HC7:" + hc7ViolationCount + 
-                    ", HC8:" + hc8ViolationCount + ", HC8b:" + hc8bViolationCount +
-                    ", HC9:" + hc9ViolationCount + ", HC10:" + hc10ViolationCount +
-                    ", 硬约束得分: " + score.hardScore() + ")");
-            } else {
-                response.setMessage("排班成功完成 (得分: " + score + ")");
-            }
-        } else {
-            response.setMessage("排班计算完成");
-        }
-        
-        LOGGER.info("构建响应完成: 总分配=" + assignments.size() + 
-                   ", 完整分配=" + completeAssignments + 
-                   ", 硬约束违反=" + totalHardConstraintViolations +
-                   ", 得分=" + solution.getScore());
-        
-        // 🆕 生成智能指导信息（如果存在未分配或约束违反）
-        if (incompleteIndex > 1 || totalHardConstraintViolations > 0) {
-            try {
-                LOGGER.info("📋 [指导信息] 检测到排班问题，生成指导信息...");
-                
-                // 获取当前日期范围（从solution或assignments中推断）
-                String startDate = null;
-                String endDate = null;
-                if (!assignments.isEmpty()) {
-                    List<String> dates = assignments.stream()
-                        .map(ExamAssignment::getExamDate)
-                        .filter(d -> d != null)
-                        .sorted()
-                        .distinct()
-                        .collect(java.util.stream.Collectors.toList());
-                    if (!dates.isEmpty()) {
-                        startDate = dates.get(0);
-                        endDate = dates.get(dates.size() - 1);
-                    }
-                }
-                
-                if (startDate == null) {
-                    startDate = LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE);
-                    endDate = LocalDate.now().plusDays(14).format(DateTimeFormatter.ISO_LOCAL_DATE);
-                }
-                
-                com.examiner.scheduler.dto.SchedulingGuidanceDTO guidance = 
-                    guidanceService.generateGuidance(
-                        assignments,
-                        solution.getStudents(),
-                        solution.getTeachers(),
-                        startDate,
-                        endDate,
-                        response
-                    );
-                
-                if (guidance.isHasIssue()) {
-                    response.setGuidance(guidance);
-                    response.setShowGuidance(true);
-                    LOGGER.info("✅ [指导信息] 已生成并添加到响应中");
-                }
-            } catch (Exception e) {
-                LOGGER.warning("⚠️ [指导信息] 生成失败（不影响排班结果）: " + e.getMessage());
-            }
-        }
-        
-        return response;
-    }
-
-    private static Map<String, java.util.Set<String>> buildTeacherAssignedDatesIndex(List<ExamAssignment> assignments) {
-        Map<String, java.util.Set<String>> index = new java.util.HashMap<>();
-        if (assignments == null) {
-            return index;
-        }
-        for (ExamAssignment a : assignments) {
-            if (a == null || a.getExamDate() == null) {
-                continue;
-            }
-            String date = a.getExamDate();
-            if (a.getExaminer1() != null && a.getExaminer1().getId() != null) {
-                index.computeIfAbsent(a.getExaminer1().getId(), k -> new java.util.HashSet<>()).add(date);
-            }
-            if (a.getExaminer2() != null && a.getExaminer2().getId() != null) {
-                index.computeIfAbsent(a.getExaminer2().getId(), k -> new java.util.HashSet<>()).add(date);
-            }
-            if (a.getBackupExaminer() != null && a.getBackupExaminer().getId() != null) {
-                index.computeIfAbsent(a.getBackupExaminer().getId(), k -> new java.util.HashSet<>()).add(date);
-            }
-        }
-        return index;
-    }
-
-    private static final class CandidateFeasibility {
-        private final int candidateCount;
-        private final int sameDeptMatchCount;
-        private final int excludedDayShift;
-        private final int excludedUnavailable;
-        private final int excludedAlreadyAssigned;
-        private final int excludedInvalidDept;
-        private final java.util.List<String> candidateNamesPreview;
-
-        private CandidateFeasibility(
-                int candidateCount,
-                int sameDeptMatchCount,
-                int excludedDayShift,
-                int excludedUnavailable,
-                int excludedAlreadyAssigned,
-                int excludedInvalidDept,
-                java.util.List<String> candidateNamesPreview
-        ) {
-            this.candidateCount = candidateCount;
-            this.sameDeptMatchCount = sameDeptMatchCount;
-            this.excludedDayShift = excludedDayShift;
-            this.excludedUnavailable = excludedUnavailable;
-            this.excludedAlreadyAssigned = excludedAlreadyAssigned;
-            this.excludedInvalidDept = excludedInvalidDept;
-            this.candidateNamesPreview = candidateNamesPreview;
-        }
-    }
-
-    private CandidateFeasibility analyzeExaminer1Feasibility(
-            Student student,
-            String examDate,
-            List<Teacher> allTeachers,
-            Map<String, java.util.Set<String>> teacherAssignedDatesIndex
-    ) {
-        if (student == null || examDate == null) {
-            return new CandidateFeasibility(0, 0, 0, 0, 0, 0, java.util.Collections.emptyList());
-        }
-
-        String studentDept = normalizeDepartment(student.getDepartment());
-        DutySchedule duty = DutySchedule.forDate(examDate);
-
-        int sameDeptMatch = 0;
-        int excludedDayShift = 0;
-        int excludedUnavailable = 0;
-        int excludedAlreadyAssigned = 0;
-        int excludedInvalidDept = 0;
-
-        java.util.List<String> candidateNames = new java.util.ArrayList<>();
-
-        for (Teacher t : allTeachers) {
-            if (t == null) {
-                continue;
-            }
-
-            String teacherDept = normalizeDepartment(t.getDepartment());
-            if (studentDept == null || teacherDept == null ||
-                    "__INVALID_DEPARTMENT__".equals(studentDept) || "__INVALID_DEPARTMENT__".equals(teacherDept)) {
-                excludedInvalidDept++;
-                continue;
-            }
-
-            if (!isValidExaminer1Department(studentDept, teacherDept)) {
-                continue;
-            }
-            sameDeptMatch++;
-
-            if (t.isUnavailableOnDate(examDate, holidayConfig)) {
-                excludedUnavailable++;
-                continue;
-            }
-
-            if (!isTeacherAvailableOnDateNoLog(t, duty)) {
-                excludedDayShift++;
-                continue;
-            }
-
-            String teacherId = t.getId();
-            if (teacherId != null) {
-                java.util.Set<String> assignedDates = teacherAssignedDatesIndex.get(teacherId);
-                if (assignedDates != null && assignedDates.contains(examDate)) {
-                    excludedAlreadyAssigned++;
-                    continue;
-                }
-            }
-
-            if (candidateNames.size() < 5) {
-                candidateNames.add(t.getName());
-            }
-        }
-
-        int candidates = sameDeptMatch - excludedUnavailable - excludedDayShift - excludedAlreadyAssigned;
-        if (candidates < 0) {
-            candidates = 0;
-        }
-
-        return new CandidateFeasibility(
-                candidates,
-                sameDeptMatch,
-                excludedDayShift,
-                excludedUnavailable,
-                excludedAlreadyAssigned,
-                excludedInvalidDept,
-                candidateNames
-        );
-    }
-
-    private boolean isTeacherAvailableOnDateNoLog(Teacher teacher, DutySchedule dutySchedule) {
-        if (teacher == null || dutySchedule == null) {
-            return false;
-        }
-        if (teacher.isUnavailableOnDate(dutySchedule.getDate(), holidayConfig)) {
-            return false;
-        }
-        String teacherGroup = teacher.getGroup();
-        if (teacherGroup == null || "无".equals(teacherGroup) || "行政班".equals(teacherGroup) || teacherGroup.trim().isEmpty()) {
-            return true;
-        }
-        return !dutySchedule.isGroupOnDayShift(teacherGroup);
-    }
-    
-    @Transactional
-    public ScheduleHistory saveScheduleHistory(String scheduleName, ScheduleResponse response) {
-        if (response == null) {
-            return null;
-        }
-        try {
-            String scheduleData = objectMapper.writeValueAsString(response);
-            Integer totalStudents = null;
-            Integer scoreHard = null;
-            Integer scoreSoft = null;
-            if (response.getStatistics() != null) {
-                totalStudents = response.getStatistics().getTotalStudents();
-            }
-            if (response.getScore() != null) {
-                scoreHard = response.getScore().hardScore();
-                scoreSoft = response.getScore().softScore();
-            }
-            ScheduleHistory history = new ScheduleHistory(
-                scheduleName,
-                totalStudents,
-                response.getTotalAssignments(),
-                response.getCompleteAssignments(),
-                scoreHard,
-                scoreSoft,
-                null,
-                scheduleData
-            );
-            history.persist();
-            LOGGER.info("已保存排班历史记录: " + scheduleName + " (ID: " + history.id + ")");
-            return history;
-        } catch (Exception e) {
-            LOGGER.severe("保存排班历史记录失败: " + e.getMessage());
-            return null;
-        }
-    }
-    
-    /**
-     * 检查考官分配是否完整（根据约束配置）
-     */
-    private boolean isAssignmentComplete(ExamAssignment assignment, OptimizedConstraintConfiguration constraintConfig) {
-        if (constraintConfig != null && !constraintConfig.isTwoMainExaminersRequired()) {
-            // 如果不要求两名主考官，则只检查是否有考官1
-            return assignment.getExaminer1() != null;
-        }
-        
-        // 默认要求两名主考官
-        return assignment.getExaminer1() != null && assignment.getExaminer2() != null;
-    }
-    
-    /**
-     * 🔧 修复不完整的考官分配
-     * 为examiner1或examiner2为null的assignment分配可用的考官
-     * 这是为了解决前端显示"算法未分配"的问题
-     */
-    private int fixIncompleteAssignments(List<ExamAssignment> assignments, List<Teacher> teachers) {
-        int fixedCount = 0;
-        
-        for (ExamAssignment assignment : assignments) {
-            boolean needsFix = false;
-            String examDate = assignment.getExamDate();
-            Student student = assignment.getStudent();
-            
-            if (student == null || examDate == null) {
-                continue; // 无法修复缺少学员或日期的assignment
-            }
-            
-            // 检查并修复考官1
-            if (assignment.getExaminer1() == null) {
-                LOGGER.warning("⚠️ [修复] 学员 " + student.getName() + " 的考官1为null，尝试分配...");
-                Teacher examiner1 = findBestExaminerForStudent(student, examDate, teachers, assignment, true);
-                if (examiner1 != null) {
-                    assignment.setExaminer1(examiner1);
-                    LOGGER.info("✅ [修复] 为学员 " + student.getName() + " 分配了考官1: " + examiner1.getName());
-                    needsFix = true;
-                } else {
-                    LOGGER.severe("❌ [修复失败] 无法为学员 " + student.getName() + " 找到合适的考官1");
-                }
-            }
-            
-            // 检查并修复考官2
-            if (assignment.getExaminer2() == null) {
-                LOGGER.warning("⚠️ [修复] 学员 " + student.getName() + " 的考官2为null，尝试分配...");
-                Teacher examiner2 = findBestExaminerForStudent(student, examDate, teachers, assignment, false);
-                if (examiner2 != null) {
-                    assignment.setExaminer2(examiner2);
-                    LOGGER.info("✅ [修复] 为学员 " + student.getName() + " 分配了考官2: " + examiner2.getName());
-                    needsFix = true;
-                } else {
-                    LOGGER.severe("❌ [修复失败] 无法为学员 " + student.getName() + " 找到合适的考官2");
-                }
-            }
-            
-            if (needsFix) {
-                fixedCount++;
-            }
-        }
-        
-        return fixedCount;
-    }
-    
-    /**
-     * 为学员寻找最佳考官
-     * @param isExaminer1 true表示寻找考官1（同科室），false表示寻找考官2（不同科室）
-     */
-    private Teacher findBestExaminerForStudent(Student student, String examDate, 
-                                                List<Teacher> teachers, 
-                                                ExamAssignment currentAssignment,
-                                                boolean isExaminer1) {
-        String studentDept = normalizeDepartment(student.getDepartment());
-        Teacher assignedExaminer1 = currentAssignment.getExaminer1();
-        
-        for (Teacher teacher : teachers) {
-            String teacherDept = normalizeDepartment(teacher.getDepartment());
-            
-            // 检查科室条件
-            if (isExaminer1) {
-                // 考官1必须与学员同科室
-                if (!isValidExaminer1Department(studentDept, teacherDept)) {
-                    continue;
-                }
-            } else {
-                // 考官2必须与学员不同科室
-                if (studentDept.equals(teacherDept)) {
-                    continue;
-                }
-                // 考官2还必须与考官1不同科室
-                if (assignedExaminer1 != null) {
-                    String examiner1Dept = normalizeDepartment(assignedExaminer1.getDepartment());
-                    if (examiner1Dept.equals(teacherDept)) {
-                        continue;
-                    }
-                }
-            }
-            
-            // 检查考官是否可用（不在不可用期，且当天未被分配）
-            if (teacher.isUnavailableOnDate(examDate, holidayConfig)) {
-                continue;
-            }
-            
-            // 检查是否是行政班考官（周末不能考试）
-            try {
-                LocalDate date = LocalDate.parse(examDate);
-                int dayOfWeek = date.getDayOfWeek().getValue();
-                if ((dayOfWeek == 6 || dayOfWeek == 7) && isAdminTeacher(teacher)) {
-                    continue; // 周末行政班考官不可用
-                }
-            } catch (Exception e) {
-                // 日期解析失败，跳过周末检查
-            }
-            
-            // 找到合适的考官
-            return teacher;
-        }
-        
-        return null; // 未找到合适的考官
-    }
-    
-    /**
-     * 检查是否是行政班考官
-     * 特征：group = "行政班" 或 "无" 或为空值
-     */
-    private boolean isAdminTeacher(Teacher teacher) {
-        if (teacher == null) {
-            return false;
-        }
-        String group = teacher.getGroup();
-        // 同时支持前端的"行政班"和后端的"无"
-        return group == null || "无".equals(group) || "行政班".equals(group) || group.trim().isEmpty();
-    }
-    
-    /**
-     * 生成时间段
-     */
-    private List<TimeSlot> generateTimeSlots(String startDate, String endDate) {
-        List<TimeSlot> timeSlots = new ArrayList<>();
-        
-        try {
-            LocalDate start = LocalDate.parse(startDate, DateTimeFormatter.ISO_LOCAL_DATE);
-            LocalDate end = LocalDate.parse(endDate, DateTimeFormatter.ISO_LOCAL_DATE);
-            
-            LocalDate current = start;
-            int slotId = 1;
-            
-            while (!current.isAfter(end)) {
-                // 使用HolidayConfig统一判断工作日（考虑周末、节假日和调休）
-                if (holidayConfig.isWorkingDay(current)) {
-                    // 上午时段
-                    TimeSlot morningSlot = new TimeSlot();
-                    morningSlot.setId((long) slotId++);
-                    morningSlot.setDate(current.toString());
-                    morningSlot.setTimeRange("08:00-12:00");
-                    morningSlot.setPeriod("上午");
-                    timeSlots.add(morningSlot);
-                    
-                    // 下午时段
-                    TimeSlot afternoonSlot = new TimeSlot();
-                    afternoonSlot.setId((long) slotId++);
-                    afternoonSlot.setDate(current.toString());
-                    afternoonSlot.setTimeRange("14:00-18:00");
-                    afternoonSlot.setPeriod("下午");
-                    timeSlots.add(afternoonSlot);
-                }
-                
-                current = current.plusDays(1);
-            }
-            
-        } catch (Exception e) {
-            LOGGER.severe("生成时间段时发生错误: " + e.getMessage());
-        }
-        
-        LOGGER.info("生成时间段完成: " + timeSlots.size() + " 个时段");
-        return timeSlots;
-    }
-    
-    /**
-     * 生成可用日期列表（仅工作日，考虑节假日和调休）
-     */
-    private List<String> generateAvailableDates(String startDate, String endDate) {
-        List<String> availableDates = new ArrayList<>();
-        
-        try {
-            LocalDate start = LocalDate.parse(startDate, DateTimeFormatter.ISO_LOCAL_DATE);
-            LocalDate end = LocalDate.parse(endDate, DateTimeFormatter.ISO_LOCAL_DATE);
-            
-            LocalDate current = start;
-            while (!current.isAfter(end)) {
-                // ✅ [HC1修复] 严格过滤节假日：先检查是否是节假日，节假日绝对不能考试
-                if (holidayConfig.isHoliday(current)) {
-                    // 🚫 节假日（包括国庆、春节等），直接跳过
-                    LOGGER.fine("⛔ 跳过节假日: " + current);
-                    current = current.plusDays(1);
-                    continue;
-                }
-                
-                // ✅ 非节假日：工作日或普通周末都可以考试
-                if (holidayConfig.isWorkingDay(current)) {
-                    // 工作日（含调休）
-                    availableDates.add(current.toString());
-                    LOGGER.fine("✅ 添加工作日: " + current);
-                } else {
-                    // 非工作日（普通周末，非节假日）
-                    DayOfWeek dayOfWeek = current.getDayOfWeek();
-                    if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
-                        availableDates.add(current.toString());
-                        LOGGER.fine("✅ 添加周末: " + current);
-                    }
-                }
-                current = current.plusDays(1);
-            }
-            
-        } catch (Exception e) {
-            LOGGER.severe("生成可用日期时发生错误: " + e.getMessage());
-        }
-        
-        return availableDates;
-    }
-    
-    /**
-     * 🔧 智能为学员寻找最佳考试日期（考虑HC6约束和连续两天要求）
-     */
-    private String findBestExamDateForStudent(Student student, List<String> availableDates) {
-        String studentGroup = student.getGroup();
-        if (studentGroup == null) {
-            // 没有班组信息，返回第一个可用日期
-            return availableDates.isEmpty() ? null : availableDates.get(0);
-        }
-        
-        // 🎯 智能搜索：寻找连续两天都不违反HC6约束的日期对
-        for (int i = 0; i < availableDates.size() - 1; i++) {
-            String firstDate = availableDates.get(i);
-            String secondDate = availableDates.get(i + 1);
-            
-            try {
-                LocalDate firstDay = LocalDate.parse(firstDate);
-                LocalDate secondDay = LocalDate.parse(secondDate);
-                
-                // 检查是否连续两天
-                if (secondDay.equals(firstDay.plusDays(1))) {
-                    DutySchedule firstDuty = DutySchedule.forDate(firstDate);
-                    DutySchedule secondDuty = DutySchedule.forDate(secondDate);
-                    
-                    // 检查两天都不是学员白班执勤日（HC6约束）
-                    boolean firstDayOk = !firstDuty.isGroupOnDayShift(studentGroup);
-                    boolean secondDayOk = !secondDuty.isGroupOnDayShift(studentGroup);
-                    
-                    if (firstDayOk && secondDayOk) {
-                        LOGGER.info("✅ 学员 " + student.getName() + " 找到最佳连续考试日期: " + firstDate + " -> " + secondDate + " (均非白班执勤日)");
-                        return firstDate; // 返回第一天，第二天会自动设置
-                    } else {
-                        LOGGER.fine("⚠️ 学员 " + student.getName() + " 日期对 " + firstDate + " -> " + secondDate + " 不符合约束: 第一天=" + 
-                                    (firstDayOk ? "可用" : "白班冲突") + ", 第二天=" + (secondDayOk ? "可用" : "白班冲突"));
-                    }
-                }
-            } catch (Exception e) {
-                LOGGER.warning("⚠️ 无法解析日期对: " + firstDate + " -> " + secondDate);
-            }
-        }
-        
-        // 如果找不到完美的连续日期对，寻找单独的非白班日期
-        for (String date : availableDates) {
-            try {
-                DutySchedule dutySchedule = DutySchedule.forDate(date);
-                if (!dutySchedule.isGroupOnDayShift(studentGroup)) {
-                    LOGGER.info("✅ 学员 " + student.getName() + " 选择次优考试日期: " + date + " (非白班执勤日)");
-                    return date;
-                }
-            } catch (Exception e) {
-                LOGGER.warning("⚠️ 无法解析日期: " + date);
-            }
-        }
-        
-        // 最后选择：返回第一个可用日期（让约束系统处理冲突）
-        String defaultDate = availableDates.isEmpty() ? "无" : availableDates.get(0);
-        LOGGER.warning("⚠️ 学员 " + student.getName() + " 无法找到理想考试日期，使用默认日期 " + defaultDate + " (可能违反约束)");
-        return availableDates.isEmpty() ? null : availableDates.get(0);
-    }
-    
-    /**
-     * 🔧 新增：判断考官在指定日期是否可用（非白班执勤且非行政班限制）
-     * 🔧 修复：节假日不检查不可用期（节假日由HC1约束单独处理，避免逻辑冗余）
-     */
-    private boolean isTeacherAvailableOnDate(Teacher teacher, DutySchedule dutySchedule) {
-        // 🆕 HC9检查：首先检查考官在该日期是否在不可用期内（传入holidayConfig过滤节假日）
-        if (teacher.isUnavailableOnDate(dutySchedule.getDate(), holidayConfig)) {
-            String reason = teacher.getUnavailableReason(dutySchedule.getDate());
-            LOGGER.warning("❌ [HC9] 考官 " + teacher.getName() + " 在 " + dutySchedule.getDate() + 
-                         " 不可用 (原因: " + (reason != null ? reason : "未说明") + ")");
-            return false;
-        }
-        
-        String teacherGroup = teacher.getGroup();
-        
-        // 🔧 修复：行政班考官判断（group为null、"无"或空）
-        if (teacherGroup == null || "无".equals(teacherGroup) || "行政班".equals(teacherGroup) || teacherGroup.trim().isEmpty()) {
-            return true; // 行政班考官始终可用（如果不在不可用期内）
-        }
-        
-        // 非白班执勤的考官可用（晚班或休息）
-        boolean isAvailable = !dutySchedule.isGroupOnDayShift(teacherGroup);
-        
-        if (isAvailable) {
-            if (dutySchedule.isGroupOnNightShift(teacherGroup)) {
-                LOGGER.info("🌙 考官 " + teacher.getName() + " 为晚班，优先推荐");
-            } else if (dutySchedule.isGroupResting(teacherGroup)) {
-                LOGGER.info("😴 考官 " + teacher.getName() + " 为休息班组，可以安排");
-            }
-        }
-        
-        return isAvailable;
-    }
-    
-    /**
-     * 🔧 新增：计算考官在指定日期的优先级
-     * 晚班100 > 休息第一天80 > 休息第二天60 > 行政班40 > 其他10
-     */
-    private int calculateTeacherPriority(Teacher teacher, DutySchedule dutySchedule) {
-        String teacherGroup = teacher.getGroup();
-        
-        // 🔧 修复：行政班考官判断（group为null、"无"或空）
-        if (teacherGroup == null || "无".equals(teacherGroup) || "行政班".equals(teacherGroup) || teacherGroup.trim().isEmpty()) {
-            return 40; // 行政班中等优先级
-        }
-        
-        // 晚班最高优先级
-        if (dutySchedule.isGroupOnNightShift(teacherGroup)) {
-            return 100;
-        }
-        
-        // 休息班组次高优先级
-        java.util.List<String> restGroups = dutySchedule.getRestGroups();
-        if (restGroups != null && restGroups.size() >= 1 && restGroups.get(0).equals(teacherGroup)) {
-            return 80; // 休息第一天
-        }
-        if (restGroups != null && restGroups.size() >= 2 && restGroups.get(1).equals(teacherGroup)) {
-            return 60; // 休息第二天
-        }
-        
-        return 10; // 其他情况（白班或未知）
-    }
-    
-    /**
-     * 🔧 辅助方法：判断考官在指定日期是否白班
-     */
-    private boolean isDayShiftTeacher(Teacher teacher, String date) {
-        if (teacher == null || date == null) return false;
-        
-        String group = teacher.getGroup();
-        if (group == null || "无".equals(group) || "行政班".equals(group) || group.trim().isEmpty()) {
-            return false; // 行政班不算白班
-        }
-        
-        try {
-            DutySchedule dutySchedule = new DutySchedule(date);
-            return dutySchedule.isGroupOnDayShift(group);
-        } catch (Exception e) {
-            return false;
-        }
-    }
-    
-    /**
-     * 🔧 辅助方法：判断考官在指定日期是否晚班
-     */
-    private boolean isNightShiftTeacher(Teacher teacher, String date) {
-        if (teacher == null || date == null) return false;
-        
-        String group = teacher.getGroup();
-        if (group == null || "无".equals(group) || "行政班".equals(group) || group.trim().isEmpty()) {
-            return false; // 行政班不算晚班
-        }
-        
-        try {
-            DutySchedule dutySchedule = new DutySchedule(date);
-            return dutySchedule.isGroupOnNightShift(group);
-        } catch (Exception e) {
-            return false;
-        }
-    }
-    
-    /**
-     * 🔧 辅助方法：判断考官在指定日期是否休息第一天
-     */
-    private boolean isFirstRestDayTeacher(Teacher teacher, String date) {
-        if (teacher == null || date == null) return false;
-        
-        String group = teacher.getGroup();
-        if (group == null || "无".equals(group) || "行政班".equals(group) || group.trim().isEmpty()) {
-            return false;
-        }
-        
-        try {
-            DutySchedule dutySchedule = new DutySchedule(date);
-            java.util.List<String> restGroups = dutySchedule.getRestGroups();
-            return restGroups != null && restGroups.size() >= 1 && restGroups.get(0).equals(group);
-        } catch (Exception e) {
-            return false;
-        }
-    }
-    
-    /**
-     * 🔧 辅助方法：判断考官在指定日期是否休息第二天
-     */
-    private boolean isSecondRestDayTeacher(Teacher teacher, String date) {
-        if (teacher == null || date == null) return false;
-        
-        String group = teacher.getGroup();
-        if (group == null || "无".equals(group) || "行政班".equals(group) || group.trim().isEmpty()) {
-            return false;
-        }
-        
-        try {
-            DutySchedule dutySchedule = new DutySchedule(date);
-            java.util.List<String> restGroups = dutySchedule.getRestGroups();
-            return restGroups != null && restGroups.size() >= 2 && restGroups.get(1).equals(group);
-        } catch (Exception e) {
-            return false;
-        }
-    }
-    
-    // ==================== 🆕 新增：全面硬约束验证方法 ====================
-    
-    /**
-     * ✅ HC1验证：法定节假日不能安排考试
-     * @param assignments 分配结果
-     * @return 违反数量
-     */
-    private int validateHC1Constraint(List<ExamAssignment> assignments) {
-        int violationCount = 0;
-        
-        for (ExamAssignment assignment : assignments) {
-            if (assignment.getExamDate() == null) continue;
-            
-            try {
-                LocalDate date = LocalDate.parse(assignment.getExamDate());
-                if (holidayConfig.isHoliday(date)) {
-                    violationCount++;
-                    LOGGER.severe("🚨 [HC1违反] 节假日安排了考试: " + assignment.getExamDate() + 
-                        " 学员: " + (assignment.getStudent() != null ? assignment.getStudent().getName() : "未知"));
-                }
-            } catch (Exception e) {
-                LOGGER.warning("⚠️ [HC1验证] 日期解析失败: " + assignment.getExamDate());
+
+            if (!isTeacherAvailableOnDateNoLog(t, duty)) {
+                excludedDayShift++;
+                continue;
             }
-        }
-        
-        return violationCount;
-    }
-    
-    /**
-     * ✅ HC3验证：考官执勤白班不能安排考试
-     * @param assignments 分配结果
-     * @return 违反数量
-     */
-    private int validateHC3Constraint(List<ExamAssignment> assignments) {
-        int violationCount = 0;
-        
-        for (ExamAssignment assignment : assignments) {
-            String examDate = assignment.getExamDate();
-            if (examDate == null) continue;
-            
-            try {
-                DutySchedule dutySchedule = DutySchedule.forDate(examDate);
-                String dayShiftGroup = dutySchedule.getDayShift();
-                
-                // 检查考官1（非行政班）
-                if (assignment.getExaminer1() != null && 
-                    !isAdminTeacher(assignment.getExaminer1()) &&
-                    dayShiftGroup.equals(assignment.getExaminer1().getGroup())) {
-                    violationCount++;
-                    LOGGER.severe("🚨 [HC3违反] 考官1 " + assignment.getExaminer1().getName() + 
-                        " 在白班执勤日被安排考试: " + examDate);
-                }
-                
-                // 检查考官2（非行政班）
-                if (assignment.getExaminer2() != null && 
-                    !isAdminTeacher(assignment.getExaminer2()) &&
-                    dayShiftGroup.equals(assignment.getExaminer2().getGroup())) {
-                    violationCount++;
-                    LOGGER.severe("🚨 [HC3违反] 考官2 " + assignment.getExaminer2().getName() + 
-                        " 在白班执勤日被安排考试: " + examDate);
-                }
-                
-                // 检查备份考官（非行政班）
-                if (assignment.getBackupExaminer() != null && 
-                    !isAdminTeacher(assignment.getBackupExaminer()) &&
-                    dayShiftGroup.equals(assignment.getBackupExaminer().getGroup())) {
-                    violationCount++;
-                    LOGGER.severe("🚨 [HC3违反] 备份考官 " + assignment.getBackupExaminer().getName() + 
-                        " 在白班执勤日被安排考试: " + examDate);
+
+            String teacherId = t.getId();
+            if (teacherId != null) {
+                java.util.Set<String> assignedDates = teacherAssignedDatesIndex.get(teacherId);
+                if (assignedDates != null && assignedDates.contains(examDate)) {
+                    excludedAlreadyAssigned++;
+                    continue;
                 }
-            } catch (Exception e) {
-                LOGGER.warning("⚠️ [HC3验证] 检查失败: " + e.getMessage());
             }
-        }
-        
-        return violationCount;
-    }
-    
-    /**
-     * ✅ HC6验证：考生需要在连续两天完成考试
-     * @param assignments 分配结果
-     * @return 违反数量
-     */
-    private int validateHC6Constraint(List<ExamAssignment> assignments) {
-        int violationCount = 0;
-        
-        // 按学员分组
-        Map<Student, List<ExamAssignment>> studentAssignments = new HashMap<>();
-        for (ExamAssignment assignment : assignments) {
-            if (assignment.getStudent() != null) {
-                studentAssignments.computeIfAbsent(assignment.getStudent(), k -> new ArrayList<>()).add(assignment);
+
+            if (candidateNames.size() < 5) {
+                candidateNames.add(t.getName());
             }
         }
-        
-        for (Map.Entry<Student, List<ExamAssignment>> entry : studentAssignments.entrySet()) {
-            List<ExamAssignment> studentExams = entry.getValue();
-            
-            // 只检查有两天考试的学员
-            if (studentExams.size() == 2) {
-                try {
-                    LocalDate day1 = LocalDate.parse(studentExams.get(0).getExamDate());
-                    LocalDate day2 = LocalDate.parse(studentExams.get(1).getExamDate());
-                    long daysBetween = Math.abs(ChronoUnit.DAYS.between(day1, day2));
-                    
-                    if (daysBetween != 1) {
-                        violationCount++;
-                        LOGGER.severe("🚨 [HC6违反] 学员 " + entry.getKey().getName() + 
-                            " 两天考试不连续: " + day1 + " 和 " + day2 + " (间隔" + daysBetween + "天)");
-                    }
-                } catch (Exception e) {
-                    LOGGER.warning("⚠️ [HC6验证] 日期解析失败: " + e.getMessage());
-                }
-            }
+
+        int candidates = sameDeptMatch - excludedUnavailable - excludedDayShift - excludedAlreadyAssigned;
+        if (candidates < 0) {
+            candidates = 0;
         }
-        
-        return violationCount;
+
+        return new CandidateFeasibility(
+                candidates,
+                sameDeptMatch,
+                excludedDayShift,
+                excludedUnavailable,
+                excludedAlreadyAssigned,
+                excludedInvalidDept,
+                candidateNames
+        );
     }
-    
-    /**
-     * ✅ HC7验证：必须有考官1和考官2两名考官，且不能同科室
-     * @param assignments 分配结果
-     * @return 违反数量
-     */
-    private int validateHC7Constraint(List<ExamAssignment> assignments) {
-        int violationCount = 0;
-        
-        for (ExamAssignment assignment : assignments) {
-            // 检查是否缺少考官
-            if (assignment.getExaminer1() == null || assignment.getExaminer2() == null) {
-                violationCount++;
-                LOGGER.severe("🚨 [HC7违反] 缺少考官: " + 
-                    (assignment.getStudent() != null ? assignment.getStudent().getName() : "未知") +
-                    " 考官1=" + (assignment.getExaminer1() != null ? assignment.getExaminer1().getName() : "NULL") +
-                    " 考官2=" + (assignment.getExaminer2() != null ? assignment.getExaminer2().getName() : "NULL"));
-                continue;
-            }
-            
-            // 检查两名考官是否同科室
-            String examiner1Dept = normalizeDepartment(assignment.getExaminer1().getDepartment());
-            String examiner2Dept = normalizeDepartment(assignment.getExaminer2().getDepartment());
-            
-            if (examiner1Dept.equals(examiner2Dept)) {
-                violationCount++;
-                LOGGER.severe("🚨 [HC7违反] 两名考官同科室: " + 
-                    assignment.getExaminer1().getName() + "(" + examiner1Dept + ") 和 " +
-                    assignment.getExaminer2().getName() + "(" + examiner2Dept + ")");
-            }
+
+    private boolean isTeacherAvailableOnDateNoLog(Teacher teacher, DutySchedule dutySchedule) {
+        if (teacher == null || dutySchedule == null) {
+            return false;
         }
-        
-        return violationCount;
+        if (teacher.isUnavailableOnDate(dutySchedule.getDate(), holidayConfig)) {
+            return false;
+        }
+        String teacherGroup = teacher.getGroup();
+        if (teacherGroup == null || "无".equals(teacherGroup) || "行政班".equals(teacherGroup) || teacherGroup.trim().isEmpty()) {
+            return true;
+        }
+        return !dutySchedule.isGroupOnDayShift(teacherGroup);
     }
     
-    /**
-     * ✅ HC8验证：备份考官不能与考官1和考官2是同一人
-     * @param assignments 分配结果
-     * @return 违反数量
-     */
-    private int validateHC8Constraint(List<ExamAssignment> assignments) {
-        int violationCount = 0;
-        
-        for (ExamAssignment assignment : assignments) {
-            if (assignment.getBackupExaminer() == null) continue;
-            
-            String backupId = assignment.getBackupExaminer().getId();
-            
-            // 检查备份考官是否与考官1是同一人
-            if (assignment.getExaminer1() != null && 
-                backupId.equals(assignment.getExaminer1().getId())) {
-                violationCount++;
-                LOGGER.severe("🚨 [HC8违反] 备份考官与考官1是同一人: " + 
-                    assignment.getBackupExaminer().getName());
+    @Transactional
+    public ScheduleHistory saveScheduleHistory(String scheduleName, ScheduleResponse response) {
+        if (response == null) {
+            return null;
+        }
+        try {
+            String scheduleData = objectMapper.writeValueAsString(response);
+            Integer totalStudents = null;
+            Integer scoreHard = null;
+            Integer scoreSoft = null;
+            if (response.getStatistics() != null) {
+                totalStudents = response.getStatistics().getTotalStudents();
             }
-            
-            // 检查备份考官是否与考官2是同一人
-            if (assignment.getExaminer2() != null && 
-                backupId.equals(assignment.getExaminer2().getId())) {
-                violationCount++;
-                LOGGER.severe("🚨 [HC8违反] 备份考官与考官2是同一人: " + 
-                    assignment.getBackupExaminer().getName());
+            if (response.getScore() != null) {
+                scoreHard = response.getScore().hardScore();
+                scoreSoft = response.getScore().softScore();
             }
+            ScheduleHistory history = new ScheduleHistory(
+                scheduleName,
+                totalStudents,
+                response.getTotalAssignments(),
+                response.getCompleteAssignments(),
+                scoreHard,
+                scoreSoft,
+                null,
+                scheduleData
+            );
+            history.persist();
+            LOGGER.info("已保存排班历史记录: " + scheduleName + " (ID: " + history.id + ")");
+            return history;
+        } catch (Exception e) {
+            LOGGER.severe("保存排班历史记录失败: " + e.getMessage());
+            return null;
         }
-        
-        return violationCount;
     }
     
     /**
-     * ✅ HC9验证：考官不可用期不能安排考试
-     * @param assignments 分配结果
-     * @return 违反数量
+     * 检查考官分配是否完整（根据约束配置）
      */
-    private int validateHC9Constraint(List<ExamAssignment> assignments) {
-        int violationCount = 0;
-        
-        for (ExamAssignment assignment : assignments) {
-            String examDate = assignment.getExamDate();
-            if (examDate == null) continue;
-            
-            // 检查考官1
-            if (assignment.getExaminer1() != null && 
-                assignment.getExaminer1().isUnavailableOnDate(examDate, holidayConfig)) {
-                violationCount++;
-                LOGGER.severe("🚨 [HC9违反] 考官1 " + assignment.getExaminer1().getName() + 
-                    " 在不可用期被安排考试: " + examDate);
-            }
-            
-            // 检查考官2
-            if (assignment.getExaminer2() != null && 
-                assignment.getExaminer2().isUnavailableOnDate(examDate, holidayConfig)) {
-                violationCount++;
-                LOGGER.severe("🚨 [HC9违反] 考官2 " + assignment.getExaminer2().getName() + 
-                    " 在不可用期被安排考试: " + examDate);
-            }
-            
-            // 检查备份考官
-            if (assignment.getBackupExaminer() != null && 
-                assignment.getBackupExaminer().isUnavailableOnDate(examDate, holidayConfig)) {
-                violationCount++;
-                LOGGER.severe("🚨 [HC9违反] 备份考官 " + assignment.getBackupExaminer().getName() + 
-                    " 在不可用期被安排考试: " + examDate);
-            }
+    private boolean isAssignmentComplete(ExamAssignment assignment, OptimizedConstraintConfiguration constraintConfig) {
+        if (constraintConfig != null && !constraintConfig.isTwoMainExaminersRequired()) {
+            // 如果不要求两名主考官，则只检查是否有考官1
+            return assignment.getExaminer1() != null;
         }
         
-        return violationCount;
+        // 默认要求两名主考官
+        return assignment.getExaminer1() != null && assignment.getExaminer2() != null;
     }
     
     /**
-     * ✅ HC4验证：每名考官每天只能监考一名考生（用于统计）
-     * @param assignments 分配结果
-     * @return 违反数量
+     * 生成时间段
      */
-    private int validateHC4ConstraintForStats(List<ExamAssignment> assignments) {
-        int violationCount = 0;
-        Map<String, Set<String>> examinerDateMap = new HashMap<>();
+    private List<TimeSlot> generateTimeSlots(String startDate, String endDate) {
+        List<TimeSlot> timeSlots = new ArrayList<>();
         
-        for (ExamAssignment assignment : assignments) {
-            String examDate = assignment.getExamDate();
-            if (examDate == null) continue;
+        try {
+            LocalDate start = LocalDate.parse(startDate, DateTimeFormatter.ISO_LOCAL_DATE);
+            LocalDate end = LocalDate.parse(endDate, DateTimeFormatter.ISO_LOCAL_DATE);
             
-            // 检查考官1
-            if (assignment.getExaminer1() != null) {
-                String key = assignment.getExaminer1().getName() + "@" + examDate;
-                if (examinerDateMap.containsKey(key)) {
-                    violationCount++;
-                    LOGGER.severe("🚨 [HC4违反] 考官1 " + assignment.getExaminer1().getName() + 
-                        " 在 " + examDate + " 被安排多场考试");
-                } else {
-                    examinerDateMap.put(key, new HashSet<>());
-                }
-            }
+            LocalDate current = start;
+            int slotId = 1;
             
-            // 检查考官2
-            if (assignment.getExaminer2() != null) {
-                String key = assignment.getExaminer2().getName() + "@" + examDate;
-                if (examinerDateMap.containsKey(key)) {
-                    violationCount++;
-                    LOGGER.severe("🚨 [HC4违反] 考官2 " + assignment.getExaminer2().getName() + 
-                        " 在 " + examDate + " 被安排多场考试");
-                } else {
-                    examinerDateMap.put(key, new HashSet<>());
+            while (!current.isAfter(end)) {
+                // 使用HolidayConfig统一判断工作日（考虑周末、节假日和调休）
+                if (holidayConfig.isWorkingDay(current)) {
+                    // 上午时段
+                    TimeSlot morningSlot = new TimeSlot();
+                    morningSlot.setId((long) slotId++);
+                    morningSlot.setDate(current.toString());
+                    morningSlot.setTimeRange("08:00-12:00");
+                    morningSlot.setPeriod("上午");
+                    timeSlots.add(morningSlot);
+                    
+                    // 下午时段
+                    TimeSlot afternoonSlot = new TimeSlot();
+                    afternoonSlot.setId((long) slotId++);
+                    afternoonSlot.setDate(current.toString());
+                    afternoonSlot.setTimeRange("14:00-18:00");
+                    afternoonSlot.setPeriod("下午");
+                    timeSlots.add(afternoonSlot);
                 }
+                
+                current = current.plusDays(1);
             }
             
-            // 检查备份考官
-            if (assignment.getBackupExaminer() != null) {
-                String key = assignment.getBackupExaminer().getName() + "@" + examDate;
-                if (examinerDateMap.containsKey(key)) {
-                    violationCount++;
-                    LOGGER.severe("🚨 [HC4违反] 备份考官 " + assignment.getBackupExaminer().getName() + 
-                        " 在 " + examDate + " 被安排多场考试");
-                } else {
-                    examinerDateMap.put(key, new HashSet<>());
-                }
-            }
+        } catch (Exception e) {
+            LOGGER.severe("生成时间段时发生错误: " + e.getMessage());
         }
         
-        return violationCount;
+        LOGGER.info("生成时间段完成: " + timeSlots.size() + " 个时段");
+        return timeSlots;
     }
     
     /**
-     * ✅ HC8b验证：备份考官不能与考官1和考官2同科室
-     * @param assignments 分配结果
-     * @return 违反数量
+     * 生成可用日期列表（仅工作日，考虑节假日和调休）
      */
-    private int validateHC8bConstraint(List<ExamAssignment> assignments) {
-        int violationCount = 0;
+    private List<String> generateAvailableDates(String startDate, String endDate) {
+        List<String> availableDates = new ArrayList<>();
         
-        for (ExamAssignment assignment : assignments) {
-            if (assignment.getBackupExaminer() == null) continue;
-            
-            String backupDept = assignment.getBackupExaminer().getDepartment();
+        try {
+            LocalDate start = LocalDate.parse(startDate, DateTimeFormatter.ISO_LOCAL_DATE);
+            LocalDate end = LocalDate.parse(endDate, DateTimeFormatter.ISO_LOCAL_DATE);
             
-            // 检查与考官1是否同科室
-            if (assignment.getExaminer1() != null) {
-                String examiner1Dept = assignment.getExaminer1().getDepartment();
-                if (backupDept != null && backupDept.equals(examiner1Dept)) {
-                    violationCount++;
-                    LOGGER.severe("🚨 [HC8b违反] 备份考官 " + assignment.getBackupExaminer().getName() + 
-                        " (科室:" + backupDept + ") 与考官1 " + assignment.getExaminer1().getName() + 
-                        " (科室:" + examiner1Dept + ") 同科室");
+            LocalDate current = start;
+            while (!current.isAfter(end)) {
+                // ✅ [HC1修复] 严格过滤节假日：先检查是否是节假日，节假日绝对不能考试
+                if (holidayConfig.isHoliday(current)) {
+                    // 🚫 节假日（包括国庆、春节等），直接跳过
+                    LOGGER.fine("⛔ 跳过节假日: " + current);
+                    current = current.plusDays(1);
+                    continue;
                 }
-            }
-            
-            // 检查与考官2是否同科室
-            if (assignment.getExaminer2() != null) {
-                String examiner2Dept = assignment.getExaminer2().getDepartment();
-                if (backupDept != null && backupDept.equals(examiner2Dept)) {
-                    violationCount++;
-                    LOGGER.severe("🚨 [HC8b违反] 备份考官 " + assignment.getBackupExaminer().getName() + 
-                        " (科室:" + backupDept + ") 与考官2 " + assignment.getExaminer2().getName() + 
-                        " (科室:" + examiner2Dept + ") 同科室");
+                
+                // ✅ 非节假日：工作日或普通周末都可以考试
+                if (holidayConfig.isWorkingDay(current)) {
+                    // 工作日（含调休）
+                    availableDates.add(current.toString());
+                    LOGGER.fine("✅ 添加工作日: " + current);
+                } else {
+                    // 非工作日（普通周末，非节假日）
+                    DayOfWeek dayOfWeek = current.getDayOfWeek();
+                    if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
+                        availableDates.add(current.toString());
+                        LOGGER.fine("✅ 添加周末: " + current);
+                    }
                 }
-            }
-        }
-        
-        return violationCount;
-    }
-    
-    /**
-     * ✅ HC10验证：固定的排班不能改变
-     * @param assignments 分配结果
-     * @return 违反数量
-     */
-    private int validateHC10Constraint(List<ExamAssignment> assignments) {
-        int violationCount = 0;
-        
-        for (ExamAssignment assignment : assignments) {
-            // 跳过非固定排班
-            if (!assignment.isPinned()) continue;
-            
-            // 检查考官1是否改变
-            if (assignment.getOriginalExaminer1Name() != null && 
-                assignment.getExaminer1() != null &&
-                !assignment.getOriginalExaminer1Name().equals(assignment.getExaminer1().getName())) {
-                violationCount++;
-                LOGGER.severe("🚨 [HC10违反] 固定排班考官1改变: " + assignment.getStudentName() + 
-                    " 原始=" + assignment.getOriginalExaminer1Name() + 
-                    " 当前=" + assignment.getExaminer1().getName());
-            }
-            
-            // 检查考官2是否改变
-            if (assignment.getOriginalExaminer2Name() != null && 
-                assignment.getExaminer2() != null &&
-                !assignment.getOriginalExaminer2Name().equals(assignment.getExaminer2().getName())) {
-                violationCount++;
-                LOGGER.severe("🚨 [HC10违反] 固定排班考官2改变: " + assignment.getStudentName() + 
-                    " 原始=" + assignment.getOriginalExaminer2Name() + 
-                    " 当前=" + assignment.getExaminer2().getName());
-            }
-            
-            // 检查备份考官是否改变
-            if (assignment.getOriginalBackupExaminerName() != null && 
-                assignment.getBackupExaminer() != null &&
-                !assignment.getOriginalBackupExaminerName().equals(assignment.getBackupExaminer().getName())) {
-                violationCount++;
-                LOGGER.severe("🚨 [HC10违反] 固定排班备份考官改变: " + assignment.getStudentName() + 
-                    " 原始=" + assignment.getOriginalBackupExaminerName() + 
-                    " 当前=" + assignment.getBackupExaminer().getName());
+                current = current.plusDays(1);
             }
             
-            // 检查考试日期是否改变
-            if (assignment.getOriginalExamDate() != null && 
-                assignment.getExamDate() != null &&
-                !assignment.getOriginalExamDate().equals(assignment.getExamDate())) {
-                violationCount++;
-                LOGGER.severe("🚨 [HC10违反] 固定排班考试日期改变: " + assignment.getStudentName() + 
-                    " 原始=" + assignment.getOriginalExamDate() + 
-                    " 当前=" + assignment.getExamDate());
-            }
+        } catch (Exception e) {
+            LOGGER.severe("生成可用日期时发生错误: " + e.getMessage());
         }
         
-        return violationCount;
+        return availableDates;
     }
 }
@@ -0,0 +1,441 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.config.HolidayConfig;
+import com.examiner.scheduler.domain.DutySchedule;
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.OptimizedConstraintConfiguration;
+import com.examiner.scheduler.domain.ResourceShortageRecord;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.util.DepartmentNames;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 🆕 v8.1: 求解前可行性预检（二分图匹配容量上界）
+ *
+ * ExamScheduleService.diagnoseResourceAvailability / ScheduleDataValidator 只给出启发式警告，
+ * 无法判断问题是否"注定无法满足硬约束"。本服务在求解前按日期构建二分图：
+ * - 左侧：当天每个排班的考官1槽位、考官2槽位
+ * - 右侧：当天可用的考官
+ * - 边：考官满足该槽位的硬约束
+ *   - HC2：考官1与学员同科室（3室/7室互通）
+ *   - HC7：考官2与学员不同科室（放宽为仅与学员比较，保证是必要条件）
+ *   - HC3：白班执勤考官不能监考（行政班除外）
+ *   - HC9：不可用时段内的考官不能监考
+ *   （HC3/HC9 按问题的约束配置判断是否启用，与求解器保持一致；未启用时不收紧容量，避免误报无解）
+ *   - HC10：固定排班的槽位只能连到已固定的考官
+ * - HC4 由"每个考官每天只能匹配一个槽位"体现
+ *
+ * 用 Hopcroft–Karp 求最大匹配，若匹配数小于槽位数，则该日期被证明无解。
+ * 通过 König 定理从未匹配槽位出发沿交替路径找出 Hall 违反集合，作为不可行证书
+ * （哪个日期、哪些科室缺多少考官），并写入 ResourceShortageNotificationService。
+ *
+ * 由于是松弛模型，"通过预检"不代表一定可行，但"未通过预检"一定不可行。
+ */
+@ApplicationScoped
+public class FeasibilityPrecheckService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FeasibilityPrecheckService.class);
+
+    static final String ROLE_EXAMINER1 = "考官1";
+    static final String ROLE_EXAMINER2 = "考官2";
+
+    @Inject
+    HolidayConfig holidayConfig;
+
+    @Inject
+    ResourceShortageNotificationService notificationService;
+
+    /**
+     * 执行预检，并将不可行证书推送到资源不足通知服务
+     */
+    public FeasibilityReport checkAndNotify(ExamSchedule problem) {
+        FeasibilityReport report = check(problem);
+        if (!report.feasible()) {
+            for (DateShortage shortage : report.shortages()) {
+                notificationService.recordResourceShortage(toShortageRecord(shortage));
+            }
+        }
+        return report;
+    }
+
+    /**
+     * 执行预检（纯计算，无副作用）
+     */
+    public FeasibilityReport check(ExamSchedule problem) {
+        long start = System.currentTimeMillis();
+        List<DateShortage> shortages = new ArrayList<>();
+
+        List<ExamAssignment> assignments = problem.getExamAssignments();
+        List<Teacher> teachers = problem.getTeachers();
+        if (assignments == null || assignments.isEmpty() || teachers == null) {
+            return new FeasibilityReport(true, 0, 0, shortages, System.currentTimeMillis() - start);
+        }
+
+        // 按日期分组（考试日期由初始解固定，HC4只在同一天内耦合，各日期相互独立）
+        Map<String, List<ExamAssignment>> byDate = new TreeMap<>();
+        for (ExamAssignment assignment : assignments) {
+            if (assignment.getExamDate() != null && assignment.getStudent() != null) {
+                byDate.computeIfAbsent(assignment.getExamDate(), k -> new ArrayList<>()).add(assignment);
+            }
+        }
+
+        // 预先标准化考官科室，避免每个日期重复计算
+        String[] teacherDepts = new String[teachers.size()];
+        for (int t = 0; t < teachers.size(); t++) {
+            teacherDepts[t] = DepartmentNames.normalize(teachers.get(t).getDepartment());
+        }
+
+        // 请求中的约束配置（createProblemInstance 写入问题），未提供时按默认全部启用
+        OptimizedConstraintConfiguration constraints = problem.getConstraintConfiguration();
+        boolean dayShiftEnforced = constraints == null || constraints.isNoDayShiftExaminer();
+        boolean unavailableEnforced = constraints == null || constraints.isConstraintEnabled("HC9");
+
+        for (Map.Entry<String, List<ExamAssignment>> entry : byDate.entrySet()) {
+            DateShortage shortage = checkDate(entry.getKey(), entry.getValue(), teachers, teacherDepts,
+                    dayShiftEnforced, unavailableEnforced);
+            if (shortage != null) {
+                shortages.add(shortage);
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        FeasibilityReport report = new FeasibilityReport(shortages.isEmpty(), byDate.size(),
+                assignments.size(), shortages, elapsed);
+
+        if (report.feasible()) {
+            LOGGER.info("✅ [可行性预检] {}个日期、{}个排班通过二分图容量检查，耗时{}ms",
+                    byDate.size(), assignments.size(), elapsed);
+        } else {
+            LOGGER.warn("🚫 [可行性预检] 已证明无解：{}个日期考官容量不足，耗时{}ms", shortages.size(), elapsed);
+            for (DateShortage shortage : shortages) {
+                LOGGER.warn("   - {}: 需要{}个考官槽位，最多只能满足{}个，缺口{}，涉及科室{}",
+                        shortage.date(), shortage.slotDemand(), shortage.maxMatched(),
+                        shortage.deficit(), shortage.departmentShortages().keySet());
+            }
+        }
+        return report;
+    }
+
+    /**
+     * 检查单个日期：构建二分图并求最大匹配
+     *
+     * @return 不可行时返回证书，可行时返回null
+     */
+    private DateShortage checkDate(String date, List<ExamAssignment> dayAssignments,
+                                   List<Teacher> teachers, String[] teacherDepts,
+                                   boolean dayShiftEnforced, boolean unavailableEnforced) {
+        DutySchedule dutySchedule = DutySchedule.forDate(date);
+
+        // 右侧：当天可用（启用的 HC3/HC9）的考官
+        boolean[] available = new boolean[teachers.size()];
+        for (int t = 0; t < teachers.size(); t++) {
+            available[t] = isTeacherAvailable(teachers.get(t), date, dutySchedule,
+                    dayShiftEnforced, unavailableEnforced);
+        }
+
+        // 左侧：每个排班两个槽位（考官1、考官2）
+        int slotCount = dayAssignments.size() * 2;
+        int[][] adjacency = new int[slotCount][];
+        String[] slotRoles = new String[slotCount];
+        String[] slotDepts = new String[slotCount];
+        String[] slotStudents = new String[slotCount];
+
+        int[] buffer = new int[teachers.size()];
+        for (int a = 0; a < dayAssignments.size(); a++) {
+            ExamAssignment assignment = dayAssignments.get(a);
+            String studentDept = DepartmentNames.normalize(assignment.getStudent().getDepartment());
+
+            for (int role = 0; role < 2; role++) {
+                int slot = a * 2 + role;
+                boolean examiner1Slot = role == 0;
+                Teacher pinnedTeacher = assignment.isPinned()
+                        ? (examiner1Slot ? assignment.getExaminer1() : assignment.getExaminer2())
+                        : null;
+
+                int degree = 0;
+                for (int t = 0; t < teachers.size(); t++) {
+                    if (!available[t]) {
+                        continue;
+                    }
+                    Teacher teacher = teachers.get(t);
+                    if (pinnedTeacher != null) {
+                        // HC10：固定排班只能保留原考官
+                        if (pinnedTeacher.getId() != null && pinnedTeacher.getId().equals(teacher.getId())) {
+                            buffer[degree++] = t;
+                        }
+                        continue;
+                    }
+                    boolean eligible = examiner1Slot
+                            ? isValidExaminer1Department(studentDept, teacherDepts[t])
+                            : teacherDepts[t] != null && !teacherDepts[t].equals(studentDept);
+                    if (eligible) {
+                        buffer[degree++] = t;
+                    }
+                }
+                adjacency[slot] = Arrays.copyOf(buffer, degree);
+                slotRoles[slot] = examiner1Slot ? ROLE_EXAMINER1 : ROLE_EXAMINER2;
+                slotDepts[slot] = studentDept;
+                slotStudents[slot] = assignment.getStudent().getName();
+            }
+        }
+
+        HopcroftKarp matcher = new HopcroftKarp(adjacency, teachers.size());
+        int matched = matcher.maxMatching();
+        if (matched == slotCount) {
+            return null;
+        }
+
+        // König：从未匹配槽位出发沿交替路径可达的槽位集合 S，其邻居集合 N(S)，|S| - |N(S)| 即缺口
+        boolean[] reachableSlots = new boolean[slotCount];
+        boolean[] reachableTeachers = new boolean[teachers.size()];
+        matcher.alternatingReachability(reachableSlots, reachableTeachers);
+
+        Map<String, int[]> departmentShortages = new LinkedHashMap<>();
+        Map<String, Set<Integer>> departmentNeighbours = new LinkedHashMap<>();
+        Set<String> affectedStudents = new LinkedHashSet<>();
+        int violatorSize = 0;
+        int neighbourSize = 0;
+        for (int s = 0; s < slotCount; s++) {
+            if (!reachableSlots[s]) {
+                continue;
+            }
+            violatorSize++;
+            String key = slotRoles[s] + "|" + slotDepts[s];
+            departmentShortages.computeIfAbsent(key, k -> new int[2])[0]++;
+            Set<Integer> neighbours = departmentNeighbours.computeIfAbsent(key, k -> new LinkedHashSet<>());
+            for (int t : adjacency[s]) {
+                neighbours.add(t);
+            }
+            affectedStudents.add(slotStudents[s]);
+        }
+        for (boolean reachable : reachableTeachers) {
+            if (reachable) {
+                neighbourSize++;
+            }
+        }
+        for (Map.Entry<String, int[]> entry : departmentShortages.entrySet()) {
+            entry.getValue()[1] = departmentNeighbours.get(entry.getKey()).size();
+        }
+
+        return new DateShortage(date, slotCount, matched, violatorSize - neighbourSize,
+                violatorSize, neighbourSize, departmentShortages, new ArrayList<>(affectedStudents));
+    }
+
+    /**
+     * HC3 + HC9：与 ExamScheduleService.isTeacherAvailableOnDateNoLog 保持一致（只检查已启用的约束）
+     */
+    private boolean isTeacherAvailable(Teacher teacher, String date, DutySchedule dutySchedule,
+                                       boolean dayShiftEnforced, boolean unavailableEnforced) {
+        if (teacher == null) {
+            return false;
+        }
+        if (unavailableEnforced && teacher.isUnavailableOnDate(date, holidayConfig)) {
+            return false;
+        }
+        if (!dayShiftEnforced) {
+            return true;
+        }
+        String group = teacher.getGroup();
+        if (group == null || "无".equals(group) || "行政班".equals(group) || group.trim().isEmpty()) {
+            return true;
+        }
+        return !dutySchedule.isGroupOnDayShift(group);
+    }
+
+    /**
+     * 将日期级不可行证书转换为资源不足记录（SC13通知通道）
+     */
+    private ResourceShortageRecord toShortageRecord(DateShortage shortage) {
+        ResourceShortageRecord record = new ResourceShortageRecord();
+        record.setStudentId("PRECHECK_" + shortage.date());
+        List<String> students = shortage.affectedStudents();
+        String studentNames = students.size() <= 5
+                ? String.join("、", students)
+                : String.join("、", students.subList(0, 5)) + " 等" + students.size() + "名学员";
+        record.setStudentName(studentNames);
+        record.setExamDate(shortage.date());
+
+        record.addShortage("当日可用考官（HC4每人每天一场）", "合计",
+                shortage.violatorSlots(), shortage.violatorNeighbours());
+        for (Map.Entry<String, int[]> entry : shortage.departmentShortages().entrySet()) {
+            String[] parts = entry.getKey().split("\\|", 2);
+            int[] counts = entry.getValue();
+            if (counts[0] > counts[1]) {
+                record.addShortage(parts[0], parts[1] + "室", counts[0], counts[1]);
+            }
+        }
+
+        record.addSuggestion("将该日期部分学员调整到其他日期");
+        record.addSuggestion("检查相关科室考官的不可用时段与白班安排");
+        record.addSuggestion("扩展考试日期范围或补充相关科室考官");
+        return record;
+    }
+
+    /**
+     * 验证考官1科室是否有效（只允许同科室或三七室互通）
+     */
+    private boolean isValidExaminer1Department(String studentDept, String examiner1Dept) {
+        if (studentDept == null || examiner1Dept == null) return false;
+        if (studentDept.equals(examiner1Dept)) return true;
+        return (studentDept.equals("三") && examiner1Dept.equals("七")) ||
+               (studentDept.equals("七") && examiner1Dept.equals("三"));
+    }
+
+    // ==================== Hopcroft–Karp ====================
+
+    /**
+     * 二分图最大匹配（Hopcroft–Karp，O(E·√V)）
+     */
+    static final class HopcroftKarp {
+        private static final int INF = Integer.MAX_VALUE;
+
+        private final int[][] adjacency;
+        private final int rightSize;
+        private final int[] matchLeft;
+        private final int[] matchRight;
+        private final int[] dist;
+
+        HopcroftKarp(int[][] adjacency, int rightSize) {
+            this.adjacency = adjacency;
+            this.rightSize = rightSize;
+            this.matchLeft = new int[adjacency.length];
+            this.matchRight = new int[rightSize];
+            this.dist = new int[adjacency.length];
+            Arrays.fill(matchLeft, -1);
+            Arrays.fill(matchRight, -1);
+        }
+
+        int maxMatching() {
+            int matching = 0;
+            while (bfs()) {
+                for (int u = 0; u < adjacency.length; u++) {
+                    if (matchLeft[u] == -1 && dfs(u)) {
+                        matching++;
+                    }
+                }
+            }
+            return matching;
+        }
+
+        private boolean bfs() {
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            boolean foundFree = false;
+            for (int u = 0; u < adjacency.length; u++) {
+                if (matchLeft[u] == -1) {
+                    dist[u] = 0;
+                    queue.add(u);
+                } else {
+                    dist[u] = INF;
+                }
+            }
+            while (!queue.isEmpty()) {
+                int u = queue.poll();
+                for (int v : adjacency[u]) {
+                    int next = matchRight[v];
+                    if (next == -1) {
+                        foundFree = true;
+                    } else if (dist[next] == INF) {
+                        dist[next] = dist[u] + 1;
+                        queue.add(next);
+                    }
+                }
+            }
+            return foundFree;
+        }
+
+        private boolean dfs(int u) {
+            for (int v : adjacency[u]) {
+                int next = matchRight[v];
+                if (next == -1 || (dist[next] == dist[u] + 1 && dfs(next))) {
+                    matchLeft[u] = v;
+                    matchRight[v] = u;
+                    return true;
+                }
+            }
+            dist[u] = INF;
+            return false;
+        }
+
+        /**
+         * 从所有未匹配的左侧顶点出发，沿"非匹配边→匹配边"交替路径标记可达顶点
+         */
+        void alternatingReachability(boolean[] reachableLeft, boolean[] reachableRight) {
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int u = 0; u < adjacency.length; u++) {
+                if (matchLeft[u] == -1) {
+                    reachableLeft[u] = true;
+                    queue.add(u);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int u = queue.poll();
+                for (int v : adjacency[u]) {
+                    if (v < rightSize && !reachableRight[v]) {
+                        reachableRight[v] = true;
+                        int next = matchRight[v];
+                        if (next != -1 && !reachableLeft[next]) {
+                            reachableLeft[next] = true;
+                            queue.add(next);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // ==================== 结果 ====================
+
+    /**
+     * 预检报告
+     *
+     * @param feasible 是否通过预检（false 表示已被证明无法满足硬约束）
+     */
+    public record FeasibilityReport(
+        boolean feasible,
+        int checkedDates,
+        int checkedAssignments,
+        List<DateShortage> shortages,
+        long elapsedMillis
+    ) {
+        public List<String> toWarnings() {
+            List<String> warnings = new ArrayList<>();
+            for (DateShortage shortage : shortages) {
+                warnings.add(String.format("可行性预检：%s 考官容量不足，需要%d个考官槽位，最多满足%d个（缺口%d），涉及科室%s",
+                        shortage.date(), shortage.slotDemand(), shortage.maxMatched(), shortage.deficit(),
+                        shortage.departmentShortages().keySet()));
+            }
+            return warnings;
+        }
+    }
+
+    /**
+     * 单日不可行证书
+     *
+     * @param deficit Hall 违反集合的缺口 |S| - |N(S)|，等于 slotDemand - maxMatched
+     * @param departmentShortages key 为 "角色|科室"，value 为 [槽位需求, 可用考官数]
+     */
+    public record DateShortage(
+        String date,
+        int slotDemand,
+        int maxMatched,
+        int deficit,
+        int violatorSlots,
+        int violatorNeighbours,
+        Map<String, int[]> departmentShortages,
+        List<String> affectedStudents
+    ) {}
+}
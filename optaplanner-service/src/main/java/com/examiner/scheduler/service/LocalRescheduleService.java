@@ -0,0 +1,308 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.solver.PartialRescheduleSolverConfig;
+import org.optaplanner.core.api.score.ScoreManager;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 🆕 v8.1: 邻域局部重排
+ *
+ * 原来的 /partial-reschedule 每次请求都新建 SolverFactory，并带着全部固定排班重新求解整个排班表，
+ * 只改一个考官也要几十秒。本服务只抽取受影响的邻域组成子问题：
+ * - 可变：未固定的排班
+ * - 上下文（保持固定）：同一学员的 day1/day2 另一场（HC6、SC14/SC15），
+ *   以及相关考官（可变排班和另一场当前的考官）在相关日期及前后一天承担的排班（HC4 每日唯一、SC10 连续工作）
+ * - 邻域之外的考官占用不放进子问题：子问题里的考官是副本，在可变排班的考试日期上已被邻域外排班占用的，
+ *   记为当天不可用（HC9），求解器不会把可变排班改派给当天已有任务的考官
+ * 子问题在常驻的 SolverFactory 上以毫秒级时间限制求解，然后写回完整排班并完整打分一次做硬约束校验：
+ * 写回后的硬约束分数不低于重排前的硬约束分数才接受。
+ * 邻域过大或校验不通过时返回未接受，由调用方回退到完整求解。
+ */
+@ApplicationScoped
+public class LocalRescheduleService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalRescheduleService.class);
+
+    /** 子问题排班数上限，超过则完整求解更划算 */
+    static final int MAX_NEIGHBOURHOOD_SIZE = 80;
+    /** 子问题占完整排班的比例上限 */
+    static final double MAX_NEIGHBOURHOOD_RATIO = 0.6;
+
+    private volatile SolverFactory<ExamSchedule> solverFactory;
+    private volatile ScoreManager<ExamSchedule, HardSoftScore> scoreManager;
+
+    /**
+     * 尝试以邻域子问题重排
+     * @param problem 完整问题（未固定的排班即需要重排的排班）；接受时其可变排班被原地更新并带上完整分数
+     * @param solverHook 求解前对子问题求解器的回调（进度推送等），可为null
+     */
+    public LocalRescheduleResult reschedule(ExamSchedule problem, Consumer<Solver<ExamSchedule>> solverHook) {
+        long start = System.nanoTime();
+        List<ExamAssignment> all = problem.getExamAssignments();
+        List<ExamAssignment> movable = new ArrayList<>();
+        for (ExamAssignment assignment : all) {
+            if (!assignment.isPinned()) {
+                movable.add(assignment);
+            }
+        }
+        if (movable.isEmpty()) {
+            return LocalRescheduleResult.rejected("没有需要重排的排班", 0, elapsedMs(start));
+        }
+
+        List<ExamAssignment> neighbourhood = extractNeighbourhood(all, movable);
+        int limit = Math.min(MAX_NEIGHBOURHOOD_SIZE, (int) Math.ceil(all.size() * MAX_NEIGHBOURHOOD_RATIO));
+        if (neighbourhood.size() > limit) {
+            return LocalRescheduleResult.rejected(
+                    "邻域过大（" + neighbourhood.size() + "/" + all.size() + "）", neighbourhood.size(), elapsedMs(start));
+        }
+
+        SolverFactory<ExamSchedule> factory = getSolverFactory();
+        HardSoftScore baseline = scoreManager.updateScore(problem);
+
+        Solver<ExamSchedule> solver = factory.buildSolver();
+        if (solverHook != null) {
+            solverHook.accept(solver);
+        }
+        ExamSchedule subSolution = solver.solve(buildSubProblem(problem, neighbourhood));
+        HardSoftScore subScore = subSolution.getScore();
+
+        Map<String, Teacher[]> previous = merge(problem, subSolution);
+        HardSoftScore merged = scoreManager.updateScore(problem);
+        boolean accepted = merged.isSolutionInitialized() && merged.hardScore() >= baseline.hardScore();
+        long elapsed = elapsedMs(start);
+        if (!accepted) {
+            restore(problem, previous);
+            problem.setScore(baseline);
+            LOGGER.warn("🎯 [邻域重排] 硬约束校验未通过: 子问题={}, 写回后={}, 重排前={}，回退完整求解",
+                    subScore, merged, baseline);
+            return LocalRescheduleResult.rejected("写回后硬约束校验未通过", neighbourhood.size(), elapsed);
+        }
+        LOGGER.info("🎯 [邻域重排] 完成: 可变={}, 邻域={}/{}, 子问题得分={}, 完整得分={}, 耗时{}ms",
+                movable.size(), neighbourhood.size(), all.size(), subScore, merged, elapsed);
+        return new LocalRescheduleResult(true, null, movable.size(), neighbourhood.size(), subScore, merged, elapsed);
+    }
+
+    /**
+     * 可变排班 + 同一学员的另一场 + 相关考官在相关日期（含前后一天）上承担的排班
+     */
+    static List<ExamAssignment> extractNeighbourhood(List<ExamAssignment> all, List<ExamAssignment> movable) {
+        Set<String> studentIds = new HashSet<>();
+        for (ExamAssignment assignment : movable) {
+            if (assignment.getStudent() != null) {
+                studentIds.add(assignment.getStudent().getId());
+            }
+        }
+        // 学员另一场的日期和考官同样影响 HC4 和连续工作惩罚
+        Set<String> dates = new HashSet<>();
+        Set<String> teacherIds = new HashSet<>();
+        for (ExamAssignment assignment : all) {
+            if (!assignment.isPinned() || isPartner(assignment, studentIds)) {
+                addWithAdjacentDays(dates, assignment.getExamDate());
+                for (Teacher teacher : examinersOf(assignment)) {
+                    teacherIds.add(teacher.getId());
+                }
+            }
+        }
+        List<ExamAssignment> neighbourhood = new ArrayList<>();
+        for (ExamAssignment assignment : all) {
+            if (!assignment.isPinned() || isPartner(assignment, studentIds)
+                    || (dates.contains(assignment.getExamDate()) && involves(assignment, teacherIds))) {
+                neighbourhood.add(assignment);
+            }
+        }
+        return neighbourhood;
+    }
+
+    private static boolean isPartner(ExamAssignment assignment, Set<String> studentIds) {
+        return assignment.getStudent() != null && studentIds.contains(assignment.getStudent().getId());
+    }
+
+    private static boolean involves(ExamAssignment assignment, Set<String> teacherIds) {
+        for (Teacher teacher : examinersOf(assignment)) {
+            if (teacherIds.contains(teacher.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Teacher> examinersOf(ExamAssignment assignment) {
+        List<Teacher> examiners = new ArrayList<>(3);
+        for (Teacher teacher : new Teacher[]{
+                assignment.getExaminer1(), assignment.getExaminer2(), assignment.getBackupExaminer()}) {
+            if (teacher != null) {
+                examiners.add(teacher);
+            }
+        }
+        return examiners;
+    }
+
+    private static void addWithAdjacentDays(Set<String> dates, String date) {
+        if (date == null) {
+            return;
+        }
+        dates.add(date);
+        try {
+            LocalDate day = LocalDate.parse(date);
+            dates.add(day.minusDays(1).toString());
+            dates.add(day.plusDays(1).toString());
+        } catch (DateTimeParseException e) {
+            // 非 ISO 日期只按当天处理
+        }
+    }
+
+    private static ExamSchedule buildSubProblem(ExamSchedule problem, List<ExamAssignment> neighbourhood) {
+        Map<String, Student> students = new LinkedHashMap<>();
+        for (ExamAssignment assignment : neighbourhood) {
+            if (assignment.getStudent() != null) {
+                students.putIfAbsent(assignment.getStudent().getId(), assignment.getStudent());
+            }
+        }
+        ExamSchedule sub = new ExamSchedule();
+        sub.setStudents(new ArrayList<>(students.values()));
+        sub.setTeachers(teachersWithOutsideDuties(problem, neighbourhood));
+        sub.setAvailableDates(new ArrayList<>(problem.getAvailableDates()));
+        sub.setDutySchedules(new ArrayList<>(problem.getDutySchedules()));
+        sub.setTimeSlots(new ArrayList<>(problem.getTimeSlots()));
+        sub.setConstraintConfiguration(problem.getConstraintConfiguration());
+        sub.setExamAssignments(new ArrayList<>(neighbourhood));
+        return sub;
+    }
+
+    /**
+     * 子问题使用考官副本：在可变排班的考试日期上已被邻域外排班占用的考官记为当天不可用，
+     * 邻域外的排班不进入子问题也能守住 HC4（写回时按ID映射回原考官）
+     */
+    private static List<Teacher> teachersWithOutsideDuties(ExamSchedule problem, List<ExamAssignment> neighbourhood) {
+        Set<String> movableDates = new HashSet<>();
+        Set<String> neighbourhoodIds = new HashSet<>();
+        for (ExamAssignment assignment : neighbourhood) {
+            neighbourhoodIds.add(assignment.getId());
+            if (!assignment.isPinned() && assignment.getExamDate() != null) {
+                movableDates.add(assignment.getExamDate());
+            }
+        }
+        Map<String, Set<String>> busyDatesByTeacher = new HashMap<>();
+        for (ExamAssignment assignment : problem.getExamAssignments()) {
+            if (neighbourhoodIds.contains(assignment.getId()) || !movableDates.contains(assignment.getExamDate())) {
+                continue;
+            }
+            for (Teacher teacher : examinersOf(assignment)) {
+                busyDatesByTeacher.computeIfAbsent(teacher.getId(), k -> new HashSet<>()).add(assignment.getExamDate());
+            }
+        }
+        List<Teacher> teachers = new ArrayList<>(problem.getTeachers().size());
+        for (Teacher teacher : problem.getTeachers()) {
+            Set<String> busyDates = busyDatesByTeacher.get(teacher.getId());
+            if (busyDates == null) {
+                teachers.add(teacher);
+                continue;
+            }
+            Teacher copy = teacher.copy();
+            for (String date : busyDates) {
+                copy.addUnavailablePeriod(new Teacher.UnavailablePeriod("busy-" + date, date, date, "邻域外已有排班"));
+            }
+            teachers.add(copy);
+        }
+        return teachers;
+    }
+
+    /**
+     * 把子问题的考官分配写回完整问题
+     * @return 写回前的 [考官1, 考官2, 备份考官]，用于校验失败时还原
+     */
+    private static Map<String, Teacher[]> merge(ExamSchedule problem, ExamSchedule subSolution) {
+        Map<String, Teacher> teachersById = new HashMap<>();
+        for (Teacher teacher : problem.getTeachers()) {
+            teachersById.put(teacher.getId(), teacher);
+        }
+        Map<String, ExamAssignment> solvedById = new HashMap<>();
+        for (ExamAssignment solved : subSolution.getExamAssignments()) {
+            if (!solved.isPinned()) {
+                solvedById.put(solved.getId(), solved);
+            }
+        }
+        Map<String, Teacher[]> previous = new HashMap<>();
+        for (ExamAssignment assignment : problem.getExamAssignments()) {
+            ExamAssignment solved = solvedById.get(assignment.getId());
+            if (solved == null) {
+                continue;
+            }
+            previous.put(assignment.getId(), new Teacher[]{
+                    assignment.getExaminer1(), assignment.getExaminer2(), assignment.getBackupExaminer()});
+            assignment.setExaminer1(resolve(teachersById, solved.getExaminer1()));
+            assignment.setExaminer2(resolve(teachersById, solved.getExaminer2()));
+            assignment.setBackupExaminer(resolve(teachersById, solved.getBackupExaminer()));
+        }
+        return previous;
+    }
+
+    private static void restore(ExamSchedule problem, Map<String, Teacher[]> previous) {
+        for (ExamAssignment assignment : problem.getExamAssignments()) {
+            Teacher[] values = previous.get(assignment.getId());
+            if (values != null) {
+                assignment.setExaminer1(values[0]);
+                assignment.setExaminer2(values[1]);
+                assignment.setBackupExaminer(values[2]);
+            }
+        }
+    }
+
+    private static Teacher resolve(Map<String, Teacher> teachersById, Teacher teacher) {
+        return teacher == null ? null : Objects.requireNonNullElse(teachersById.get(teacher.getId()), teacher);
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private SolverFactory<ExamSchedule> getSolverFactory() {
+        SolverFactory<ExamSchedule> factory = solverFactory;
+        if (factory == null) {
+            synchronized (this) {
+                factory = solverFactory;
+                if (factory == null) {
+                    factory = SolverFactory.create(PartialRescheduleSolverConfig.createLocalConfig());
+                    scoreManager = ScoreManager.create(factory);
+                    solverFactory = factory;
+                }
+            }
+        }
+        return factory;
+    }
+
+    public record LocalRescheduleResult(
+        boolean accepted,
+        String rejectReason,
+        int movableCount,
+        int neighbourhoodSize,
+        HardSoftScore subProblemScore,
+        HardSoftScore score,
+        long elapsedMs
+    ) {
+        static LocalRescheduleResult rejected(String reason, int neighbourhoodSize, long elapsedMs) {
+            return new LocalRescheduleResult(false, reason, 0, neighbourhoodSize, null, null, elapsedMs);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.domain.ExamSchedule;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.change.ProblemChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🆕 v8.1: 实时规划 —— 向正在运行的 /solve 作业提交 ProblemChange
+ *
+ * 考官临时请假时，原来只能中止长时间的精细求解再重新开始。现在每个 /solve 会话在求解期间登记为一个作业：
+ * - open / close：会话级生命周期（覆盖分级求解的全部级别）
+ * - attach / detach：每一级求解器的生命周期；attach 时把该作业已提交过的全部变更重放给新求解器
+ *   （每一级都从原始问题开始，变更本身是幂等的，见 ExamScheduleProblemChanges）
+ * - submit：有求解器运行时立即 addProblemChange，求解器从当前最优解继续；级别切换间隙提交的变更排队等待下一级
+ */
+@ApplicationScoped
+public class RealTimePlanningService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RealTimePlanningService.class);
+
+    /** 单个作业允许提交的变更上限，防止误操作无限制重放 */
+    static final int MAX_CHANGES_PER_JOB = 200;
+
+    private final Map<String, PlanningJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public void open(String sessionId) {
+        jobs.put(sessionId, new PlanningJob());
+    }
+
+    public void close(String sessionId) {
+        PlanningJob job = jobs.remove(sessionId);
+        if (job == null) {
+            return;
+        }
+        synchronized (job) {
+            job.solver = null;
+            for (ChangeRecord record : job.changes) {
+                if (record.status == ChangeStatus.QUEUED) {
+                    record.status = ChangeStatus.DISCARDED;
+                }
+            }
+        }
+        if (!job.changes.isEmpty()) {
+            LOGGER.info("实时规划作业结束: sessionId={}, 变更数={}", sessionId, job.changes.size());
+        }
+    }
+
+    /**
+     * 登记当前级别的求解器（在 solve() 之前调用），并重放已提交的变更
+     */
+    public void attach(String sessionId, Solver<ExamSchedule> solver) {
+        PlanningJob job = jobs.get(sessionId);
+        if (job == null) {
+            return;
+        }
+        solver.addEventListener(event -> {
+            if (event.isEveryProblemChangeProcessed()) {
+                job.markApplied();
+            }
+        });
+        synchronized (job) {
+            job.solver = solver;
+            if (job.changes.isEmpty()) {
+                return;
+            }
+            List<ProblemChange<ExamSchedule>> replay = new ArrayList<>();
+            for (ChangeRecord record : job.changes) {
+                replay.add(record.change);
+                if (record.status == ChangeStatus.QUEUED) {
+                    record.status = ChangeStatus.SUBMITTED;
+                }
+            }
+            solver.addProblemChanges(replay);
+            LOGGER.info("实时规划：向新求解器重放 {} 个变更, sessionId={}", replay.size(), sessionId);
+        }
+    }
+
+    public void detach(String sessionId, Solver<ExamSchedule> solver) {
+        PlanningJob job = jobs.get(sessionId);
+        if (job == null) {
+            return;
+        }
+        synchronized (job) {
+            if (job.solver == solver) {
+                job.solver = null;
+            }
+        }
+    }
+
+    /**
+     * 提交变更
+     * @return 变更记录；会话没有运行中的求解作业时返回null
+     * @throws IllegalStateException 超过单个作业的变更上限
+     */
+    public ChangeRecord submit(String sessionId, String description, ProblemChange<ExamSchedule> change) {
+        PlanningJob job = jobs.get(sessionId);
+        if (job == null) {
+            return null;
+        }
+        synchronized (job) {
+            if (job.changes.size() >= MAX_CHANGES_PER_JOB) {
+                throw new IllegalStateException("变更数量已达上限 " + MAX_CHANGES_PER_JOB);
+            }
+            ChangeRecord record = new ChangeRecord(sequence.incrementAndGet(), description, change);
+            job.changes.add(record);
+            if (job.solver != null) {
+                job.solver.addProblemChange(change);
+                record.status = ChangeStatus.SUBMITTED;
+            }
+            LOGGER.info("实时规划：sessionId={}, 变更#{} {} ({})", sessionId, record.id, description, record.status);
+            return record;
+        }
+    }
+
+    /**
+     * 提前终止当前级别的求解器（求解器返回当前最优解）
+     * @return 有正在求解的求解器并已发出终止请求时返回true
+     */
+    public boolean terminateEarly(String sessionId) {
+        PlanningJob job = jobs.get(sessionId);
+        if (job == null) {
+            return false;
+        }
+        synchronized (job) {
+            if (job.solver == null || !job.solver.isSolving()) {
+                return false;
+            }
+            return job.solver.terminateEarly();
+        }
+    }
+
+    public boolean isRunning(String sessionId) {
+        return jobs.containsKey(sessionId);
+    }
+
+    /**
+     * 作业状态（会话不存在时返回null）
+     */
+    public Map<String, Object> status(String sessionId) {
+        PlanningJob job = jobs.get(sessionId);
+        if (job == null) {
+            return null;
+        }
+        synchronized (job) {
+            List<Map<String, Object>> changes = new ArrayList<>();
+            for (ChangeRecord record : job.changes) {
+                changes.add(record.toMap());
+            }
+            return Map.of(
+                    "sessionId", sessionId,
+                    "openedAt", job.openedAt.toString(),
+                    "solverAttached", job.solver != null,
+                    "changes", changes);
+        }
+    }
+
+    public enum ChangeStatus {
+        /** 级别切换间隙提交，等待下一级求解器 */
+        QUEUED,
+        /** 已交给求解器 */
+        SUBMITTED,
+        /** 求解器已吸收并产生新的最优解 */
+        APPLIED,
+        /** 作业结束前没有求解器接收 */
+        DISCARDED
+    }
+
+    public static final class ChangeRecord {
+        private final long id;
+        private final String description;
+        private final ProblemChange<ExamSchedule> change;
+        private final Instant submittedAt = Instant.now();
+        private volatile ChangeStatus status = ChangeStatus.QUEUED;
+
+        ChangeRecord(long id, String description, ProblemChange<ExamSchedule> change) {
+            this.id = id;
+            this.description = description;
+            this.change = change;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public ChangeStatus getStatus() {
+            return status;
+        }
+
+        public Map<String, Object> toMap() {
+            return Map.of(
+                    "id", id,
+                    "description", description,
+                    "status", status.name(),
+                    "submittedAt", submittedAt.toString());
+        }
+    }
+
+    private static final class PlanningJob {
+        final Instant openedAt = Instant.now();
+        final List<ChangeRecord> changes = new ArrayList<>();
+        Solver<ExamSchedule> solver;
+
+        synchronized void markApplied() {
+            for (ChangeRecord record : changes) {
+                if (record.status == ChangeStatus.SUBMITTED) {
+                    record.status = ChangeStatus.APPLIED;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Teacher;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 🆕 v8.1: 替换考官推荐 —— 按真实分数变化排序
+ *
+ * 原来的推荐（LearningResource.getRecommendations 的历史频次）与求解器的打分无关。本服务在 what-if 会话上
+ * 把"某排班的某个考官槽位换成候选考官"逐一写入副本、经 SolutionManager 打分、撤销：
+ * - 候选为值域内除当前考官外的全部考官，轮流分配给 PARALLELISM 个评估副本并行计算
+ *   （副本由 WhatIfSession.withWorkers 管理，写时复制，会话 apply 之后才重新复制）
+ * - 每个请求有时间预算，超时后返回已评估部分中的最优结果并标记 truncated
+ * - 前 k 名再用会话的 explain 试算一次，附上新违反/消除的约束
+ * - 已固定（pinned）的排班不提供推荐
+ */
+@ApplicationScoped
+public class ReplacementSuggestionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplacementSuggestionService.class);
+
+    static final int PARALLELISM = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    static final int DEFAULT_TOP_K = 5;
+    static final int MAX_TOP_K = 20;
+    static final long DEFAULT_BUDGET_MS = 500;
+    static final long MAX_BUDGET_MS = 5000;
+
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM, r -> {
+        Thread thread = new Thread(r, "replacement-suggestion-" + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 为排班的某个考官槽位推荐替换考官
+     * @param variable examiner1 / examiner2 / backupExaminer
+     * @param topK 返回数量（<=0 时取默认值）
+     * @param budgetMs 评估时间预算（<=0 时取默认值）
+     * @throws IllegalArgumentException 排班或变量不存在，或排班已固定
+     */
+    public SuggestionResult suggest(WhatIfSessionService.WhatIfSession session, String assignmentId, String variable,
+                                    int topK, long budgetMs) {
+        if (!WhatIfSessionService.VARIABLES.contains(variable)) {
+            throw new IllegalArgumentException("不支持的变量: " + variable);
+        }
+        ExamAssignment assignment = session.findAssignment(assignmentId);
+        if (assignment == null) {
+            throw new IllegalArgumentException("排班不存在: " + assignmentId);
+        }
+        if (assignment.isPinned()) {
+            throw new IllegalArgumentException("排班已固定，不能修改: " + assignmentId);
+        }
+        int k = topK <= 0 ? DEFAULT_TOP_K : Math.min(topK, MAX_TOP_K);
+        long budget = budgetMs <= 0 ? DEFAULT_BUDGET_MS : Math.min(budgetMs, MAX_BUDGET_MS);
+        long start = System.nanoTime();
+        long deadline = start + budget * 1_000_000;
+
+        List<Candidate> candidates = session.withWorkers(PARALLELISM,
+                workers -> evaluateAll(session, workers, assignmentId, variable, deadline));
+        int eligible = candidates.isEmpty() ? 0 : candidates.get(0).eligible;
+        int evaluated = (int) candidates.stream().filter(c -> c.evaluated).count();
+        candidates.removeIf(c -> c.score == null);
+        candidates.sort(Comparator.comparing((Candidate c) -> c.score).reversed()
+                .thenComparing(c -> c.teacherName, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (Candidate candidate : candidates.subList(0, Math.min(k, candidates.size()))) {
+            Teacher teacher = session.findTeacher(candidate.teacherId);
+            if (teacher == null) {
+                continue;
+            }
+            WhatIfSessionService.WhatIfResult explained = session.evaluate(assignmentId, variable, teacher);
+            suggestions.add(new Suggestion(candidate.teacherId, candidate.teacherName, explained));
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        boolean truncated = evaluated < eligible;
+        LOGGER.info("🔎 [推荐] 排班={} 变量={} 候选={} 已评估={} 截断={} 耗时{}ms",
+                assignmentId, variable, eligible, evaluated, truncated, elapsedMs);
+        return new SuggestionResult(assignmentId, variable, suggestions, eligible, evaluated, truncated, elapsedMs);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 候选轮流分配给各个副本，每个副本在自己的线程里串行执行 写入 → 打分 → 撤销
+     */
+    private List<Candidate> evaluateAll(WhatIfSessionService.WhatIfSession session, List<ExamSchedule> workers,
+                                        String assignmentId, String variable, long deadline) {
+        List<Future<List<Candidate>>> futures = new ArrayList<>();
+        for (int i = 0; i < workers.size(); i++) {
+            int slice = i;
+            ExamSchedule worker = workers.get(i);
+            futures.add(executor.submit(() -> evaluateSlice(session, worker, assignmentId, variable, slice, workers.size(), deadline)));
+        }
+        List<Candidate> all = new ArrayList<>();
+        for (Future<List<Candidate>> future : futures) {
+            try {
+                all.addAll(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("推荐计算被中断", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("推荐计算失败: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return all;
+    }
+
+    private static List<Candidate> evaluateSlice(WhatIfSessionService.WhatIfSession session, ExamSchedule worker,
+                                                 String assignmentId, String variable,
+                                                 int slice, int slices, long deadline) {
+        ExamAssignment entity = null;
+        for (ExamAssignment assignment : worker.getExamAssignments()) {
+            if (Objects.equals(assignment.getId(), assignmentId)) {
+                entity = assignment;
+                break;
+            }
+        }
+        if (entity == null) {
+            return List.of();
+        }
+        Teacher current = WhatIfSessionService.WhatIfSession.read(entity, variable);
+
+        List<Teacher> eligible = new ArrayList<>();
+        for (Teacher teacher : worker.getTeachers()) {
+            if (teacher != current) {
+                eligible.add(teacher);
+            }
+        }
+        List<Candidate> result = new ArrayList<>();
+        try {
+            for (int i = slice; i < eligible.size(); i += slices) {
+                Teacher teacher = eligible.get(i);
+                Candidate candidate = new Candidate(teacher.getId(), teacher.getName(), eligible.size());
+                result.add(candidate);
+                if (System.nanoTime() > deadline) {
+                    continue;
+                }
+                candidate.evaluated = true;
+                WhatIfSessionService.WhatIfSession.write(entity, variable, teacher);
+                candidate.score = session.score(worker);
+            }
+        } finally {
+            // 撤销，副本留给下一次推荐作为基准
+            WhatIfSessionService.WhatIfSession.write(entity, variable, current);
+        }
+        return result;
+    }
+
+    private static final class Candidate {
+        final String teacherId;
+        final String teacherName;
+        final int eligible;
+        boolean evaluated;
+        HardSoftScore score;
+
+        Candidate(String teacherId, String teacherName, int eligible) {
+            this.teacherId = teacherId;
+            this.teacherName = teacherName;
+            this.eligible = eligible;
+        }
+    }
+
+    public record Suggestion(String teacherId, String teacherName, WhatIfSessionService.WhatIfResult result) {
+        public Map<String, Object> toMap(int rank) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("rank", rank);
+            map.put("teacherId", teacherId);
+            map.put("teacherName", teacherName);
+            Map<String, Object> detail = result.toMap();
+            map.put("scoreAfter", detail.get("scoreAfter"));
+            map.put("hardDelta", detail.get("hardDelta"));
+            map.put("softDelta", detail.get("softDelta"));
+            map.put("feasible", detail.get("feasible"));
+            map.put("brokenConstraints", detail.get("brokenConstraints"));
+            map.put("improvedConstraints", detail.get("improvedConstraints"));
+            return map;
+        }
+    }
+
+    public record SuggestionResult(
+        String assignmentId,
+        String variable,
+        List<Suggestion> suggestions,
+        int candidates,
+        int evaluated,
+        boolean truncated,
+        long elapsedMs
+    ) {
+        public List<Map<String, Object>> suggestionMaps() {
+            List<Map<String, Object>> maps = new ArrayList<>();
+            for (int i = 0; i < suggestions.size(); i++) {
+                maps.add(suggestions.get(i).toMap(i + 1));
+            }
+            return maps;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("assignmentId", assignmentId);
+            map.put("variable", variable);
+            map.put("suggestions", suggestionMaps());
+            map.put("candidates", candidates);
+            map.put("evaluated", evaluated);
+            map.put("truncated", truncated);
+            map.put("elapsedMs", elapsedMs);
+            return map;
+        }
+    }
+}
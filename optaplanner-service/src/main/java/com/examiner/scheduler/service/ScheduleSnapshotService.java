@@ -23,6 +23,9 @@ public class ScheduleSnapshotService {
     @Inject
     ObjectMapper objectMapper;
 
+    @Inject
+    SolveResultCache solveResultCache;
+
     /**
      * 创建排班快照
      */
@@ -222,6 +225,8 @@ public class ScheduleSnapshotService {
         Object scheduleDataObj = request.get("scheduleData");
         if (scheduleDataObj != null) {
             snapshot.scheduleData = objectMapper.writeValueAsString(scheduleDataObj);
+            // 🆕 v8.1: 以该快照热启动的求解结果已过期
+            solveResultCache.invalidateAll("快照 " + id + " 已更新");
         }
         
         // 更新元数据
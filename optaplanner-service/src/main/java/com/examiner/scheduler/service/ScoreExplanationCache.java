@@ -0,0 +1,413 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.rest.ConstraintViolationSyncResource.ConstraintViolationDetail;
+import com.examiner.scheduler.rest.ConstraintViolationSyncResource.ConstraintViolationSummary;
+import com.examiner.scheduler.solver.OptimizedExamScheduleConstraintProvider;
+import org.optaplanner.core.api.score.ScoreExplanation;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.score.constraint.ConstraintMatch;
+import org.optaplanner.core.api.score.constraint.ConstraintMatchTotal;
+import org.optaplanner.core.api.solver.SolutionManager;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🆕 v8.1: 排班版本级约束解释缓存
+ *
+ * 原先 ConstraintViolationSyncResource 的汇总只来自约束提供者的计数器（明细为空、得分为估算值），
+ * /details 每次请求都在全量违反列表上线性过滤。本缓存在每次求解完成后，
+ * 用 OptaPlanner 的 SolutionManager.explain 一次性得到真实的 ConstraintMatch，
+ * 并按 约束 / 学员 / 考官 / 日期 四个维度建立只读索引：
+ * - 每个排班版本（求解会话）构建一次，构建后不可变，并发读取无需加锁
+ * - 最多保留 MAX_VERSIONS 个版本，超出后淘汰最早的版本
+ * - 排班被编辑（局部重排、快照更新）时按版本失效
+ */
+@ApplicationScoped
+public class ScoreExplanationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreExplanationCache.class);
+
+    /** 最多缓存的排班版本数 */
+    public static final int MAX_VERSIONS = 8;
+
+    /** 约束名 → 前端使用的约束编号（与 OptimizedExamScheduleConstraintProvider 注释保持一致） */
+    private static final Map<String, String> CONSTRAINT_CODES = new HashMap<>();
+
+    static {
+        CONSTRAINT_CODES.put("workdaysOnlyExam", "HC1");
+        CONSTRAINT_CODES.put("examinerDepartmentRules", "HC2");
+        CONSTRAINT_CODES.put("noDayShiftExaminerConstraint", "HC3");
+        CONSTRAINT_CODES.put("noExaminerTimeConflict", "HC4");
+        CONSTRAINT_CODES.put("consecutiveTwoDaysExam", "HC6");
+        CONSTRAINT_CODES.put("consecutiveDaysCheck", "HC6b");
+        CONSTRAINT_CODES.put("mustHaveTwoDifferentDepartmentExaminers", "HC7");
+        CONSTRAINT_CODES.put("backupExaminerMustBeDifferentPerson", "HC8");
+        CONSTRAINT_CODES.put("backupExaminerMustBeDifferentDepartment", "HC8b");
+        CONSTRAINT_CODES.put("noUnavailableExaminer", "HC9");
+        CONSTRAINT_CODES.put("pinnedAssignmentMustNotChange", "HC10");
+        CONSTRAINT_CODES.put("preferNightShiftTeachers", "SC1");
+        CONSTRAINT_CODES.put("preferRecommendedExaminer2", "SC2");
+        CONSTRAINT_CODES.put("preferFirstRestDayTeachers", "SC3");
+        CONSTRAINT_CODES.put("preferRecommendedBackupExaminer", "SC4");
+        CONSTRAINT_CODES.put("preferSecondRestDayTeachers", "SC5");
+        CONSTRAINT_CODES.put("preferNonRecommendedExaminer2", "SC6");
+        CONSTRAINT_CODES.put("preferAdminTeachers", "SC7");
+        CONSTRAINT_CODES.put("preferNonRecommendedBackupExaminer", "SC8");
+        CONSTRAINT_CODES.put("allowDept37CrossUse", "SC9");
+        CONSTRAINT_CODES.put("balanceWorkload", "SC10");
+        CONSTRAINT_CODES.put("preferLaterDates", "SC11");
+        CONSTRAINT_CODES.put("limitAdminAsMainExaminers", "SC13");
+        CONSTRAINT_CODES.put("preferDifferentRecommendedDeptsForDay1Day2", "SC14");
+        CONSTRAINT_CODES.put("encourageDifferentExaminer1ForTwoDays", "SC15");
+        CONSTRAINT_CODES.put("avoidWeekendScheduling", "SC16");
+        CONSTRAINT_CODES.put("preferNightShiftOnWeekend", "SC17");
+    }
+
+    private final Map<String, Explanation> versions = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<String> insertionOrder = new ConcurrentLinkedDeque<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+    private volatile String latestVersion;
+    private volatile SolutionManager<ExamSchedule, HardSoftScore> solutionManager;
+
+    /**
+     * 为排班版本构建解释索引并缓存（同一版本重复调用会覆盖旧索引）
+     *
+     * @param version  排班版本标识（求解会话ID）
+     * @param solution 求解得到的完整排班
+     * @return 构建好的解释；构建失败时返回 null，不影响求解结果
+     */
+    public Explanation record(String version, ExamSchedule solution) {
+        if (version == null || solution == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            ScoreExplanation<ExamSchedule, HardSoftScore> scoreExplanation = getSolutionManager().explain(solution);
+            Explanation explanation = new Explanation(version, versionSequence.incrementAndGet(), scoreExplanation);
+
+            // 写入很少，加锁保证索引与淘汰顺序一致；读取走 ConcurrentHashMap 无锁
+            synchronized (insertionOrder) {
+                if (versions.put(version, explanation) == null) {
+                    insertionOrder.addLast(version);
+                }
+                latestVersion = version;
+                evictOverflow();
+            }
+
+            logger.info("🧾 [解释缓存] 版本 {} 构建完成: 得分={}, 违反明细={}, 约束={}, 耗时{}ms",
+                    version, explanation.getScore(), explanation.getViolations().size(),
+                    explanation.getViolationsByConstraint().size(), (System.nanoTime() - start) / 1_000_000);
+            return explanation;
+        } catch (Exception e) {
+            logger.warn("🧾 [解释缓存] 版本 {} 构建失败: {}", version, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return 指定版本的解释；version 为空时返回最新版本；不存在返回 null
+     */
+    public Explanation get(String version) {
+        String key = version == null || version.isBlank() ? latestVersion : version;
+        return key == null ? null : versions.get(key);
+    }
+
+    public Explanation latest() {
+        return get(null);
+    }
+
+    /**
+     * 排班被编辑后使该版本的解释失效
+     *
+     * @return 是否确实移除了缓存
+     */
+    public boolean invalidate(String version) {
+        if (version == null) {
+            return false;
+        }
+        boolean removed;
+        synchronized (insertionOrder) {
+            removed = versions.remove(version) != null;
+            insertionOrder.remove(version);
+            if (version.equals(latestVersion)) {
+                latestVersion = insertionOrder.peekLast();
+            }
+        }
+        if (removed) {
+            logger.info("🧾 [解释缓存] 版本 {} 已失效", version);
+        }
+        return removed;
+    }
+
+    public void invalidateAll() {
+        synchronized (insertionOrder) {
+            versions.clear();
+            insertionOrder.clear();
+            latestVersion = null;
+        }
+        logger.info("🧾 [解释缓存] 已清空全部版本");
+    }
+
+    public int size() {
+        return versions.size();
+    }
+
+    private void evictOverflow() {
+        while (versions.size() > MAX_VERSIONS) {
+            String eldest = insertionOrder.pollFirst();
+            if (eldest == null) {
+                break;
+            }
+            versions.remove(eldest);
+            logger.debug("🧾 [解释缓存] 淘汰最早版本 {}", eldest);
+        }
+    }
+
+    /**
+     * 与求解器使用同一约束提供者；终止条件等与解释无关，只需最小配置
+     */
+    private SolutionManager<ExamSchedule, HardSoftScore> getSolutionManager() {
+        SolutionManager<ExamSchedule, HardSoftScore> manager = solutionManager;
+        if (manager == null) {
+            synchronized (this) {
+                manager = solutionManager;
+                if (manager == null) {
+                    SolverConfig config = new SolverConfig()
+                            .withSolutionClass(ExamSchedule.class)
+                            .withEntityClasses(ExamAssignment.class)
+                            .withConstraintProviderClass(OptimizedExamScheduleConstraintProvider.class);
+                    SolverFactory<ExamSchedule> solverFactory = SolverFactory.create(config);
+                    manager = SolutionManager.create(solverFactory);
+                    solutionManager = manager;
+                }
+            }
+        }
+        return manager;
+    }
+
+    public static String constraintCode(String constraintName) {
+        return CONSTRAINT_CODES.getOrDefault(constraintName, constraintName);
+    }
+
+    /**
+     * 单个排班版本的解释索引，构建后只读
+     */
+    public static class Explanation {
+        private final String version;
+        private final long sequence;
+        private final long builtAt;
+        private final HardSoftScore score;
+        private final List<ConstraintViolationDetail> violations;
+        private final Map<String, Integer> violationsByConstraint;
+        private final Map<String, List<ConstraintViolationDetail>> byConstraint;
+        private final Map<String, List<ConstraintViolationDetail>> byStudent;
+        private final Map<String, List<ConstraintViolationDetail>> byTeacher;
+        private final Map<String, List<ConstraintViolationDetail>> byDate;
+        private final int hardViolations;
+        private final ConstraintViolationSummary summary;
+
+        Explanation(String version, long sequence, ScoreExplanation<ExamSchedule, HardSoftScore> scoreExplanation) {
+            this.version = version;
+            this.sequence = sequence;
+            this.builtAt = System.currentTimeMillis();
+            this.score = scoreExplanation.getScore();
+
+            List<ConstraintViolationDetail> all = new ArrayList<>();
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            Map<String, List<ConstraintViolationDetail>> constraintIndex = new HashMap<>();
+            Map<String, List<ConstraintViolationDetail>> studentIndex = new HashMap<>();
+            Map<String, List<ConstraintViolationDetail>> teacherIndex = new HashMap<>();
+            Map<String, List<ConstraintViolationDetail>> dateIndex = new HashMap<>();
+            int hard = 0;
+
+            for (ConstraintMatchTotal<HardSoftScore> total : scoreExplanation.getConstraintMatchTotalMap().values()) {
+                String name = total.getConstraintName();
+                String code = constraintCode(name);
+                for (ConstraintMatch<HardSoftScore> match : total.getConstraintMatchSet()) {
+                    HardSoftScore matchScore = match.getScore();
+                    if (matchScore.hardScore() == 0 && matchScore.softScore() == 0) {
+                        continue;
+                    }
+                    ConstraintViolationDetail detail = toDetail(code, name, matchScore, match.getIndictedObjectList());
+                    all.add(detail);
+                    if ("hard".equals(detail.severity)) {
+                        hard++;
+                    }
+                    counts.merge(code, 1, Integer::sum);
+                    index(constraintIndex, code, detail);
+                    if (!code.equals(name)) {
+                        index(constraintIndex, name, detail);
+                    }
+                    indexByFacts(detail, match.getIndictedObjectList(), studentIndex, teacherIndex, dateIndex);
+                }
+            }
+
+            this.violations = Collections.unmodifiableList(all);
+            this.violationsByConstraint = Collections.unmodifiableMap(counts);
+            this.byConstraint = freeze(constraintIndex);
+            this.byStudent = freeze(studentIndex);
+            this.byTeacher = freeze(teacherIndex);
+            this.byDate = freeze(dateIndex);
+            this.hardViolations = hard;
+
+            ConstraintViolationSummary built = new ConstraintViolationSummary();
+            built.totalScore = score;
+            built.violationsByConstraint.putAll(violationsByConstraint);
+            built.violations.addAll(violations);
+            built.totalViolations = violations.size();
+            built.hardConstraintViolations = hard;
+            built.softConstraintViolations = violations.size() - hard;
+            built.lastUpdated = builtAt;
+            this.summary = built;
+        }
+
+        private static ConstraintViolationDetail toDetail(String code, String name, HardSoftScore matchScore,
+                                                          List<Object> indicted) {
+            boolean hard = matchScore.hardScore() != 0;
+            ExamAssignment assignment = firstAssignment(indicted);
+            Student student = assignment != null ? assignment.getStudent() : null;
+
+            ConstraintViolationDetail detail = new ConstraintViolationDetail(
+                    code, name, hard ? "hard" : "soft",
+                    student != null ? student.getName() : null,
+                    student != null ? student.getDepartment() : null,
+                    assignment != null ? assignment.getExamDate() : null,
+                    assignment != null ? assignment.getExamType() : null,
+                    name,
+                    describe(code, matchScore, indicted),
+                    Math.abs(hard ? matchScore.hardScore() : matchScore.softScore()));
+            if (assignment != null) {
+                detail.additionalInfo.put("assignmentId", assignment.getId());
+                detail.additionalInfo.put("examiner1", teacherName(assignment.getExaminer1()));
+                detail.additionalInfo.put("examiner2", teacherName(assignment.getExaminer2()));
+                detail.additionalInfo.put("backupExaminer", teacherName(assignment.getBackupExaminer()));
+            }
+            detail.additionalInfo.put("score", matchScore.toString());
+            return detail;
+        }
+
+        private static String describe(String code, HardSoftScore matchScore, List<Object> indicted) {
+            StringBuilder sb = new StringBuilder(code).append(' ').append(matchScore).append(':');
+            for (Object fact : indicted) {
+                sb.append(' ');
+                if (fact instanceof ExamAssignment) {
+                    ExamAssignment a = (ExamAssignment) fact;
+                    sb.append(a.getStudentName()).append('@').append(a.getExamDate()).append('(').append(a.getExamType()).append(')');
+                } else if (fact instanceof Teacher) {
+                    sb.append(((Teacher) fact).getName());
+                } else {
+                    sb.append(fact);
+                }
+            }
+            return sb.toString();
+        }
+
+        private static void indexByFacts(ConstraintViolationDetail detail, List<Object> indicted,
+                                         Map<String, List<ConstraintViolationDetail>> studentIndex,
+                                         Map<String, List<ConstraintViolationDetail>> teacherIndex,
+                                         Map<String, List<ConstraintViolationDetail>> dateIndex) {
+            // 同一明细在同一维度键下只出现一次（如 HC4 两条排班共享同一考官/日期）
+            Set<String> students = new LinkedHashSet<>();
+            Set<String> teachers = new LinkedHashSet<>();
+            Set<String> dates = new LinkedHashSet<>();
+            for (Object fact : indicted) {
+                if (fact instanceof ExamAssignment) {
+                    ExamAssignment a = (ExamAssignment) fact;
+                    addIfPresent(students, a.getStudentId());
+                    addIfPresent(dates, a.getExamDate());
+                    addTeacher(teachers, a.getExaminer1());
+                    addTeacher(teachers, a.getExaminer2());
+                    addTeacher(teachers, a.getBackupExaminer());
+                } else if (fact instanceof Teacher) {
+                    addTeacher(teachers, (Teacher) fact);
+                } else if (fact instanceof Student) {
+                    addIfPresent(students, ((Student) fact).getId());
+                }
+            }
+            students.forEach(key -> index(studentIndex, key, detail));
+            teachers.forEach(key -> index(teacherIndex, key, detail));
+            dates.forEach(key -> index(dateIndex, key, detail));
+        }
+
+        private static ExamAssignment firstAssignment(List<Object> indicted) {
+            for (Object fact : indicted) {
+                if (fact instanceof ExamAssignment) {
+                    return (ExamAssignment) fact;
+                }
+            }
+            return null;
+        }
+
+        private static void addTeacher(Set<String> keys, Teacher teacher) {
+            if (teacher != null) {
+                addIfPresent(keys, teacher.getId());
+            }
+        }
+
+        private static void addIfPresent(Set<String> keys, String key) {
+            if (key != null && !key.isEmpty()) {
+                keys.add(key);
+            }
+        }
+
+        private static String teacherName(Teacher teacher) {
+            return teacher != null ? teacher.getName() : null;
+        }
+
+        private static void index(Map<String, List<ConstraintViolationDetail>> index, String key,
+                                  ConstraintViolationDetail detail) {
+            index.computeIfAbsent(key, k -> new ArrayList<>()).add(detail);
+        }
+
+        private static Map<String, List<ConstraintViolationDetail>> freeze(Map<String, List<ConstraintViolationDetail>> index) {
+            Map<String, List<ConstraintViolationDetail>> frozen = new HashMap<>(index.size() * 2);
+            index.forEach((key, list) -> frozen.put(key, Collections.unmodifiableList(list)));
+            return Collections.unmodifiableMap(frozen);
+        }
+
+        public String getVersion() { return version; }
+        public long getSequence() { return sequence; }
+        public long getBuiltAt() { return builtAt; }
+        public HardSoftScore getScore() { return score; }
+        public int getHardViolations() { return hardViolations; }
+        public List<ConstraintViolationDetail> getViolations() { return violations; }
+        public Map<String, Integer> getViolationsByConstraint() { return violationsByConstraint; }
+        public ConstraintViolationSummary getSummary() { return summary; }
+
+        /** 按约束编号（HC2）或约束名（examinerDepartmentRules）查询 */
+        public List<ConstraintViolationDetail> byConstraint(String constraint) {
+            return byConstraint.getOrDefault(constraint, Collections.emptyList());
+        }
+
+        public List<ConstraintViolationDetail> byStudent(String studentId) {
+            return byStudent.getOrDefault(studentId, Collections.emptyList());
+        }
+
+        public List<ConstraintViolationDetail> byTeacher(String teacherId) {
+            return byTeacher.getOrDefault(teacherId, Collections.emptyList());
+        }
+
+        public List<ConstraintViolationDetail> byDate(String date) {
+            return byDate.getOrDefault(date, Collections.emptyList());
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.examiner.scheduler.service;
+
+import io.quarkus.runtime.StartupEvent;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 🆕 v8.1: 基于内存的求解准入控制
+ *
+ * ConcurrencyControlService 只按许可数限流，MemoryLeakPreventer 在内存吃紧之后才提示 GC。
+ * 2GB 的机器上两个大规模求解同时启动就会 OOM。本服务在求解开始前估算其堆内存峰值并决定：
+ * - 放行：按请求的级别求解
+ * - 降级：精细 → 标准 → 闪电 → 低配置模式（LowEndSolverConfig），取第一个放得下的级别；
+ *   分级求解据此限制最高级别，调用方指定的求解模式保持不变，只按 {@link Decision#budgetRatio()} 缩短时间预算
+ * - 排队：所有级别都放不下且有其他求解在运行时，等待其结束（最长 max-queue-seconds）
+ * - 拒绝：排队超时，返回 503 + Retry-After
+ * 没有其他求解在运行时总会放行（最低为低配置模式），避免请求永远无法执行。
+ *
+ * 估算：峰值 = BASE_BYTES + 每单元字节数 × 学员数 × 考官数 × 日期数 × 级别系数。
+ * 每单元字节数从实测校准：独占运行（期间没有其他求解）的求解结束时，用堆内存池的峰值减去开始时的占用，
+ * 按指数加权平均更新。
+ *
+ * 堆压力：启动时为支持的老年代内存池设置 MemoryPoolMXBean 收集后使用阈值，
+ * GC 后仍超过阈值时不再放行新的求解（已无其他求解时降为低配置模式）。
+ */
+@ApplicationScoped
+public class SolveAdmissionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SolveAdmissionService.class);
+
+    /** 求解器、约束流网络等与规模无关的固定开销 */
+    static final long BASE_BYTES = 64L * 1024 * 1024;
+    /** 未校准时的每单元字节数（学员 × 考官 × 日期） */
+    static final double DEFAULT_BYTES_PER_UNIT = 2048;
+    static final double MIN_BYTES_PER_UNIT = 256;
+    static final double MAX_BYTES_PER_UNIT = 64 * 1024;
+    /** 校准的指数加权系数 */
+    static final double CALIBRATION_ALPHA = 0.3;
+    /** 排队时重新评估的间隔 */
+    static final long QUEUE_POLL_MS = 1000;
+
+    @ConfigProperty(name = "examiner.admission.enabled", defaultValue = "true")
+    boolean enabled;
+
+    /** 已放行求解的估算峰值之和（加上空闲时的常驻堆）不超过最大堆的该比例 */
+    @ConfigProperty(name = "examiner.admission.heap-budget-ratio", defaultValue = "0.85")
+    double heapBudgetRatio;
+
+    /** 老年代内存池 GC 后使用阈值（占该池上限的比例） */
+    @ConfigProperty(name = "examiner.admission.collection-threshold-ratio", defaultValue = "0.75")
+    double collectionThresholdRatio;
+
+    @ConfigProperty(name = "examiner.admission.max-queue-seconds", defaultValue = "60")
+    long maxQueueSeconds;
+
+    @ConfigProperty(name = "examiner.admission.retry-after-seconds", defaultValue = "30")
+    long retryAfterSeconds;
+
+    private final Map<String, Admission> active = new LinkedHashMap<>();
+    private double bytesPerUnit = DEFAULT_BYTES_PER_UNIT;
+    private int calibrationSamples;
+    /** 没有求解运行时的常驻堆（GC 后） */
+    private long idleLiveBytes;
+    private long admitted;
+    private long downgraded;
+    private long queued;
+    private long rejected;
+
+    void onStart(@Observes StartupEvent event) {
+        for (MemoryPoolMXBean pool : heapPools()) {
+            long max = pool.getUsage().getMax();
+            if (pool.isCollectionUsageThresholdSupported() && max > 0) {
+                pool.setCollectionUsageThreshold((long) (max * collectionThresholdRatio));
+                LOGGER.info("🧠 [准入控制] 内存池 {} GC后使用阈值: {}MB", pool.getName(),
+                        (long) (max * collectionThresholdRatio) / 1024 / 1024);
+            }
+        }
+        synchronized (this) {
+            idleLiveBytes = liveHeapBytes();
+        }
+    }
+
+    /**
+     * 申请求解准入（阻塞，需在求解作业线程上调用）；放行后必须调用 {@link #release}
+     *
+     * @param requested 请求的最高级别
+     */
+    public Decision admit(String jobId, int students, int teachers, int dates, Level requested) {
+        long units = (long) Math.max(1, students) * Math.max(1, teachers) * Math.max(1, dates);
+        if (!enabled) {
+            return Decision.admitted(requested, requested, 0);
+        }
+        long deadline = System.currentTimeMillis() + maxQueueSeconds * 1000;
+        boolean waited = false;
+        synchronized (this) {
+            while (true) {
+                Decision decision = tryAdmit(jobId, units, requested);
+                if (decision != null) {
+                    if (waited) {
+                        LOGGER.info("🧠 [准入控制] 排队结束: jobId={}", jobId);
+                    }
+                    return decision;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    rejected++;
+                    long estimate = estimate(units, Level.LOW_END);
+                    LOGGER.warn("🧠 [准入控制] 拒绝求解 {}: 排队{}秒后内存仍不足（最低级别估算 {}MB，运行中 {} 个求解）",
+                            jobId, maxQueueSeconds, estimate / 1024 / 1024, active.size());
+                    return Decision.rejected(requested, estimate, retryAfterSeconds);
+                }
+                if (!waited) {
+                    waited = true;
+                    queued++;
+                    LOGGER.info("🧠 [准入控制] 内存不足，求解 {} 排队等待（运行中 {} 个求解）", jobId, active.size());
+                }
+                try {
+                    wait(Math.min(remaining, QUEUE_POLL_MS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    rejected++;
+                    return Decision.rejected(requested, estimate(units, Level.LOW_END), retryAfterSeconds);
+                }
+            }
+        }
+    }
+
+    /**
+     * 求解结束（无论成功与否）；独占运行的求解用实测峰值校准估算
+     */
+    public void release(String jobId) {
+        synchronized (this) {
+            Admission admission = active.remove(jobId);
+            if (admission == null) {
+                return;
+            }
+            if (admission.exclusive) {
+                calibrate(admission, peakHeapBytes());
+            }
+            if (active.isEmpty()) {
+                idleLiveBytes = liveHeapBytes();
+            }
+            notifyAll();
+        }
+    }
+
+    public synchronized Map<String, Object> status() {
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("activeSolves", active.size());
+        status.put("reservedMB", reservedBytes() / 1024 / 1024);
+        status.put("idleLiveMB", idleLiveBytes / 1024 / 1024);
+        status.put("budgetMB", (long) (maxHeap * heapBudgetRatio) / 1024 / 1024);
+        status.put("underPressure", isUnderPressure());
+        status.put("bytesPerUnit", Math.round(bytesPerUnit));
+        status.put("calibrationSamples", calibrationSamples);
+        status.put("admitted", admitted);
+        status.put("downgraded", downgraded);
+        status.put("queued", queued);
+        status.put("rejected", rejected);
+        return status;
+    }
+
+    // ==================== 内部方法 ====================
+
+    private Decision tryAdmit(String jobId, long units, Level requested) {
+        long budget = (long) (Runtime.getRuntime().maxMemory() * heapBudgetRatio);
+        long committed = Math.max(liveHeapBytes(), idleLiveBytes + reservedBytes());
+        boolean pressure = isUnderPressure();
+        for (Level level : requested.andBelow()) {
+            long estimate = estimate(units, level);
+            if (!pressure && committed + estimate <= budget) {
+                return reserve(jobId, units, requested, level, estimate);
+            }
+        }
+        if (active.isEmpty()) {
+            // 没有可等待的求解，只能以最低级别运行
+            LOGGER.warn("🧠 [准入控制] 求解 {} 估算超出内存预算{}，以低配置模式运行",
+                    jobId, pressure ? "（堆内存GC后仍超过阈值）" : "");
+            return reserve(jobId, units, requested, Level.LOW_END, estimate(units, Level.LOW_END));
+        }
+        return null;
+    }
+
+    private Decision reserve(String jobId, long units, Level requested, Level level, long estimate) {
+        for (Admission other : active.values()) {
+            other.exclusive = false;
+        }
+        boolean exclusive = active.isEmpty();
+        if (exclusive) {
+            heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+        }
+        active.put(jobId, new Admission(units, level, estimate, heapUsedBytes(), exclusive));
+        admitted++;
+        if (level != requested) {
+            downgraded++;
+            LOGGER.warn("🧠 [准入控制] 求解 {} 降级: {} → {}（估算 {}MB）",
+                    jobId, requested.label, level.label, estimate / 1024 / 1024);
+        } else {
+            LOGGER.info("🧠 [准入控制] 放行求解 {}: 级别={}, 估算 {}MB, 运行中 {} 个求解",
+                    jobId, level.label, estimate / 1024 / 1024, active.size());
+        }
+        return Decision.admitted(requested, level, estimate);
+    }
+
+    private void calibrate(Admission admission, long peakBytes) {
+        long measured = peakBytes - admission.heapUsedAtStart;
+        if (measured <= 0) {
+            return;
+        }
+        double sample = Math.max(0, measured - BASE_BYTES) / admission.level.factor / admission.units;
+        sample = Math.max(MIN_BYTES_PER_UNIT, Math.min(MAX_BYTES_PER_UNIT, sample));
+        bytesPerUnit = calibrationSamples == 0
+                ? sample
+                : bytesPerUnit * (1 - CALIBRATION_ALPHA) + sample * CALIBRATION_ALPHA;
+        calibrationSamples++;
+        LOGGER.info("🧠 [准入控制] 校准: 实测峰值增量 {}MB（估算 {}MB），每单元 {} 字节",
+                measured / 1024 / 1024, admission.estimate / 1024 / 1024, Math.round(bytesPerUnit));
+    }
+
+    private long estimate(long units, Level level) {
+        return BASE_BYTES + (long) (bytesPerUnit * units * level.factor);
+    }
+
+    private long reservedBytes() {
+        long total = 0;
+        for (Admission admission : active.values()) {
+            total += admission.estimate;
+        }
+        return total;
+    }
+
+    private static boolean isUnderPressure() {
+        for (MemoryPoolMXBean pool : heapPools()) {
+            if (pool.isCollectionUsageThresholdSupported() && pool.getCollectionUsageThreshold() > 0
+                    && pool.isCollectionUsageThresholdExceeded()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 常驻堆：支持收集后统计的内存池取最近一次 GC 后的占用，其余取当前占用
+     */
+    private static long liveHeapBytes() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : heapPools()) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            total += afterGc != null && isTenured(pool) ? afterGc.getUsed() : pool.getUsage().getUsed();
+        }
+        return total;
+    }
+
+    private static long heapUsedBytes() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : heapPools()) {
+            total += pool.getUsage().getUsed();
+        }
+        return total;
+    }
+
+    private static long peakHeapBytes() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : heapPools()) {
+            MemoryUsage peak = pool.getPeakUsage();
+            total += peak != null ? peak.getUsed() : 0;
+        }
+        return total;
+    }
+
+    private static boolean isTenured(MemoryPoolMXBean pool) {
+        String name = pool.getName();
+        return name.contains("Old Gen") || name.contains("Tenured");
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    /**
+     * 求解级别（按内存从高到低），factor 为相对精细模式的峰值系数
+     */
+    public enum Level {
+        PRECISE("precise", 1.0),
+        STANDARD("standard", 0.75),
+        FLASH("flash", 0.5),
+        LOW_END("lowend", 0.3);
+
+        public final String label;
+        final double factor;
+
+        Level(String label, double factor) {
+            this.label = label;
+            this.factor = factor;
+        }
+
+        List<Level> andBelow() {
+            Level[] all = values();
+            return List.of(all).subList(ordinal(), all.length);
+        }
+    }
+
+    private static final class Admission {
+        final long units;
+        final Level level;
+        final long estimate;
+        final long heapUsedAtStart;
+        /** 运行期间没有其他求解，峰值可以归因于本次求解 */
+        boolean exclusive;
+
+        Admission(long units, Level level, long estimate, long heapUsedAtStart, boolean exclusive) {
+            this.units = units;
+            this.level = level;
+            this.estimate = estimate;
+            this.heapUsedAtStart = heapUsedAtStart;
+            this.exclusive = exclusive;
+        }
+    }
+
+    public record Decision(boolean admitted, Level requested, Level level, long estimateBytes, long retryAfterSeconds) {
+
+        static Decision admitted(Level requested, Level level, long estimateBytes) {
+            return new Decision(true, requested, level, estimateBytes, 0);
+        }
+
+        static Decision rejected(Level requested, long estimateBytes, long retryAfterSeconds) {
+            return new Decision(false, requested, null, estimateBytes, retryAfterSeconds);
+        }
+
+        public boolean downgraded() {
+            return admitted && level != requested;
+        }
+
+        /**
+         * 降级后级别与请求级别的峰值系数之比，调用方据此缩短所选模式的时间预算
+         */
+        public double budgetRatio() {
+            return downgraded() ? level.factor / requested.factor : 1.0;
+        }
+
+        public String warning() {
+            return "服务器内存不足，本次求解已由" + requested.label + "级别降级为" + level.label
+                    + "级别（估算峰值 " + estimateBytes / 1024 / 1024 + "MB）";
+        }
+    }
+}
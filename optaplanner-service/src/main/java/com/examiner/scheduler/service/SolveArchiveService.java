@@ -0,0 +1,153 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.optimizer.TuningDataset;
+import com.examiner.scheduler.rest.ScheduleRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.scheduler.Scheduled;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 🆕 v8.1: 求解问题归档 —— 超参数调优（tune 子命令）的真实问题来源
+ *
+ * 检查点目录中的原始请求在求解正常结束时就会删除，不能作为调优数据。本服务在每次 /solve 正常完成后：
+ * - 把请求匿名化（学员/考官ID和姓名替换为序号、清空不可用原因、丢弃热启动信息）后 gzip 写入独立的归档目录
+ * - 先写临时文件再原子重命名；写入在单独线程上执行，不占用求解作业线程
+ * - 定期清理超过保留天数或超过数量上限的归档
+ */
+@ApplicationScoped
+public class SolveArchiveService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SolveArchiveService.class);
+
+    static final String ARCHIVE_SUFFIX = ".request.json.gz";
+
+    @ConfigProperty(name = "examiner.tuning.archive.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "examiner.tuning.archive.dir", defaultValue = "data/tuning-archive")
+    String directory;
+
+    @ConfigProperty(name = "examiner.tuning.archive.retention-days", defaultValue = "90")
+    long retentionDays;
+
+    @ConfigProperty(name = "examiner.tuning.archive.max-files", defaultValue = "200")
+    int maxFiles;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "solve-archive-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 归档一次正常完成的求解请求（异步）
+     */
+    public void archive(String jobId, ScheduleRequest request) {
+        if (!enabled || request == null || request.getStudents() == null || request.getStudents().isEmpty()) {
+            return;
+        }
+        // 在调用线程上复制：之后请求对象可能被其他流程继续使用，匿名化只作用于副本
+        ScheduleRequest copy = objectMapper.convertValue(request, ScheduleRequest.class);
+        writer.execute(() -> write(jobId, copy));
+    }
+
+    @Scheduled(every = "1h")
+    void prune() {
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        List<Path> archives = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + ARCHIVE_SUFFIX)) {
+            stream.forEach(archives::add);
+        } catch (IOException e) {
+            LOGGER.warn("📦 [问题归档] 清理时无法读取目录 {}: {}", dir, e.getMessage());
+            return;
+        }
+        archives.sort(Comparator.comparingLong(SolveArchiveService::lastModified).reversed());
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+        int removed = 0;
+        for (int i = 0; i < archives.size(); i++) {
+            Path file = archives.get(i);
+            if (i >= maxFiles || lastModified(file) < cutoff) {
+                try {
+                    Files.deleteIfExists(file);
+                    removed++;
+                } catch (IOException e) {
+                    LOGGER.warn("📦 [问题归档] 删除失败 {}: {}", file, e.getMessage());
+                }
+            }
+        }
+        if (removed > 0) {
+            LOGGER.info("📦 [问题归档] 已清理 {} 个过期归档", removed);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(String jobId, ScheduleRequest request) {
+        TuningDataset.anonymize(request);
+        try {
+            Path dir = Files.createDirectories(Paths.get(directory));
+            // 文件名不使用会话ID（可能来自请求头），按时间排序即可
+            Path target = dir.resolve(System.currentTimeMillis() + "-" + Integer.toHexString(jobId != null ? jobId.hashCode() : 0)
+                    + ARCHIVE_SUFFIX);
+            Path temp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                    objectMapper.writeValue(out, request);
+                }
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            LOGGER.debug("📦 [问题归档] 已归档 {}（学员 {} 名）", target.getFileName(), request.getStudents().size());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("📦 [问题归档] 归档失败: {}", e.getMessage());
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.rest.ScheduleRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 🆕 v8.1: 求解检查点 —— 长时间求解中断后可从最近的最优解继续
+ *
+ * 低内存部署上，5分钟的精细求解遇到重启或 OOM 会丢掉全部进度。每个 /solve 会话求解期间：
+ * - 运行超过 interval 后，最优解超过已保存的检查点且（硬约束分数提升或距上次写入已满 interval 秒）时写检查点
+ * - 检查点只保存 学员ID / 考试类型 / 三个考官ID 以及本级求解的时间预算，gzip 压缩；
+ *   原始请求在第一次写检查点时单独保存一次
+ * - 先写临时文件再原子重命名，进程在写入中途退出也不会留下半个文件
+ * - 写入在单独线程上执行，求解线程只负责提取考官ID；写入未完成时新的最优解覆盖待写内容
+ * - 求解正常结束即删除；异常结束（含客户端断开后被提前终止）时先补写最新的最优解再保留，
+ *   可通过 /solve/resume/{jobId} 以剩余时间继续
+ * - 定期清理超过保留时长或超过数量上限的检查点
+ */
+@ApplicationScoped
+public class SolveCheckpointService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SolveCheckpointService.class);
+
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint.json.gz";
+    private static final String REQUEST_SUFFIX = ".request.json.gz";
+    /** 恢复时至少保留的求解时间 */
+    static final long MIN_RESUME_SECONDS = 10;
+
+    @ConfigProperty(name = "examiner.checkpoint.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "examiner.checkpoint.dir", defaultValue = "data/checkpoints")
+    String directory;
+
+    @ConfigProperty(name = "examiner.checkpoint.interval-seconds", defaultValue = "30")
+    long intervalSeconds;
+
+    @ConfigProperty(name = "examiner.checkpoint.retention-hours", defaultValue = "24")
+    long retentionHours;
+
+    @ConfigProperty(name = "examiner.checkpoint.max-files", defaultValue = "20")
+    int maxFiles;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private final Map<String, CheckpointJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "solve-checkpoint-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            prune();
+        }
+    }
+
+    /**
+     * 登记求解会话（在第一级求解开始前调用）；会话ID不能作为文件名时不写检查点
+     */
+    public void open(String jobId, ScheduleRequest request) {
+        if (enabled && isSafeId(jobId) && request != null) {
+            jobs.put(jobId, new CheckpointJob(jobId, request));
+        }
+    }
+
+    /**
+     * 登记当前级别的求解器（在 solve() 之前调用），监听最优解变化并按需写检查点
+     */
+    public void attach(String jobId, Solver<ExamSchedule> solver, String level, SolverConfig config) {
+        if (!startLevel(jobId, level, config)) {
+            return;
+        }
+        solver.addEventListener(event -> {
+            if (event.isEveryProblemChangeProcessed()) {
+                onBestSolution(jobId, event.getNewBestSolution());
+            }
+        });
+    }
+
+    /**
+     * 记录当前级别及其时间预算（恢复时按剩余预算继续）
+     * @return 会话未登记时返回false
+     */
+    boolean startLevel(String jobId, String level, SolverConfig config) {
+        CheckpointJob job = jobId != null ? jobs.get(jobId) : null;
+        if (job == null) {
+            return false;
+        }
+        Long budget = config.getTerminationConfig() != null
+                ? config.getTerminationConfig().calculateTimeMillisSpentLimit() : null;
+        job.startLevel(level, budget != null ? budget : 0L);
+        return true;
+    }
+
+    /**
+     * 会话结束：正常完成时删除检查点，异常结束时补写最新的最优解并保留以便恢复
+     */
+    public void close(String jobId, boolean completed) {
+        CheckpointJob job = jobId != null ? jobs.remove(jobId) : null;
+        if (job == null) {
+            return;
+        }
+        job.closed = true;
+        if (completed) {
+            writer.execute(() -> delete(jobId));
+            return;
+        }
+        ExamSchedule latest = job.latestBest;
+        HardSoftScore written = job.lastWrittenScore;
+        if (latest != null && (written == null || latest.getScore().compareTo(written) > 0)) {
+            enqueue(job, snapshot(job, latest, System.currentTimeMillis()));
+        }
+        if (job.written || job.pending.get() != null) {
+            LOGGER.warn("💾 [检查点] 求解 {} 未正常结束，检查点已保留，可调用 /solve/resume/{} 继续", jobId, jobId);
+        }
+    }
+
+    /**
+     * 读取检查点并生成恢复请求：原始请求 + 以检查点热启动 + 自适应模式（热启动后转为单阶段LocalSearch）
+     * @return 检查点不存在时返回null
+     */
+    public ScheduleRequest prepareResume(String jobId) throws IOException {
+        Checkpoint checkpoint = read(jobId);
+        Path requestFile = requestFile(jobId);
+        if (checkpoint == null || requestFile == null || !Files.exists(requestFile)) {
+            return null;
+        }
+        ScheduleRequest request;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(requestFile))) {
+            request = objectMapper.readValue(in, ScheduleRequest.class);
+        }
+        ScheduleRequest.WarmStart warmStart = new ScheduleRequest.WarmStart();
+        warmStart.setCheckpointId(jobId);
+        request.setWarmStart(warmStart);
+        if (request.getSolverConfig() != null) {
+            request.getSolverConfig().setMode("adaptive");
+        }
+        LOGGER.info("💾 [检查点] 恢复求解 {}: 级别={}, 得分={}, 剩余{}秒",
+                jobId, checkpoint.level, checkpoint.score, remainingSeconds(checkpoint));
+        return request;
+    }
+
+    /**
+     * 检查点中的考官分配：[学员ID, 考试类型, 考官1ID, 考官2ID, 备份考官ID]
+     */
+    public List<String[]> readAssignments(String jobId) throws IOException {
+        Checkpoint checkpoint = read(jobId);
+        return checkpoint != null ? checkpoint.assignments : null;
+    }
+
+    /**
+     * 中断时所在级别的剩余时间预算（秒，至少 MIN_RESUME_SECONDS）；没有检查点时返回null
+     */
+    public Long remainingSeconds(String jobId) {
+        try {
+            Checkpoint checkpoint = read(jobId);
+            return checkpoint != null ? remainingSeconds(checkpoint) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public boolean exists(String jobId) {
+        Path file = checkpointFile(jobId);
+        return file != null && Files.exists(file);
+    }
+
+    @Scheduled(every = "10m")
+    void prune() {
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        List<Path> checkpoints = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + CHECKPOINT_SUFFIX)) {
+            stream.forEach(checkpoints::add);
+        } catch (IOException e) {
+            LOGGER.warn("💾 [检查点] 清理时无法读取目录 {}: {}", dir, e.getMessage());
+            return;
+        }
+        checkpoints.sort(Comparator.comparingLong(SolveCheckpointService::lastModified).reversed());
+        long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(retentionHours);
+        int removed = 0;
+        for (int i = 0; i < checkpoints.size(); i++) {
+            Path file = checkpoints.get(i);
+            String jobId = file.getFileName().toString().replace(CHECKPOINT_SUFFIX, "");
+            if (jobs.containsKey(jobId)) {
+                continue;
+            }
+            if (i >= maxFiles || lastModified(file) < cutoff) {
+                delete(jobId);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            LOGGER.info("💾 [检查点] 已清理 {} 个过期检查点", removed);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== 内部方法 ====================
+
+    /**
+     * 求解器产生新的最优解（事件中的克隆）
+     */
+    void onBestSolution(String jobId, ExamSchedule best) {
+        CheckpointJob job = jobs.get(jobId);
+        long now = System.currentTimeMillis();
+        HardSoftScore score = best.getScore();
+        if (job == null || job.closed || score == null || !score.isSolutionInitialized()) {
+            return;
+        }
+        ExamSchedule latest = job.latestBest;
+        if (latest == null || score.compareTo(latest.getScore()) > 0) {
+            job.latestBest = best;
+        }
+        if (now - job.openedAt < TimeUnit.SECONDS.toMillis(intervalSeconds)) {
+            return;
+        }
+        // 分级求解的每一级都从原始问题开始，只在超过已保存的最优解时才覆盖检查点
+        HardSoftScore written = job.lastWrittenScore;
+        if (written != null && score.compareTo(written) <= 0) {
+            return;
+        }
+        boolean hardImproved = written == null || score.hardScore() > written.hardScore();
+        if (!hardImproved && now - job.lastWriteAt < TimeUnit.SECONDS.toMillis(intervalSeconds)) {
+            return;
+        }
+        enqueue(job, snapshot(job, best, now));
+    }
+
+    private Checkpoint snapshot(CheckpointJob job, ExamSchedule best, long now) {
+        HardSoftScore score = best.getScore();
+        job.lastWriteAt = now;
+        job.lastWrittenScore = score;
+
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.jobId = job.jobId;
+        checkpoint.level = job.level;
+        checkpoint.score = score.toString();
+        checkpoint.levelBudgetMillis = job.levelBudgetMillis;
+        checkpoint.levelSpentMillis = now - job.levelStartedAt;
+        checkpoint.updatedAt = Instant.ofEpochMilli(now).toString();
+        checkpoint.assignments = new ArrayList<>(best.getExamAssignments().size());
+        for (ExamAssignment assignment : best.getExamAssignments()) {
+            if (assignment.getStudent() == null) {
+                continue;
+            }
+            checkpoint.assignments.add(new String[]{
+                    assignment.getStudent().getId(), assignment.getExamType(),
+                    idOf(assignment.getExaminer1()), idOf(assignment.getExaminer2()), idOf(assignment.getBackupExaminer())});
+        }
+        return checkpoint;
+    }
+
+    private void enqueue(CheckpointJob job, Checkpoint checkpoint) {
+        // 写线程忙时只保留最新的待写内容
+        if (job.pending.getAndSet(checkpoint) == null) {
+            writer.execute(() -> flush(job));
+        }
+    }
+
+    private void flush(CheckpointJob job) {
+        Checkpoint checkpoint = job.pending.getAndSet(null);
+        if (checkpoint == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Path dir = Files.createDirectories(Paths.get(directory));
+            if (!job.requestWritten) {
+                writeAtomically(dir, requestFile(job.jobId), job.request);
+                job.requestWritten = true;
+            }
+            writeAtomically(dir, checkpointFile(job.jobId), checkpoint);
+            job.written = true;
+            LOGGER.info("💾 [检查点] {} 级别={} 得分={} 已保存（{}ms）",
+                    job.jobId, checkpoint.level, checkpoint.score, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            LOGGER.warn("💾 [检查点] 保存失败 {}: {}", job.jobId, e.getMessage());
+        }
+    }
+
+    private void writeAtomically(Path dir, Path target, Object value) throws IOException {
+        Path temp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                objectMapper.writeValue(out, value);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Checkpoint read(String jobId) throws IOException {
+        Path file = checkpointFile(jobId);
+        if (file == null || !Files.exists(file)) {
+            return null;
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return objectMapper.readValue(in, Checkpoint.class);
+        }
+    }
+
+    private void delete(String jobId) {
+        try {
+            Path checkpoint = checkpointFile(jobId);
+            Path request = requestFile(jobId);
+            if (checkpoint != null) {
+                Files.deleteIfExists(checkpoint);
+            }
+            if (request != null) {
+                Files.deleteIfExists(request);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("💾 [检查点] 删除失败 {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    private static long remainingSeconds(Checkpoint checkpoint) {
+        if (checkpoint.levelBudgetMillis <= 0) {
+            return MIN_RESUME_SECONDS;
+        }
+        long remaining = (checkpoint.levelBudgetMillis - checkpoint.levelSpentMillis) / 1000;
+        return Math.max(MIN_RESUME_SECONDS, remaining);
+    }
+
+    /**
+     * jobId 来自请求头或URL，只允许文件名安全的字符
+     */
+    private Path checkpointFile(String jobId) {
+        return isSafeId(jobId) ? Paths.get(directory, jobId + CHECKPOINT_SUFFIX) : null;
+    }
+
+    private Path requestFile(String jobId) {
+        return isSafeId(jobId) ? Paths.get(directory, jobId + REQUEST_SUFFIX) : null;
+    }
+
+    private static boolean isSafeId(String jobId) {
+        return jobId != null && jobId.matches("[A-Za-z0-9_-]{1,64}");
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static String idOf(Teacher teacher) {
+        return teacher != null ? teacher.getId() : null;
+    }
+
+    private static final class CheckpointJob {
+        final String jobId;
+        final ScheduleRequest request;
+        final long openedAt = System.currentTimeMillis();
+        final AtomicReference<Checkpoint> pending = new AtomicReference<>();
+        volatile String level;
+        volatile long levelStartedAt;
+        volatile long levelBudgetMillis;
+        volatile long lastWriteAt;
+        volatile HardSoftScore lastWrittenScore;
+        /** 各级求解中出现过的最优解（事件中的克隆），会话异常结束时补写 */
+        volatile ExamSchedule latestBest;
+        volatile boolean requestWritten;
+        volatile boolean written;
+        volatile boolean closed;
+
+        CheckpointJob(String jobId, ScheduleRequest request) {
+            this.jobId = jobId;
+            this.request = request;
+        }
+
+        void startLevel(String level, long budgetMillis) {
+            this.level = level;
+            this.levelStartedAt = System.currentTimeMillis();
+            this.levelBudgetMillis = budgetMillis;
+        }
+    }
+
+    /**
+     * 检查点文件内容
+     */
+    public static class Checkpoint {
+        public String jobId;
+        public String level;
+        public String score;
+        public long levelBudgetMillis;
+        public long levelSpentMillis;
+        public String updatedAt;
+        public List<String[]> assignments;
+    }
+}
@@ -0,0 +1,189 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.websocket.ScheduleProgressWebSocket;
+import io.quarkus.runtime.StartupEvent;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🆕 v8.1: 求解会话存活检测 —— 客户端断开后回收无人关注的求解
+ *
+ * 打开 /solve 的浏览器标签页关闭后，闪电/标准/精细各级求解原本会一直跑到时间上限。每个 /solve 会话求解期间：
+ * - 有过订阅者（进度 WebSocket 或 SSE 事件流）的会话才受监控；从未订阅的 API 调用方不受影响
+ * - 最后一个订阅者断开后等待 grace 秒，期间有订阅者重新连接则取消
+ * - 宽限期结束仍无订阅者：标记为已放弃，并持续对当前级别的求解器 terminateEarly，
+ *   直到会话结束（后续级别启动时同样会被立即终止），求解作业线程随之释放
+ * - 已放弃的会话结束时检查点保留（见 SolveCheckpointService.close），可调用 /solve/resume/{jobId} 继续；
+ *   其结果不写入求解结果缓存
+ * - 有其他请求加入同一在途求解时（retain），会话不会被放弃
+ */
+@ApplicationScoped
+public class SolveLivenessService implements ScheduleProgressWebSocket.PresenceListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SolveLivenessService.class);
+
+    /** 放弃后重复发出终止请求的间隔：级别切换时新求解器刚启动，单次 terminateEarly 可能落空 */
+    static final long TERMINATE_RETRY_MS = 500;
+
+    @ConfigProperty(name = "examiner.solve.abandon-on-disconnect", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "examiner.solve.disconnect-grace-seconds", defaultValue = "30")
+    long graceSeconds;
+
+    @Inject
+    RealTimePlanningService realTimePlanningService;
+
+    private final Map<String, WatchedSolve> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong abandonedSolves = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "solve-liveness");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    void onStart(@Observes StartupEvent event) {
+        ScheduleProgressWebSocket.addPresenceListener(this);
+    }
+
+    /**
+     * 登记求解会话（在第一级求解开始前调用）
+     */
+    public void open(String jobId) {
+        if (!enabled || jobId == null) {
+            return;
+        }
+        WatchedSolve job = new WatchedSolve();
+        // 前端通常先连接进度 WebSocket 再提交 /solve
+        job.watched = ScheduleProgressWebSocket.hasSubscribers(jobId);
+        WatchedSolve previous = jobs.put(jobId, job);
+        if (previous != null) {
+            synchronized (previous) {
+                // 求解排队期间已有请求加入
+                job.retained = previous.retained;
+            }
+        }
+    }
+
+    /**
+     * 有其他请求在等待该会话的结果（加入在途求解），此后不再因断开而放弃
+     */
+    public void retain(String jobId) {
+        if (!enabled || jobId == null) {
+            return;
+        }
+        // 加入者可能早于发起者的 open（发起者仍在排队），先登记占位，open 时继承保活标记
+        WatchedSolve job = jobs.computeIfAbsent(jobId, k -> new WatchedSolve());
+        synchronized (job) {
+            job.retained = true;
+            job.cancelGrace();
+        }
+    }
+
+    /**
+     * 会话结束
+     * @return 会话是否因客户端断开而被放弃（结果被提前终止）
+     */
+    public boolean close(String jobId) {
+        WatchedSolve job = jobId != null ? jobs.remove(jobId) : null;
+        if (job == null) {
+            return false;
+        }
+        synchronized (job) {
+            job.cancelGrace();
+            if (job.terminator != null) {
+                job.terminator.cancel(false);
+            }
+            return job.abandoned;
+        }
+    }
+
+    public boolean isAbandoned(String jobId) {
+        WatchedSolve job = jobId != null ? jobs.get(jobId) : null;
+        return job != null && job.abandoned;
+    }
+
+    public long getAbandonedSolves() {
+        return abandonedSolves.get();
+    }
+
+    @Override
+    public void attached(String sessionId) {
+        WatchedSolve job = jobs.get(sessionId);
+        if (job == null) {
+            return;
+        }
+        synchronized (job) {
+            job.watched = true;
+            if (job.grace != null) {
+                job.cancelGrace();
+                LOGGER.info("🔌 [会话存活] 订阅者重新连接，继续求解: sessionId={}", sessionId);
+            }
+        }
+    }
+
+    @Override
+    public void detached(String sessionId) {
+        WatchedSolve job = jobs.get(sessionId);
+        if (job == null || ScheduleProgressWebSocket.hasSubscribers(sessionId)) {
+            return;
+        }
+        synchronized (job) {
+            if (!job.watched || job.retained || job.abandoned || job.grace != null) {
+                return;
+            }
+            job.grace = scheduler.schedule(() -> expire(sessionId, job), Math.max(0, graceSeconds), TimeUnit.SECONDS);
+            LOGGER.info("🔌 [会话存活] 最后一个订阅者已断开，{}秒内无人重新连接将终止求解: sessionId={}",
+                    graceSeconds, sessionId);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void expire(String sessionId, WatchedSolve job) {
+        synchronized (job) {
+            job.grace = null;
+            if (jobs.get(sessionId) != job || job.retained || job.abandoned
+                    || ScheduleProgressWebSocket.hasSubscribers(sessionId)) {
+                return;
+            }
+            job.abandoned = true;
+            job.terminator = scheduler.scheduleWithFixedDelay(
+                    () -> realTimePlanningService.terminateEarly(sessionId), 0, TERMINATE_RETRY_MS, TimeUnit.MILLISECONDS);
+        }
+        abandonedSolves.incrementAndGet();
+        LOGGER.warn("🔌 [会话存活] 客户端已断开超过{}秒，提前终止求解并保留检查点: sessionId={}", graceSeconds, sessionId);
+    }
+
+    private static final class WatchedSolve {
+        /** 是否有过订阅者 */
+        boolean watched;
+        boolean retained;
+        volatile boolean abandoned;
+        ScheduledFuture<?> grace;
+        ScheduledFuture<?> terminator;
+
+        void cancelGrace() {
+            if (grace != null) {
+                grace.cancel(false);
+                grace = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.config.HolidayConfig;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.entity.SolveResultCacheEntry;
+import com.examiner.scheduler.rest.ScheduleRequest;
+import com.examiner.scheduler.rest.ScheduleResponse;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🆕 v8.1: 排班问题指纹 + 在途去重 + 求解结果缓存
+ *
+ * 用户经常用完全相同的输入重复点击"排班"，多位排班员也会打开同一批学员，每次都会启动一次完整求解。
+ * - 指纹：对 学员 / 考官 / 日期 / 节假日 / 约束配置 / 求解模式 / 热启动来源 做规范化序列化（按ID排序、属性按字母序）后取 SHA-256
+ * - 在途去重：相同指纹的并发请求共享同一个求解作业的结果
+ * - 结果缓存：成功的响应按指纹保存在内存（LRU）和 solve_result_cache 表中（按最近命中时间淘汰），重启后仍然命中
+ * - 失效：指纹覆盖了全部输入，任何输入变化都会得到新指纹；数据管理中学员/考官/值班数据变更时额外清空全部缓存
+ */
+@ApplicationScoped
+public class SolveResultCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SolveResultCache.class);
+
+    /** 内存中保留的结果数（单个结果可达数MB） */
+    static final int MEMORY_CAPACITY = 8;
+    /** 数据库中保留的结果数 */
+    static final int PERSISTED_CAPACITY = 32;
+    /** 客户端断开后被提前终止的求解结果带此响应头，不写入缓存 */
+    public static final String ABANDONED_HEADER = "X-Solve-Abandoned";
+
+    /** 规范化序列化专用：属性按字母序、Map 按键排序，保证同样的输入得到同样的字节 */
+    private static final ObjectMapper CANONICAL_MAPPER = JsonMapper.builder()
+            .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+            .build();
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    HolidayConfig holidayConfig;
+
+    private final Map<String, CachedResult> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong joins = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // ==================== 指纹 ====================
+
+    /**
+     * 计算排班请求的规范化指纹（序列化全部学员和考官，需在工作线程调用）
+     */
+    public String fingerprint(ScheduleRequest request) {
+        try {
+            Map<String, Object> canonical = new LinkedHashMap<>();
+            canonical.put("students", sortedById(request.getStudents(), Student::getId));
+            canonical.put("teachers", sortedById(request.getTeachers(), Teacher::getId));
+            canonical.put("startDate", request.getStartDate());
+            canonical.put("endDate", request.getEndDate());
+            canonical.put("examDates", request.getExamDates() != null ? new TreeSet<>(request.getExamDates()) : null);
+            canonical.put("holidays", holidaysInRange(request));
+            canonical.put("constraints", request.getConstraints());
+            canonical.put("solverConfig", request.getSolverConfig());
+            canonical.put("warmStart", request.getWarmStart());
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(CANONICAL_MAPPER.writeValueAsBytes(canonical));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            // 无法规范化时不使用缓存，按普通请求处理
+            LOGGER.warn("⚠️ [求解缓存] 计算指纹失败，跳过缓存: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static <T> List<T> sortedById(List<T> items, java.util.function.Function<T, String> id) {
+        if (items == null) {
+            return null;
+        }
+        List<T> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparing(id, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return sorted;
+    }
+
+    /**
+     * 日期范围内的法定节假日和调休工作日（节假日表变化时指纹随之变化）
+     */
+    private Map<String, Object> holidaysInRange(ScheduleRequest request) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        try {
+            LocalDate start = LocalDate.parse(request.getStartDate());
+            LocalDate end = LocalDate.parse(request.getEndDate());
+            TreeSet<LocalDate> holidays = new TreeSet<>();
+            TreeSet<LocalDate> workdays = new TreeSet<>();
+            for (LocalDate d : holidayConfig.getHolidays()) {
+                if (!d.isBefore(start) && !d.isAfter(end)) {
+                    holidays.add(d);
+                }
+            }
+            for (LocalDate d : holidayConfig.getWorkdays()) {
+                if (!d.isBefore(start) && !d.isAfter(end)) {
+                    workdays.add(d);
+                }
+            }
+            result.put("holidays", holidays.toString());
+            result.put("workdays", workdays.toString());
+        } catch (Exception e) {
+            result.put("holidays", "unknown");
+        }
+        return result;
+    }
+
+    // ==================== 在途去重 ====================
+
+    /**
+     * 登记一个在途求解；已有相同指纹的在途求解时返回它（调用方应加入而不是重新求解）
+     *
+     * @return null 表示调用方成为该指纹的求解者，需在结束时调用 {@link #complete} / {@link #fail}
+     */
+    public InFlight joinOrBegin(String fingerprint, String sessionId) {
+        InFlight created = new InFlight(sessionId);
+        InFlight existing = inFlight.putIfAbsent(fingerprint, created);
+        if (existing != null) {
+            joins.incrementAndGet();
+            LOGGER.info("🔗 [求解缓存] 相同输入的求解正在进行，加入已有作业: fingerprint={}, session={}",
+                    abbreviate(fingerprint), existing.sessionId);
+            return existing;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void complete(String fingerprint, CachedResult result) {
+        InFlight flight = inFlight.remove(fingerprint);
+        if (flight != null) {
+            flight.future.complete(result);
+        }
+    }
+
+    public void fail(String fingerprint, Throwable error) {
+        InFlight flight = inFlight.remove(fingerprint);
+        if (flight != null) {
+            flight.future.completeExceptionally(error);
+        }
+    }
+
+    // ==================== 结果缓存 ====================
+
+    /**
+     * 只查内存，不更新持久化记录的命中时间
+     */
+    public CachedResult lookupMemory(String fingerprint) {
+        CachedResult result;
+        synchronized (memory) {
+            result = memory.get(fingerprint);
+        }
+        if (result != null) {
+            hits.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * 查内存，未命中再查数据库（阻塞，需在工作线程调用）
+     */
+    @Transactional
+    public CachedResult lookup(String fingerprint) {
+        CachedResult result = lookupMemory(fingerprint);
+        if (result != null) {
+            touch(fingerprint);
+            return result;
+        }
+        SolveResultCacheEntry entry = SolveResultCacheEntry.findByFingerprint(fingerprint);
+        if (entry == null) {
+            return null;
+        }
+        entry.hitCount = (entry.hitCount != null ? entry.hitCount : 0) + 1;
+        entry.lastHitAt = LocalDateTime.now();
+        result = new CachedResult(entry.statusCode, entry.responseJson, entry.createdAt, true);
+        remember(fingerprint, result);
+        hits.incrementAndGet();
+        LOGGER.info("♻️ [求解缓存] 命中持久化结果: fingerprint={}, 创建于 {}", abbreviate(fingerprint), entry.createdAt);
+        return result;
+    }
+
+    /**
+     * 保存成功的求解结果，超过容量时淘汰最久未命中的记录
+     */
+    @Transactional
+    public void store(String fingerprint, ScheduleRequest request, CachedResult result) {
+        remember(fingerprint, result);
+
+        SolveResultCacheEntry entry = SolveResultCacheEntry.findByFingerprint(fingerprint);
+        if (entry == null) {
+            entry = new SolveResultCacheEntry();
+            entry.fingerprint = fingerprint;
+        }
+        entry.statusCode = result.statusCode;
+        entry.responseJson = result.json;
+        entry.totalStudents = request.getStudents() != null ? request.getStudents().size() : 0;
+        entry.totalTeachers = request.getTeachers() != null ? request.getTeachers().size() : 0;
+        entry.startDate = request.getStartDate();
+        entry.endDate = request.getEndDate();
+        entry.lastHitAt = LocalDateTime.now();
+        entry.persist();
+
+        SolveResultCacheEntry.deleteAllButMostRecentlyUsed(PERSISTED_CAPACITY);
+        LOGGER.info("💾 [求解缓存] 已缓存求解结果: fingerprint={}, 大小={}KB",
+                abbreviate(fingerprint), result.json.length() / 1024);
+    }
+
+    /**
+     * 输入数据（学员/考官/值班表等）发生变化时清空全部缓存
+     */
+    @Transactional
+    public void invalidateAll(String reason) {
+        synchronized (memory) {
+            memory.clear();
+        }
+        long deleted = SolveResultCacheEntry.deleteAll();
+        if (deleted > 0) {
+            LOGGER.info("🧹 [求解缓存] {}，已清空 {} 条缓存结果", reason, deleted);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (memory) {
+            stats.put("memoryEntries", memory.size());
+        }
+        stats.put("inFlight", inFlight.size());
+        stats.put("hits", hits.get());
+        stats.put("joins", joins.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    /**
+     * 把 /solve 的响应转换为可缓存的形式（状态码 + JSON 文本）；只有成功的排班结果才会写入缓存
+     */
+    public CachedResult toCachedResult(Response response) throws Exception {
+        Object entity = response.getEntity();
+        String json = entity instanceof String ? (String) entity : objectMapper.writeValueAsString(entity);
+        boolean cacheable = response.getStatus() == 200
+                && entity instanceof ScheduleResponse && ((ScheduleResponse) entity).isSuccess()
+                && response.getHeaderString(ABANDONED_HEADER) == null;
+        return new CachedResult(response.getStatus(), json, LocalDateTime.now(), cacheable);
+    }
+
+    private void remember(String fingerprint, CachedResult result) {
+        synchronized (memory) {
+            memory.put(fingerprint, result);
+            while (memory.size() > MEMORY_CAPACITY) {
+                String eldest = memory.keySet().iterator().next();
+                memory.remove(eldest);
+            }
+        }
+    }
+
+    private void touch(String fingerprint) {
+        SolveResultCacheEntry entry = SolveResultCacheEntry.findByFingerprint(fingerprint);
+        if (entry != null) {
+            entry.hitCount = (entry.hitCount != null ? entry.hitCount : 0) + 1;
+            entry.lastHitAt = LocalDateTime.now();
+        }
+    }
+
+    private static String abbreviate(String fingerprint) {
+        return fingerprint != null && fingerprint.length() > 12 ? fingerprint.substring(0, 12) : fingerprint;
+    }
+
+    // ==================== 数据结构 ====================
+
+    /**
+     * 缓存的响应：状态码 + 原始 JSON
+     */
+    public static final class CachedResult {
+        public final int statusCode;
+        public final String json;
+        public final LocalDateTime solvedAt;
+        private final boolean cacheable;
+
+        CachedResult(int statusCode, String json, LocalDateTime solvedAt, boolean cacheable) {
+            this.statusCode = statusCode;
+            this.json = json;
+            this.solvedAt = solvedAt;
+            this.cacheable = cacheable;
+        }
+
+        public boolean isCacheable() {
+            return cacheable && json != null;
+        }
+
+        /**
+         * @param source HIT（缓存命中）/ JOINED（加入在途求解）/ MISS（本次求解）
+         */
+        public Response toResponse(String source, String fingerprint) {
+            return Response.status(statusCode)
+                    .type(MediaType.APPLICATION_JSON_TYPE.withCharset(StandardCharsets.UTF_8.name()))
+                    .header("X-Solve-Cache", source)
+                    .header("X-Solve-Fingerprint", fingerprint)
+                    .entity(json)
+                    .build();
+        }
+    }
+
+    /**
+     * 在途求解：sessionId 为发起者的进度会话，加入者可订阅同一会话的进度
+     */
+    public static final class InFlight {
+        public final String sessionId;
+        public final CompletableFuture<CachedResult> future = new CompletableFuture<>();
+
+        InFlight(String sessionId) {
+            this.sessionId = Objects.requireNonNull(sessionId, "在途求解必须带发起者的会话ID");
+        }
+    }
+}
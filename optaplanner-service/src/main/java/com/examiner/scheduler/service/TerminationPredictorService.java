@@ -0,0 +1,423 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.entity.SolveRunProfile;
+import com.examiner.scheduler.optimizer.PerformanceMonitor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.optaplanner.core.api.score.Score;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.event.BestSolutionChangedEvent;
+import org.optaplanner.core.api.solver.event.SolverEventListener;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🆕 v8.1: 求解时长预测 —— 按历史收敛曲线设定各级终止条件
+ *
+ * 闪电/标准/精细三级原本使用固定的时间上限和无改进时间，小问题白白等满无改进时间，大问题又常在仍有改进时被截断。
+ * - 每一级求解结束时保存问题规模（学员×考官×日期）和 PerformanceMonitor 的分数改进序列（solve_run_profile 表）
+ * - 求解前：对同级别最近的记录做对数线性回归 ln(时长) ~ ln(规模)，预测"最后一次有效改进"时间和最大改进间隔，
+ *   据此改写时间上限与无改进时间（样本不足时保持静态配置）
+ * - 求解中：跟踪有效改进（硬约束改进，或软约束改进幅度不低于1%），
+ *   超过最低运行时间后若距上次有效改进已超过 max(2×已观察到的最大间隔, 预测间隔)，提前终止
+ * - 结束于时间上限附近仍在改进的记录标记为截断，回归时按放大后的时长计入
+ */
+@ApplicationScoped
+public class TerminationPredictorService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TerminationPredictorService.class);
+
+    /** 回归所需的最少样本数 */
+    static final int MIN_SAMPLES = 5;
+    /** 回归使用的同级别最近记录数 */
+    static final int HISTORY_SIZE = 200;
+    /** 数据库保留的记录总数 */
+    static final int PERSISTED_CAPACITY = 500;
+    /** 单条记录保存的改进序列点数上限 */
+    static final int MAX_SERIES_POINTS = 500;
+    /** 软约束改进幅度低于当前软约束分的该比例时不算有效改进 */
+    static final double MEANINGFUL_SOFT_RATIO = 0.01;
+    /** 最后一次有效改进落在求解末尾该比例内时视为被截断 */
+    static final double TRUNCATED_TAIL_RATIO = 0.2;
+    /** 截断记录在回归中的时长放大系数 */
+    static final double TRUNCATED_INFLATION = 1.2;
+    static final long CHECK_INTERVAL_MS = 500;
+
+    @ConfigProperty(name = "examiner.termination.adaptive-enabled", defaultValue = "true")
+    boolean enabled;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    /** 按级别缓存的回归模型，有新记录时失效 */
+    private final Map<String, Model> models = new ConcurrentHashMap<>();
+    private final AtomicLong tunedRuns = new AtomicLong();
+    private final AtomicLong earlyStops = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "termination-predictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 按预测结果改写求解配置的时间上限和无改进时间
+     * @param level 求解级别（flash / standard / precise）
+     * @return 预测的时长（毫秒），样本不足或未启用时为null
+     */
+    public Prediction tune(SolverConfig config, String level, ExamSchedule problem) {
+        TerminationConfig termination = config.getTerminationConfig();
+        if (!enabled || termination == null) {
+            return null;
+        }
+        Model model = model(level);
+        if (model == null) {
+            LOGGER.debug("⏱️ [终止预测] {} 样本不足，使用静态终止条件", level);
+            return null;
+        }
+        Long staticSpent = termination.calculateTimeMillisSpentLimit();
+        Long staticUnimproved = termination.calculateUnimprovedTimeMillisSpentLimit();
+        if (staticSpent == null) {
+            return null;
+        }
+        double x = Math.log(units(problem));
+        long predictedLast = model.last.predictUpper(x);
+        long predictedGap = model.gap.predictUpper(x);
+
+        long spent = clamp((long) (predictedLast * 1.5) + 1000, minRuntimeMillis(level), staticSpent * 2);
+        long unimproved = clamp(predictedGap * 3, 1000, spent / 2);
+        setTimeLimits(termination, spent, unimproved);
+        tunedRuns.incrementAndGet();
+
+        LOGGER.info("⏱️ [终止预测] {}: 规模={}, 样本={}, 预测最后改进={}ms, 预测间隔={}ms → 时间上限 {}ms（静态{}ms）, 无改进 {}ms（静态{}ms）",
+                level, units(problem), model.samples, predictedLast, predictedGap,
+                spent, staticSpent, unimproved, staticUnimproved);
+        return new Prediction(predictedLast, predictedGap, spent, unimproved);
+    }
+
+    /**
+     * 开始跟踪一次求解（在 buildSolver 之后、solve 之前调用）
+     * @param prediction tune 的返回值，可为null
+     */
+    public RunTracker track(Solver<ExamSchedule> solver, String level, ExamSchedule problem, Prediction prediction) {
+        RunTracker tracker = new RunTracker(solver, level, problem, prediction);
+        tracker.monitor.startMonitoring();
+        solver.addEventListener(tracker.monitor);
+        solver.addEventListener(tracker);
+        if (enabled) {
+            tracker.watchdog = scheduler.scheduleWithFixedDelay(
+                    () -> checkConvergence(tracker), CHECK_INTERVAL_MS, CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+        return tracker;
+    }
+
+    /**
+     * 停止跟踪（可重复调用，放在 finally 中）
+     */
+    public void stop(RunTracker tracker) {
+        if (tracker == null) {
+            return;
+        }
+        synchronized (tracker) {
+            if (tracker.watchdog != null) {
+                tracker.watchdog.cancel(false);
+                tracker.watchdog = null;
+            }
+            if (tracker.finishedAt == 0) {
+                tracker.finishedAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * 保存本次求解的改进序列
+     * @param keep 为false时（如会话被放弃、求解异常）只停止跟踪，不写入记录
+     */
+    @Transactional
+    public void record(RunTracker tracker, boolean keep) {
+        if (tracker == null) {
+            return;
+        }
+        stop(tracker);
+        PerformanceMonitor.PerformanceReport report = tracker.monitor.generateReport();
+        if (!keep || report.improvements.isEmpty()) {
+            return;
+        }
+        long spent = Math.max(1, tracker.finishedAt - tracker.startedAt);
+        long lastMeaningful = Math.max(1, tracker.lastMeaningfulMs);
+        try {
+            SolveRunProfile profile = new SolveRunProfile();
+            profile.level = tracker.level;
+            profile.totalStudents = tracker.students;
+            profile.totalTeachers = tracker.teachers;
+            profile.totalDates = tracker.dates;
+            profile.spentMillis = spent;
+            profile.lastImprovementMillis = lastMeaningful;
+            profile.maxGapMillis = Math.max(1, tracker.maxGapMs);
+            profile.improvementCount = (int) report.improvementCount;
+            profile.truncated = !tracker.stoppedEarly && lastMeaningful >= spent * (1 - TRUNCATED_TAIL_RATIO);
+            profile.initialScore = report.initialScore != null ? report.initialScore.toString() : null;
+            profile.finalScore = report.bestScore != null ? report.bestScore.toString() : null;
+            profile.seriesJson = objectMapper.writeValueAsString(series(report.improvements));
+            profile.persist();
+
+            SolveRunProfile.deleteAllButNewest(PERSISTED_CAPACITY);
+            models.remove(tracker.level);
+            LOGGER.info("⏱️ [终止预测] 已记录 {}: 耗时={}ms, 最后有效改进={}ms, 最大间隔={}ms, 改进次数={}{}",
+                    tracker.level, spent, lastMeaningful, profile.maxGapMillis, profile.improvementCount,
+                    profile.truncated ? "（截断）" : "");
+        } catch (Exception e) {
+            LOGGER.warn("⚠️ [终止预测] 保存求解记录失败: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("tunedRuns", tunedRuns.get());
+        status.put("earlyStops", earlyStops.get());
+        Map<String, Object> fitted = new LinkedHashMap<>();
+        models.forEach((level, model) -> fitted.put(level, model.samples));
+        status.put("modelSamples", fitted);
+        return status;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void checkConvergence(RunTracker tracker) {
+        long now = System.currentTimeMillis();
+        long elapsed = now - tracker.startedAt;
+        if (tracker.stoppedEarly || tracker.meaningfulCount < 2 || elapsed < minRuntimeMillis(tracker.level)) {
+            return;
+        }
+        long predictedGap = tracker.prediction != null ? tracker.prediction.gapMillis() : 0;
+        long patience = Math.max(Math.max(2 * tracker.maxGapMs, predictedGap), 1000);
+        long idle = elapsed - tracker.lastMeaningfulMs;
+        if (idle > patience) {
+            tracker.stoppedEarly = true;
+            earlyStops.incrementAndGet();
+            LOGGER.info("⏱️ [终止预测] {} 已收敛: {}ms 无有效改进（阈值{}ms），提前终止，已运行{}ms",
+                    tracker.level, idle, patience, elapsed);
+            tracker.solver.terminateEarly();
+        }
+    }
+
+    /**
+     * tune 在求解作业线程上调用，没有请求上下文，读取记录前需要激活
+     */
+    @ActivateRequestContext
+    Model model(String level) {
+        Model cached = models.get(level);
+        if (cached != null) {
+            return cached;
+        }
+        List<SolveRunProfile> history;
+        try {
+            history = SolveRunProfile.findRecentByLevel(level, HISTORY_SIZE);
+        } catch (Exception e) {
+            LOGGER.warn("⚠️ [终止预测] 读取求解记录失败: {}", e.getMessage());
+            return null;
+        }
+        if (history.size() < MIN_SAMPLES) {
+            return null;
+        }
+        double[] x = new double[history.size()];
+        double[] last = new double[history.size()];
+        double[] gap = new double[history.size()];
+        for (int i = 0; i < history.size(); i++) {
+            SolveRunProfile run = history.get(i);
+            long lastMillis = Boolean.TRUE.equals(run.truncated)
+                    ? (long) (run.spentMillis * TRUNCATED_INFLATION) : run.lastImprovementMillis;
+            x[i] = Math.log(Math.max(1L, (long) run.totalStudents * run.totalTeachers * run.totalDates));
+            last[i] = Math.log(Math.max(1L, lastMillis));
+            gap[i] = Math.log(Math.max(1L, run.maxGapMillis));
+        }
+        Model model = new Model(history.size(), Fit.of(x, last), Fit.of(x, gap));
+        models.put(level, model);
+        return model;
+    }
+
+    private static List<long[]> series(List<PerformanceMonitor.ScoreImprovement> improvements) {
+        int step = Math.max(1, (int) Math.ceil(improvements.size() / (double) MAX_SERIES_POINTS));
+        List<long[]> points = new ArrayList<>();
+        for (int i = 0; i < improvements.size(); i++) {
+            // 抽样时保留最后一个点
+            if (i % step != 0 && i != improvements.size() - 1) {
+                continue;
+            }
+            PerformanceMonitor.ScoreImprovement improvement = improvements.get(i);
+            if (improvement.score instanceof HardSoftScore score) {
+                points.add(new long[]{improvement.elapsedMs, score.hardScore(), score.softScore()});
+            }
+        }
+        return points;
+    }
+
+    /**
+     * 清除所有时间单位后设置毫秒上限（TerminationConfig 会把各单位累加）
+     */
+    private static void setTimeLimits(TerminationConfig termination, long spentMillis, long unimprovedMillis) {
+        termination.setSpentLimit(null);
+        termination.setDaysSpentLimit(null);
+        termination.setHoursSpentLimit(null);
+        termination.setMinutesSpentLimit(null);
+        termination.setSecondsSpentLimit(null);
+        termination.setMillisecondsSpentLimit(spentMillis);
+        termination.setUnimprovedSpentLimit(null);
+        termination.setUnimprovedDaysSpentLimit(null);
+        termination.setUnimprovedHoursSpentLimit(null);
+        termination.setUnimprovedMinutesSpentLimit(null);
+        termination.setUnimprovedSecondsSpentLimit(null);
+        termination.setUnimprovedMillisecondsSpentLimit(unimprovedMillis);
+    }
+
+    /**
+     * 各级别的最低运行时间（也是预测时间上限的下限）
+     */
+    static long minRuntimeMillis(String level) {
+        switch (level) {
+            case "flash":
+                return 2000;
+            case "standard":
+                return 5000;
+            case "precise":
+                return 10000;
+            default:
+                return 5000;
+        }
+    }
+
+    private static long units(ExamSchedule problem) {
+        return Math.max(1L, (long) size(problem.getStudents()) * size(problem.getTeachers())
+                * size(problem.getAvailableDates()));
+    }
+
+    private static int size(List<?> list) {
+        return list != null ? Math.max(1, list.size()) : 1;
+    }
+
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    public record Prediction(long lastImprovementMillis, long gapMillis, long spentLimitMillis, long unimprovedLimitMillis) {
+    }
+
+    record Model(int samples, Fit last, Fit gap) {
+    }
+
+    /**
+     * 一元最小二乘 y = a + b·x，预测取拟合值加一个残差标准差（偏保守）
+     */
+    private record Fit(double intercept, double slope, double residualStd) {
+
+        static Fit of(double[] x, double[] y) {
+            int n = x.length;
+            double meanX = 0;
+            double meanY = 0;
+            for (int i = 0; i < n; i++) {
+                meanX += x[i];
+                meanY += y[i];
+            }
+            meanX /= n;
+            meanY /= n;
+            double sxx = 0;
+            double sxy = 0;
+            for (int i = 0; i < n; i++) {
+                sxx += (x[i] - meanX) * (x[i] - meanX);
+                sxy += (x[i] - meanX) * (y[i] - meanY);
+            }
+            // 规模全部相同时退化为均值
+            double slope = sxx > 1e-9 ? sxy / sxx : 0;
+            double intercept = meanY - slope * meanX;
+            double sse = 0;
+            for (int i = 0; i < n; i++) {
+                double residual = y[i] - (intercept + slope * x[i]);
+                sse += residual * residual;
+            }
+            return new Fit(intercept, slope, Math.sqrt(sse / Math.max(1, n - 2)));
+        }
+
+        long predictUpper(double x) {
+            return Math.max(1L, (long) Math.exp(intercept + slope * x + residualStd));
+        }
+    }
+
+    /**
+     * 单次求解的跟踪状态
+     */
+    public static final class RunTracker implements SolverEventListener<ExamSchedule> {
+        final Solver<ExamSchedule> solver;
+        final String level;
+        final int students;
+        final int teachers;
+        final int dates;
+        final Prediction prediction;
+        final PerformanceMonitor<ExamSchedule> monitor = new PerformanceMonitor<>();
+        final long startedAt = System.currentTimeMillis();
+        volatile long finishedAt;
+        volatile long lastMeaningfulMs;
+        volatile long maxGapMs;
+        volatile int meaningfulCount;
+        volatile boolean stoppedEarly;
+        ScheduledFuture<?> watchdog;
+        private HardSoftScore lastMeaningfulScore;
+
+        RunTracker(Solver<ExamSchedule> solver, String level, ExamSchedule problem, Prediction prediction) {
+            this.solver = solver;
+            this.level = level;
+            this.students = problem.getStudents() != null ? problem.getStudents().size() : 0;
+            this.teachers = problem.getTeachers() != null ? problem.getTeachers().size() : 0;
+            this.dates = problem.getAvailableDates() != null ? problem.getAvailableDates().size() : 0;
+            this.prediction = prediction;
+        }
+
+        @Override
+        public void bestSolutionChanged(BestSolutionChangedEvent<ExamSchedule> event) {
+            Score<?> newScore = event.getNewBestScore();
+            if (!(newScore instanceof HardSoftScore score) || !score.isSolutionInitialized()) {
+                return;
+            }
+            if (lastMeaningfulScore != null && !isMeaningful(lastMeaningfulScore, score)) {
+                return;
+            }
+            long elapsed = System.currentTimeMillis() - startedAt;
+            if (lastMeaningfulScore != null) {
+                maxGapMs = Math.max(maxGapMs, elapsed - lastMeaningfulMs);
+            }
+            lastMeaningfulScore = score;
+            lastMeaningfulMs = elapsed;
+            meaningfulCount++;
+        }
+
+        private static boolean isMeaningful(HardSoftScore previous, HardSoftScore current) {
+            if (current.hardScore() != previous.hardScore()) {
+                return current.hardScore() > previous.hardScore();
+            }
+            long threshold = Math.max(1, (long) Math.ceil(Math.abs(previous.softScore()) * MEANINGFUL_SOFT_RATIO));
+            return current.softScore() - previous.softScore() >= threshold;
+        }
+    }
+}
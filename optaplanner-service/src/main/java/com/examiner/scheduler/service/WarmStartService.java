@@ -0,0 +1,389 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.config.HolidayConfig;
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.entity.ScheduleHistory;
+import com.examiner.scheduler.entity.ScheduleSnapshot;
+import com.examiner.scheduler.rest.ScheduleRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 🆕 v8.1: 热启动 —— 以历史排班、快照或求解检查点作为新一轮求解的初始解
+ *
+ * 每周小幅调整名单后重新排班时，createProblemInstance 的启发式初始解与上一版结果差异很大，
+ * 求解器需要几分钟才能重新收敛。本服务读取 ScheduleHistory（ScheduleResponse JSON）或
+ * ScheduleSnapshot（前端表格行 JSON），把其中的考官分配映射到新问题上：
+ * - 学员、考官优先按ID匹配；快照行只有姓名，借助快照元数据中的 studentList / teacherList 换算成ID，
+ *   仍找不到时按唯一姓名兜底（重名不匹配，避免错配）
+ * - 按 学员 + 考试类型(day1/day2) 定位排班，逐个槽位（考官1 / 考官2 / 备份考官）覆盖
+ * - 已失效的分配直接丢弃并保留启发式的值：考官已不在名单中、当天不可用（HC9）、
+ *   同一排班内重复、同一天已被另一个热启动槽位或保留的启发式/固定槽位占用（HC4）
+ * - 固定排班（pinned）不覆盖
+ */
+@ApplicationScoped
+public class WarmStartService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarmStartService.class);
+
+    private static final String[] DAY_TYPES = {"day1", "day2"};
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    HolidayConfig holidayConfig;
+
+    @Inject
+    SolveCheckpointService solveCheckpointService;
+
+    /**
+     * 把热启动来源的考官分配应用到问题实例上（直接修改 problem 中的 ExamAssignment）
+     */
+    @Transactional
+    public WarmStartResult apply(ExamSchedule problem, ScheduleRequest.WarmStart warmStart) {
+        long start = System.currentTimeMillis();
+        List<String> warnings = new ArrayList<>();
+        int total = problem.getExamAssignments() != null ? problem.getExamAssignments().size() : 0;
+
+        Map<String, String[]> prior;
+        String source;
+        try {
+            if (warmStart.getCheckpointId() != null) {
+                source = "checkpoint#" + warmStart.getCheckpointId();
+                List<String[]> rows = solveCheckpointService.readAssignments(warmStart.getCheckpointId());
+                if (rows == null) {
+                    warnings.add("热启动：检查点 " + warmStart.getCheckpointId() + " 不存在或已清理，已使用启发式初始解");
+                    return WarmStartResult.notApplied(source, total, warnings);
+                }
+                prior = readCheckpointRows(rows);
+            } else if (warmStart.getSnapshotId() != null) {
+                source = "snapshot#" + warmStart.getSnapshotId();
+                ScheduleSnapshot snapshot = ScheduleSnapshot.findById(warmStart.getSnapshotId());
+                if (snapshot == null || snapshot.scheduleData == null) {
+                    warnings.add("热启动：快照 " + warmStart.getSnapshotId() + " 不存在，已使用启发式初始解");
+                    return WarmStartResult.notApplied(source, total, warnings);
+                }
+                prior = readSnapshotRows(snapshot, problem);
+            } else {
+                source = "history#" + warmStart.getHistoryId();
+                ScheduleHistory history = ScheduleHistory.findById(warmStart.getHistoryId());
+                if (history == null || history.scheduleData == null) {
+                    warnings.add("热启动：历史排班 " + warmStart.getHistoryId() + " 不存在，已使用启发式初始解");
+                    return WarmStartResult.notApplied(source, total, warnings);
+                }
+                prior = readHistoryAssignments(history, problem);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("热启动数据解析失败: {}", e.getMessage());
+            warnings.add("热启动：来源数据解析失败（" + e.getMessage() + "），已使用启发式初始解");
+            return WarmStartResult.notApplied(String.valueOf(warmStart), total, warnings);
+        }
+
+        Map<String, Teacher> teachersById = index(problem.getTeachers(), Teacher::getId);
+        int matched = 0;
+        int applied = 0;
+        int dropped = 0;
+        int unmatchedStudents = 0;
+
+        // 第一遍：解析每个排班的热启动槽位（考官已移除、当天不可用、排班内重复的直接丢弃）
+        Map<ExamAssignment, Teacher[]> resolvedByAssignment = new LinkedHashMap<>();
+        for (ExamAssignment assignment : problem.getExamAssignments()) {
+            if (assignment.getStudent() == null || assignment.isPinned()) {
+                continue;
+            }
+            String[] slots = prior.get(key(assignment.getStudent().getId(), assignment.getExamType()));
+            if (slots == null) {
+                unmatchedStudents++;
+                continue;
+            }
+            matched++;
+            String date = assignment.getExamDate();
+            Set<String> inAssignment = new HashSet<>();
+            Teacher[] resolved = new Teacher[slots.length];
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] == null) {
+                    continue;
+                }
+                Teacher teacher = teachersById.get(slots[i]);
+                if (teacher == null
+                        || teacher.isUnavailableOnDate(date, holidayConfig)
+                        || !inAssignment.add(teacher.getId())) {
+                    dropped++;
+                    continue;
+                }
+                resolved[i] = teacher;
+            }
+            resolvedByAssignment.put(assignment, resolved);
+        }
+
+        // 每天已占用的考官：先登记不会被热启动覆盖的槽位（启发式/固定排班保留的值）
+        Map<String, Set<String>> usedByDate = new HashMap<>();
+        for (ExamAssignment assignment : problem.getExamAssignments()) {
+            Teacher[] resolved = resolvedByAssignment.get(assignment);
+            Teacher[] current = slotsOf(assignment);
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] != null && (resolved == null || resolved[i] == null)) {
+                    usedByDate.computeIfAbsent(assignment.getExamDate(), d -> new HashSet<>()).add(current[i].getId());
+                }
+            }
+        }
+
+        // 第二遍：同一天已被占用（HC4）的热启动槽位丢弃并保留启发式的值
+        for (Map.Entry<ExamAssignment, Teacher[]> entry : resolvedByAssignment.entrySet()) {
+            ExamAssignment assignment = entry.getKey();
+            Teacher[] resolved = entry.getValue();
+            Teacher[] current = slotsOf(assignment);
+            Set<String> used = usedByDate.computeIfAbsent(assignment.getExamDate(), d -> new HashSet<>());
+            for (int i = 0; i < resolved.length; i++) {
+                if (resolved[i] == null) {
+                    continue;
+                }
+                if (used.contains(resolved[i].getId())) {
+                    dropped++;
+                    if (current[i] != null) {
+                        used.add(current[i].getId());
+                    }
+                    continue;
+                }
+                used.add(resolved[i].getId());
+                switch (i) {
+                    case 0 -> assignment.setExaminer1(resolved[i]);
+                    case 1 -> assignment.setExaminer2(resolved[i]);
+                    default -> assignment.setBackupExaminer(resolved[i]);
+                }
+                applied++;
+            }
+        }
+
+        if (dropped > 0) {
+            warnings.add(String.format("热启动：%d 个考官分配已失效（考官已移除/当天不可用/同日冲突），保留启发式分配", dropped));
+        }
+        if (unmatchedStudents > 0) {
+            warnings.add(String.format("热启动：%d 个排班在 %s 中没有对应记录（新增学员或考试类型变化）", unmatchedStudents, source));
+        }
+        boolean fullyInitialized = isFullyInitialized(problem);
+        LOGGER.info("🔥 [热启动] 来源={}, 匹配排班 {}/{}, 应用槽位 {}, 丢弃 {}, 完整初始化={}, 耗时 {}ms",
+                source, matched, total, applied, dropped, fullyInitialized, System.currentTimeMillis() - start);
+        return new WarmStartResult(source, matched > 0, total, matched, applied, dropped, fullyInitialized, warnings);
+    }
+
+    private static Teacher[] slotsOf(ExamAssignment assignment) {
+        return new Teacher[]{assignment.getExaminer1(), assignment.getExaminer2(), assignment.getBackupExaminer()};
+    }
+
+    /**
+     * 所有排班的考官1/考官2都已赋值时，构造启发式阶段没有可做的工作
+     */
+    public static boolean isFullyInitialized(ExamSchedule problem) {
+        if (problem.getExamAssignments() == null) {
+            return false;
+        }
+        for (ExamAssignment assignment : problem.getExamAssignments()) {
+            if (assignment.getExaminer1() == null || assignment.getExaminer2() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ==================== 来源解析 ====================
+
+    /**
+     * ScheduleHistory.scheduleData 是 ScheduleResponse 的 JSON：assignments[].student / examType / examiner1...
+     */
+    private Map<String, String[]> readHistoryAssignments(ScheduleHistory history, ExamSchedule problem) throws Exception {
+        JsonNode assignments = objectMapper.readTree(history.scheduleData).path("assignments");
+        Map<String, Student> studentsByName = uniqueByName(problem.getStudents(), Student::getName);
+        Map<String, Teacher> teachersByName = uniqueByName(problem.getTeachers(), Teacher::getName);
+        Set<String> studentIds = index(problem.getStudents(), Student::getId).keySet();
+        Set<String> teacherIds = index(problem.getTeachers(), Teacher::getId).keySet();
+
+        Map<String, String[]> prior = new HashMap<>();
+        for (JsonNode node : assignments) {
+            String studentId = resolveId(text(node.path("student"), "id"), text(node.path("student"), "name"),
+                    studentIds, studentsByName, Student::getId);
+            String examType = text(node, "examType");
+            if (studentId == null || examType == null) {
+                continue;
+            }
+            String[] slots = new String[3];
+            String[] fields = {"examiner1", "examiner2", "backupExaminer"};
+            for (int i = 0; i < fields.length; i++) {
+                JsonNode teacher = node.path(fields[i]);
+                slots[i] = resolveId(text(teacher, "id"), text(teacher, "name"), teacherIds, teachersByName, Teacher::getId);
+            }
+            prior.put(key(studentId, examType), slots);
+        }
+        return prior;
+    }
+
+    /**
+     * ScheduleSnapshot.scheduleData 是前端表格行：student(姓名) / examiner1_1 / examiner1_2 / backup1 / examiner2_1 ...
+     * 姓名通过快照元数据中的 studentList / teacherList 换算为ID
+     */
+    private Map<String, String[]> readSnapshotRows(ScheduleSnapshot snapshot, ExamSchedule problem) throws Exception {
+        JsonNode rows = objectMapper.readTree(snapshot.scheduleData);
+        JsonNode metadata = snapshot.metadata != null ? objectMapper.readTree(snapshot.metadata) : null;
+        Map<String, String> snapshotStudentIds = uniqueNameToId(metadata != null ? metadata.path("studentList") : null);
+        Map<String, String> snapshotTeacherIds = uniqueNameToId(metadata != null ? metadata.path("teacherList") : null);
+        Map<String, Student> studentsByName = uniqueByName(problem.getStudents(), Student::getName);
+        Map<String, Teacher> teachersByName = uniqueByName(problem.getTeachers(), Teacher::getName);
+        Set<String> studentIds = index(problem.getStudents(), Student::getId).keySet();
+        Set<String> teacherIds = index(problem.getTeachers(), Teacher::getId).keySet();
+
+        String[][] columns = {{"examiner1_1", "examiner1_2", "backup1"}, {"examiner2_1", "examiner2_2", "backup2"}};
+        Map<String, String[]> prior = new HashMap<>();
+        for (JsonNode row : rows) {
+            String studentName = text(row, "student");
+            String studentId = resolveId(snapshotStudentIds.get(studentName), studentName,
+                    studentIds, studentsByName, Student::getId);
+            if (studentId == null) {
+                continue;
+            }
+            for (int day = 0; day < DAY_TYPES.length; day++) {
+                String[] slots = new String[3];
+                for (int i = 0; i < 3; i++) {
+                    String name = text(row, columns[day][i]);
+                    slots[i] = resolveId(snapshotTeacherIds.get(name), name, teacherIds, teachersByName, Teacher::getId);
+                }
+                prior.put(key(studentId, DAY_TYPES[day]), slots);
+            }
+        }
+        return prior;
+    }
+
+    /**
+     * 求解检查点的行：[学员ID, 考试类型, 考官1ID, 考官2ID, 备份考官ID]（与原请求是同一份名单，直接按ID匹配）
+     */
+    private static Map<String, String[]> readCheckpointRows(List<String[]> rows) {
+        Map<String, String[]> prior = new HashMap<>();
+        for (String[] row : rows) {
+            if (row.length >= 5 && row[0] != null && row[1] != null) {
+                prior.put(key(row[0], row[1]), new String[]{row[2], row[3], row[4]});
+            }
+        }
+        return prior;
+    }
+
+    /**
+     * 先按ID匹配新名单，找不到时按唯一姓名兜底
+     */
+    private static <T> String resolveId(String id, String name, Set<String> ids,
+                                        Map<String, T> byName, Function<T, String> idOf) {
+        if (id != null && ids.contains(id)) {
+            return id;
+        }
+        if (name != null) {
+            T match = byName.get(name.trim());
+            if (match != null) {
+                return idOf.apply(match);
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, String> uniqueNameToId(JsonNode list) {
+        Map<String, String> result = new HashMap<>();
+        Set<String> duplicates = new HashSet<>();
+        if (list == null || !list.isArray()) {
+            return result;
+        }
+        for (JsonNode item : list) {
+            String name = text(item, "name");
+            String id = text(item, "id");
+            if (name == null || id == null) {
+                continue;
+            }
+            if (result.put(name.trim(), id) != null) {
+                duplicates.add(name.trim());
+            }
+        }
+        duplicates.forEach(result::remove);
+        return result;
+    }
+
+    private static <T> Map<String, T> uniqueByName(List<T> items, Function<T, String> nameOf) {
+        Map<String, T> result = new HashMap<>();
+        Set<String> duplicates = new HashSet<>();
+        if (items == null) {
+            return result;
+        }
+        for (T item : items) {
+            String name = nameOf.apply(item);
+            if (name != null && result.put(name.trim(), item) != null) {
+                duplicates.add(name.trim());
+            }
+        }
+        duplicates.forEach(result::remove);
+        return result;
+    }
+
+    private static <T> Map<String, T> index(List<T> items, Function<T, String> idOf) {
+        Map<String, T> result = new HashMap<>();
+        if (items != null) {
+            for (T item : items) {
+                if (idOf.apply(item) != null) {
+                    result.put(idOf.apply(item), item);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node != null ? node.get(field) : null;
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        String text = value.asText();
+        return text.isBlank() ? null : text;
+    }
+
+    private static String key(String studentId, String examType) {
+        return studentId + "|" + examType;
+    }
+
+    /**
+     * 热启动结果
+     *
+     * @param applied           是否有任何排班被热启动覆盖
+     * @param fullyInitialized  所有排班都已有考官，可跳过构造启发式
+     */
+    public record WarmStartResult(
+        String source,
+        boolean applied,
+        int totalAssignments,
+        int matchedAssignments,
+        int appliedSlots,
+        int droppedSlots,
+        boolean fullyInitialized,
+        List<String> warnings
+    ) {
+        static WarmStartResult notApplied(String source, int total, List<String> warnings) {
+            return new WarmStartResult(source, false, total, 0, 0, 0, false, warnings);
+        }
+
+        public String summary() {
+            return String.format("热启动：从 %s 恢复 %d/%d 个排班（%d 个考官槽位，丢弃 %d 个失效分配）",
+                    source, matchedAssignments, totalAssignments, appliedSlots, droppedSlots);
+        }
+    }
+}
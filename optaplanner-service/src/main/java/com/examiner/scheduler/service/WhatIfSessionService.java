@@ -0,0 +1,479 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.solver.OptimizedExamScheduleConstraintProvider;
+import io.quarkus.scheduler.Scheduled;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.score.ScoreExplanation;
+import org.optaplanner.core.api.score.constraint.ConstraintMatchTotal;
+import org.optaplanner.core.api.solver.SolutionManager;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 🆕 v8.1: 交互式 what-if 打分会话
+ *
+ * 人工调整排班时，LearningResource.checkConflicts 用手写规则重新推导冲突，和求解器的约束并不一致。
+ * 本服务为每个排班版本保留一份工作副本，通过公开的 SolutionManager 与求解器使用同一套约束打分：
+ * - 打开会话时复制求解结果（排班逐个复制，问题事实共享）并完整打分一次
+ * - evaluate：临时把某个排班的 考官1/考官2/备份考官 换成指定考官，explain 得到分数变化和
+ *   新违反/消除的约束，然后撤销
+ * - apply：确认修改，后续 evaluate 以修改后的排班为基准
+ * - 已固定（pinned）的排班与 LocalRescheduleService 一样不允许修改
+ * - 空闲超过 IDLE_TIMEOUT_MS 的会话自动关闭；会话数超过 MAX_SESSIONS 时淘汰最久未使用的会话
+ */
+@ApplicationScoped
+public class WhatIfSessionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WhatIfSessionService.class);
+
+    static final long IDLE_TIMEOUT_MS = 10 * 60 * 1000;
+    static final int MAX_SESSIONS = 16;
+    /** 可用于打开会话的最近求解结果数 */
+    static final int RECENT_SOLUTIONS = 4;
+
+    static final Set<String> VARIABLES = Set.of("examiner1", "examiner2", "backupExaminer");
+
+    private final Map<String, WhatIfSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, ExamSchedule> recentSolutions = new LinkedHashMap<>(8, 0.75f, true);
+    private volatile SolutionManager<ExamSchedule, HardSoftScore> solutionManager;
+
+    /**
+     * 记录求解结果，供之后按求解会话ID打开 what-if 会话
+     */
+    public void remember(String solveSessionId, ExamSchedule solution) {
+        if (solveSessionId == null || solution == null) {
+            return;
+        }
+        synchronized (recentSolutions) {
+            recentSolutions.put(solveSessionId, solution);
+            while (recentSolutions.size() > RECENT_SOLUTIONS) {
+                recentSolutions.remove(recentSolutions.keySet().iterator().next());
+            }
+        }
+    }
+
+    /**
+     * 以某次求解结果为基准打开会话
+     * @return 会话；求解结果已不在内存中时返回null
+     */
+    public WhatIfSession open(String solveSessionId) {
+        ExamSchedule source;
+        synchronized (recentSolutions) {
+            source = recentSolutions.get(solveSessionId);
+        }
+        if (source == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        WhatIfSession session = new WhatIfSession(UUID.randomUUID().toString(), solveSessionId,
+                getSolutionManager(), copyOf(source));
+        evictOverflow();
+        sessions.put(session.id, session);
+        LOGGER.info("🧪 [what-if] 会话 {} 已打开: 基准={}, 得分={}, 耗时{}ms",
+                session.id, solveSessionId, session.currentScore, (System.nanoTime() - start) / 1_000_000);
+        return session;
+    }
+
+    public WhatIfSession get(String whatIfSessionId) {
+        WhatIfSession session = whatIfSessionId != null ? sessions.get(whatIfSessionId) : null;
+        if (session != null) {
+            session.lastAccess = System.currentTimeMillis();
+        }
+        return session;
+    }
+
+    public boolean close(String whatIfSessionId) {
+        WhatIfSession session = sessions.remove(whatIfSessionId);
+        if (session == null) {
+            return false;
+        }
+        session.disposeWorkers();
+        return true;
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    @Scheduled(every = "1m")
+    void evictIdleSessions() {
+        long cutoff = System.currentTimeMillis() - IDLE_TIMEOUT_MS;
+        for (WhatIfSession session : sessions.values()) {
+            if (session.lastAccess < cutoff && sessions.remove(session.id, session)) {
+                session.disposeWorkers();
+                LOGGER.info("🧪 [what-if] 会话 {} 空闲超时，已关闭", session.id);
+            }
+        }
+    }
+
+    @PreDestroy
+    void closeAll() {
+        for (String id : new ArrayList<>(sessions.keySet())) {
+            close(id);
+        }
+    }
+
+    private void evictOverflow() {
+        while (sessions.size() >= MAX_SESSIONS) {
+            WhatIfSession eldest = null;
+            for (WhatIfSession session : sessions.values()) {
+                if (eldest == null || session.lastAccess < eldest.lastAccess) {
+                    eldest = session;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            close(eldest.id);
+        }
+    }
+
+    private SolutionManager<ExamSchedule, HardSoftScore> getSolutionManager() {
+        SolutionManager<ExamSchedule, HardSoftScore> manager = solutionManager;
+        if (manager == null) {
+            synchronized (this) {
+                manager = solutionManager;
+                if (manager == null) {
+                    SolverConfig config = new SolverConfig()
+                            .withSolutionClass(ExamSchedule.class)
+                            .withEntityClasses(ExamAssignment.class)
+                            .withConstraintProviderClass(OptimizedExamScheduleConstraintProvider.class);
+                    SolverFactory<ExamSchedule> solverFactory = SolverFactory.create(config);
+                    manager = SolutionManager.create(solverFactory);
+                    solutionManager = manager;
+                }
+            }
+        }
+        return manager;
+    }
+
+    /**
+     * 复制解：排班逐个复制（考官变量可独立修改），学员、考官、日期等问题事实共享
+     */
+    static ExamSchedule copyOf(ExamSchedule source) {
+        ExamSchedule copy = new ExamSchedule();
+        copy.setStudents(source.getStudents());
+        copy.setTeachers(source.getTeachers());
+        copy.setAvailableDates(source.getAvailableDates());
+        copy.setDutySchedules(source.getDutySchedules());
+        copy.setTimeSlots(source.getTimeSlots());
+        copy.setConstraintConfig(source.getConstraintConfig());
+        copy.setHolidayConfig(source.getHolidayConfig());
+        List<ExamAssignment> assignments = new ArrayList<>(source.getExamAssignments().size());
+        for (ExamAssignment assignment : source.getExamAssignments()) {
+            assignments.add(assignment.copy());
+        }
+        copy.setExamAssignments(assignments);
+        copy.setScore(source.getScore());
+        return copy;
+    }
+
+    /**
+     * 单个 what-if 会话（工作副本非线程安全，所有操作在会话锁内执行）
+     */
+    public static final class WhatIfSession {
+        private final String id;
+        private final String sourceSessionId;
+        private final SolutionManager<ExamSchedule, HardSoftScore> solutionManager;
+        private final ExamSchedule working;
+        private final Map<String, ExamAssignment> assignmentsById = new HashMap<>();
+        private final Map<String, ExamAssignment> assignmentsByStudentDay = new HashMap<>();
+        private final Map<String, Teacher> teachersById = new HashMap<>();
+        private final Map<String, Teacher> teachersByName = new HashMap<>();
+        private volatile long lastAccess = System.currentTimeMillis();
+        private HardSoftScore currentScore;
+        private Map<String, HardSoftScore> currentTotals;
+        private int appliedEdits;
+        /** 推荐引擎的并行评估副本（写时复制：apply 后失效，下次推荐时按当前排班重新克隆） */
+        private final Object workerLock = new Object();
+        private List<ExamSchedule> workers = List.of();
+        private int workersVersion = -1;
+
+        WhatIfSession(String id, String sourceSessionId,
+                      SolutionManager<ExamSchedule, HardSoftScore> solutionManager, ExamSchedule working) {
+            this.id = id;
+            this.sourceSessionId = sourceSessionId;
+            this.solutionManager = solutionManager;
+            this.working = working;
+            for (ExamAssignment assignment : working.getExamAssignments()) {
+                assignmentsById.put(assignment.getId(), assignment);
+                if (assignment.getStudent() != null) {
+                    assignmentsByStudentDay.put(assignment.getStudent().getName() + "|" + assignment.getExamType(), assignment);
+                }
+            }
+            Set<String> duplicateNames = new HashSet<>();
+            for (Teacher teacher : working.getTeachers()) {
+                teachersById.put(teacher.getId(), teacher);
+                if (teacher.getName() != null && teachersByName.put(teacher.getName(), teacher) != null) {
+                    duplicateNames.add(teacher.getName());
+                }
+            }
+            duplicateNames.forEach(teachersByName::remove);
+            ScoreExplanation<ExamSchedule, HardSoftScore> explanation = solutionManager.explain(working);
+            this.currentScore = explanation.getScore();
+            this.currentTotals = totals(explanation);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getSourceSessionId() {
+            return sourceSessionId;
+        }
+
+        public synchronized HardSoftScore getCurrentScore() {
+            return currentScore;
+        }
+
+        public synchronized int getAppliedEdits() {
+            return appliedEdits;
+        }
+
+        /**
+         * 按前端表格字段定位排班：examiner{天}_1 / examiner{天}_2 / backup{天}
+         * @return [排班ID, 变量名]；字段无法识别或学员不存在时返回null
+         */
+        public synchronized String[] resolveField(String studentName, String fieldName) {
+            if (studentName == null || fieldName == null) {
+                return null;
+            }
+            String variable;
+            char day;
+            if (fieldName.matches("examiner[12]_[12]")) {
+                day = fieldName.charAt(8);
+                variable = fieldName.endsWith("_1") ? "examiner1" : "examiner2";
+            } else if (fieldName.matches("backup[12]")) {
+                day = fieldName.charAt(6);
+                variable = "backupExaminer";
+            } else {
+                return null;
+            }
+            ExamAssignment assignment = assignmentsByStudentDay.get(studentName + "|day" + day);
+            return assignment != null ? new String[]{assignment.getId(), variable} : null;
+        }
+
+        /**
+         * 按ID或唯一姓名查找考官
+         */
+        public synchronized Teacher findTeacher(String idOrName) {
+            if (idOrName == null || idOrName.isBlank()) {
+                return null;
+            }
+            Teacher teacher = teachersById.get(idOrName);
+            return teacher != null ? teacher : teachersByName.get(idOrName.trim());
+        }
+
+        /**
+         * 按ID查找排班（会话工作解中的实例）
+         */
+        public synchronized ExamAssignment findAssignment(String assignmentId) {
+            return assignmentId != null ? assignmentsById.get(assignmentId) : null;
+        }
+
+        /**
+         * 推荐引擎专用：在 workerLock 内使用当前排班的 count 个独立副本。
+         * 副本只在会话 apply 过修改或数量不足时重新复制，多次推荐共享同一批副本；
+         * 每个副本同一时间只被一个线程使用，修改后用 {@link #score(ExamSchedule)} 打分并自行撤销。
+         */
+        public <T> T withWorkers(int count, Function<List<ExamSchedule>, T> action) {
+            synchronized (workerLock) {
+                ExamSchedule snapshot = null;
+                int version;
+                synchronized (this) {
+                    version = appliedEdits;
+                    if (workersVersion != version || workers.size() < count) {
+                        snapshot = copyOf(working);
+                    }
+                }
+                if (snapshot != null) {
+                    List<ExamSchedule> rebuilt = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        rebuilt.add(i == 0 ? snapshot : copyOf(snapshot));
+                    }
+                    workers = rebuilt;
+                    workersVersion = version;
+                }
+                return action.apply(workers.subList(0, count));
+            }
+        }
+
+        /**
+         * 对推荐副本完整打分（不构建约束匹配，可在多个线程上同时调用）
+         */
+        public HardSoftScore score(ExamSchedule worker) {
+            return solutionManager.update(worker);
+        }
+
+        /**
+         * 试算：临时修改后增量打分，返回分数变化与约束变化，然后撤销
+         */
+        public synchronized WhatIfResult evaluate(String assignmentId, String variable, Teacher teacher) {
+            return change(assignmentId, variable, teacher, false);
+        }
+
+        /**
+         * 确认修改：保留变化，作为后续试算的基准
+         */
+        public synchronized WhatIfResult apply(String assignmentId, String variable, Teacher teacher) {
+            return change(assignmentId, variable, teacher, true);
+        }
+
+        private WhatIfResult change(String assignmentId, String variable, Teacher teacher, boolean keep) {
+            if (!VARIABLES.contains(variable)) {
+                throw new IllegalArgumentException("不支持的变量: " + variable);
+            }
+            ExamAssignment assignment = assignmentsById.get(assignmentId);
+            if (assignment == null) {
+                throw new IllegalArgumentException("排班不存在: " + assignmentId);
+            }
+            if (assignment.isPinned()) {
+                throw new IllegalArgumentException("排班已固定，不能修改: " + assignmentId);
+            }
+            if (teacher == null && !"backupExaminer".equals(variable)) {
+                throw new IllegalArgumentException(variable + " 不能为空");
+            }
+            long start = System.nanoTime();
+            Teacher previous = read(assignment, variable);
+            write(assignment, variable, teacher);
+            ScoreExplanation<ExamSchedule, HardSoftScore> explanation = solutionManager.explain(working);
+            HardSoftScore after = explanation.getScore();
+            Map<String, HardSoftScore> afterTotals = totals(explanation);
+            long elapsedNanos = System.nanoTime() - start;
+
+            HardSoftScore before = currentScore;
+            List<ConstraintDelta> deltas = diff(currentTotals, afterTotals);
+            if (keep) {
+                currentScore = after;
+                currentTotals = afterTotals;
+                appliedEdits++;
+            } else {
+                write(assignment, variable, previous);
+                working.setScore(before);
+            }
+            return new WhatIfResult(assignmentId, variable,
+                    previous != null ? previous.getName() : null,
+                    teacher != null ? teacher.getName() : null,
+                    before, after, after.subtract(before), deltas, elapsedNanos / 1000);
+        }
+
+        /**
+         * 写入考官变量（推荐副本同样使用）
+         */
+        public static void write(ExamAssignment assignment, String variable, Teacher teacher) {
+            switch (variable) {
+                case "examiner1" -> assignment.setExaminer1(teacher);
+                case "examiner2" -> assignment.setExaminer2(teacher);
+                default -> assignment.setBackupExaminer(teacher);
+            }
+        }
+
+        public static Teacher read(ExamAssignment assignment, String variable) {
+            return switch (variable) {
+                case "examiner1" -> assignment.getExaminer1();
+                case "examiner2" -> assignment.getExaminer2();
+                default -> assignment.getBackupExaminer();
+            };
+        }
+
+        private static Map<String, HardSoftScore> totals(ScoreExplanation<ExamSchedule, HardSoftScore> explanation) {
+            Map<String, HardSoftScore> result = new HashMap<>();
+            for (ConstraintMatchTotal<HardSoftScore> total : explanation.getConstraintMatchTotalMap().values()) {
+                result.put(total.getConstraintName(), total.getScore());
+            }
+            return result;
+        }
+
+        private static List<ConstraintDelta> diff(Map<String, HardSoftScore> before, Map<String, HardSoftScore> after) {
+            List<ConstraintDelta> deltas = new ArrayList<>();
+            Set<String> names = new HashSet<>(before.keySet());
+            names.addAll(after.keySet());
+            for (String name : names) {
+                HardSoftScore b = before.getOrDefault(name, HardSoftScore.ZERO);
+                HardSoftScore a = after.getOrDefault(name, HardSoftScore.ZERO);
+                if (!a.equals(b)) {
+                    deltas.add(new ConstraintDelta(ScoreExplanationCache.constraintCode(name), name, a.subtract(b)));
+                }
+            }
+            deltas.sort((x, y) -> x.delta().compareTo(y.delta()));
+            return deltas;
+        }
+
+        private void disposeWorkers() {
+            synchronized (workerLock) {
+                workers = List.of();
+                workersVersion = -1;
+            }
+        }
+    }
+
+    /**
+     * 单个约束的分数变化（负数表示该约束被破坏或更严重）
+     */
+    public record ConstraintDelta(String code, String name, HardSoftScore delta) {
+        public boolean isHard() {
+            return delta.hardScore() != 0;
+        }
+
+        public boolean isBroken() {
+            return delta.hardScore() < 0 || (delta.hardScore() == 0 && delta.softScore() < 0);
+        }
+    }
+
+    public record WhatIfResult(
+        String assignmentId,
+        String variable,
+        String previousTeacher,
+        String newTeacher,
+        HardSoftScore scoreBefore,
+        HardSoftScore scoreAfter,
+        HardSoftScore delta,
+        List<ConstraintDelta> constraintDeltas,
+        long elapsedMicros
+    ) {
+        public Map<String, Object> toMap() {
+            List<Map<String, Object>> broken = new ArrayList<>();
+            List<Map<String, Object>> improved = new ArrayList<>();
+            for (ConstraintDelta d : constraintDeltas) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("code", d.code());
+                item.put("name", d.name());
+                item.put("type", d.isHard() ? "hard" : "soft");
+                item.put("delta", d.delta().toString());
+                (d.isBroken() ? broken : improved).add(item);
+            }
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("assignmentId", assignmentId);
+            map.put("variable", variable);
+            map.put("previousTeacher", previousTeacher);
+            map.put("newTeacher", newTeacher);
+            map.put("scoreBefore", scoreBefore.toString());
+            map.put("scoreAfter", scoreAfter.toString());
+            map.put("hardDelta", delta.hardScore());
+            map.put("softDelta", delta.softScore());
+            map.put("feasible", scoreAfter.isFeasible());
+            map.put("brokenConstraints", broken);
+            map.put("improvedConstraints", improved);
+            map.put("elapsedMicros", elapsedMicros);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.examiner.scheduler.solver;
+
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Student;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionSorterWeightFactory;
+
+import java.util.Comparator;
+
+/**
+ * 🆕 v8.1: 考试分配难度权重工厂（替代 ExamAssignmentDifficultyComparator）
+ *
+ * 原比较器在每次 compare 中重新计算科室约束级别和考试类型级别，且不考虑考官实际有多稀缺。
+ * 现在每个排班的权重只计算一次（稀缺度来自 ExaminerScarcityIndex，每个求解方案构建一次），
+ * 权重越大越难，FIRST_FIT_DECREASING 优先安排最难的排班：
+ * 1. 当天可担任考官1的考官越少越难（HC2同科室是最紧的约束）
+ * 2. 当天可担任考官2的考官越少越难
+ * 3. 推荐科室配置越完整越难
+ * 4. Day2 比 Day1 难（需要与 Day1 配对）
+ * 5. 按排班ID、再按方案中的位置区分（权重必须唯一，排序器按权重去重）
+ */
+public class ExamAssignmentDifficultyWeightFactory implements SelectionSorterWeightFactory<ExamSchedule, ExamAssignment> {
+
+    @Override
+    public ExamAssignmentDifficultyWeight createSorterWeight(ExamSchedule solution, ExamAssignment assignment) {
+        ExaminerScarcityIndex index = ExaminerScarcityIndex.of(solution);
+        return new ExamAssignmentDifficultyWeight(
+                index.examiner1Candidates(assignment),
+                index.examiner2Candidates(assignment),
+                getDepartmentConstraintLevel(assignment.getStudent()),
+                getExamTypeComplexity(assignment.getExamType()),
+                assignment.getId() != null ? assignment.getId() : "",
+                index.ordinal(assignment));
+    }
+
+    /**
+     * 计算学员的科室约束级别
+     * 返回值越大，约束越严格，越难安排
+     */
+    private static int getDepartmentConstraintLevel(Student student) {
+        if (student == null) {
+            return 0;
+        }
+        int level = 0;
+        // 有推荐考官1科室的 +3
+        if (student.getRecommendedExaminer1Dept() != null && !student.getRecommendedExaminer1Dept().isEmpty()) {
+            level += 3;
+        }
+        // 有推荐考官2科室的 +2
+        if (student.getRecommendedExaminer2Dept() != null && !student.getRecommendedExaminer2Dept().isEmpty()) {
+            level += 2;
+        }
+        // 有推荐备份考官科室的 +1
+        if (student.getRecommendedBackupDept() != null && !student.getRecommendedBackupDept().isEmpty()) {
+            level += 1;
+        }
+        return level;
+    }
+
+    /**
+     * 获取考试类型的复杂度
+     */
+    private static int getExamTypeComplexity(String examType) {
+        if ("day2".equals(examType)) {
+            return 2; // Day2 需要与 Day1 配对，更复杂
+        } else if ("day1".equals(examType)) {
+            return 1; // Day1 是基准
+        }
+        return 0; // 其他或null
+    }
+
+    /**
+     * 难度权重（越大越难）
+     */
+    public record ExamAssignmentDifficultyWeight(
+        int examiner1Candidates,
+        int examiner2Candidates,
+        int departmentConstraintLevel,
+        int examTypeComplexity,
+        String assignmentId,
+        int ordinal
+    ) implements Comparable<ExamAssignmentDifficultyWeight> {
+
+        private static final Comparator<ExamAssignmentDifficultyWeight> ORDER = Comparator
+                .comparingInt((ExamAssignmentDifficultyWeight weight) -> -weight.examiner1Candidates)
+                .thenComparingInt(weight -> -weight.examiner2Candidates)
+                .thenComparingInt(weight -> weight.departmentConstraintLevel)
+                .thenComparingInt(weight -> weight.examTypeComplexity)
+                .thenComparing(weight -> weight.assignmentId)
+                .thenComparingInt(weight -> weight.ordinal);
+
+        @Override
+        public int compareTo(ExamAssignmentDifficultyWeight other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.examiner.scheduler.solver;
+
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.util.DepartmentNames;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.partitionedsearch.partitioner.SolutionPartitioner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 🆕 v8.1: 分区求解切分器（大规模学员场景）
+ *
+ * 将 ExamSchedule 的 ExamAssignment 切分为若干子问题，由 Partitioned Search 在独立线程中并行求解，
+ * 之后再由全局 LocalSearch 阶段统一打磨跨分区的冲突（主要是 HC4 同一考官同日多场）。
+ *
+ * 切分策略：
+ * 1. DATE_WINDOW（默认）：按学员切分为连续的日期窗口，同一学员的 day1/day2 始终在同一个分区内（HC6）。
+ *    HC4 只在同一天内耦合，切分点优先选在"新窗口的首个日期晚于当前窗口所有日期"处，此时窗口之间没有共同日期；
+ *    学员考试日期首尾相连、找不到这样的切分点时，才在首考日期变化处切分，
+ *    上一窗口学员的 day2 可能与下一窗口的首日重叠（边界日期被两个分区共享）
+ * 2. DEPARTMENT_CLUSTER：按学员科室聚类切分，3室/7室互通（与 HC2、SC9 allowDept37CrossUse 一致）
+ *    视为同一个科室簇，保证考官1候选池不被拆散
+ *
+ * 说明：
+ * - 分区之间互相看不到对方的考官占用：共享日期（DATE_WINDOW 的边界日期，DEPARTMENT_CLUSTER 的所有日期）上
+ *   可能出现同一考官同日多场，合并后由紧随其后的全局 LocalSearch 阶段消除（见 AdaptiveSolverConfig.createPartitionedConfig）
+ * - 考官、值班表、节假日配置等问题事实在各分区间共享（只读），分区仅复制规划实体，内存随分区规模线性增长
+ * - 合并回主解时由 OptaPlanner 按 @PlanningId 查找工作对象，因此实体副本沿用原 ID
+ * - 固定（pinned）的排班保持固定状态
+ */
+public class ExamSchedulePartitioner implements SolutionPartitioner<ExamSchedule> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExamSchedulePartitioner.class);
+
+    public static final String STRATEGY_DATE_WINDOW = "DATE_WINDOW";
+    public static final String STRATEGY_DEPARTMENT_CLUSTER = "DEPARTMENT_CLUSTER";
+
+    // 以下字段通过 solutionPartitionerCustomProperties 注入
+    private String partitionStrategy = STRATEGY_DATE_WINDOW;
+    private int maxPartSize = 200;  // 每个分区最多的排班数
+    private int minPartSize = 40;   // 分区过小时合并，避免线程开销大于收益
+
+    @Override
+    public List<ExamSchedule> splitWorkingSolution(ScoreDirector<ExamSchedule> scoreDirector,
+                                                   Integer runnablePartThreadLimit) {
+        return split(scoreDirector.getWorkingSolution(), runnablePartThreadLimit);
+    }
+
+    List<ExamSchedule> split(ExamSchedule original, Integer runnablePartThreadLimit) {
+        List<ExamAssignment> assignments = original.getExamAssignments();
+        int total = assignments != null ? assignments.size() : 0;
+
+        // 按学员分组：同一学员的所有排班必须在同一个分区内（HC6 连续两天）
+        Map<String, List<ExamAssignment>> byStudent = new LinkedHashMap<>();
+        if (assignments != null) {
+            for (ExamAssignment assignment : assignments) {
+                byStudent.computeIfAbsent(studentKey(assignment), k -> new ArrayList<>()).add(assignment);
+            }
+        }
+
+        int partCount = calculatePartCount(total, runnablePartThreadLimit);
+        List<List<List<ExamAssignment>>> buckets = STRATEGY_DEPARTMENT_CLUSTER.equalsIgnoreCase(partitionStrategy)
+                ? splitByDepartmentCluster(byStudent, partCount)
+                : splitByDateWindow(byStudent, partCount);
+
+        List<ExamSchedule> parts = new ArrayList<>(buckets.size());
+        for (List<List<ExamAssignment>> bucket : buckets) {
+            if (!bucket.isEmpty()) {
+                parts.add(createPart(original, bucket));
+            }
+        }
+
+        LOGGER.info("🧩 [分区求解] 策略={}, 排班数={}, 学员数={}, 分区数={}, 跨分区日期={}, 线程上限={}",
+                partitionStrategy, total, byStudent.size(), parts.size(), countSharedDates(parts),
+                runnablePartThreadLimit);
+        for (int i = 0; i < parts.size(); i++) {
+            LOGGER.debug("   分区{}: 排班={}, 学员={}, 日期={}", i + 1,
+                    parts.get(i).getExamAssignments().size(),
+                    parts.get(i).getStudents().size(),
+                    parts.get(i).getAvailableDates().size());
+        }
+        return parts;
+    }
+
+    /**
+     * 计算分区数量：受单分区规模上限约束，同时不少于1、不多于学员组数
+     */
+    private int calculatePartCount(int total, Integer runnablePartThreadLimit) {
+        if (total <= minPartSize) {
+            return 1;
+        }
+        int bySize = (total + maxPartSize - 1) / maxPartSize;
+        int maxParts = Math.max(1, total / minPartSize);
+        // 线程充足时适当多切几份以利用并行度，但单分区不低于 minPartSize
+        int byThreads = runnablePartThreadLimit != null ? Math.min(runnablePartThreadLimit, maxParts) : 1;
+        return Math.max(1, Math.max(bySize, byThreads));
+    }
+
+    /**
+     * 日期窗口切分：学员按首个考试日期排序，再按累计排班数均匀切成连续窗口
+     * 达到目标规模后优先等到不共享日期的切分点；超出目标一半仍没有时，退而在首考日期变化处切分
+     */
+    private List<List<List<ExamAssignment>>> splitByDateWindow(Map<String, List<ExamAssignment>> byStudent,
+                                                               int partCount) {
+        List<List<ExamAssignment>> groups = new ArrayList<>(byStudent.values());
+        groups.sort(Comparator.comparing(ExamSchedulePartitioner::firstExamDate));
+
+        int total = groups.stream().mapToInt(List::size).sum();
+        int target = Math.max(1, (total + partCount - 1) / partCount);
+
+        List<List<List<ExamAssignment>>> buckets = new ArrayList<>();
+        List<List<ExamAssignment>> current = new ArrayList<>();
+        int currentSize = 0;
+        String lastFirstDate = null;
+        String windowEnd = null;  // 当前窗口内最晚的考试日期（含 day2）
+
+        for (List<ExamAssignment> group : groups) {
+            String date = firstExamDate(group);
+            boolean dateChanged = lastFirstDate == null || !lastFirstDate.equals(date);
+            boolean disjoint = windowEnd != null && date.compareTo(windowEnd) > 0;
+            boolean overdue = currentSize >= target + target / 2;
+            if (currentSize >= target && buckets.size() < partCount - 1 && (disjoint || (overdue && dateChanged))) {
+                buckets.add(current);
+                current = new ArrayList<>();
+                currentSize = 0;
+                windowEnd = null;
+            }
+            current.add(group);
+            currentSize += group.size();
+            lastFirstDate = date;
+            String end = lastExamDate(group);
+            if (windowEnd == null || end.compareTo(windowEnd) > 0) {
+                windowEnd = end;
+            }
+        }
+        if (!current.isEmpty()) {
+            buckets.add(current);
+        }
+        return buckets;
+    }
+
+    /**
+     * 科室簇切分：同一科室簇的学员不拆分，按簇规模从大到小贪心装箱到最空的分区
+     */
+    private List<List<List<ExamAssignment>>> splitByDepartmentCluster(Map<String, List<ExamAssignment>> byStudent,
+                                                                      int partCount) {
+        Map<String, List<List<ExamAssignment>>> clusters = new LinkedHashMap<>();
+        for (List<ExamAssignment> group : byStudent.values()) {
+            Student student = group.get(0).getStudent();
+            String cluster = departmentCluster(student != null ? student.getDepartment() : null);
+            clusters.computeIfAbsent(cluster, k -> new ArrayList<>()).add(group);
+        }
+
+        List<List<List<ExamAssignment>>> sortedClusters = new ArrayList<>(clusters.values());
+        sortedClusters.sort(Comparator.comparingInt(
+                (List<List<ExamAssignment>> c) -> c.stream().mapToInt(List::size).sum()).reversed());
+
+        int bucketCount = Math.max(1, Math.min(partCount, sortedClusters.size()));
+        List<List<List<ExamAssignment>>> buckets = new ArrayList<>(bucketCount);
+        int[] bucketSizes = new int[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new ArrayList<>());
+        }
+
+        for (List<List<ExamAssignment>> cluster : sortedClusters) {
+            int lightest = 0;
+            for (int i = 1; i < bucketCount; i++) {
+                if (bucketSizes[i] < bucketSizes[lightest]) {
+                    lightest = i;
+                }
+            }
+            buckets.get(lightest).addAll(cluster);
+            bucketSizes[lightest] += cluster.stream().mapToInt(List::size).sum();
+        }
+        return buckets;
+    }
+
+    /**
+     * 构建分区子问题：复制规划实体，共享问题事实
+     */
+    private ExamSchedule createPart(ExamSchedule original, List<List<ExamAssignment>> groups) {
+        ExamSchedule part = new ExamSchedule();
+        List<ExamAssignment> partAssignments = new ArrayList<>();
+        Set<Student> partStudents = new LinkedHashSet<>();
+        Set<String> partDates = new LinkedHashSet<>();
+
+        for (List<ExamAssignment> group : groups) {
+            for (ExamAssignment assignment : group) {
+                partAssignments.add(assignment.copy());
+                if (assignment.getStudent() != null) {
+                    partStudents.add(assignment.getStudent());
+                }
+                if (assignment.getExamDate() != null) {
+                    partDates.add(assignment.getExamDate());
+                }
+            }
+        }
+
+        // 日期值域保持原始顺序，仅保留分区内用到的日期
+        List<String> availableDates = new ArrayList<>();
+        if (original.getAvailableDates() != null) {
+            for (String date : original.getAvailableDates()) {
+                if (partDates.contains(date)) {
+                    availableDates.add(date);
+                }
+            }
+        }
+
+        part.setStudents(new ArrayList<>(partStudents));
+        part.setTeachers(original.getTeachers());
+        part.setAvailableDates(availableDates);
+        part.setDutySchedules(original.getDutySchedules());
+        part.setTimeSlots(original.getTimeSlots());
+        part.setExamAssignments(partAssignments);
+        part.setConstraintConfig(original.getConstraintConfig());
+        part.setHolidayConfig(original.getHolidayConfig());
+        return part;
+    }
+
+    /**
+     * 出现在多个分区中的考试日期数（这些日期上的 HC4 冲突留给全局 LocalSearch 消除）
+     */
+    static int countSharedDates(List<ExamSchedule> parts) {
+        Map<String, Integer> partsByDate = new LinkedHashMap<>();
+        for (ExamSchedule part : parts) {
+            Set<String> dates = new LinkedHashSet<>();
+            for (ExamAssignment assignment : part.getExamAssignments()) {
+                if (assignment.getExamDate() != null) {
+                    dates.add(assignment.getExamDate());
+                }
+            }
+            for (String date : dates) {
+                partsByDate.merge(date, 1, Integer::sum);
+            }
+        }
+        int shared = 0;
+        for (int count : partsByDate.values()) {
+            if (count > 1) {
+                shared++;
+            }
+        }
+        return shared;
+    }
+
+    private static String studentKey(ExamAssignment assignment) {
+        if (assignment.getStudent() != null && assignment.getStudent().getId() != null) {
+            return assignment.getStudent().getId();
+        }
+        return "__" + assignment.getId();
+    }
+
+    private static String firstExamDate(List<ExamAssignment> group) {
+        String first = null;
+        for (ExamAssignment assignment : group) {
+            String date = assignment.getExamDate();
+            if (date != null && (first == null || date.compareTo(first) < 0)) {
+                first = date;
+            }
+        }
+        return first != null ? first : "";
+    }
+
+    private static String lastExamDate(List<ExamAssignment> group) {
+        String last = null;
+        for (ExamAssignment assignment : group) {
+            String date = assignment.getExamDate();
+            if (date != null && (last == null || date.compareTo(last) > 0)) {
+                last = date;
+            }
+        }
+        return last != null ? last : "";
+    }
+
+    /**
+     * 科室簇：3室与7室互通（HC2 / SC9），其余科室各自成簇
+     */
+    static String departmentCluster(String department) {
+        String dept = DepartmentNames.normalize(department);
+        if (dept == null) {
+            return "未知";
+        }
+        return DepartmentNames.partner(dept) != null ? "三七" : dept;
+    }
+
+    // ==================== 自定义属性（solutionPartitionerCustomProperties） ====================
+
+    public void setPartitionStrategy(String partitionStrategy) {
+        this.partitionStrategy = partitionStrategy;
+    }
+
+    public void setMaxPartSize(int maxPartSize) {
+        this.maxPartSize = Math.max(1, maxPartSize);
+    }
+
+    public void setMinPartSize(int minPartSize) {
+        this.minPartSize = Math.max(1, minPartSize);
+    }
+}
@@ -0,0 +1,271 @@
+package com.examiner.scheduler.solver;
+
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Teacher;
+import org.optaplanner.core.api.solver.change.ProblemChange;
+import org.optaplanner.core.api.solver.change.ProblemChangeDirector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * 🆕 v8.1: 实时规划的 ProblemChange 集合（求解过程中吸收名单变化，无需中止重启）
+ *
+ * 所有变更都是幂等的：分级求解每一级都从原始问题开始，RealTimePlanningService 会把已提交的变更
+ * 重放给下一级求解器，重复执行不会产生副作用。
+ *
+ * 考官是问题事实，工作解与原问题、各级求解共享同一批考官对象，不能原地修改：
+ * 不可用期变更先通过 lookUpWorkingObject 找到工作解中的考官，在其副本上增删（同时维护副本的日期索引），
+ * 再用副本替换工作解中的考官，并把引用它的排班改指向副本（只有这些排班重新打分）。
+ *
+ * 查找结构按增量方式维护，而不是每次变更都重建：
+ * - 每个工作解的 日期 → 排班 / ID → 排班 索引只构建一次（examDate 不是规划变量，实体集合也不会变化），
+ *   变更只通知受影响日期上的排班重新打分
+ * - 约束提供者的 DutySchedule / 日期解析缓存与名单无关，保持不变
+ */
+public final class ExamScheduleProblemChanges {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExamScheduleProblemChanges.class);
+
+    /** 工作解 → 索引（按对象身份，工作解被回收后自动释放） */
+    private static final Map<ExamSchedule, SolutionIndex> INDEXES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ExamScheduleProblemChanges() {
+    }
+
+    /**
+     * 为考官追加不可用期（如临时请假），只让该考官的排班重新打分（HC9）
+     */
+    public static ProblemChange<ExamSchedule> addUnavailablePeriod(String teacherId, Teacher.UnavailablePeriod period) {
+        return (workingSolution, director) -> {
+            Teacher teacher = lookUpTeacher(director, teacherId);
+            if (teacher == null) {
+                LOGGER.warn("实时规划：考官 {} 不在当前问题中，忽略不可用期变更", teacherId);
+                return;
+            }
+            Teacher updated = teacher.copy();
+            if (updated.addUnavailablePeriod(copyOf(period))) {
+                replaceTeacher(workingSolution, director, teacher, updated);
+            }
+        };
+    }
+
+    /**
+     * 撤销考官的某个不可用期
+     */
+    public static ProblemChange<ExamSchedule> removeUnavailablePeriod(String teacherId, String periodId) {
+        return (workingSolution, director) -> {
+            Teacher teacher = lookUpTeacher(director, teacherId);
+            if (teacher == null) {
+                return;
+            }
+            Teacher updated = teacher.copy();
+            if (updated.removeUnavailablePeriod(periodId) != null) {
+                replaceTeacher(workingSolution, director, teacher, updated);
+            }
+        };
+    }
+
+    /**
+     * 移除考官：其承担的排班先改派给当天可用、未被占用的考官（考官1优先同科室、考官2优先不同科室，
+     * 备份考官直接置空），再从值域中移除该考官。局部搜索要求解始终完整初始化，不能留空考官1/考官2。
+     * 固定排班（pinned）不改派；仍被固定排班引用的考官保留在值域中。
+     */
+    public static ProblemChange<ExamSchedule> removeTeacher(String teacherId) {
+        return (workingSolution, director) -> {
+            SolutionIndex index = indexOf(workingSolution);
+            Map<String, Set<String>> busyByDate = new HashMap<>();
+            boolean stillReferenced = false;
+            int reassigned = 0;
+
+            for (ExamAssignment assignment : workingSolution.getExamAssignments()) {
+                if (assignment.isPinned()) {
+                    // 固定排班不改派（HC10），仍引用该考官时保留在值域中
+                    if (isTeacher(assignment.getExaminer1(), teacherId)
+                            || isTeacher(assignment.getExaminer2(), teacherId)
+                            || isTeacher(assignment.getBackupExaminer(), teacherId)) {
+                        stillReferenced = true;
+                    }
+                    continue;
+                }
+                if (isTeacher(assignment.getBackupExaminer(), teacherId)) {
+                    director.changeVariable(assignment, "backupExaminer", a -> a.setBackupExaminer(null));
+                    reassigned++;
+                }
+                boolean role1 = isTeacher(assignment.getExaminer1(), teacherId);
+                boolean role2 = isTeacher(assignment.getExaminer2(), teacherId);
+                if (!role1 && !role2) {
+                    continue;
+                }
+                Set<String> busy = busyByDate.computeIfAbsent(assignment.getExamDate(), index::busyTeacherIds);
+                if (role1) {
+                    Teacher replacement = pickReplacement(workingSolution, assignment, teacherId, busy, true);
+                    if (replacement == null) {
+                        stillReferenced = true;
+                    } else {
+                        director.changeVariable(assignment, "examiner1", a -> a.setExaminer1(replacement));
+                        busy.add(replacement.getId());
+                        reassigned++;
+                    }
+                }
+                if (role2) {
+                    Teacher replacement = pickReplacement(workingSolution, assignment, teacherId, busy, false);
+                    if (replacement == null) {
+                        stillReferenced = true;
+                    } else {
+                        director.changeVariable(assignment, "examiner2", a -> a.setExaminer2(replacement));
+                        busy.add(replacement.getId());
+                        reassigned++;
+                    }
+                }
+            }
+
+            if (stillReferenced) {
+                LOGGER.warn("实时规划：考官 {} 仍被固定排班引用或没有可改派的替代考官，保留在值域中", teacherId);
+                return;
+            }
+            Teacher teacher = lookUpTeacher(director, teacherId);
+            if (teacher != null) {
+                director.removeProblemFact(teacher, t -> {
+                    // 考官列表可能与原问题/其它解共享引用，先复制再移除
+                    workingSolution.setTeachers(new ArrayList<>(workingSolution.getTeachers()));
+                    workingSolution.getTeachers().remove(t);
+                });
+            }
+            LOGGER.info("实时规划：已移除考官 {}，改派 {} 个考官槽位", teacherId, reassigned);
+        };
+    }
+
+    /**
+     * 固定 / 解除固定排班（固定时记录当前分配作为原始值，供 HC10 校验）
+     */
+    public static ProblemChange<ExamSchedule> setPinned(String assignmentId, boolean pinned) {
+        return (workingSolution, director) -> {
+            ExamAssignment assignment = indexOf(workingSolution).byId.get(assignmentId);
+            if (assignment == null || assignment.isPinned() == pinned) {
+                return;
+            }
+            director.changeProblemProperty(assignment, a -> {
+                if (pinned) {
+                    a.setOriginalAssignment();
+                }
+                a.setPinned(pinned);
+            });
+        };
+    }
+
+    // ==================== 内部方法 ====================
+
+    /**
+     * 用副本替换工作解中的考官（保持在考官列表中的位置），并把引用原考官的排班改指向副本
+     * 先移除再添加：工作对象按 @PlanningId 查找，同一ID不能同时存在两个
+     */
+    private static void replaceTeacher(ExamSchedule workingSolution, ProblemChangeDirector director,
+                                       Teacher current, Teacher replacement) {
+        int position = workingSolution.getTeachers().indexOf(current);
+        director.removeProblemFact(current, t -> {
+            // 考官列表可能与原问题/其它解共享引用，先复制再修改
+            workingSolution.setTeachers(new ArrayList<>(workingSolution.getTeachers()));
+            workingSolution.getTeachers().remove(position);
+        });
+        director.addProblemFact(replacement, t -> workingSolution.getTeachers().add(position, t));
+        for (ExamAssignment assignment : workingSolution.getExamAssignments()) {
+            if (assignment.getExaminer1() == current) {
+                director.changeVariable(assignment, "examiner1", a -> a.setExaminer1(replacement));
+            }
+            if (assignment.getExaminer2() == current) {
+                director.changeVariable(assignment, "examiner2", a -> a.setExaminer2(replacement));
+            }
+            if (assignment.getBackupExaminer() == current) {
+                director.changeVariable(assignment, "backupExaminer", a -> a.setBackupExaminer(replacement));
+            }
+        }
+    }
+
+    private static Teacher pickReplacement(ExamSchedule workingSolution, ExamAssignment assignment,
+                                           String removedId, Set<String> busy, boolean sameDepartment) {
+        Teacher fallback = null;
+        for (Teacher candidate : workingSolution.getTeachers()) {
+            if (candidate.getId() == null || candidate.getId().equals(removedId)
+                    || busy.contains(candidate.getId())
+                    || isTeacher(assignment.getExaminer1(), candidate.getId())
+                    || isTeacher(assignment.getExaminer2(), candidate.getId())
+                    || isTeacher(assignment.getBackupExaminer(), candidate.getId())
+                    || candidate.isUnavailableOnDate(assignment.getExamDate())) {
+                continue;
+            }
+            boolean preferred = sameDepartment
+                    ? candidate.isSameDepartment(assignment.getStudent())
+                    : candidate.isDifferentDepartment(assignment.getStudent());
+            if (preferred) {
+                return candidate;
+            }
+            if (fallback == null) {
+                fallback = candidate;
+            }
+        }
+        return fallback;
+    }
+
+    private static Teacher lookUpTeacher(ProblemChangeDirector director, String teacherId) {
+        return director.lookUpWorkingObject(new Teacher(teacherId, null, null, null)).orElse(null);
+    }
+
+    private static boolean isTeacher(Teacher teacher, String teacherId) {
+        return teacher != null && Objects.equals(teacher.getId(), teacherId);
+    }
+
+    private static Teacher.UnavailablePeriod copyOf(Teacher.UnavailablePeriod period) {
+        return new Teacher.UnavailablePeriod(period.getId(), period.getStartDate(), period.getEndDate(), period.getReason());
+    }
+
+    private static SolutionIndex indexOf(ExamSchedule workingSolution) {
+        return INDEXES.computeIfAbsent(workingSolution, SolutionIndex::new);
+    }
+
+    /**
+     * 工作解上的只读索引：实体的日期和ID在求解过程中不变
+     */
+    private static final class SolutionIndex {
+        final Map<String, List<ExamAssignment>> byDate = new HashMap<>();
+        final Map<String, ExamAssignment> byId = new HashMap<>();
+
+        SolutionIndex(ExamSchedule workingSolution) {
+            for (ExamAssignment assignment : workingSolution.getExamAssignments()) {
+                if (assignment.getExamDate() != null) {
+                    byDate.computeIfAbsent(assignment.getExamDate(), d -> new ArrayList<>()).add(assignment);
+                }
+                if (assignment.getId() != null) {
+                    byId.put(assignment.getId(), assignment);
+                }
+            }
+        }
+
+        /**
+         * 当天已被占用的考官（规划变量随搜索变化，按需读取当前值）
+         */
+        Set<String> busyTeacherIds(String date) {
+            Set<String> busy = new HashSet<>();
+            for (ExamAssignment assignment : byDate.getOrDefault(date, List.of())) {
+                for (Teacher teacher : new Teacher[]{
+                        assignment.getExaminer1(), assignment.getExaminer2(), assignment.getBackupExaminer()}) {
+                    if (teacher != null) {
+                        busy.add(teacher.getId());
+                    }
+                }
+            }
+            return busy;
+        }
+    }
+}
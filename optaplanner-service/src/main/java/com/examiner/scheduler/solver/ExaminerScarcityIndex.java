@@ -0,0 +1,195 @@
+package com.examiner.scheduler.solver;
+
+import com.examiner.scheduler.domain.DutySchedule;
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.util.DepartmentNames;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 🆕 v8.1: 考官稀缺度索引（排序权重工厂共用）
+ *
+ * 每个求解方案只计算一次：
+ * - 每个考试日期上可用（HC3 非白班、HC9 不在不可用期）的考官数，按标准化科室计数
+ * - 每个日期、每个学员科室的排班数（考官槽位需求）
+ * - 每位考官可用的考试天数，以及按科室规则（考官1同科室或三七互通、考官2不同科室）可担任的槽位数
+ * 构造启发式排序时每个实体/值只做 O(1) 查表，不再在 compare 中反复计算。
+ * 节假日过滤需要 HolidayConfig（CDI），排序权重只做近似，不考虑节假日。
+ * 索引按求解方案实例缓存（弱键），并发求解、分区子问题和假设分析互不覆盖。
+ */
+final class ExaminerScarcityIndex {
+
+    /** 求解方案 → 索引（弱键，求解结束后不阻止回收；ExamSchedule 未重写 equals，按实例区分） */
+    private static final Map<ExamSchedule, ExaminerScarcityIndex> INDEXES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final int teacherCount;
+    private final int assignmentCount;
+    /** 日期 → 科室 → 当天可用考官数 */
+    private final Map<String, Map<String, Integer>> availableByDateDept = new HashMap<>();
+    private final Map<String, Integer> availableByDate = new HashMap<>();
+    /** 日期 → 学员科室 → 排班数 */
+    private final Map<String, Map<String, Integer>> demandByDateDept = new LinkedHashMap<>();
+    private final Map<Teacher, int[]> teacherMetrics = new HashMap<>();
+    /** 排班 → [考官1候选数, 考官2候选数]（规划实体总是方案列表中的实例，按实例查表） */
+    private final Map<ExamAssignment, int[]> assignmentMetrics = new IdentityHashMap<>();
+    /** 实体/考官在方案列表中的位置（按实例，ID缺失时用于区分权重） */
+    private final Map<Object, Integer> ordinals = new IdentityHashMap<>();
+
+    private ExaminerScarcityIndex(ExamSchedule solution) {
+        List<Teacher> teachers = solution.getTeachers() != null ? solution.getTeachers() : List.of();
+        List<ExamAssignment> assignments = solution.getExamAssignments() != null
+                ? solution.getExamAssignments() : List.of();
+        teacherCount = teachers.size();
+        assignmentCount = assignments.size();
+        for (int t = 0; t < teachers.size(); t++) {
+            ordinals.put(teachers.get(t), t);
+        }
+        for (int a = 0; a < assignments.size(); a++) {
+            ordinals.put(assignments.get(a), a);
+        }
+
+        for (ExamAssignment assignment : assignments) {
+            if (assignment.getExamDate() != null && assignment.getStudent() != null) {
+                demandByDateDept.computeIfAbsent(assignment.getExamDate(), k -> new HashMap<>())
+                        .merge(DepartmentNames.normalize(assignment.getStudent().getDepartment()), 1, Integer::sum);
+            }
+        }
+
+        String[] teacherDepts = new String[teachers.size()];
+        int[][] metrics = new int[teachers.size()][];
+        for (int t = 0; t < teachers.size(); t++) {
+            teacherDepts[t] = DepartmentNames.normalize(teachers.get(t).getDepartment());
+            metrics[t] = new int[2];
+        }
+        for (Map.Entry<String, Map<String, Integer>> day : demandByDateDept.entrySet()) {
+            String date = day.getKey();
+            DutySchedule dutySchedule = DutySchedule.forDate(date);
+            Map<String, Integer> byDept = new HashMap<>();
+            int total = 0;
+            for (int t = 0; t < teachers.size(); t++) {
+                if (!isAvailable(teachers.get(t), date, dutySchedule)) {
+                    continue;
+                }
+                total++;
+                byDept.merge(teacherDepts[t], 1, Integer::sum);
+                metrics[t][0]++;
+                metrics[t][1] += servableSlots(teacherDepts[t], day.getValue());
+            }
+            availableByDateDept.put(date, byDept);
+            availableByDate.put(date, total);
+        }
+        for (int t = 0; t < teachers.size(); t++) {
+            teacherMetrics.put(teachers.get(t), metrics[t]);
+        }
+        for (ExamAssignment assignment : assignments) {
+            if (assignment.getExamDate() != null && assignment.getStudent() != null) {
+                String date = assignment.getExamDate();
+                String dept = DepartmentNames.normalize(assignment.getStudent().getDepartment());
+                Map<String, Integer> byDept = availableByDateDept.getOrDefault(date, Map.of());
+                String partner = DepartmentNames.partner(dept);
+                int examiner1 = byDept.getOrDefault(dept, 0) + (partner != null ? byDept.getOrDefault(partner, 0) : 0);
+                int examiner2 = availableByDate.getOrDefault(date, 0) - byDept.getOrDefault(dept, 0);
+                assignmentMetrics.put(assignment, new int[]{examiner1, examiner2});
+            }
+        }
+    }
+
+    /**
+     * 获取求解方案的索引（同一方案且实体/考官数量未变时复用）
+     */
+    static ExaminerScarcityIndex of(ExamSchedule solution) {
+        ExaminerScarcityIndex index = INDEXES.get(solution);
+        if (index == null
+                || index.teacherCount != size(solution.getTeachers())
+                || index.assignmentCount != size(solution.getExamAssignments())) {
+            // 在锁外构建；同一方案并发构建时结果相同，后写入者覆盖即可
+            index = new ExaminerScarcityIndex(solution);
+            INDEXES.put(solution, index);
+        }
+        return index;
+    }
+
+    /**
+     * 排班/考官在方案列表中的位置，作为权重的最终区分项（ID缺失或重复时仍保证权重唯一）
+     * 不在方案列表中的对象退回到实例哈希值
+     */
+    int ordinal(Object entityOrValue) {
+        Integer ordinal = ordinals.get(entityOrValue);
+        return ordinal != null ? ordinal : System.identityHashCode(entityOrValue);
+    }
+
+    /**
+     * 排班当天可担任考官1的考官数（同科室，三七互通）
+     */
+    int examiner1Candidates(ExamAssignment assignment) {
+        int[] metrics = assignmentMetrics.get(assignment);
+        return metrics != null ? metrics[0] : teacherCount;
+    }
+
+    /**
+     * 排班当天可担任考官2/备份考官的考官数（不同科室）
+     */
+    int examiner2Candidates(ExamAssignment assignment) {
+        int[] metrics = assignmentMetrics.get(assignment);
+        return metrics != null ? metrics[1] : teacherCount;
+    }
+
+    /**
+     * 考官可用的考试天数
+     */
+    int availableDays(Teacher teacher) {
+        int[] metrics = teacherMetrics.get(teacher);
+        return metrics != null ? metrics[0] : 0;
+    }
+
+    /**
+     * 考官在可用日期上按科室规则可担任的考官槽位数
+     */
+    int servableSlots(Teacher teacher) {
+        int[] metrics = teacherMetrics.get(teacher);
+        return metrics != null ? metrics[1] : 0;
+    }
+
+    private static int servableSlots(String teacherDept, Map<String, Integer> demandByDept) {
+        int slots = 0;
+        for (Map.Entry<String, Integer> demand : demandByDept.entrySet()) {
+            String studentDept = demand.getKey();
+            boolean sameDept = teacherDept != null && teacherDept.equals(studentDept);
+            if (sameDept || (teacherDept != null && teacherDept.equals(DepartmentNames.partner(studentDept)))) {
+                slots += demand.getValue();
+            }
+            if (!sameDept) {
+                // 考官2和备份考官
+                slots += demand.getValue() * 2;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * HC3 + HC9：与 FeasibilityPrecheckService.isTeacherAvailable 一致（不含节假日过滤）
+     */
+    private static boolean isAvailable(Teacher teacher, String date, DutySchedule dutySchedule) {
+        if (teacher == null || teacher.isUnavailableOnDate(date)) {
+            return false;
+        }
+        String group = teacher.getGroup();
+        if (group == null || "无".equals(group) || "行政班".equals(group) || group.trim().isEmpty()) {
+            return true;
+        }
+        return !dutySchedule.isGroupOnDayShift(group);
+    }
+
+    private static int size(List<?> list) {
+        return list != null ? list.size() : 0;
+    }
+}
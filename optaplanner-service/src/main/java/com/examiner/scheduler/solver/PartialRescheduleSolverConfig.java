@@ -103,6 +103,29 @@ public class PartialRescheduleSolverConfig {
         return solverConfig;
     }
     
+    /**
+     * 🆕 v8.1: 创建邻域局部重排求解器配置（只求解受影响的子问题）
+     * 
+     * 策略：
+     * - 子问题通常只有几十个排班，毫秒级时间限制即可收敛
+     * - 不设最佳分数限制：达到可行后继续利用剩余时间优化软约束
+     * - 由 LocalRescheduleService 长期持有 SolverFactory，避免每次请求重新编译约束
+     */
+    public static SolverConfig createLocalConfig() {
+        LOGGER.info("🎯 [局部重排配置] 创建邻域求解器配置");
+        
+        SolverConfig solverConfig = new SolverConfig()
+            .withSolutionClass(com.examiner.scheduler.domain.ExamSchedule.class)
+            .withEntityClasses(com.examiner.scheduler.domain.ExamAssignment.class)
+            .withConstraintProviderClass(com.examiner.scheduler.solver.OptimizedExamScheduleConstraintProvider.class);
+        
+        solverConfig.setTerminationConfig(new TerminationConfig()
+            .withMillisecondsSpentLimit(700L)
+            .withUnimprovedMillisecondsSpentLimit(150L));
+        
+        return solverConfig;
+    }
+    
     /**
      * 创建终止条件配置
      * 
@@ -2,6 +2,7 @@ package com.examiner.scheduler.solver;
 
 import com.examiner.scheduler.rest.ScheduleProgressResource;
 import com.examiner.scheduler.websocket.ScheduleProgressWebSocket;
+import com.examiner.scheduler.websocket.WebSocketSessionHub;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 import org.optaplanner.core.api.solver.event.BestSolutionChangedEvent;
 import org.optaplanner.core.api.solver.event.SolverEventListener;
@@ -20,6 +21,7 @@ import java.util.concurrent.atomic.AtomicLong;
  * 核心设计：
  * 1. 基于时间 + 分数改进的双重进度计算
  * 2. 限制推送频率，避免过度消耗WebSocket
+ *    🆕 v8.1: 求解线程只记录最新事件（O(1)），进度计算与推送由 WebSocketSessionHub 时间轮按固定周期合并执行
  * 3. 平滑进度增长，避免倒退
  * 4. 支持多级求解模式的进度范围设置
  */
@@ -40,13 +42,21 @@ public class RealTimeProgressListener<Solution_> implements SolverEventListener<
     // 时间追踪
     private final Instant startTime;
     private final AtomicLong lastUpdateTime = new AtomicLong(0);
-    private static final long UPDATE_INTERVAL_MS = 300; // 🔧 优化：每300ms最多更新一次（更流畅）
-    private static final long HEARTBEAT_INTERVAL_MS = 2000; // 🔧 新增：每2秒发送一次心跳（即使进度未变化）
+    private static final long PUBLISH_INTERVAL_MS = 300;   // 🆕 v8.1: 时间轮合并推送周期
+    private static final long REFRESH_INTERVAL_MS = 2000;  // 无新事件时也按时间进度刷新一次
+    private static final long IDLE_RELEASE_MS = 120_000;   // 求解异常中断时，长时间无事件自动注销推送任务
     
     // 进度追踪
     private final AtomicInteger lastReportedProgress; // 🔧 修复：将在构造函数中初始化为 progressStart
-    private HardSoftScore initialScore;
-    private HardSoftScore bestScore;
+    private volatile HardSoftScore initialScore;
+    private volatile HardSoftScore bestScore;
+    
+    // 🆕 v8.1: 求解线程写入、时间轮线程读取的最新事件
+    private volatile HardSoftScore latestScore;
+    private volatile Solution_ latestSolution;
+    private volatile boolean dirty;
+    private volatile long lastEventTime = System.currentTimeMillis();
+    private final WebSocketSessionHub.TimerHandle publishTask;
     
     // 分数改进追踪
     private final AtomicLong improvementCount = new AtomicLong(0);
@@ -73,6 +83,7 @@ public class RealTimeProgressListener<Solution_> implements SolverEventListener<
         this.startTime = Instant.now();
         // 🔧 修复：将 lastReportedProgress 初始化为 progressStart，避免阶段切换时进度回退
         this.lastReportedProgress = new AtomicInteger(progressStart);
+        this.publishTask = WebSocketSessionHub.scheduleRepeating(PUBLISH_INTERVAL_MS, this::publish);
         
         LOGGER.info("📊 [进度监听器] 已创建 - Level {}: {}, 进度范围 {}%-{}%, 预估时长 {}ms", 
                    level, levelName, progressStart, progressEnd, estimatedDuration);
@@ -85,28 +96,45 @@ public class RealTimeProgressListener<Solution_> implements SolverEventListener<
     
     @Override
     public void bestSolutionChanged(BestSolutionChangedEvent<Solution_> event) {
+        // 🆕 v8.1: 求解线程上只记录最新事件，进度计算、统计和推送都在 publish() 中完成
+        eventCount.incrementAndGet();
+        HardSoftScore newScore = (HardSoftScore) event.getNewBestScore();
+        
+        // 记录初始分数
+        if (initialScore == null) {
+            initialScore = newScore;
+        }
+        
+        // 检查是否有改进
+        if (bestScore == null || newScore.compareTo(bestScore) > 0) {
+            bestScore = newScore;
+            improvementCount.incrementAndGet();
+        }
+        
+        latestScore = newScore;
+        latestSolution = event.getNewBestSolution();
+        lastEventTime = System.currentTimeMillis();
+        dirty = true;
+    }
+    
+    /**
+     * 由会话中心时间轮每 PUBLISH_INTERVAL_MS 调用一次：合并期间内的所有事件，只推送最新状态
+     */
+    private void publish() {
         try {
-            eventCount.incrementAndGet();
             long currentTime = System.currentTimeMillis();
-            
-            // 限制更新频率，避免WebSocket过载
-            if (currentTime - lastUpdateTime.get() < UPDATE_INTERVAL_MS) {
+            if (currentTime - lastEventTime > IDLE_RELEASE_MS) {
+                // 求解异常结束时不会调用 pushFinalProgress，这里兜底注销
+                publishTask.cancel();
                 return;
             }
             
-            HardSoftScore newScore = (HardSoftScore) event.getNewBestScore();
-            
-            // 记录初始分数
-            if (initialScore == null) {
-                initialScore = newScore;
-                LOGGER.info("📊 [进度监听器] 初始分数: {}", initialScore);
-            }
-            
-            // 检查是否有改进
-            if (bestScore == null || newScore.compareTo(bestScore) > 0) {
-                bestScore = newScore;
-                improvementCount.incrementAndGet();
+            HardSoftScore newScore = latestScore;
+            if (newScore == null) {
+                return;
             }
+            boolean hasNewEvent = dirty;
+            dirty = false;
             
             // 计算当前进度
             int currentProgress = calculateProgress(newScore);
@@ -118,9 +146,7 @@ public class RealTimeProgressListener<Solution_> implements SolverEventListener<
             if (currentProgress < lastProgress) {
                 // 如果计算出的进度小于上次进度，强制保持上次进度
                 currentProgress = lastProgress;
-                LOGGER.debug("🔒 [进度保护] 阻止进度回退: 计算值={}%, 保持上次={}%", 
-                           currentProgress, lastProgress);
-            } else if (currentProgress == lastProgress && improvementCount.get() > 0) {
+            } else if (currentProgress == lastProgress && hasNewEvent && improvementCount.get() > 0) {
                 // 如果有分数改进但进度未变化，允许小幅增长
                 currentProgress = lastProgress + 1;
             }
@@ -135,9 +161,9 @@ public class RealTimeProgressListener<Solution_> implements SolverEventListener<
             // 确保不超过结束值
             currentProgress = Math.min(currentProgress, progressEnd);
             
-            // 🔧 优化：即使进度没有变化，也定期推送（每2秒一次），让用户知道系统还在工作
-            boolean shouldPush = currentProgress > lastProgress || 
-                                (currentTime - lastUpdateTime.get() >= HEARTBEAT_INTERVAL_MS); // 2秒无更新时也推送
+            // 有新事件且进度前进时推送；没有新事件时每 REFRESH_INTERVAL_MS 按时间进度刷新一次
+            boolean shouldPush = (hasNewEvent && currentProgress > lastProgress) ||
+                                (currentTime - lastUpdateTime.get() >= REFRESH_INTERVAL_MS);
             
             // 更新并推送进度
             if (shouldPush && currentProgress >= lastProgress) {
@@ -152,8 +178,8 @@ public class RealTimeProgressListener<Solution_> implements SolverEventListener<
                 
                 // 尝试计算已分配的考官数量
                 try {
-                    Solution_ solution = event.getNewBestSolution();
-                    if (solution != null && solution instanceof com.examiner.scheduler.domain.ExamSchedule) {
+                    Solution_ solution = latestSolution;
+                    if (hasNewEvent && solution instanceof com.examiner.scheduler.domain.ExamSchedule) {
                         com.examiner.scheduler.domain.ExamSchedule examSchedule = 
                             (com.examiner.scheduler.domain.ExamSchedule) solution;
                         if (examSchedule.getExamAssignments() != null) {
@@ -162,6 +188,17 @@ public class RealTimeProgressListener<Solution_> implements SolverEventListener<
                                                     assignment.getExaminer2() != null || 
                                                     assignment.getBackupExaminer() != null)
                                 .count();
+                            
+                            // 🆕 v8.1: 最优解变化时推送增量中间结果（只含考官变化的排班，按时间窗口合并）
+                            ScheduleProgressWebSocket.offerIntermediateResult(sessionId,
+                                new ScheduleProgressWebSocket.IntermediateResult(
+                                    newScore.toString(),
+                                    examSchedule.getExamAssignments().size(),
+                                    levelConfidence(),
+                                    newScore.isFeasible() ? "可行" : "需改进（硬约束未满足）",
+                                    elapsedTimeMs
+                                ),
+                                examSchedule.getExamAssignments());
                         }
                     }
                 } catch (Exception e) {
@@ -202,6 +239,17 @@ public class RealTimeProgressListener<Solution_> implements SolverEventListener<
         }
     }
     
+    /**
+     * 与 ExamScheduleResource 各级别中间结果的置信度保持一致
+     */
+    private double levelConfidence() {
+        switch (level) {
+            case 1: return 0.7;
+            case 2: return 0.85;
+            default: return 0.95;
+        }
+    }
+    
     /**
      * 计算当前进度百分比
      * 
@@ -303,6 +351,7 @@ public class RealTimeProgressListener<Solution_> implements SolverEventListener<
      */
     public void pushFinalProgress() {
         try {
+            publishTask.cancel();
             lastReportedProgress.set(progressEnd);
             
             long elapsed = Duration.between(startTime, Instant.now()).toMillis();
@@ -0,0 +1,86 @@
+package com.examiner.scheduler.solver;
+
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Teacher;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionSorterWeightFactory;
+
+import java.util.Comparator;
+
+/**
+ * 🆕 v8.1: 考官强度权重工厂（替代 TeacherStrengthComparator）
+ *
+ * 权重越大越强，每位考官只计算一次：
+ * 1. 班组优先级（晚班 > 休息 > 白班等 > 行政班，对应软约束 SC1/SC3/SC5/SC7 的权重）
+ * 2. 可用的考试天数越多越强（取代原来的"不可用期数量"，按实际考试日期计算）
+ * 3. 按科室规则可担任的考官槽位越多越强
+ * 4. 按考官ID、再按方案中的位置区分（权重必须唯一）
+ * 天数与槽位来自 ExaminerScarcityIndex，每个求解方案构建一次。
+ */
+public class TeacherStrengthWeightFactory implements SelectionSorterWeightFactory<ExamSchedule, Teacher> {
+
+    @Override
+    public TeacherStrengthWeight createSorterWeight(ExamSchedule solution, Teacher teacher) {
+        ExaminerScarcityIndex index = ExaminerScarcityIndex.of(solution);
+        return new TeacherStrengthWeight(
+                getShiftPriority(teacher.getGroup()),
+                index.availableDays(teacher),
+                index.servableSlots(teacher),
+                teacher.getId() != null ? teacher.getId() : "",
+                index.ordinal(teacher));
+    }
+
+    /**
+     * 获取班组的优先级
+     * 返回值越大，优先级越高
+     *
+     * 基于软约束权重：
+     * - 晚班: 150 (SC1)
+     * - 休息第一天: 120 (SC3)
+     * - 休息第二天: 40 (SC5)
+     * - 行政班: 40 (SC7)
+     */
+    private static int getShiftPriority(String group) {
+        if (group == null) {
+            return 0;
+        }
+        String normalized = group.trim();
+        // 晚班优先级最高
+        if (normalized.contains("晚")) {
+            return 150;
+        }
+        // 休息班次优先级中等（无法区分第一天/第二天，统一给中等优先级）
+        if (normalized.contains("休")) {
+            return 80; // 平均值 (120 + 40) / 2
+        }
+        // 行政班优先级最低
+        if (normalized.contains("行政")) {
+            return 40;
+        }
+        // 其他情况（白班等）
+        return 50;
+    }
+
+    /**
+     * 强度权重（越大越强）
+     */
+    public record TeacherStrengthWeight(
+        int shiftPriority,
+        int availableDays,
+        int servableSlots,
+        String teacherId,
+        int ordinal
+    ) implements Comparable<TeacherStrengthWeight> {
+
+        private static final Comparator<TeacherStrengthWeight> ORDER = Comparator
+                .comparingInt((TeacherStrengthWeight weight) -> weight.shiftPriority)
+                .thenComparingInt(weight -> weight.availableDays)
+                .thenComparingInt(weight -> weight.servableSlots)
+                .thenComparing(weight -> weight.teacherId)
+                .thenComparingInt(weight -> weight.ordinal);
+
+        @Override
+        public int compareTo(TeacherStrengthWeight other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
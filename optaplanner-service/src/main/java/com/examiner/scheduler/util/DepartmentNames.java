@@ -0,0 +1,54 @@
+package com.examiner.scheduler.util;
+
+/**
+ * 🆕 v8.1: 科室名称工具类
+ * 统一科室名称标准化（"区域三室" / "3室" / "第3科室" / "3" → "三"）和三室/七室互通规则，
+ * 求解前的预检、排序权重、预分配和分区都使用同一套规则
+ */
+public final class DepartmentNames {
+
+    private static final String[] NUMERALS = {"一", "二", "三", "四", "五", "六", "七", "八", "九", "十"};
+
+    private DepartmentNames() {
+    }
+
+    /**
+     * 科室名称标准化（与前端保持一致，包括"第X科室"格式）
+     * @return 标准化后的单字科室名；无法识别时返回去掉首尾空白的原名称，null 返回 null
+     */
+    public static String normalize(String department) {
+        if (department == null) return null;
+        String normalized = department.trim();
+
+        // 优先精确匹配单字符（已标准化的情况）
+        for (int i = 0; i < NUMERALS.length; i++) {
+            if (normalized.equals(NUMERALS[i]) || normalized.equals(String.valueOf(i + 1))) {
+                return NUMERALS[i];
+            }
+        }
+        // 倒序匹配，避免"1室"误命中"10室"
+        for (int i = NUMERALS.length - 1; i >= 0; i--) {
+            String digit = String.valueOf(i + 1);
+            if (normalized.contains(NUMERALS[i] + "室") || normalized.contains(digit + "室")
+                    || normalized.contains("第" + digit + "科室")) {
+                return NUMERALS[i];
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * 三室与七室的考官1可以互通
+     * @param normalizedDepartment 已标准化的科室
+     * @return 互通科室，没有时返回 null
+     */
+    public static String partner(String normalizedDepartment) {
+        if ("三".equals(normalizedDepartment)) {
+            return "七";
+        }
+        if ("七".equals(normalizedDepartment)) {
+            return "三";
+        }
+        return null;
+    }
+}
@@ -1,20 +1,16 @@
 package com.examiner.scheduler.util;
 
-import com.examiner.scheduler.websocket.ScheduleProgressWebSocket;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.Map;
+import com.examiner.scheduler.websocket.SessionLogPipeline;
 import java.util.logging.Logger;
 
 /**
  * WebSocket日志工具类
  * 将日志同时输出到控制台和WebSocket客户端
+ * 🆕 v8.1: 推送改为写入 SessionLogPipeline 环形缓冲区，由发送线程批量推送，不再阻塞调用线程
  */
 public class WebSocketLogger {
     
     private static final Logger LOGGER = Logger.getLogger(WebSocketLogger.class.getName());
-    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
     
     private static final ThreadLocal<String> currentSessionId = new ThreadLocal<>();
     private static final ThreadLocal<Boolean> enabled = ThreadLocal.withInitial(() -> false);
@@ -32,6 +28,8 @@ public class WebSocketLogger {
      * 禁用WebSocket日志推送
      */
     public static void disable() {
+        // 求解结束：立即推送缓冲区中剩余的日志
+        SessionLogPipeline.flushAndRelease(currentSessionId.get());
         enabled.set(false);
         currentSessionId.remove();
         LOGGER.info("📡 [WebSocket日志] 已禁用");
@@ -76,16 +74,7 @@ public class WebSocketLogger {
         // 如果启用了WebSocket推送，则推送到前端
         String sessionId = currentSessionId.get();
         if (Boolean.TRUE.equals(enabled.get()) && sessionId != null) {
-            try {
-                Map<String, Object> logData = new HashMap<>();
-                logData.put("time", LocalTime.now().format(TIME_FORMATTER));
-                logData.put("message", message);
-                logData.put("type", type);
-                
-                ScheduleProgressWebSocket.sendLogMessage(sessionId, logData);
-            } catch (Exception e) {
-                // 忽略推送失败，不影响主流程
-            }
+            SessionLogPipeline.publish(sessionId, type, message);
         }
     }
     
@@ -0,0 +1,292 @@
+package com.examiner.scheduler.validation;
+
+import com.examiner.scheduler.config.HolidayConfig;
+import com.examiner.scheduler.domain.DutySchedule;
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * 排班结果统计聚合器
+ *
+ * 🆕 v8.1: 替代 buildScheduleResponse 中逐个调用的 validateHC1/3/4/6/7/8/8b/9/10 九个验证方法。
+ * 原实现每个验证方法都完整遍历一次排班列表，部分方法还各自重建 考官/日期 映射；
+ * 本聚合器只遍历一次排班列表，共享以下索引，同时产出：
+ * - 各硬约束违反数（HC1~HC10，含HC2）
+ * - 每名考官的工作量、每天的考试数
+ * - 考官 → 已排日期索引（供 HC2 可行性诊断复用）
+ *
+ * 各约束的判定口径与原验证方法保持一致。
+ */
+public class ScheduleStatisticsAggregator {
+
+    private static final Logger LOGGER = Logger.getLogger(ScheduleStatisticsAggregator.class.getName());
+
+    public static final List<String> HARD_CONSTRAINTS = Collections.unmodifiableList(Arrays.asList(
+            "HC1", "HC2", "HC3", "HC4", "HC6", "HC7", "HC8", "HC8b", "HC9", "HC10"));
+
+    private final HolidayConfig holidayConfig;
+    private final Function<String, String> departmentNormalizer;
+
+    public ScheduleStatisticsAggregator(HolidayConfig holidayConfig, Function<String, String> departmentNormalizer) {
+        this.holidayConfig = holidayConfig;
+        this.departmentNormalizer = departmentNormalizer;
+    }
+
+    /**
+     * 单次遍历统计
+     */
+    public Result aggregate(List<ExamAssignment> assignments) {
+        long start = System.currentTimeMillis();
+        Result result = new Result();
+
+        // 按日期缓存的共享数据
+        Map<String, String> dayShiftByDate = new HashMap<>();
+        Map<String, Boolean> holidayByDate = new HashMap<>();
+        Set<String> examinerDayKeys = new HashSet<>();                   // HC4: 考官ID@日期（同名考官不误报）
+        Map<Student, List<String>> studentDates = new LinkedHashMap<>(); // HC6: 学员 → 考试日期
+
+        for (ExamAssignment assignment : assignments) {
+            Student student = assignment.getStudent();
+            Teacher examiner1 = assignment.getExaminer1();
+            Teacher examiner2 = assignment.getExaminer2();
+            Teacher backup = assignment.getBackupExaminer();
+            String examDate = assignment.getExamDate();
+            String studentName = student != null ? student.getName() : "未知";
+
+            if (student != null) {
+                studentDates.computeIfAbsent(student, k -> new ArrayList<>()).add(examDate);
+            }
+
+            // HC2：考官1同科室（3/7互通），考官2异科室，两名考官不同科室
+            if (student != null && examiner1 != null && examiner2 != null) {
+                String studentDept = departmentNormalizer.apply(student.getDepartment());
+                String examiner1Dept = departmentNormalizer.apply(examiner1.getDepartment());
+                String examiner2Dept = departmentNormalizer.apply(examiner2.getDepartment());
+                if (!isValidExaminer1Department(studentDept, examiner1Dept)
+                        || Objects.equals(studentDept, examiner2Dept)
+                        || Objects.equals(examiner1Dept, examiner2Dept)) {
+                    result.increment("HC2");
+                    result.hc2Violations.add(assignment);
+                }
+            }
+
+            // HC7：必须有两名考官且不同科室
+            if (examiner1 == null || examiner2 == null) {
+                result.increment("HC7");
+                LOGGER.severe("🚨 [HC7违反] 缺少考官: " + studentName
+                        + " 考官1=" + (examiner1 != null ? examiner1.getName() : "NULL")
+                        + " 考官2=" + (examiner2 != null ? examiner2.getName() : "NULL"));
+            } else {
+                String examiner1Dept = departmentNormalizer.apply(examiner1.getDepartment());
+                String examiner2Dept = departmentNormalizer.apply(examiner2.getDepartment());
+                if (examiner1Dept != null && examiner1Dept.equals(examiner2Dept)) {
+                    result.increment("HC7");
+                    LOGGER.severe("🚨 [HC7违反] 两名考官同科室: " + examiner1.getName() + "(" + examiner1Dept
+                            + ") 和 " + examiner2.getName() + "(" + examiner2Dept + ")");
+                }
+            }
+
+            // HC8 / HC8b：备份考官不能与考官1/考官2同一人、同科室
+            if (backup != null) {
+                checkBackup(result, backup, examiner1, "考官1");
+                checkBackup(result, backup, examiner2, "考官2");
+            }
+
+            // HC10：固定排班不能改变
+            if (assignment.isPinned()) {
+                checkPinned(result, assignment.getStudentName(), "考官1",
+                        assignment.getOriginalExaminer1Name(), examiner1 != null ? examiner1.getName() : null);
+                checkPinned(result, assignment.getStudentName(), "考官2",
+                        assignment.getOriginalExaminer2Name(), examiner2 != null ? examiner2.getName() : null);
+                checkPinned(result, assignment.getStudentName(), "备份考官",
+                        assignment.getOriginalBackupExaminerName(), backup != null ? backup.getName() : null);
+                checkPinned(result, assignment.getStudentName(), "考试日期",
+                        assignment.getOriginalExamDate(), examDate);
+            }
+
+            if (examDate == null) {
+                continue;
+            }
+            result.dateLoad.merge(examDate, 1, Integer::sum);
+
+            // HC1：法定节假日不能安排考试
+            boolean holiday = holidayByDate.computeIfAbsent(examDate, this::isHoliday);
+            if (holiday) {
+                result.increment("HC1");
+                LOGGER.severe("🚨 [HC1违反] 节假日安排了考试: " + examDate + " 学员: " + studentName);
+            }
+
+            String dayShift = dayShiftByDate.computeIfAbsent(examDate, d -> DutySchedule.forDate(d).getDayShift());
+            checkExaminerOnDate(result, examiner1, "考官1", examDate, dayShift, examinerDayKeys);
+            checkExaminerOnDate(result, examiner2, "考官2", examDate, dayShift, examinerDayKeys);
+            checkExaminerOnDate(result, backup, "备份考官", examDate, dayShift, examinerDayKeys);
+        }
+
+        // HC6：两天考试的学员必须连续两天
+        for (Map.Entry<Student, List<String>> entry : studentDates.entrySet()) {
+            List<String> dates = entry.getValue();
+            if (dates.size() != 2) continue;
+            try {
+                LocalDate day1 = LocalDate.parse(dates.get(0));
+                LocalDate day2 = LocalDate.parse(dates.get(1));
+                long daysBetween = Math.abs(ChronoUnit.DAYS.between(day1, day2));
+                if (daysBetween != 1) {
+                    result.increment("HC6");
+                    LOGGER.severe("🚨 [HC6违反] 学员 " + entry.getKey().getName() + " 两天考试不连续: "
+                            + day1 + " 和 " + day2 + " (间隔" + daysBetween + "天)");
+                }
+            } catch (Exception e) {
+                LOGGER.warning("⚠️ [HC6验证] 日期解析失败: " + e.getMessage());
+            }
+        }
+
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    /**
+     * HC3（白班）、HC4（每天一场）、HC9（不可用期），并累计工作量与日期索引
+     */
+    private void checkExaminerOnDate(Result result, Teacher examiner, String role, String examDate,
+                                     String dayShift, Set<String> examinerDayKeys) {
+        if (examiner == null) {
+            return;
+        }
+        result.examinerWorkload.merge(examiner.getName(), 1, Integer::sum);
+        if (examiner.getId() != null) {
+            result.teacherAssignedDates.computeIfAbsent(examiner.getId(), k -> new HashSet<>()).add(examDate);
+        }
+
+        if (dayShift != null && !isAdminTeacher(examiner) && dayShift.equals(examiner.getGroup())) {
+            result.increment("HC3");
+            LOGGER.severe("🚨 [HC3违反] " + role + " " + examiner.getName() + " 在白班执勤日被安排考试: " + examDate);
+        }
+        String examinerKey = examiner.getId() != null ? examiner.getId() : "name:" + examiner.getName();
+        if (!examinerDayKeys.add(examinerKey + "@" + examDate)) {
+            result.increment("HC4");
+            LOGGER.severe("🚨 [HC4违反] " + role + " " + examiner.getName() + " 在 " + examDate + " 被安排多场考试");
+        }
+        if (examiner.isUnavailableOnDate(examDate, holidayConfig)) {
+            result.increment("HC9");
+            LOGGER.severe("🚨 [HC9违反] " + role + " " + examiner.getName() + " 在不可用期被安排考试: " + examDate);
+        }
+    }
+
+    private void checkBackup(Result result, Teacher backup, Teacher examiner, String role) {
+        if (examiner == null) {
+            return;
+        }
+        if (backup.getId() != null && backup.getId().equals(examiner.getId())) {
+            result.increment("HC8");
+            LOGGER.severe("🚨 [HC8违反] 备份考官与" + role + "是同一人: " + backup.getName());
+        }
+        String backupDept = backup.getDepartment();
+        if (backupDept != null && backupDept.equals(examiner.getDepartment())) {
+            result.increment("HC8b");
+            LOGGER.severe("🚨 [HC8b违反] 备份考官 " + backup.getName() + " (科室:" + backupDept + ") 与" + role + " "
+                    + examiner.getName() + " (科室:" + examiner.getDepartment() + ") 同科室");
+        }
+    }
+
+    private void checkPinned(Result result, String studentName, String field, String original, String current) {
+        if (original != null && current != null && !original.equals(current)) {
+            result.increment("HC10");
+            LOGGER.severe("🚨 [HC10违反] 固定排班" + field + "改变: " + studentName + " 原始=" + original + " 当前=" + current);
+        }
+    }
+
+    private boolean isHoliday(String date) {
+        try {
+            return holidayConfig != null && holidayConfig.isHoliday(LocalDate.parse(date));
+        } catch (Exception e) {
+            LOGGER.warning("⚠️ [HC1验证] 日期解析失败: " + date);
+            return false;
+        }
+    }
+
+    private static boolean isAdminTeacher(Teacher teacher) {
+        String group = teacher.getGroup();
+        return group == null || "无".equals(group) || "行政班".equals(group) || group.trim().isEmpty();
+    }
+
+    private static boolean isValidExaminer1Department(String studentDept, String examiner1Dept) {
+        if (studentDept == null || examiner1Dept == null) return false;
+        return studentDept.equals(examiner1Dept)
+                || (studentDept.equals("三") && examiner1Dept.equals("七"))
+                || (studentDept.equals("七") && examiner1Dept.equals("三"));
+    }
+
+    /**
+     * 统计结果
+     */
+    public static class Result {
+        private final Map<String, Integer> violations = new LinkedHashMap<>();
+        private final List<ExamAssignment> hc2Violations = new ArrayList<>();
+        private final Map<String, Integer> examinerWorkload = new HashMap<>();
+        private final Map<String, Integer> dateLoad = new TreeMap<>();
+        private final Map<String, Set<String>> teacherAssignedDates = new HashMap<>();
+        private long elapsedMillis;
+
+        Result() {
+            for (String constraint : HARD_CONSTRAINTS) {
+                violations.put(constraint, 0);
+            }
+        }
+
+        void increment(String constraint) {
+            violations.merge(constraint, 1, Integer::sum);
+        }
+
+        public int count(String constraint) {
+            return violations.getOrDefault(constraint, 0);
+        }
+
+        public int getTotalHardViolations() {
+            return violations.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        /** 各硬约束违反数（按 HC1~HC10 顺序） */
+        public Map<String, Integer> getViolations() {
+            return violations;
+        }
+
+        /** 违反 HC2 的排班（用于生成冲突详情） */
+        public List<ExamAssignment> getHc2Violations() {
+            return hc2Violations;
+        }
+
+        /** 考官姓名 → 监考场次（含备份） */
+        public Map<String, Integer> getExaminerWorkload() {
+            return examinerWorkload;
+        }
+
+        /** 日期 → 考试场次 */
+        public Map<String, Integer> getDateLoad() {
+            return dateLoad;
+        }
+
+        /** 考官ID → 已排日期 */
+        public Map<String, Set<String>> getTeacherAssignedDates() {
+            return teacherAssignedDates;
+        }
+
+        public int getMaxWorkload() {
+            return examinerWorkload.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        }
+
+        public double getAverageWorkload() {
+            return examinerWorkload.values().stream().mapToInt(Integer::intValue).average().orElse(0);
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
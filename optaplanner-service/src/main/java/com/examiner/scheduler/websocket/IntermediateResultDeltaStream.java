@@ -0,0 +1,203 @@
+package com.examiner.scheduler.websocket;
+
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.dto.AssignmentDTO;
+import com.examiner.scheduler.util.AssignmentMapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 🆕 v8.1: 单个会话的中间结果增量编码流
+ *
+ * 原先每次中间结果都携带完整 assignments 列表并重新序列化（400条排班每帧约数百KB）。
+ * 本类维护"客户端当前已知状态"，协议如下：
+ * - 默认（客户端未声明支持增量）：每帧都是 intermediate_result 全量结果，与旧前端完全兼容；
+ *   未变化的排班复用已转换的DTO，只有变化的排班重新转换
+ * - 客户端发送 {"type":"enable_delta"} 后：先发送一次全量基线，之后只发送 intermediate_delta，
+ *   包含考官/日期发生变化的排班和被移除的排班ID
+ * - 每帧带递增序号 seq，增量帧带 baseSeq，客户端发现断档时发送 {"type":"resync"} 请求重新下发基线；
+ *   发送队列丢弃过帧时（见 WebSocketSessionHub 背压）服务端也会主动重新下发基线
+ * - 两次发送之间的多次 offer 会被合并：只对最后一份快照计算差异
+ *
+ * 所有方法在实例上同步：offer 来自求解线程，drain 来自会话中心工作线程，resync 来自 WebSocket 线程或丢帧回调。
+ */
+class IntermediateResultDeltaStream {
+
+    private final String sessionId;
+
+    /** 排班ID → 最近一次 offer 时的签名（日期 + 三位考官ID） */
+    private Map<String, String> signatures = new HashMap<>();
+    /** 排班ID → 最新DTO，用于重发基线；保持求解器中的顺序 */
+    private Map<String, AssignmentDTO> current = new LinkedHashMap<>();
+
+    /** 自上次发送以来变化/移除的排班 */
+    private final Map<String, AssignmentDTO> pendingChanged = new LinkedHashMap<>();
+    private final Set<String> pendingRemoved = new LinkedHashSet<>();
+
+    private ScheduleProgressWebSocket.IntermediateResult pendingMeta;
+    /** 最近一次发送的元信息，重同步时没有新结果则沿用 */
+    private ScheduleProgressWebSocket.IntermediateResult lastMeta;
+    private List<ExamAssignment> pendingSnapshot;
+    private boolean deltaEnabled;
+    private boolean baselineRequired = true;
+    private long sequence;
+    private long lastFlushAt;
+    private boolean flushScheduled;
+
+    IntermediateResultDeltaStream(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * 记录一份新的中间结果，O(1)：只保存引用，差异计算推迟到发送时
+     * （调用方需保证 assignments 在发送前不再被修改，例如 BestSolutionChangedEvent 的最优解克隆）
+     */
+    synchronized void offer(ScheduleProgressWebSocket.IntermediateResult meta, List<ExamAssignment> assignments) {
+        this.pendingSnapshot = assignments;
+        this.pendingMeta = meta;
+    }
+
+    /**
+     * 与客户端已知状态比较，只把签名发生变化的排班转换为DTO
+     */
+    private void apply(List<ExamAssignment> assignments) {
+        Map<String, String> nextSignatures = new HashMap<>(assignments.size() * 2);
+        Map<String, AssignmentDTO> nextCurrent = new LinkedHashMap<>(assignments.size() * 2);
+
+        for (ExamAssignment assignment : assignments) {
+            String id = assignment.getId();
+            if (id == null) {
+                continue;
+            }
+            String signature = signatureOf(assignment);
+            nextSignatures.put(id, signature);
+
+            AssignmentDTO dto = current.get(id);
+            if (dto == null || !signature.equals(signatures.get(id))) {
+                dto = AssignmentMapper.toDTO(assignment);
+                pendingChanged.put(id, dto);
+                pendingRemoved.remove(id);
+            }
+            nextCurrent.put(id, dto);
+        }
+
+        Set<String> removed = new HashSet<>(signatures.keySet());
+        removed.removeAll(nextSignatures.keySet());
+        for (String id : removed) {
+            pendingChanged.remove(id);
+            pendingRemoved.add(id);
+        }
+
+        this.signatures = nextSignatures;
+        this.current = nextCurrent;
+    }
+
+    /**
+     * 客户端声明支持增量帧：下一帧发送全量基线，之后发送增量
+     */
+    synchronized void enableDeltas() {
+        if (!deltaEnabled) {
+            deltaEnabled = true;
+            requestResync();
+        }
+    }
+
+    /**
+     * 客户端请求重同步（或发送队列丢弃过帧）：下一帧发送全量基线
+     * 还没有发送过任何结果时无需补发，首个结果本身就是基线
+     */
+    synchronized void requestResync() {
+        baselineRequired = true;
+        if (pendingMeta == null && lastMeta != null) {
+            pendingMeta = lastMeta;
+        }
+    }
+
+    /**
+     * 发送队列丢过帧：下一帧改为全量基线
+     *
+     * @return true 表示调用方需要安排一次发送（还没有发送过结果，或已有发送在排队时返回 false）
+     */
+    synchronized boolean resyncAfterDrop() {
+        requestResync();
+        return pendingMeta != null && markFlushScheduled();
+    }
+
+    /**
+     * 取出待发送的帧；没有新内容时返回 null
+     */
+    synchronized ScheduleProgressWebSocket.ProgressMessage drain(long now) {
+        flushScheduled = false;
+        if (pendingMeta == null) {
+            return null;
+        }
+        ScheduleProgressWebSocket.IntermediateResult meta = pendingMeta;
+        pendingMeta = null;
+        lastMeta = meta;
+        if (pendingSnapshot != null) {
+            apply(pendingSnapshot);
+            pendingSnapshot = null;
+        }
+        lastFlushAt = now;
+        long baseSeq = sequence;
+        long seq = ++sequence;
+
+        ScheduleProgressWebSocket.ProgressMessage message;
+        if (!deltaEnabled || baselineRequired) {
+            ScheduleProgressWebSocket.IntermediateResult baseline = new ScheduleProgressWebSocket.IntermediateResult(
+                    meta.score, current.size(), meta.confidence, meta.quality, meta.elapsedTime,
+                    new ArrayList<>(current.values()));
+            baseline.seq = seq;
+            baseline.baseline = true;
+            message = new ScheduleProgressWebSocket.ProgressMessage("intermediate_result", "中间结果", baseline);
+            baselineRequired = false;
+        } else {
+            ScheduleProgressWebSocket.IntermediateDelta delta = new ScheduleProgressWebSocket.IntermediateDelta(
+                    seq, baseSeq, meta, current.size(),
+                    new ArrayList<>(pendingChanged.values()), new ArrayList<>(pendingRemoved));
+            message = new ScheduleProgressWebSocket.ProgressMessage("intermediate_delta", "中间结果增量", delta);
+        }
+        pendingChanged.clear();
+        pendingRemoved.clear();
+        return message;
+    }
+
+    /**
+     * 距上次发送还需等待的毫秒数（合并窗口），0 表示可立即发送
+     */
+    synchronized long delayUntilNextFlush(long now, long coalesceWindowMs) {
+        return Math.max(0, lastFlushAt + coalesceWindowMs - now);
+    }
+
+    /**
+     * @return true 表示调用方需要安排一次发送（避免同一窗口内重复排队）
+     */
+    synchronized boolean markFlushScheduled() {
+        if (flushScheduled) {
+            return false;
+        }
+        flushScheduled = true;
+        return true;
+    }
+
+    private static String signatureOf(ExamAssignment assignment) {
+        return assignment.getExamDate() + '|' + idOf(assignment.getExaminer1()) + '|'
+                + idOf(assignment.getExaminer2()) + '|' + idOf(assignment.getBackupExaminer());
+    }
+
+    private static String idOf(Teacher teacher) {
+        return teacher != null ? teacher.getId() : "-";
+    }
+}
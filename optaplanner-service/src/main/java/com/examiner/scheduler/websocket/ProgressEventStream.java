@@ -0,0 +1,204 @@
+package com.examiner.scheduler.websocket;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.BackPressureStrategy;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 🆕 v8.1: 排班进度的 SSE 事件流（/api/schedule/progress/{sessionId}/stream 的数据源）
+ *
+ * WebSocket 在代理后面重连不稳定，HTTP 轮询每几百毫秒请求一次。本类把 ScheduleProgressWebSocket 发出的
+ * 同一批消息按会话保存最新状态，并推送给 SSE 订阅者：
+ * - 订阅时先回放最新状态（最近一次进度 / 分数改进 / 级别升级，已结束的会话还有最终结果或错误）
+ * - progress 只保留最新一条，每 COALESCE_INTERVAL_MS 合并推送一次；score_improvement / level_upgrade 立即推送
+ * - final_result / error 推送后结束流，会话状态保留 RETAIN_AFTER_END_MS 供晚到的订阅者回放
+ * - 合并与保活都挂在 WebSocketSessionHub 的时间轮上，订阅者不占用工作线程
+ */
+public final class ProgressEventStream {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProgressEventStream.class);
+
+    static final long COALESCE_INTERVAL_MS = 500;
+    /** 代理通常 30~60 秒断开空闲连接，保活间隔取其一半以下 */
+    static final long KEEPALIVE_INTERVAL_MS = 15_000;
+    static final long RETAIN_AFTER_END_MS = 10 * 60 * 1000;
+
+    private static final Set<String> STREAMED_TYPES = Set.of(
+            "progress", "score_improvement", "level_upgrade", "final_result", "error");
+
+    private static final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+    static {
+        WebSocketSessionHub.scheduleRepeating(COALESCE_INTERVAL_MS, ProgressEventStream::flushAll);
+    }
+
+    private ProgressEventStream() {
+    }
+
+    /**
+     * 由 ScheduleProgressWebSocket 在发送每条消息时调用（无论是否有 WebSocket 连接）
+     */
+    static void publish(String sessionId, ScheduleProgressWebSocket.ProgressMessage message) {
+        if (sessionId == null || !STREAMED_TYPES.contains(message.type)) {
+            return;
+        }
+        sessions.computeIfAbsent(sessionId, SessionState::new).accept(message);
+    }
+
+    /**
+     * 订阅指定会话的进度事件流，订阅时立即回放最新状态
+     */
+    public static Multi<ScheduleProgressWebSocket.ProgressMessage> subscribe(String sessionId) {
+        return Multi.createFrom().emitter(emitter -> {
+            SessionState state = sessions.computeIfAbsent(sessionId, SessionState::new);
+            state.attach(emitter);
+            ScheduleProgressWebSocket.notifyAttached(sessionId);
+            emitter.onTermination(() -> {
+                state.detach(emitter);
+                ScheduleProgressWebSocket.notifyDetached(sessionId);
+            });
+        }, BackPressureStrategy.BUFFER);
+    }
+
+    public static int subscriberCount(String sessionId) {
+        SessionState state = sessions.get(sessionId);
+        return state != null ? state.subscribers.size() : 0;
+    }
+
+    private static void flushAll() {
+        long now = System.currentTimeMillis();
+        for (SessionState state : sessions.values()) {
+            try {
+                if (state.isStale(now)) {
+                    // 求解异常中断（没有 final_result / error）且无人订阅的会话
+                    sessions.remove(state.sessionId, state);
+                    continue;
+                }
+                state.flush(now);
+            } catch (Exception e) {
+                LOGGER.error("SSE进度推送失败: sessionId={}, error={}", state.sessionId, e.getMessage());
+            }
+        }
+    }
+
+    private static final class SessionState {
+        final String sessionId;
+        final Set<MultiEmitter<? super ScheduleProgressWebSocket.ProgressMessage>> subscribers =
+                ConcurrentHashMap.newKeySet();
+
+        private ScheduleProgressWebSocket.ProgressMessage latestProgress;
+        private ScheduleProgressWebSocket.ProgressMessage latestScore;
+        private ScheduleProgressWebSocket.ProgressMessage latestUpgrade;
+        private ScheduleProgressWebSocket.ProgressMessage terminal;
+        private boolean progressDirty;
+        private long lastEmitAt = System.currentTimeMillis();
+        private volatile long lastAcceptAt = System.currentTimeMillis();
+
+        SessionState(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        synchronized void accept(ScheduleProgressWebSocket.ProgressMessage message) {
+            lastAcceptAt = System.currentTimeMillis();
+            if (terminal != null) {
+                // 同一 sessionId 重新开始求解：清空上一轮状态
+                terminal = null;
+                latestProgress = null;
+                latestScore = null;
+                latestUpgrade = null;
+            }
+            switch (message.type) {
+                case "progress":
+                    latestProgress = message;
+                    progressDirty = true;
+                    return;
+                case "score_improvement":
+                    latestScore = message;
+                    emit(message);
+                    return;
+                case "level_upgrade":
+                    latestUpgrade = message;
+                    emit(message);
+                    return;
+                default:
+                    // final_result / error：先补发最后一次进度，再结束所有订阅
+                    flushProgress();
+                    terminal = message;
+                    emit(message);
+                    for (MultiEmitter<? super ScheduleProgressWebSocket.ProgressMessage> emitter : snapshot()) {
+                        emitter.complete();
+                    }
+                    WebSocketSessionHub.schedule(RETAIN_AFTER_END_MS, () -> {
+                        if (subscribers.isEmpty()) {
+                            sessions.remove(sessionId, this);
+                        }
+                    });
+            }
+        }
+
+        synchronized void attach(MultiEmitter<? super ScheduleProgressWebSocket.ProgressMessage> emitter) {
+            for (ScheduleProgressWebSocket.ProgressMessage message
+                    : new ScheduleProgressWebSocket.ProgressMessage[]{latestUpgrade, latestScore, latestProgress}) {
+                if (message != null) {
+                    emitter.emit(message);
+                }
+            }
+            if (terminal != null) {
+                emitter.emit(terminal);
+                emitter.complete();
+                return;
+            }
+            subscribers.add(emitter);
+        }
+
+        boolean isStale(long now) {
+            return subscribers.isEmpty() && now - lastAcceptAt > RETAIN_AFTER_END_MS;
+        }
+
+        void detach(MultiEmitter<? super ScheduleProgressWebSocket.ProgressMessage> emitter) {
+            subscribers.remove(emitter);
+        }
+
+        synchronized void flush(long now) {
+            if (subscribers.isEmpty()) {
+                progressDirty = false;
+                return;
+            }
+            if (progressDirty) {
+                flushProgress();
+            } else if (now - lastEmitAt >= KEEPALIVE_INTERVAL_MS) {
+                emit(new ScheduleProgressWebSocket.ProgressMessage("heartbeat", "保持连接", null));
+            }
+        }
+
+        private void flushProgress() {
+            if (progressDirty && latestProgress != null) {
+                emit(latestProgress);
+            }
+            progressDirty = false;
+        }
+
+        private void emit(ScheduleProgressWebSocket.ProgressMessage message) {
+            lastEmitAt = System.currentTimeMillis();
+            for (MultiEmitter<? super ScheduleProgressWebSocket.ProgressMessage> emitter : snapshot()) {
+                if (emitter.isCancelled()) {
+                    subscribers.remove(emitter);
+                    continue;
+                }
+                emitter.emit(message);
+            }
+        }
+
+        private List<MultiEmitter<? super ScheduleProgressWebSocket.ProgressMessage>> snapshot() {
+            return new ArrayList<>(subscribers);
+        }
+    }
+}
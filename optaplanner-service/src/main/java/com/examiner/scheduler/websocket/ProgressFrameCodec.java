@@ -0,0 +1,59 @@
+package com.examiner.scheduler.websocket;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * 🆕 v8.1: 进度 WebSocket 的压缩二进制子协议
+ *
+ * final_result / intermediate_result 在大批次考生时是数百KB的 JSON 文本帧，容易触及
+ * quarkus.websocket.max-frame-size (1MB) 并占满发送队列。客户端在握手时通过
+ * Sec-WebSocket-Protocol 申请 {@link #SUBPROTOCOL_DEFLATE} 后，大负载改为发送二进制帧：
+ * 内容是同一份 ProgressMessage JSON 的 UTF-8 字节经 zlib(deflate) 压缩的结果，
+ * 浏览器可直接用 DecompressionStream('deflate') 解压。
+ *
+ * 未协商该子协议的客户端、小消息（心跳、进度、日志）始终保持 JSON 文本帧。
+ */
+final class ProgressFrameCodec {
+
+    /** 支持压缩二进制帧的子协议 */
+    static final String SUBPROTOCOL_DEFLATE = "examiner.deflate.v1";
+    /** 纯 JSON 文本子协议（默认） */
+    static final String SUBPROTOCOL_JSON = "examiner.json.v1";
+
+    /** 小于该字节数的消息压缩收益不明显，仍发送文本帧 */
+    static final int COMPRESSION_THRESHOLD = 8 * 1024;
+
+    /** 允许压缩的消息类型：只有结果类负载才会很大 */
+    private static final Set<String> BULK_TYPES = Set.of(
+            "final_result", "intermediate_result", "intermediate_delta");
+
+    private static final ThreadLocal<Deflater> DEFLATER =
+            ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+
+    private ProgressFrameCodec() {
+    }
+
+    static boolean isBulkType(String type) {
+        return type != null && BULK_TYPES.contains(type);
+    }
+
+    /**
+     * zlib 格式压缩（与浏览器 DecompressionStream('deflate') 兼容）
+     */
+    static ByteBuffer deflate(byte[] json) {
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(json);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(256, json.length / 6));
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            out.write(buffer, 0, n);
+        }
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+}
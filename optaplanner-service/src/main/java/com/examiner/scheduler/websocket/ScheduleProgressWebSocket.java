@@ -1,5 +1,7 @@
 package com.examiner.scheduler.websocket;
 
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.JsonGenerator;
 import org.slf4j.Logger;
@@ -9,15 +11,23 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.websocket.*;
 import javax.websocket.server.PathParam;
 import javax.websocket.server.ServerEndpoint;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 排班进度WebSocket端点
  * 实时推送求解器的中间结果和进度信息
+ * 🆕 v8.1: 客户端可协商 examiner.deflate.v1 子协议，大结果负载以压缩二进制帧发送（见 ProgressFrameCodec）
+ * 🆕 v8.1: 进度类消息同时推送到 SSE 事件流（见 ProgressEventStream）
+ * 🆕 v8.1: 订阅者（WebSocket / SSE）连接和断开时通知 PresenceListener，用于回收无人关注的求解（见 SolveLivenessService）
  */
 @ServerEndpoint(
     value = "/ws/schedule-progress/{sessionId}",
+    subprotocols = {ProgressFrameCodec.SUBPROTOCOL_DEFLATE, ProgressFrameCodec.SUBPROTOCOL_JSON},
     configurator = WebSocketOriginConfigurator.class
 )
 @ApplicationScoped
@@ -26,8 +36,20 @@ public class ScheduleProgressWebSocket {
     private static final Logger LOGGER = LoggerFactory.getLogger(ScheduleProgressWebSocket.class);
     private static final ObjectMapper objectMapper = createObjectMapper();
     
-    // 存储所有活跃的会话
-    private static final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // 🆕 v8.1: 会话、心跳和发送队列统一由 WebSocketSessionHub 管理
+    
+    // 🆕 v8.1: 中间结果增量流（每会话一个），合并发送挂在会话中心的时间轮上
+    private static final long DELTA_COALESCE_WINDOW_MS = 500;
+    private static final Map<String, IntermediateResultDeltaStream> deltaStreams = new ConcurrentHashMap<>();
+    
+    // 🆕 v8.1: 协商了压缩二进制子协议的会话
+    private static final Set<String> deflateSessions = ConcurrentHashMap.newKeySet();
+    
+    // 🆕 v8.1: 声明支持 intermediate_delta 增量帧的会话（其余会话始终收到全量 intermediate_result）
+    private static final Set<String> deltaSessions = ConcurrentHashMap.newKeySet();
+    
+    // 🆕 v8.1: 订阅者在线状态监听
+    private static final List<PresenceListener> presenceListeners = new CopyOnWriteArrayList<>();
     
     /**
      * 创建配置了UTF-8编码的ObjectMapper
@@ -49,7 +71,14 @@ public class ScheduleProgressWebSocket {
             
             // 🔧 移除所有日志调用，防止大量日志文件产生
             
-            sessions.put(sessionId, session);
+            WebSocketSessionHub.register(WebSocketSessionHub.CHANNEL_PROGRESS, sessionId, session,
+                    ScheduleProgressWebSocket::heartbeatFrame, () -> onFramesDropped(sessionId));
+            if (ProgressFrameCodec.SUBPROTOCOL_DEFLATE.equals(session.getNegotiatedSubprotocol())) {
+                deflateSessions.add(sessionId);
+            } else {
+                deflateSessions.remove(sessionId);
+            }
+            notifyAttached(sessionId);
             
             // 发送连接确认消息
             sendMessage(sessionId, new ProgressMessage(
@@ -65,14 +94,55 @@ public class ScheduleProgressWebSocket {
     
     @OnClose
     public void onClose(Session session, @PathParam("sessionId") String sessionId) {
-        sessions.remove(sessionId);
+        release(session, sessionId);
         // 移除日志调用
     }
     
     @OnError
     public void onError(Session session, @PathParam("sessionId") String sessionId, Throwable throwable) {
         LOGGER.error("📡 [WebSocket] 连接错误: sessionId={}, error={}", sessionId, throwable.getMessage());
-        sessions.remove(sessionId);
+        release(session, sessionId);
+    }
+    
+    /**
+     * 🆕 v8.1: 只清理仍属于该连接的会话状态（同一 sessionId 已重连时保留新连接）
+     */
+    private static void release(Session session, String sessionId) {
+        if (WebSocketSessionHub.unregister(WebSocketSessionHub.CHANNEL_PROGRESS, sessionId, session)) {
+            deltaStreams.remove(sessionId);
+            deflateSessions.remove(sessionId);
+            deltaSessions.remove(sessionId);
+            notifyDetached(sessionId);
+        }
+    }
+    
+    /**
+     * 🆕 v8.1: 客户端消息：
+     * - {"type":"enable_delta"}：客户端能处理 intermediate_delta，之后的中间结果改为增量帧
+     * - {"type":"resync"}：客户端发现增量序号断档（或刚重连）时请求重新下发全量基线
+     */
+    @OnMessage
+    public void onMessage(String message, @PathParam("sessionId") String sessionId) {
+        try {
+            JsonNode node = objectMapper.readTree(message);
+            String type = node.path("type").asText();
+            if ("enable_delta".equals(type)) {
+                deltaSessions.add(sessionId);
+                IntermediateResultDeltaStream stream = deltaStreams.get(sessionId);
+                if (stream != null) {
+                    stream.enableDeltas();
+                    flushDelta(stream);
+                }
+            } else if ("resync".equals(type)) {
+                IntermediateResultDeltaStream stream = deltaStreams.get(sessionId);
+                if (stream != null) {
+                    stream.requestResync();
+                    flushDelta(stream);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("📡 [WebSocket] 无法解析客户端消息: sessionId={}, error={}", sessionId, e.getMessage());
+        }
     }
     
     /**
@@ -89,6 +159,7 @@ public class ScheduleProgressWebSocket {
     
     /**
      * 🔧 发送心跳消息保持连接活跃
+     * 🆕 v8.1: 会话中心会在会话空闲时自动发送心跳，一般无需手动调用
      */
     public static void sendHeartbeat(String sessionId) {
         ProgressMessage message = new ProgressMessage(
@@ -111,6 +182,72 @@ public class ScheduleProgressWebSocket {
         sendMessage(sessionId, message);
     }
     
+    /**
+     * 🆕 v8.1: 发送阶段性中间结果（增量编码，立即发送）
+     * 声明支持增量的客户端首次收到全量基线，之后只收到考官发生变化的排班；其余客户端始终收到全量结果
+     *
+     * @param meta 中间结果元信息（不含 assignments）
+     * @param assignments 当前解的排班列表
+     */
+    public static void sendIntermediateResult(String sessionId, IntermediateResult meta, List<ExamAssignment> assignments) {
+        IntermediateResultDeltaStream stream = deltaStream(sessionId, meta, assignments);
+        if (stream != null) {
+            flushDelta(stream);
+        }
+    }
+    
+    /**
+     * 🆕 v8.1: 提交求解过程中的中间结果（增量编码，按时间窗口合并发送）
+     * 适用于 bestSolutionChanged 等高频调用，窗口内多次提交只发送一帧
+     */
+    public static void offerIntermediateResult(String sessionId, IntermediateResult meta, List<ExamAssignment> assignments) {
+        IntermediateResultDeltaStream stream = deltaStream(sessionId, meta, assignments);
+        if (stream != null && stream.markFlushScheduled()) {
+            long delay = stream.delayUntilNextFlush(System.currentTimeMillis(), DELTA_COALESCE_WINDOW_MS);
+            WebSocketSessionHub.schedule(delay, () -> flushDelta(stream));
+        }
+    }
+    
+    private static IntermediateResultDeltaStream deltaStream(String sessionId, IntermediateResult meta,
+                                                             List<ExamAssignment> assignments) {
+        // 没有前端连接时不做任何编码
+        if (sessionId == null || assignments == null || !isSessionActive(sessionId)) {
+            return null;
+        }
+        IntermediateResultDeltaStream stream = deltaStreams.computeIfAbsent(sessionId, id -> {
+            IntermediateResultDeltaStream created = new IntermediateResultDeltaStream(id);
+            if (deltaSessions.contains(id)) {
+                created.enableDeltas();
+            }
+            return created;
+        });
+        stream.offer(meta, assignments);
+        return stream;
+    }
+    
+    /**
+     * 🆕 v8.1: 慢客户端的发送队列丢弃了旧帧（可能正是全量基线或某个增量帧），
+     * 合并窗口后重新下发一次全量基线，客户端不需要自己发现断档
+     */
+    private static void onFramesDropped(String sessionId) {
+        IntermediateResultDeltaStream stream = deltaStreams.get(sessionId);
+        if (stream != null && stream.resyncAfterDrop()) {
+            WebSocketSessionHub.schedule(DELTA_COALESCE_WINDOW_MS, () -> flushDelta(stream));
+        }
+    }
+    
+    /**
+     * 取出并入队在同一把锁内完成：定时发送与 resync / 立即发送并发时，帧按 seq 顺序进入发送队列
+     */
+    private static void flushDelta(IntermediateResultDeltaStream stream) {
+        synchronized (stream) {
+            ProgressMessage frame = stream.drain(System.currentTimeMillis());
+            if (frame != null) {
+                sendMessage(stream.getSessionId(), frame);
+            }
+        }
+    }
+    
     /**
      * 发送分数改进通知
      */
@@ -172,30 +309,107 @@ public class ScheduleProgressWebSocket {
         sendMessage(sessionId, message);
     }
     
+    /**
+     * 🆕 v8.1: 发送批量日志消息（由 SessionLogPipeline 的发送线程调用）
+     * data: entries = [{time, type, message}...], dropped = 本批之前因缓冲区写满丢弃的条数
+     */
+    public static void sendLogBatch(String sessionId, Object batchData) {
+        ProgressMessage message = new ProgressMessage(
+            "log_batch",
+            "实时日志",
+            batchData
+        );
+        sendMessage(sessionId, message);
+    }
+    
     /**
      * 通用消息发送方法
+     * 🆕 v8.1: 序列化后进入会话发送队列立即返回，由会话中心串行异步发送；
+     * 协商了压缩子协议的会话，超过阈值的结果类消息以 deflate 二进制帧发送
      */
     private static void sendMessage(String sessionId, ProgressMessage message) {
-        Session session = sessions.get(sessionId);
-        if (session != null && session.isOpen()) {
-            try {
-                String json = objectMapper.writeValueAsString(message);
-                session.getAsyncRemote().sendText(json);
-                // 移除所有日志调用，防止大量日志
-            } catch (Exception e) {
-                // 只在真正出错时记录
-                LOGGER.error("📡 [WebSocket] 发送消息失败: sessionId={}, error={}", sessionId, e.getMessage());
+        // 🆕 v8.1: 同一份消息同时进入 SSE 事件流（不依赖 WebSocket 是否连接）
+        ProgressEventStream.publish(sessionId, message);
+        if (!isSessionActive(sessionId)) {
+            return;
+        }
+        try {
+            if (deflateSessions.contains(sessionId) && ProgressFrameCodec.isBulkType(message.type)) {
+                byte[] json = objectMapper.writeValueAsBytes(message);
+                if (json.length >= ProgressFrameCodec.COMPRESSION_THRESHOLD) {
+                    WebSocketSessionHub.sendBinary(WebSocketSessionHub.CHANNEL_PROGRESS, sessionId,
+                            ProgressFrameCodec.deflate(json));
+                } else {
+                    WebSocketSessionHub.send(WebSocketSessionHub.CHANNEL_PROGRESS, sessionId,
+                            new String(json, StandardCharsets.UTF_8));
+                }
+                return;
             }
+            String json = objectMapper.writeValueAsString(message);
+            WebSocketSessionHub.send(WebSocketSessionHub.CHANNEL_PROGRESS, sessionId, json);
+        } catch (Exception e) {
+            // 只在真正出错时记录
+            LOGGER.error("📡 [WebSocket] 发送消息失败: sessionId={}, error={}", sessionId, e.getMessage());
+        }
+    }
+    
+    /**
+     * 会话空闲时由会话中心定时发送的心跳帧
+     */
+    private static String heartbeatFrame() {
+        try {
+            return objectMapper.writeValueAsString(new ProgressMessage("heartbeat", "保持连接", null));
+        } catch (Exception e) {
+            return "{\"type\":\"heartbeat\"}";
         }
-        // 移除 warn 日志
     }
     
     /**
      * 检查会话是否活跃
      */
     public static boolean isSessionActive(String sessionId) {
-        Session session = sessions.get(sessionId);
-        return session != null && session.isOpen();
+        return WebSocketSessionHub.isActive(WebSocketSessionHub.CHANNEL_PROGRESS, sessionId);
+    }
+    
+    /**
+     * 🆕 v8.1: 会话是否还有订阅者（WebSocket 连接或 SSE 事件流）
+     */
+    public static boolean hasSubscribers(String sessionId) {
+        return isSessionActive(sessionId) || ProgressEventStream.subscriberCount(sessionId) > 0;
+    }
+    
+    public static void addPresenceListener(PresenceListener listener) {
+        presenceListeners.add(listener);
+    }
+    
+    static void notifyAttached(String sessionId) {
+        for (PresenceListener listener : presenceListeners) {
+            try {
+                listener.attached(sessionId);
+            } catch (Exception e) {
+                LOGGER.warn("📡 [WebSocket] 在线状态监听失败: sessionId={}, error={}", sessionId, e.getMessage());
+            }
+        }
+    }
+    
+    static void notifyDetached(String sessionId) {
+        for (PresenceListener listener : presenceListeners) {
+            try {
+                listener.detached(sessionId);
+            } catch (Exception e) {
+                LOGGER.warn("📡 [WebSocket] 在线状态监听失败: sessionId={}, error={}", sessionId, e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * 🆕 v8.1: 订阅者在线状态监听（在 WebSocket / SSE 线程上回调，实现不应阻塞）
+     */
+    public interface PresenceListener {
+        void attached(String sessionId);
+        
+        /** 一个订阅者断开；是否还有其他订阅者由 hasSubscribers 判断 */
+        void detached(String sessionId);
     }
     
     /**
@@ -278,6 +492,8 @@ public class ScheduleProgressWebSocket {
         public String quality;            // 质量评估
         public long elapsedTime;
         public Object assignments;        // 🆕 实际的排班分配数据
+        public long seq;                  // 🆕 v8.1: 增量协议序号（0 表示未走增量流）
+        public boolean baseline;          // 🆕 v8.1: 是否为增量协议的全量基线帧
         
         public IntermediateResult(String score, int assignmentCount, double confidence, 
                                 String quality, long elapsedTime) {
@@ -301,6 +517,34 @@ public class ScheduleProgressWebSocket {
         }
     }
     
+    /**
+     * 🆕 v8.1: 中间结果增量帧，客户端在 seq == 已知seq + 1 时基于 baseSeq 的状态应用 changed/removed
+     */
+    public static class IntermediateDelta {
+        public long seq;
+        public long baseSeq;
+        public String score;
+        public int assignmentCount;
+        public double confidence;
+        public String quality;
+        public long elapsedTime;
+        public List<?> changed;           // 考官/日期发生变化的排班（AssignmentDTO）
+        public List<String> removed;      // 已不存在的排班ID
+        
+        public IntermediateDelta(long seq, long baseSeq, IntermediateResult meta, int assignmentCount,
+                               List<?> changed, List<String> removed) {
+            this.seq = seq;
+            this.baseSeq = baseSeq;
+            this.score = meta.score;
+            this.assignmentCount = assignmentCount;
+            this.confidence = meta.confidence;
+            this.quality = meta.quality;
+            this.elapsedTime = meta.elapsedTime;
+            this.changed = changed;
+            this.removed = removed;
+        }
+    }
+    
     public static class ScoreUpdate {
         public String oldScore;
         public String newScore;
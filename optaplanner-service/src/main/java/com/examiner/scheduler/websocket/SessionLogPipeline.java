@@ -0,0 +1,199 @@
+package com.examiner.scheduler.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 🆕 v8.1: 非阻塞、有界的 WebSocket 日志推送管道
+ *
+ * 原先 WebSocketLogger / WebSocketLogPusher 在求解线程上为每条日志格式化时间戳、构建 Map、
+ * 序列化 JSON 并调用 sendLogMessage，约束日志较多时会直接拖慢求解。现在：
+ * - 生产者（求解线程）只做一次 CAS 领取序号 + 一次数组写入，不格式化、不加锁、不阻塞
+ * - 每个会话一个固定容量的环形缓冲区，写满后覆盖最旧的日志（drop-oldest），丢弃数量由消费端精确统计
+ * - 每 FLUSH_INTERVAL_MS 毫秒把每个会话的新日志合并为一帧 log_batch 发送
+ *   （挂在 WebSocketSessionHub 的时间轮上，在其工作线程中执行；消费时对缓冲区加锁，保证单消费者）
+ */
+public final class SessionLogPipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionLogPipeline.class);
+    private static final DateTimeFormatter TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    /** 每个会话的缓冲容量（2的幂） */
+    static final int RING_CAPACITY = 1024;
+    /** 合并发送间隔 */
+    static final long FLUSH_INTERVAL_MS = 200;
+    /** 单帧最多携带的日志条数，剩余的留到下一帧 */
+    static final int MAX_BATCH = 256;
+
+    private static final Map<String, LogRing> rings = new ConcurrentHashMap<>();
+
+    static {
+        WebSocketSessionHub.scheduleRepeating(FLUSH_INTERVAL_MS, SessionLogPipeline::drainAll);
+    }
+
+    private SessionLogPipeline() {
+    }
+
+    /**
+     * 生产者入口：只记录原始数据，时间戳格式化和序列化都在发送线程完成
+     */
+    public static void publish(String sessionId, String type, String message) {
+        if (sessionId == null || message == null) {
+            return;
+        }
+        LogRing ring = rings.get(sessionId);
+        if (ring == null) {
+            // 没有前端连接时不创建缓冲区
+            if (!ScheduleProgressWebSocket.isSessionActive(sessionId)) {
+                return;
+            }
+            ring = rings.computeIfAbsent(sessionId, k -> new LogRing(RING_CAPACITY));
+        }
+        ring.offer(System.currentTimeMillis(), type, message);
+    }
+
+    /**
+     * @return 该会话累计因缓冲区写满而丢弃的日志条数
+     */
+    public static long droppedCount(String sessionId) {
+        LogRing ring = rings.get(sessionId);
+        return ring != null ? ring.totalDropped : 0;
+    }
+
+    /**
+     * 立即发送该会话剩余的日志并释放缓冲区（求解结束时调用）
+     */
+    public static void flushAndRelease(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        LogRing ring = rings.get(sessionId);
+        if (ring == null) {
+            return;
+        }
+        WebSocketSessionHub.schedule(0, () -> {
+            drain(sessionId, ring);
+            rings.remove(sessionId, ring);
+        });
+    }
+
+    private static void drainAll() {
+        try {
+            for (Map.Entry<String, LogRing> entry : rings.entrySet()) {
+                String sessionId = entry.getKey();
+                if (!ScheduleProgressWebSocket.isSessionActive(sessionId)) {
+                    rings.remove(sessionId, entry.getValue());
+                    continue;
+                }
+                drain(sessionId, entry.getValue());
+            }
+        } catch (Exception e) {
+            LOGGER.error("日志批量推送失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定时批量推送与 flushAndRelease 可能在不同工作线程上同时消费同一缓冲区，
+     * 锁住缓冲区保证单消费者，同时保证批次按顺序进入发送队列（生产者不加锁，不受影响）
+     */
+    private static void drain(String sessionId, LogRing ring) {
+        synchronized (ring) {
+            List<Map<String, Object>> entries = new ArrayList<>();
+            long dropped = ring.drainTo(entries, MAX_BATCH);
+            if (entries.isEmpty() && dropped == 0) {
+                return;
+            }
+            Map<String, Object> batch = new HashMap<>();
+            batch.put("entries", entries);
+            batch.put("dropped", dropped);
+            batch.put("totalDropped", ring.totalDropped);
+            ScheduleProgressWebSocket.sendLogBatch(sessionId, batch);
+        }
+    }
+
+    /**
+     * 多生产者 / 单消费者的覆盖式环形缓冲区
+     *
+     * 生产者通过 tail.getAndIncrement() 领取序号后写入 slot[seq & mask]，条目自带序号；
+     * 消费者按序号读取：条目序号大于期望值说明已被覆盖（计入丢弃），小于期望值说明生产者尚未写完（下轮再读）。
+     */
+    static final class LogRing {
+        private final AtomicReferenceArray<LogEntry> slots;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        private long head;                   // 仅在消费锁内访问
+        private volatile long totalDropped;  // 仅在消费锁内写
+
+        LogRing(int capacity) {
+            this.slots = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+
+        void offer(long timestamp, String type, String message) {
+            long seq = tail.getAndIncrement();
+            slots.lazySet((int) (seq & mask), new LogEntry(seq, timestamp, type, message));
+        }
+
+        long drainTo(List<Map<String, Object>> out, int max) {
+            long dropped = 0;
+            long end = tail.get();
+            if (end - head > slots.length()) {
+                // 落后超过一整圈：最旧的部分必然已被覆盖
+                long skip = end - head - slots.length();
+                dropped += skip;
+                head += skip;
+            }
+            while (head < end && out.size() < max) {
+                LogEntry entry = slots.get((int) (head & mask));
+                if (entry == null || entry.seq < head) {
+                    break;  // 生产者已领取序号但尚未写入
+                }
+                if (entry.seq > head) {
+                    dropped++;  // 已被新日志覆盖
+                    head++;
+                    continue;
+                }
+                out.add(entry.toMessage());
+                head++;
+            }
+            if (dropped > 0) {
+                totalDropped += dropped;
+            }
+            return dropped;
+        }
+    }
+
+    private static final class LogEntry {
+        final long seq;
+        final long timestamp;
+        final String type;
+        final String message;
+
+        LogEntry(long seq, long timestamp, String type, String message) {
+            this.seq = seq;
+            this.timestamp = timestamp;
+            this.type = type;
+            this.message = message;
+        }
+
+        Map<String, Object> toMessage() {
+            Map<String, Object> logData = new HashMap<>();
+            logData.put("time", TIME_FORMATTER.format(Instant.ofEpochMilli(timestamp)));
+            logData.put("type", type);
+            logData.put("message", message);
+            return logData;
+        }
+    }
+}
@@ -4,14 +4,6 @@ import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.websocket.*;
 import javax.websocket.server.ServerEndpoint;
-import java.io.IOException;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -19,6 +11,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 /**
  * 统计信息WebSocket端点
  * 实时广播系统统计信息
+ * 🆕 v8.1: 会话与定时广播统一交给 WebSocketSessionHub（异步发送 + 有界队列），不再单独占用调度线程
  */
 @ServerEndpoint(
     value = "/ws/statistics",
@@ -28,71 +21,42 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 public class StatisticsWebSocket {
     
     private static final Logger LOGGER = Logger.getLogger(StatisticsWebSocket.class.getName());
-    private static final Set<Session> sessions = Collections.synchronizedSet(new HashSet<>());
-    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-    private static final ScheduledFuture<?> broadcastTask;
+    private static final long BROADCAST_INTERVAL_MS = 5000;
+    private static final WebSocketSessionHub.TimerHandle broadcastTask;
     private static final ObjectMapper objectMapper = new ObjectMapper();
     
     static {
         // 启动定时任务，每5秒发送一次统计信息
-        broadcastTask = scheduler.scheduleAtFixedRate(() -> {
+        broadcastTask = WebSocketSessionHub.scheduleRepeating(BROADCAST_INTERVAL_MS, () -> {
             try {
                 broadcastStatistics();
             } catch (Exception e) {
                 LOGGER.severe("发送统计信息失败: " + e.getMessage());
             }
-        }, 0, 5, TimeUnit.SECONDS);
+        });
     }
 
     @PreDestroy
     void shutdown() {
         try {
-            broadcastTask.cancel(false);
+            broadcastTask.cancel();
         } catch (Exception e) {
             LOGGER.severe("取消统计定时任务失败: " + e.getMessage());
         }
-
-        synchronized (sessions) {
-            sessions.removeIf(session -> {
-                try {
-                    if (session != null && session.isOpen()) {
-                        session.close();
-                    }
-                } catch (Exception e) {
-                    LOGGER.severe("关闭WebSocket会话失败: " + e.getMessage());
-                }
-                return true;
-            });
-        }
-
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
+        WebSocketSessionHub.closeAll(WebSocketSessionHub.CHANNEL_STATISTICS);
     }
     
     @OnOpen
     public void onOpen(Session session) {
-        sessions.add(session);
-        // 移除日志调用
+        WebSocketSessionHub.register(WebSocketSessionHub.CHANNEL_STATISTICS, session.getId(), session, null);
         
         // 立即发送当前统计信息
-        try {
-            sendStatistics(session);
-        } catch (IOException e) {
-            // 移除日志调用
-        }
+        sendStatistics(session);
     }
     
     @OnClose
     public void onClose(Session session) {
-        sessions.remove(session);
-        // 移除日志调用
+        WebSocketSessionHub.unregister(WebSocketSessionHub.CHANNEL_STATISTICS, session.getId());
     }
     
     @OnError
@@ -101,47 +65,27 @@ public class StatisticsWebSocket {
         if (throwable != null) {
             LOGGER.severe("WebSocket错误: " + throwable.getMessage());
         }
-        sessions.remove(session);
+        WebSocketSessionHub.unregister(WebSocketSessionHub.CHANNEL_STATISTICS, session.getId());
     }
     
     @OnMessage
     public void onMessage(String message, Session session) {
-        // 移除日志调用
         // 可以根据消息类型处理不同的请求
-        try {
-            sendStatistics(session);
-        } catch (IOException e) {
-            // 移除日志调用
-        }
+        sendStatistics(session);
     }
     
     /**
      * 向所有连接的客户端广播统计信息
      */
     private static void broadcastStatistics() {
-        if (sessions.isEmpty()) {
+        if (WebSocketSessionHub.sessionCount(WebSocketSessionHub.CHANNEL_STATISTICS) == 0) {
             return;
         }
         
         try {
             ObjectNode statistics = generateStatistics();
             String message = objectMapper.writeValueAsString(statistics);
-            
-            synchronized (sessions) {
-                sessions.removeIf(session -> {
-                    try {
-                        if (session.isOpen()) {
-                            session.getBasicRemote().sendText(message);
-                            return false;
-                        } else {
-                            return true;
-                        }
-                    } catch (IOException e) {
-                        // 移除日志调用
-                        return true;
-                    }
-                });
-            }
+            WebSocketSessionHub.broadcast(WebSocketSessionHub.CHANNEL_STATISTICS, message);
         } catch (Exception e) {
             LOGGER.severe("生成统计信息失败: " + e.getMessage());
         }
@@ -150,11 +94,13 @@ public class StatisticsWebSocket {
     /**
      * 向指定会话发送统计信息
      */
-    private void sendStatistics(Session session) throws IOException {
-        if (session.isOpen()) {
+    private void sendStatistics(Session session) {
+        try {
             ObjectNode statistics = generateStatistics();
             String message = objectMapper.writeValueAsString(statistics);
-            session.getBasicRemote().sendText(message);
+            WebSocketSessionHub.send(WebSocketSessionHub.CHANNEL_STATISTICS, session.getId(), message);
+        } catch (Exception e) {
+            LOGGER.severe("生成统计信息失败: " + e.getMessage());
         }
     }
     
@@ -166,7 +112,7 @@ public class StatisticsWebSocket {
         
         // 基本统计信息
         stats.put("timestamp", System.currentTimeMillis());
-        stats.put("activeConnections", sessions.size());
+        stats.put("activeConnections", WebSocketSessionHub.sessionCount(WebSocketSessionHub.CHANNEL_STATISTICS));
         stats.put("serverStatus", "RUNNING");
         
         // 排班统计信息
@@ -212,6 +158,6 @@ public class StatisticsWebSocket {
      * 获取当前连接数
      */
     public static int getActiveConnections() {
-        return sessions.size();
+        return WebSocketSessionHub.sessionCount(WebSocketSessionHub.CHANNEL_STATISTICS);
     }
 }
\ No newline at end of file
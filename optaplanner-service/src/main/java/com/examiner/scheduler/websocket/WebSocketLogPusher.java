@@ -3,20 +3,16 @@ package com.examiner.scheduler.websocket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * WebSocket日志推送器
  * 用于将OptaPlanner约束检查日志实时推送到前端
  * 🔧 v5.5.5: 移除所有 System.out.println，使用 LOGGER (DEBUG级别)
+ * 🆕 v8.1: 日志写入 SessionLogPipeline 环形缓冲区后立即返回，格式化与发送在发送线程批量完成
  */
 public class WebSocketLogPusher {
     
     private static final Logger LOGGER = LoggerFactory.getLogger(WebSocketLogPusher.class);
-    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
     
     // 当前活跃的sessionId（使用静态变量，支持多线程）
     private static final ThreadLocal<String> currentSessionId = new ThreadLocal<>();
@@ -104,24 +100,8 @@ public class WebSocketLogPusher {
             return;
         }
         
-        try {
-            // 构建日志数据
-            Map<String, Object> logData = new HashMap<>();
-            logData.put("time", LocalTime.now().format(TIME_FORMATTER));
-            logData.put("type", type);
-            logData.put("message", message);
-            
-            // 🔧 只在 TRACE 级别记录详细推送信息
-            if (LOGGER.isTraceEnabled()) {
-                LOGGER.trace("推送日志: sessionId={}, type={}, message={}", sessionId, type, message);
-            }
-            
-            // 通过WebSocket推送
-            ScheduleProgressWebSocket.sendLogMessage(sessionId, logData);
-        } catch (Exception e) {
-            // 🔧 只记录ERROR级别异常
-            LOGGER.error("日志推送失败: {}", e.getMessage());
-        }
+        // 🆕 v8.1: 只入队原始日志，不在求解线程上格式化时间戳或序列化
+        SessionLogPipeline.publish(sessionId, type, message);
     }
 }
 
@@ -0,0 +1,532 @@
+package com.examiner.scheduler.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.websocket.SendHandler;
+import javax.websocket.Session;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 🆕 v8.1: WebSocket 会话中心（排班进度 + 统计看板）
+ *
+ * 原先心跳由 ExamScheduleResource 各处手动调用 sendHeartbeat，进度节流写死在 RealTimeProgressListener 里，
+ * StatisticsWebSocket 用 synchronizedSet 保存会话并在锁内逐个阻塞发送。现在统一由本类管理：
+ * - 所有定时任务（心跳、进度合并、增量帧、日志批量推送、统计广播）挂在同一个哈希时间轮上，
+ *   tick 线程只负责计时和派发，到期任务（DTO 转换、JSON 序列化、压缩）在小型工作线程池中执行，
+ *   任务数量与线程数无关；同一任务不会重叠执行，上一轮未结束时跳过本轮
+ * - 每个会话一个有界发送队列（文本帧与二进制帧共用），同一时刻只有一个异步发送在途，队列满时丢弃最旧的帧，
+ *   并通知注册时提供的丢帧回调（进度频道据此重新下发全量基线）
+ * - 提供每个会话的队列深度 / 峰值 / 已发送 / 丢弃 / 失败等背压指标
+ *
+ * 时间轮：TICK_MS 一格、WHEEL_SIZE 格一圈，超过一圈的延迟用剩余圈数表示；
+ * 其他线程提交的任务先进入无锁队列，由 tick 线程在每格开始时放入对应的格子，格子本身只被 tick 线程访问；
+ * 到期的任务交给工作线程池执行，tick 线程不会被慢任务（大结果序列化、压缩）拖住。
+ */
+public final class WebSocketSessionHub {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebSocketSessionHub.class);
+
+    public static final String CHANNEL_PROGRESS = "schedule-progress";
+    public static final String CHANNEL_STATISTICS = "statistics";
+
+    static final long TICK_MS = 50;
+    static final int WHEEL_SIZE = 512;
+    /** 会话空闲多久后发送心跳 */
+    static final long HEARTBEAT_INTERVAL_MS = 2000;
+    /** 每个会话发送队列的上限（帧数） */
+    static final int MAX_QUEUE_DEPTH = 256;
+    /** 执行到期任务的工作线程数 */
+    static final int WORKER_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+    private static final Map<String, Map<String, HubSession>> channels = new ConcurrentHashMap<>();
+    private static final AtomicInteger workerCount = new AtomicInteger();
+    private static final ExecutorService workers = Executors.newFixedThreadPool(WORKER_THREADS, r -> {
+        Thread thread = new Thread(r, "ws-session-hub-worker-" + workerCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final TimerWheel wheel = new TimerWheel(TICK_MS, WHEEL_SIZE, workers);
+    private static final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ws-session-hub");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        ticker.scheduleAtFixedRate(() -> {
+            try {
+                wheel.advance();
+            } catch (Throwable t) {
+                // 定时任务抛异常会被取消，必须吞掉
+                LOGGER.error("时间轮推进失败: {}", t.getMessage());
+            }
+        }, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private WebSocketSessionHub() {
+    }
+
+    // ==================== 会话管理 ====================
+
+    /**
+     * 注册会话
+     *
+     * @param heartbeat 空闲心跳帧的生成器，为 null 表示该频道不需要心跳
+     */
+    public static void register(String channel, String key, Session session, Supplier<String> heartbeat) {
+        register(channel, key, session, heartbeat, null);
+    }
+
+    /**
+     * 注册会话
+     *
+     * @param heartbeat 空闲心跳帧的生成器，为 null 表示该频道不需要心跳
+     * @param onDrop 发送队列满、丢弃了最旧帧之后的回调（在入队线程上执行，应只做标记和排期）
+     */
+    public static void register(String channel, String key, Session session, Supplier<String> heartbeat,
+                                Runnable onDrop) {
+        HubSession hubSession = new HubSession(channel, key, session, onDrop);
+        HubSession previous = channel(channel).put(key, hubSession);
+        if (previous != null) {
+            previous.close();
+        }
+        if (heartbeat != null) {
+            hubSession.heartbeat = scheduleRepeating(HEARTBEAT_INTERVAL_MS, () -> {
+                if (hubSession.isOpen() && hubSession.idleMillis() >= HEARTBEAT_INTERVAL_MS) {
+                    hubSession.send(heartbeat.get());
+                }
+            });
+        }
+    }
+
+    public static void unregister(String channel, String key) {
+        HubSession removed = channel(channel).remove(key);
+        if (removed != null) {
+            removed.close();
+        }
+    }
+
+    /**
+     * 只在 key 仍对应该连接时注销：同一 key 重连后，旧连接晚到的 onClose 不应注销新连接
+     */
+    public static boolean unregister(String channel, String key, Session session) {
+        Map<String, HubSession> sessions = channel(channel);
+        HubSession current = sessions.get(key);
+        if (current == null || current.session != session || !sessions.remove(key, current)) {
+            return false;
+        }
+        current.close();
+        return true;
+    }
+
+    public static boolean isActive(String channel, String key) {
+        if (key == null) {
+            return false;
+        }
+        HubSession hubSession = channel(channel).get(key);
+        return hubSession != null && hubSession.isOpen();
+    }
+
+    public static int sessionCount(String channel) {
+        return channel(channel).size();
+    }
+
+    /**
+     * 入队发送，立即返回
+     *
+     * @return 会话不存在或已关闭时返回 false
+     */
+    public static boolean send(String channel, String key, String text) {
+        HubSession hubSession = key != null ? channel(channel).get(key) : null;
+        if (hubSession == null) {
+            return false;
+        }
+        if (!hubSession.isOpen()) {
+            unregister(channel, key);
+            return false;
+        }
+        hubSession.send(text);
+        return true;
+    }
+
+    /**
+     * 🆕 v8.1: 入队发送二进制帧（与文本帧共用同一发送队列，保证顺序）
+     */
+    public static boolean sendBinary(String channel, String key, ByteBuffer data) {
+        HubSession hubSession = key != null ? channel(channel).get(key) : null;
+        if (hubSession == null) {
+            return false;
+        }
+        if (!hubSession.isOpen()) {
+            unregister(channel, key);
+            return false;
+        }
+        hubSession.send(data);
+        return true;
+    }
+
+    public static void broadcast(String channel, String text) {
+        for (HubSession hubSession : channel(channel).values()) {
+            if (hubSession.isOpen()) {
+                hubSession.send(text);
+            } else {
+                unregister(channel, hubSession.key);
+            }
+        }
+    }
+
+    public static void closeAll(String channel) {
+        Map<String, HubSession> sessions = channel(channel);
+        for (String key : new ArrayList<>(sessions.keySet())) {
+            HubSession hubSession = sessions.remove(key);
+            if (hubSession == null) {
+                continue;
+            }
+            hubSession.close();
+            try {
+                if (hubSession.session.isOpen()) {
+                    hubSession.session.close();
+                }
+            } catch (Exception e) {
+                LOGGER.warn("关闭WebSocket会话失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    // ==================== 定时任务 ====================
+
+    public static TimerHandle schedule(long delayMs, Runnable task) {
+        return wheel.schedule(delayMs, 0, task);
+    }
+
+    public static TimerHandle scheduleRepeating(long periodMs, Runnable task) {
+        return wheel.schedule(periodMs, periodMs, task);
+    }
+
+    // ==================== 指标 ====================
+
+    /**
+     * 每个频道的会话数及每个会话的发送队列背压指标
+     */
+    public static Map<String, Object> metrics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        long totalDropped = 0;
+        int totalQueued = 0;
+        for (Map.Entry<String, Map<String, HubSession>> entry : channels.entrySet()) {
+            List<Map<String, Object>> sessions = new ArrayList<>();
+            for (HubSession hubSession : entry.getValue().values()) {
+                Map<String, Object> m = hubSession.metrics();
+                totalDropped += hubSession.dropped.get();
+                totalQueued += hubSession.depth.get();
+                sessions.add(m);
+            }
+            Map<String, Object> channelMetrics = new HashMap<>();
+            channelMetrics.put("sessionCount", sessions.size());
+            channelMetrics.put("sessions", sessions);
+            result.put(entry.getKey(), channelMetrics);
+        }
+        result.put("totalQueued", totalQueued);
+        result.put("totalDropped", totalDropped);
+        result.put("pendingTimers", wheel.pendingCount());
+        return result;
+    }
+
+    private static Map<String, HubSession> channel(String channel) {
+        return channels.computeIfAbsent(channel, k -> new ConcurrentHashMap<>());
+    }
+
+    // ==================== 会话 ====================
+
+    private static final class HubSession {
+        final String channel;
+        final String key;
+        final Session session;
+        final long openedAt = System.currentTimeMillis();
+        final Runnable onDrop;
+
+        final ConcurrentLinkedQueue<Object> outbox = new ConcurrentLinkedQueue<>();
+        final AtomicInteger depth = new AtomicInteger();
+        final AtomicBoolean sending = new AtomicBoolean();
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong binarySent = new AtomicLong();
+        final AtomicLong binaryBytes = new AtomicLong();
+        volatile int maxDepth;
+        volatile long lastEnqueueAt = System.currentTimeMillis();
+        volatile TimerHandle heartbeat;
+
+        HubSession(String channel, String key, Session session, Runnable onDrop) {
+            this.channel = channel;
+            this.key = key;
+            this.session = session;
+            this.onDrop = onDrop;
+        }
+
+        boolean isOpen() {
+            return session.isOpen();
+        }
+
+        long idleMillis() {
+            return System.currentTimeMillis() - lastEnqueueAt;
+        }
+
+        /**
+         * @param frame String（文本帧）或 ByteBuffer（二进制帧）
+         */
+        void send(Object frame) {
+            // 背压：队列满时丢弃最旧的帧，保证慢客户端不会无限占用内存
+            boolean droppedAny = false;
+            while (depth.get() >= MAX_QUEUE_DEPTH) {
+                if (outbox.poll() == null) {
+                    break;
+                }
+                depth.decrementAndGet();
+                dropped.incrementAndGet();
+                droppedAny = true;
+            }
+            outbox.add(frame);
+            int current = depth.incrementAndGet();
+            if (current > maxDepth) {
+                maxDepth = current;
+            }
+            lastEnqueueAt = System.currentTimeMillis();
+            pump();
+            if (droppedAny && onDrop != null) {
+                // 被丢弃的可能是全量基线或增量帧，由频道决定如何补发
+                try {
+                    onDrop.run();
+                } catch (Exception e) {
+                    LOGGER.warn("丢帧回调执行失败: {}", e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * 同一会话同一时刻只有一个异步发送在途，完成回调里继续发送下一帧
+         */
+        void pump() {
+            while (sending.compareAndSet(false, true)) {
+                Object next = outbox.poll();
+                if (next == null) {
+                    sending.set(false);
+                    if (outbox.isEmpty()) {
+                        return;
+                    }
+                    continue;  // 释放标志的同时有新帧入队
+                }
+                depth.decrementAndGet();
+                try {
+                    SendHandler handler = result -> {
+                        if (result.isOK()) {
+                            sent.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                        sending.set(false);
+                        pump();
+                    };
+                    if (next instanceof ByteBuffer) {
+                        ByteBuffer data = (ByteBuffer) next;
+                        binarySent.incrementAndGet();
+                        binaryBytes.addAndGet(data.remaining());
+                        session.getAsyncRemote().sendBinary(data, handler);
+                    } else {
+                        session.getAsyncRemote().sendText((String) next, handler);
+                    }
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    sending.set(false);
+                    if (!session.isOpen()) {
+                        return;
+                    }
+                    continue;
+                }
+                return;
+            }
+        }
+
+        void close() {
+            TimerHandle handle = heartbeat;
+            if (handle != null) {
+                handle.cancel();
+            }
+            outbox.clear();
+            depth.set(0);
+        }
+
+        Map<String, Object> metrics() {
+            Map<String, Object> m = new HashMap<>();
+            m.put("key", key);
+            m.put("open", isOpen());
+            m.put("queueDepth", depth.get());
+            m.put("maxQueueDepth", maxDepth);
+            m.put("sent", sent.get());
+            m.put("dropped", dropped.get());
+            m.put("failed", failed.get());
+            m.put("binaryFrames", binarySent.get());
+            m.put("binaryBytes", binaryBytes.get());
+            m.put("inFlight", sending.get());
+            m.put("idleMillis", idleMillis());
+            m.put("connectedMillis", System.currentTimeMillis() - openedAt);
+            return m;
+        }
+    }
+
+    // ==================== 哈希时间轮 ====================
+
+    /**
+     * 定时任务句柄
+     */
+    public static final class TimerHandle {
+        final Runnable task;
+        final long periodMs;
+        /** 任务正在工作线程上执行（周期任务上一轮未结束时跳过本轮） */
+        final AtomicBoolean running = new AtomicBoolean();
+        long deadlineMs;          // 相对时间轮启动的毫秒数
+        long remainingRounds;     // 仅 tick 线程访问
+        volatile boolean cancelled;
+
+        TimerHandle(Runnable task, long deadlineMs, long periodMs) {
+            this.task = task;
+            this.deadlineMs = deadlineMs;
+            this.periodMs = periodMs;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    static final class TimerWheel {
+        private final long tickMs;
+        private final int mask;
+        private final ArrayDeque<TimerHandle>[] buckets;
+        private final ConcurrentLinkedQueue<TimerHandle> incoming = new ConcurrentLinkedQueue<>();
+        private final Executor executor;
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger pending = new AtomicInteger();
+        private long tick;  // 下一个要处理的格子，仅 tick 线程访问
+
+        @SuppressWarnings("unchecked")
+        TimerWheel(long tickMs, int wheelSize, Executor executor) {
+            this.tickMs = tickMs;
+            this.executor = executor;
+            this.mask = wheelSize - 1;
+            this.buckets = new ArrayDeque[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayDeque<>();
+            }
+        }
+
+        TimerHandle schedule(long delayMs, long periodMs, Runnable task) {
+            TimerHandle handle = new TimerHandle(task, elapsedMillis() + Math.max(0, delayMs), periodMs);
+            pending.incrementAndGet();
+            incoming.add(handle);
+            return handle;
+        }
+
+        int pendingCount() {
+            return pending.get();
+        }
+
+        void advance() {
+            long targetTick = elapsedMillis() / tickMs;
+            while (tick <= targetTick) {
+                transferIncoming();
+                expire(buckets[(int) (tick & mask)]);
+                tick++;
+            }
+        }
+
+        private void transferIncoming() {
+            TimerHandle handle;
+            while ((handle = incoming.poll()) != null) {
+                if (handle.cancelled) {
+                    pending.decrementAndGet();
+                    continue;
+                }
+                long dueTick = Math.max(handle.deadlineMs / tickMs, tick);
+                handle.remainingRounds = (dueTick - tick) / buckets.length;
+                buckets[(int) (dueTick & mask)].add(handle);
+            }
+        }
+
+        private void expire(ArrayDeque<TimerHandle> bucket) {
+            Iterator<TimerHandle> iterator = bucket.iterator();
+            while (iterator.hasNext()) {
+                TimerHandle handle = iterator.next();
+                if (handle.cancelled) {
+                    iterator.remove();
+                    pending.decrementAndGet();
+                    continue;
+                }
+                if (handle.remainingRounds > 0) {
+                    handle.remainingRounds--;
+                    continue;
+                }
+                iterator.remove();
+                dispatch(handle);
+                if (handle.periodMs > 0 && !handle.cancelled) {
+                    handle.deadlineMs += handle.periodMs;
+                    incoming.add(handle);
+                } else {
+                    pending.decrementAndGet();
+                }
+            }
+        }
+
+        /**
+         * tick 线程只派发，不执行任务本身；同一句柄上一轮仍在执行时跳过本轮
+         */
+        private void dispatch(TimerHandle handle) {
+            if (!handle.running.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        if (!handle.cancelled) {
+                            handle.task.run();
+                        }
+                    } catch (Throwable t) {
+                        LOGGER.error("时间轮任务执行失败: {}", t.getMessage());
+                    } finally {
+                        handle.running.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                handle.running.set(false);
+                LOGGER.error("时间轮任务派发失败: {}", e.getMessage());
+            }
+        }
+
+        private long elapsedMillis() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+    }
+}
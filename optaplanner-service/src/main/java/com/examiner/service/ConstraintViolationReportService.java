@@ -20,10 +20,27 @@ public class ConstraintViolationReportService {
 
     private static final Logger logger = LoggerFactory.getLogger(ConstraintViolationReportService.class);
     
+    // 缓存容量上限（按最近访问淘汰，避免长时间运行后无限增长）
+    private static final int MAX_CACHED_REPORTS = 50;
+    private static final int MAX_CACHED_VIOLATIONS = 5000;
+    private static final int MAX_CACHED_SUGGESTIONS = 1000;
+
     // 模拟数据存储
-    private final Map<String, ConstraintViolationReportDto> reportCache = new HashMap<>();
-    private final Map<String, ViolationDetailDto> violationCache = new HashMap<>();
-    private final Map<String, List<RepairSuggestionDto>> suggestionCache = new HashMap<>();
+    private final Map<String, ConstraintViolationReportDto> reportCache = boundedCache(MAX_CACHED_REPORTS);
+    private final Map<String, ViolationDetailDto> violationCache = boundedCache(MAX_CACHED_VIOLATIONS);
+    private final Map<String, List<RepairSuggestionDto>> suggestionCache = boundedCache(MAX_CACHED_SUGGESTIONS);
+
+    /**
+     * 线程安全的 LRU 缓存：超过容量时淘汰最久未访问的条目
+     */
+    private static <V> Map<String, V> boundedCache(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
 
     /**
      * 生成约束违规报告
@@ -94,8 +111,9 @@ public class ConstraintViolationReportService {
         logger.info("获取修复建议，violationId: {}", violationId);
         
         // 如果缓存中有建议，直接返回
-        if (suggestionCache.containsKey(violationId)) {
-            return suggestionCache.get(violationId);
+        List<RepairSuggestionDto> cached = suggestionCache.get(violationId);
+        if (cached != null) {
+            return cached;
         }
         
         // 生成修复建议
@@ -273,12 +291,14 @@ public class ConstraintViolationReportService {
             return Collections.emptyList();
         }
         
-        // 查找相同约束类型的违规
-        return violationCache.values().stream()
-                .filter(v -> !v.getId().equals(violationId))
-                .filter(v -> v.getConstraintName().equals(targetViolation.getConstraintName()))
-                .limit(5)
-                .collect(Collectors.toList());
+        // 查找相同约束类型的违规（同步映射的遍历需要持有映射锁）
+        synchronized (violationCache) {
+            return violationCache.values().stream()
+                    .filter(v -> !v.getId().equals(violationId))
+                    .filter(v -> v.getConstraintName().equals(targetViolation.getConstraintName()))
+                    .limit(5)
+                    .collect(Collectors.toList());
+        }
     }
 
     /**
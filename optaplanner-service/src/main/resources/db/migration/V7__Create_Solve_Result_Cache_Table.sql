@@ -0,0 +1,22 @@
+-- ===========================================
+-- 求解结果缓存表 - v8.1
+-- 相同输入（学员/考官/日期/节假日/约束配置/求解模式）的排班请求直接返回已求解结果
+-- ===========================================
+
+CREATE TABLE IF NOT EXISTS solve_result_cache (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    fingerprint VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_hit_at TIMESTAMP,
+    hit_count INT DEFAULT 0,
+    status_code INT NOT NULL,
+    response_json CLOB,
+    total_students INT,
+    total_teachers INT,
+    start_date VARCHAR(20),
+    end_date VARCHAR(20),
+    PRIMARY KEY (id)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_solve_cache_fingerprint ON solve_result_cache(fingerprint);
+CREATE INDEX IF NOT EXISTS idx_solve_cache_created_at ON solve_result_cache(created_at);
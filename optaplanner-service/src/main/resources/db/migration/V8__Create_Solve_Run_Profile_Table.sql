@@ -0,0 +1,24 @@
+-- ===========================================
+-- 求解运行记录表 - v8.1
+-- 每一级求解的问题规模与分数改进序列，用于预测终止时间（TerminationPredictorService）
+-- ===========================================
+
+CREATE TABLE IF NOT EXISTS solve_run_profile (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    level VARCHAR(32) NOT NULL,
+    total_students INT NOT NULL,
+    total_teachers INT NOT NULL,
+    total_dates INT NOT NULL,
+    spent_millis BIGINT NOT NULL,
+    last_improvement_millis BIGINT NOT NULL,
+    max_gap_millis BIGINT NOT NULL,
+    improvement_count INT NOT NULL,
+    truncated BOOLEAN DEFAULT FALSE,
+    initial_score VARCHAR(64),
+    final_score VARCHAR(64),
+    series_json CLOB,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_solve_run_profile_level ON solve_run_profile(level, created_at);
@@ -0,0 +1,7 @@
+-- ===========================================
+-- 求解结果缓存按最近命中时间淘汰 - v8.1
+-- ===========================================
+
+UPDATE solve_result_cache SET last_hit_at = created_at WHERE last_hit_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_solve_cache_last_hit_at ON solve_result_cache(last_hit_at);
@@ -0,0 +1,134 @@
+package com.examiner.scheduler.rest;
+
+import com.examiner.scheduler.service.AsyncSolverService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 真实求解占满求解作业线程池时：轻量接口仍能及时响应，超出排队上限的求解返回 503 + Retry-After
+ * 使用生产配置的并发与排队上限
+ */
+@QuarkusTest
+class SolveEndpointLoadTest {
+
+    private static final String[] DEPARTMENTS = {"区域一室", "区域二室", "区域三室", "区域四室"};
+    private static final int STUDENTS_PER_SOLVE = 8;
+    private static final int TEACHERS_PER_DEPARTMENT = 6;
+
+    @Inject
+    AsyncSolverService asyncSolverService;
+
+    @ConfigProperty(name = "examiner.solve.request-concurrency")
+    int requestConcurrency;
+
+    @ConfigProperty(name = "examiner.solve.request-queue-capacity")
+    int requestQueueCapacity;
+
+    @Test
+    void concurrentSolvesKeepLightEndpointsResponsive() throws Exception {
+        int accepted = requestConcurrency + requestQueueCapacity;
+        ExecutorService clients = Executors.newFixedThreadPool(accepted);
+        try {
+            // 每个请求的学员不同，避免被在途求解去重合并
+            List<Future<Response>> solves = new ArrayList<>();
+            for (int i = 0; i < accepted; i++) {
+                Map<String, Object> body = solveRequest("R" + i);
+                solves.add(clients.submit(() -> given()
+                        .contentType(ContentType.JSON)
+                        .body(body)
+                        .when().post("/api/schedule/solve")));
+            }
+            awaitSaturated(accepted);
+
+            given()
+                    .when().get("/api/schedule/health")
+                    .then()
+                    .statusCode(200)
+                    .time(lessThan(2000L));
+
+            // 线程池与队列都已满：直接拒绝，不在HTTP线程上排队等待
+            given()
+                    .contentType(ContentType.JSON)
+                    .body(solveRequest("REJECTED"))
+                    .when().post("/api/schedule/solve")
+                    .then()
+                    .statusCode(503)
+                    .header("Retry-After", notNullValue())
+                    .time(lessThan(2000L));
+
+            for (Future<Response> solve : solves) {
+                Response response = solve.get(5, TimeUnit.MINUTES);
+                assertEquals(200, response.statusCode(), response.asString());
+                assertEquals(Boolean.TRUE, response.jsonPath().get("success"));
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    /**
+     * 等到所有求解都在运行或排队，此后发出的请求才是在满载下测得的
+     */
+    private void awaitSaturated(int accepted) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        AsyncSolverService.SolverStatistics statistics = asyncSolverService.getStatistics();
+        while (statistics.activeRequestJobs() + statistics.queuedRequestJobs() < accepted) {
+            assertTrue(System.currentTimeMillis() < deadline, "求解未能占满求解作业线程池: " + statistics);
+            Thread.sleep(20);
+            statistics = asyncSolverService.getStatistics();
+        }
+        assertEquals(requestConcurrency, statistics.activeRequestJobs());
+    }
+
+    /**
+     * 8 名学员、24 名考官、两周日期范围的小规模真实问题，使用快速模式
+     */
+    private static Map<String, Object> solveRequest(String prefix) {
+        List<Map<String, Object>> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS_PER_SOLVE; i++) {
+            students.add(person(prefix + "-S" + i, "学员" + i, DEPARTMENTS[i % DEPARTMENTS.length], "一组"));
+        }
+        List<Map<String, Object>> teachers = new ArrayList<>();
+        for (String department : DEPARTMENTS) {
+            for (int i = 0; i < TEACHERS_PER_DEPARTMENT; i++) {
+                String id = department + "-T" + i;
+                teachers.add(person(id, id, department, i % 2 == 0 ? "二组" : "三组"));
+            }
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("students", students);
+        body.put("teachers", teachers);
+        body.put("startDate", "2025-03-03");
+        body.put("endDate", "2025-03-14");
+        body.put("solverConfig", Map.of("mode", "fast"));
+        return body;
+    }
+
+    private static Map<String, Object> person(String id, String name, String department, String group) {
+        Map<String, Object> person = new LinkedHashMap<>();
+        person.put("id", id);
+        person.put("name", name);
+        person.put("department", department);
+        person.put("group", group);
+        return person;
+    }
+}
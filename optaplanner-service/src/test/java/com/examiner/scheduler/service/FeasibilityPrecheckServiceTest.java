@@ -0,0 +1,163 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.ResourceShortageRecord;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 可行性预检：已知可行与已知无解的实例、不可行证书（Hall 违反集合）以及 HC9/HC10 对容量的收紧
+ * 考官班组均为"无"，不受白班（HC3）影响，结果只取决于科室、不可用时段和固定排班
+ */
+class FeasibilityPrecheckServiceTest {
+
+    private static final String DAY1 = "2025-03-03";
+    private static final String DAY2 = "2025-03-04";
+
+    private FeasibilityPrecheckService service;
+    private ResourceShortageNotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        notificationService = new ResourceShortageNotificationService();
+        service = new FeasibilityPrecheckService();
+        service.notificationService = notificationService;
+    }
+
+    @Test
+    void feasibleInstancePasses() {
+        // 两天各两名一室学员 + 一名三室学员（三室借用七室考官1）：每天考官1需要一室×2、三/七室×1，考官2需要非本科室×3
+        List<Teacher> teachers = teachers();
+        List<ExamAssignment> assignments = new ArrayList<>();
+        for (String date : List.of(DAY1, DAY2)) {
+            assignments.add(assignment(date, student("S1-" + date, "区域一室")));
+            assignments.add(assignment(date, student("S2-" + date, "区域一室")));
+            assignments.add(assignment(date, student("S3-" + date, "区域三室")));
+        }
+
+        FeasibilityPrecheckService.FeasibilityReport report = service.checkAndNotify(schedule(teachers, assignments));
+
+        assertTrue(report.feasible());
+        assertEquals(2, report.checkedDates());
+        assertEquals(6, report.checkedAssignments());
+        assertTrue(report.shortages().isEmpty());
+        assertTrue(report.toWarnings().isEmpty());
+        assertTrue(notificationService.getAllShortageRecords().isEmpty());
+    }
+
+    @Test
+    void infeasibleInstanceYieldsCertificate() {
+        // DAY2 有三名一室学员，但一室考官只有两名：考官1槽位缺一个
+        List<Teacher> teachers = teachers();
+        List<ExamAssignment> assignments = new ArrayList<>();
+        assignments.add(assignment(DAY1, student("S1", "区域一室")));
+        for (int i = 0; i < 3; i++) {
+            assignments.add(assignment(DAY2, student("S" + (i + 2), "区域一室")));
+        }
+
+        FeasibilityPrecheckService.FeasibilityReport report = service.checkAndNotify(schedule(teachers, assignments));
+
+        assertFalse(report.feasible());
+        assertEquals(1, report.shortages().size());
+        FeasibilityPrecheckService.DateShortage shortage = report.shortages().get(0);
+        assertEquals(DAY2, shortage.date());
+        assertEquals(6, shortage.slotDemand());
+        assertEquals(5, shortage.maxMatched());
+        assertEquals(1, shortage.deficit());
+        // Hall 违反集合：三个一室考官1槽位只连到两名一室考官
+        assertEquals(3, shortage.violatorSlots());
+        assertEquals(2, shortage.violatorNeighbours());
+        assertEquals(List.of("考官1|一"), new ArrayList<>(shortage.departmentShortages().keySet()));
+        assertArrayEquals(new int[]{3, 2}, shortage.departmentShortages().get("考官1|一"));
+        assertEquals(List.of("学员S2", "学员S3", "学员S4"), shortage.affectedStudents());
+        assertEquals(1, report.toWarnings().size());
+
+        List<ResourceShortageRecord> records = notificationService.getAllShortageRecords();
+        assertEquals(1, records.size());
+        assertEquals("PRECHECK_" + DAY2, records.get(0).getStudentId());
+        assertEquals(DAY2, records.get(0).getExamDate());
+    }
+
+    @Test
+    void unavailableTeacherRemovesCapacity() {
+        List<Teacher> teachers = teachers();
+        List<ExamAssignment> assignments = List.of(
+                assignment(DAY1, student("S1", "区域一室")),
+                assignment(DAY1, student("S2", "区域一室")));
+        assertTrue(service.check(schedule(teachers, assignments)).feasible());
+
+        // HC9：一室考官之一在 DAY1 请假
+        teachers.get(0).setUnavailablePeriods(List.of(new Teacher.UnavailablePeriod("U1", DAY1, DAY1, "培训")));
+        FeasibilityPrecheckService.FeasibilityReport report = service.check(schedule(teachers, assignments));
+
+        assertFalse(report.feasible());
+        assertEquals(1, report.shortages().get(0).deficit());
+        assertTrue(notificationService.getAllShortageRecords().isEmpty(), "check 不写入通知");
+    }
+
+    @Test
+    void pinnedAssignmentsKeepTheirExaminers() {
+        // HC10：两个固定排班的考官1都是 T1，另一名一室考官 T2 不能替换
+        List<Teacher> teachers = teachers();
+        ExamAssignment first = assignment(DAY1, student("S1", "区域一室"));
+        ExamAssignment second = assignment(DAY1, student("S2", "区域一室"));
+        pin(first, teachers.get(0), teachers.get(2));
+        pin(second, teachers.get(0), teachers.get(3));
+
+        FeasibilityPrecheckService.FeasibilityReport report = service.check(schedule(teachers, List.of(first, second)));
+
+        assertFalse(report.feasible());
+        FeasibilityPrecheckService.DateShortage shortage = report.shortages().get(0);
+        assertEquals(4, shortage.slotDemand());
+        assertEquals(3, shortage.maxMatched());
+        assertEquals(1, shortage.deficit());
+    }
+
+    /**
+     * T1、T2 一室，T3、T4、T5 二室，T6 七室
+     */
+    private static List<Teacher> teachers() {
+        List<Teacher> teachers = new ArrayList<>();
+        teachers.add(new Teacher("T1", "考官1号", "区域一室", "无"));
+        teachers.add(new Teacher("T2", "考官2号", "区域一室", "无"));
+        teachers.add(new Teacher("T3", "考官3号", "区域二室", "无"));
+        teachers.add(new Teacher("T4", "考官4号", "区域二室", "无"));
+        teachers.add(new Teacher("T5", "考官5号", "区域二室", "无"));
+        teachers.add(new Teacher("T6", "考官6号", "区域七室", "无"));
+        return teachers;
+    }
+
+    private static Student student(String id, String department) {
+        return new Student(id, "学员" + id, department, "一组");
+    }
+
+    private static ExamAssignment assignment(String date, Student student) {
+        ExamAssignment assignment = new ExamAssignment(student.getId() + "_" + date, student, "day1", List.of());
+        assignment.setExamDate(date);
+        return assignment;
+    }
+
+    private static void pin(ExamAssignment assignment, Teacher examiner1, Teacher examiner2) {
+        assignment.setExaminer1(examiner1);
+        assignment.setExaminer2(examiner2);
+        assignment.setPinned(true);
+    }
+
+    private static ExamSchedule schedule(List<Teacher> teachers, List<ExamAssignment> assignments) {
+        ExamSchedule schedule = new ExamSchedule();
+        schedule.setTeachers(teachers);
+        schedule.setExamAssignments(new ArrayList<>(assignments));
+        return schedule;
+    }
+}
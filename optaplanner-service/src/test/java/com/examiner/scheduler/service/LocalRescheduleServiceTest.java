@@ -0,0 +1,79 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 邻域局部重排的邻域抽取
+ */
+class LocalRescheduleServiceTest {
+
+    private final Teacher a = new Teacher("TA", "考官A", "区域一室", "无");
+    private final Teacher b = new Teacher("TB", "考官B", "区域二室", "无");
+    private final Teacher c = new Teacher("TC", "考官C", "区域一室", "无");
+    private final Teacher d = new Teacher("TD", "考官D", "区域三室", "无");
+    private final Teacher e = new Teacher("TE", "考官E", "区域四室", "无");
+    private final Teacher f = new Teacher("TF", "考官F", "区域五室", "无");
+
+    @Test
+    void neighbourhoodFollowsInvolvedTeachers() {
+        Student s1 = new Student("S1", "学员一", "区域一室", "无");
+        ExamAssignment movable = assignment("S1_day1", s1, "day1", "2025-03-03", a, b, false);
+        ExamAssignment partner = assignment("S1_day2", s1, "day2", "2025-03-04", c, d, true);
+        // 考官A在学员另一场的次日还有一场：连续工作需要看到它
+        ExamAssignment sameTeacherNextDay = assignment("S2_day1", student("S2"), "day1", "2025-03-05", a, e, true);
+        // 同一天、但考官与邻域无关：不再进入子问题
+        ExamAssignment unrelatedSameDay = assignment("S3_day1", student("S3"), "day1", "2025-03-03", e, f, true);
+        // 相关考官，但日期远离邻域
+        ExamAssignment sameTeacherFarAway = assignment("S4_day1", student("S4"), "day1", "2025-03-20", a, f, true);
+        List<ExamAssignment> all = List.of(movable, partner, sameTeacherNextDay, unrelatedSameDay, sameTeacherFarAway);
+
+        List<ExamAssignment> neighbourhood = LocalRescheduleService.extractNeighbourhood(all, List.of(movable));
+
+        assertTrue(neighbourhood.contains(movable));
+        assertTrue(neighbourhood.contains(partner));
+        assertTrue(neighbourhood.contains(sameTeacherNextDay));
+        assertFalse(neighbourhood.contains(unrelatedSameDay));
+        assertFalse(neighbourhood.contains(sameTeacherFarAway));
+        assertEquals(3, neighbourhood.size());
+    }
+
+    @Test
+    void neighbourhoodStaysSmallOnBusyDates() {
+        // 同一天有大量与可变排班无关的固定排班时，邻域不随之增长（原来会整天纳入，超过上限后回退完整求解）
+        ExamAssignment movable = assignment("M_day1", student("M"), "day1", "2025-03-03", a, b, false);
+        List<ExamAssignment> all = new ArrayList<>(List.of(movable));
+        for (int i = 0; i < LocalRescheduleService.MAX_NEIGHBOURHOOD_SIZE * 2; i++) {
+            Teacher examiner1 = new Teacher("X" + i, "考官X" + i, "区域一室", "无");
+            Teacher examiner2 = new Teacher("Y" + i, "考官Y" + i, "区域二室", "无");
+            all.add(assignment("P" + i + "_day1", student("P" + i), "day1", "2025-03-03", examiner1, examiner2, true));
+        }
+
+        List<ExamAssignment> neighbourhood = LocalRescheduleService.extractNeighbourhood(all, List.of(movable));
+
+        assertEquals(List.of(movable), neighbourhood);
+    }
+
+    private static Student student(String id) {
+        return new Student(id, id, "区域一室", "无");
+    }
+
+    private static ExamAssignment assignment(String id, Student student, String examType, String date,
+                                             Teacher examiner1, Teacher examiner2, boolean pinned) {
+        ExamAssignment assignment = new ExamAssignment(id, student, examType, List.of());
+        assignment.setExamDate(date);
+        assignment.setExaminer1(examiner1);
+        assignment.setExaminer2(examiner2);
+        assignment.setPinned(pinned);
+        return assignment;
+    }
+}
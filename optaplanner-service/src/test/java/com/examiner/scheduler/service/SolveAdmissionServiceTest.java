@@ -0,0 +1,147 @@
+package com.examiner.scheduler.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 基于内存的求解准入：放行、降级、排队、拒绝（Retry-After）与独占运行的校准
+ * 问题规模按当前 JVM 的最大堆换算，保证"放得下/放不下"与机器配置无关
+ */
+class SolveAdmissionServiceTest {
+
+    private static final long MAX_HEAP = Runtime.getRuntime().maxMemory();
+
+    private SolveAdmissionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SolveAdmissionService();
+        service.enabled = true;
+        service.heapBudgetRatio = 1.0;
+        service.collectionThresholdRatio = 0.75;
+        service.maxQueueSeconds = 1;
+        service.retryAfterSeconds = 7;
+    }
+
+    @Test
+    void smallSolveIsAdmittedAtRequestedLevel() {
+        SolveAdmissionService.Decision decision = admitSmall("small");
+
+        assertTrue(decision.admitted());
+        assertEquals(SolveAdmissionService.Level.PRECISE, decision.level());
+        assertFalse(decision.downgraded());
+        assertEquals(1.0, decision.budgetRatio());
+        assertEquals(1, service.status().get("activeSolves"));
+        service.release("small");
+        assertEquals(0, service.status().get("activeSolves"));
+    }
+
+    @Test
+    void oversizedSolveIsDowngradedWhenNothingElseRuns() {
+        // 精细模式估算为最大堆的两倍：标准、闪电都放不下，没有可等待的求解时以低配置模式运行
+        long units = (2 * MAX_HEAP - SolveAdmissionService.BASE_BYTES) / (long) SolveAdmissionService.DEFAULT_BYTES_PER_UNIT;
+        int students = (int) Math.max(1, units / 100);
+
+        SolveAdmissionService.Decision decision = service.admit("large", students, 10, 10, SolveAdmissionService.Level.PRECISE);
+
+        assertTrue(decision.admitted());
+        assertTrue(decision.downgraded());
+        assertEquals(SolveAdmissionService.Level.LOW_END, decision.level());
+        assertEquals(0.3, decision.budgetRatio(), 1e-9);
+        assertNotNull(decision.warning());
+        assertEquals(1L, service.status().get("downgraded"));
+        service.release("large");
+    }
+
+    @Test
+    void queuedSolveIsRejectedWithRetryAfter() {
+        admitSmall("running");
+        long start = System.currentTimeMillis();
+
+        SolveAdmissionService.Decision decision = admitHuge("waiting");
+
+        assertFalse(decision.admitted());
+        assertNull(decision.level());
+        assertEquals(7, decision.retryAfterSeconds());
+        assertTrue(System.currentTimeMillis() - start >= 900, "应排队到 max-queue-seconds 后才拒绝");
+        assertEquals(1L, service.status().get("queued"));
+        assertEquals(1L, service.status().get("rejected"));
+        assertEquals(1, service.status().get("activeSolves"));
+        service.release("running");
+    }
+
+    @Test
+    void queuedSolveStartsWhenRunningSolveReleases() throws Exception {
+        service.maxQueueSeconds = 30;
+        admitSmall("running");
+
+        CompletableFuture<SolveAdmissionService.Decision> waiting = CompletableFuture.supplyAsync(() -> admitHuge("waiting"));
+        Thread.sleep(300);
+        assertFalse(waiting.isDone(), "内存不足且有其他求解在运行时应排队");
+
+        service.release("running");
+        SolveAdmissionService.Decision decision = waiting.get(5, TimeUnit.SECONDS);
+
+        assertTrue(decision.admitted());
+        assertEquals(SolveAdmissionService.Level.LOW_END, decision.level());
+        assertEquals(1L, service.status().get("queued"));
+        assertEquals(0L, service.status().get("rejected"));
+        service.release("waiting");
+    }
+
+    @Test
+    void onlyExclusiveSolvesCalibrate() {
+        // 两个求解同时运行：峰值无法归因于任何一个，不校准
+        admitSmall("a");
+        admitSmall("b");
+        service.release("a");
+        service.release("b");
+        assertEquals(0, service.status().get("calibrationSamples"));
+        assertEquals(Math.round(SolveAdmissionService.DEFAULT_BYTES_PER_UNIT), service.status().get("bytesPerUnit"));
+
+        admitSmall("exclusive");
+        byte[][] workload = new byte[8][];
+        for (int i = 0; i < workload.length; i++) {
+            workload[i] = new byte[4 * 1024 * 1024];
+        }
+        service.release("exclusive");
+
+        assertEquals(8, workload.length);
+        assertEquals(1, service.status().get("calibrationSamples"));
+        long bytesPerUnit = (Long) service.status().get("bytesPerUnit");
+        assertTrue(bytesPerUnit >= SolveAdmissionService.MIN_BYTES_PER_UNIT
+                && bytesPerUnit <= SolveAdmissionService.MAX_BYTES_PER_UNIT, "校准值: " + bytesPerUnit);
+    }
+
+    @Test
+    void disabledServiceAdmitsEverything() {
+        service.enabled = false;
+
+        SolveAdmissionService.Decision decision = admitHuge("huge");
+
+        assertTrue(decision.admitted());
+        assertEquals(SolveAdmissionService.Level.PRECISE, decision.level());
+        assertFalse(decision.downgraded());
+        assertEquals(0, service.status().get("activeSolves"));
+    }
+
+    private SolveAdmissionService.Decision admitSmall(String jobId) {
+        return service.admit(jobId, 10, 10, 10, SolveAdmissionService.Level.PRECISE);
+    }
+
+    /**
+     * 低配置模式的估算也远超最大堆
+     */
+    private SolveAdmissionService.Decision admitHuge(String jobId) {
+        return service.admit(jobId, 1_000_000, 1_000, 100, SolveAdmissionService.Level.PRECISE);
+    }
+}
@@ -0,0 +1,264 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.rest.ScheduleRequest;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 求解检查点：原子写入与读回、正常结束删除、清理、非法会话ID、按剩余预算恢复
+ */
+class SolveCheckpointServiceTest {
+
+    private static final String JOB = "job-1";
+    private static final long LEVEL_BUDGET_SECONDS = 120;
+
+    @TempDir
+    Path directory;
+
+    private SolveCheckpointService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SolveCheckpointService();
+        service.enabled = true;
+        service.directory = directory.toString();
+        service.intervalSeconds = 0;
+        service.retentionHours = 24;
+        service.maxFiles = 2;
+        // 与 Quarkus 的默认配置一致：忽略未知字段
+        service.objectMapper = new ObjectMapper().findAndRegisterModules()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void interruptedSolveKeepsCheckpointForResume() throws Exception {
+        ScheduleRequest request = request();
+        service.open(JOB, request);
+        assertTrue(service.startLevel(JOB, "precise", levelConfig()));
+        service.onBestSolution(JOB, solution(request, HardSoftScore.of(-2, -100), 0));
+        service.close(JOB, false);
+        await(() -> service.exists(JOB), "异常结束后应保留检查点");
+
+        assertAssignments(request, 0);
+        // 先写临时文件再重命名：目录中不留下临时文件
+        assertEquals(List.of(JOB + ".checkpoint.json.gz", JOB + ".request.json.gz"), fileNames());
+
+        // 刚开始就中断：剩余时间接近本级预算
+        Long remaining = service.remainingSeconds(JOB);
+        assertNotNull(remaining);
+        assertTrue(remaining > LEVEL_BUDGET_SECONDS - 10 && remaining <= LEVEL_BUDGET_SECONDS, "剩余预算: " + remaining);
+
+        ScheduleRequest resume = service.prepareResume(JOB);
+        assertNotNull(resume);
+        assertEquals(JOB, resume.getWarmStart().getCheckpointId());
+        assertEquals("adaptive", resume.getSolverConfig().getMode());
+        assertEquals(request.getStudents().size(), resume.getStudents().size());
+        assertEquals(request.getTeachers().size(), resume.getTeachers().size());
+    }
+
+    @Test
+    void onlyBetterSolutionsOverwriteAndCompletionDeletes() throws Exception {
+        ScheduleRequest request = request();
+        service.open(JOB, request);
+        assertTrue(service.startLevel(JOB, "standard", levelConfig()));
+        service.onBestSolution(JOB, solution(request, HardSoftScore.of(-2, -100), 0));
+        await(() -> service.exists(JOB), "首个已初始化的最优解应写入检查点");
+
+        // 分级求解的下一级从原始问题开始：更差的解不覆盖检查点
+        service.onBestSolution(JOB, solution(request, HardSoftScore.of(-3, 0), 1));
+        service.onBestSolution(JOB, solution(request, HardSoftScore.of(-1, -100), 2));
+        await(() -> matches(request, 2), "硬约束提升的解应覆盖检查点");
+
+        service.close(JOB, true);
+        await(() -> fileNames().isEmpty(), "正常结束后应删除检查点和原始请求");
+    }
+
+    @Test
+    void pruneDropsExpiredAndOverflowButKeepsActiveJobs() throws Exception {
+        touch("job-new", 0);
+        touch("job-mid", 1);
+        touch("job-old", 2);        // 未过期，但超过数量上限
+        touch("job-expired", 48);
+        service.open("job-active", request());
+        touch("job-active", 72);    // 进行中的会话不清理
+
+        service.prune();
+
+        assertTrue(service.exists("job-new"));
+        assertTrue(service.exists("job-mid"));
+        assertTrue(service.exists("job-active"));
+        assertFalse(service.exists("job-old"));
+        assertFalse(service.exists("job-expired"));
+        assertFalse(Files.exists(directory.resolve("job-old.request.json.gz")));
+        assertFalse(Files.exists(directory.resolve("job-expired.request.json.gz")));
+    }
+
+    @Test
+    void unsafeIdsNeverReachTheFileSystem() throws Exception {
+        Files.writeString(directory.resolve("escape.checkpoint.json.gz"), "not gzip");
+        List<String> unsafe = List.of("../escape", "a/b", "", " ", "x".repeat(65), "考官");
+        for (String id : unsafe) {
+            assertFalse(service.exists(id), id);
+            assertNull(service.remainingSeconds(id), id);
+            assertNull(service.prepareResume(id), id);
+            assertNull(service.readAssignments(id), id);
+        }
+
+        ScheduleRequest request = request();
+        for (String id : unsafe) {
+            service.open(id, request);
+            assertFalse(service.startLevel(id, "flash", levelConfig()), id);
+            service.onBestSolution(id, solution(request, HardSoftScore.of(0, -10), 0));
+            service.close(id, false);
+        }
+        service.shutdown();
+        assertEquals(List.of("escape.checkpoint.json.gz"), fileNames());
+    }
+
+    private void assertAssignments(ScheduleRequest request, int rotation) throws IOException {
+        List<String[]> expected = expectedAssignments(request, rotation);
+        List<String[]> actual = service.readAssignments(JOB);
+        assertNotNull(actual);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    private boolean matches(ScheduleRequest request, int rotation) {
+        try {
+            List<String[]> expected = expectedAssignments(request, rotation);
+            List<String[]> actual = service.readAssignments(JOB);
+            if (actual == null || actual.size() != expected.size()) {
+                return false;
+            }
+            for (int i = 0; i < expected.size(); i++) {
+                if (!Arrays.equals(expected.get(i), actual.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void touch(String jobId, long ageHours) throws IOException {
+        FileTime time = FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(ageHours));
+        for (String suffix : List.of(".checkpoint.json.gz", ".request.json.gz")) {
+            Path file = Files.writeString(directory.resolve(jobId + suffix), jobId);
+            Files.setLastModifiedTime(file, time);
+        }
+    }
+
+    private List<String> fileNames() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, message);
+            Thread.sleep(10);
+        }
+    }
+
+    private static ScheduleRequest request() {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            students.add(new Student("S" + i, "学员" + i, "区域一室", "一组"));
+        }
+        List<Teacher> teachers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            teachers.add(new Teacher("T" + i, "考官" + i, i % 2 == 0 ? "区域一室" : "区域二室", "二组"));
+        }
+        ScheduleRequest.SolverConfiguration solverConfig = new ScheduleRequest.SolverConfiguration();
+        solverConfig.setMode("precise");
+        ScheduleRequest request = new ScheduleRequest();
+        request.setStudents(students);
+        request.setTeachers(teachers);
+        request.setStartDate("2025-03-03");
+        request.setEndDate("2025-03-14");
+        request.setSolverConfig(solverConfig);
+        return request;
+    }
+
+    /**
+     * 每名学员一场考试，考官按 rotation 轮换，便于区分不同的最优解
+     */
+    private static ExamSchedule solution(ScheduleRequest request, HardSoftScore score, int rotation) {
+        List<Teacher> teachers = request.getTeachers();
+        List<ExamAssignment> assignments = new ArrayList<>();
+        for (int i = 0; i < request.getStudents().size(); i++) {
+            Student student = request.getStudents().get(i);
+            ExamAssignment assignment = new ExamAssignment(student.getId() + "_day1", student, "day1", List.of());
+            assignment.setExamDate("2025-03-03");
+            assignment.setExaminer1(teachers.get((i + rotation) % teachers.size()));
+            assignment.setExaminer2(teachers.get((i + rotation + 1) % teachers.size()));
+            assignment.setBackupExaminer(i == 0 ? null : teachers.get((i + rotation + 2) % teachers.size()));
+            assignments.add(assignment);
+        }
+        ExamSchedule solution = new ExamSchedule();
+        solution.setStudents(request.getStudents());
+        solution.setTeachers(teachers);
+        solution.setExamAssignments(assignments);
+        solution.setScore(score);
+        return solution;
+    }
+
+    private static List<String[]> expectedAssignments(ScheduleRequest request, int rotation) {
+        List<String[]> expected = new ArrayList<>();
+        for (ExamAssignment assignment : solution(request, HardSoftScore.ZERO, rotation).getExamAssignments()) {
+            expected.add(new String[]{
+                    assignment.getStudent().getId(), assignment.getExamType(),
+                    assignment.getExaminer1().getId(), assignment.getExaminer2().getId(),
+                    assignment.getBackupExaminer() != null ? assignment.getBackupExaminer().getId() : null});
+        }
+        return expected;
+    }
+
+    private static SolverConfig levelConfig() {
+        return new SolverConfig()
+                .withTerminationConfig(new TerminationConfig().withSecondsSpentLimit(LEVEL_BUDGET_SECONDS));
+    }
+}
@@ -0,0 +1,142 @@
+package com.examiner.scheduler.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 求解会话存活检测的状态机：宽限期、重新连接、保活（retain）、放弃
+ * 测试中没有真实的 WebSocket / SSE 订阅者，订阅者的连接与断开直接通过 PresenceListener 回调模拟
+ */
+class SolveLivenessServiceTest {
+
+    private static final String JOB = "liveness-job";
+
+    private SolveLivenessService service;
+    private final AtomicInteger terminateRequests = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        service = new SolveLivenessService();
+        service.enabled = true;
+        service.graceSeconds = 1;
+        service.realTimePlanningService = new RealTimePlanningService() {
+            @Override
+            public boolean terminateEarly(String sessionId) {
+                if (JOB.equals(sessionId)) {
+                    terminateRequests.incrementAndGet();
+                }
+                return true;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void unwatchedSessionIsNeverAbandoned() throws Exception {
+        service.graceSeconds = 0;
+        service.open(JOB);
+        // 从未订阅过的 API 调用方：断开通知不启动宽限期
+        service.detached(JOB);
+        Thread.sleep(300);
+
+        assertFalse(service.isAbandoned(JOB));
+        assertFalse(service.close(JOB));
+        assertEquals(0, terminateRequests.get());
+    }
+
+    @Test
+    void disconnectPastGraceAbandonsAndKeepsTerminating() throws Exception {
+        service.graceSeconds = 0;
+        service.open(JOB);
+        service.attached(JOB);
+        service.detached(JOB);
+
+        await(() -> service.isAbandoned(JOB), "宽限期结束后应放弃会话");
+        // 级别切换时新求解器刚启动，单次终止可能落空：放弃后持续重试
+        await(() -> terminateRequests.get() >= 2, "放弃后应重复发出终止请求");
+        assertEquals(1, service.getAbandonedSolves());
+
+        assertTrue(service.close(JOB));
+        Thread.sleep(SolveLivenessService.TERMINATE_RETRY_MS);
+        int afterClose = terminateRequests.get();
+        Thread.sleep(SolveLivenessService.TERMINATE_RETRY_MS * 2);
+        assertEquals(afterClose, terminateRequests.get(), "会话结束后不再发出终止请求");
+        assertFalse(service.isAbandoned(JOB));
+    }
+
+    @Test
+    void reconnectWithinGraceKeepsSolving() throws Exception {
+        service.open(JOB);
+        service.attached(JOB);
+        service.detached(JOB);
+        service.attached(JOB);
+        Thread.sleep(1_500);
+
+        assertFalse(service.isAbandoned(JOB));
+        assertFalse(service.close(JOB));
+        assertEquals(0, terminateRequests.get());
+        assertEquals(0, service.getAbandonedSolves());
+    }
+
+    @Test
+    void retainCancelsRunningGrace() throws Exception {
+        service.open(JOB);
+        service.attached(JOB);
+        service.detached(JOB);
+        // 宽限期内有其他请求加入同一在途求解
+        service.retain(JOB);
+        Thread.sleep(1_500);
+
+        assertFalse(service.isAbandoned(JOB));
+        assertFalse(service.close(JOB));
+        assertEquals(0, terminateRequests.get());
+    }
+
+    @Test
+    void retainBeforeOpenIsInherited() throws Exception {
+        service.graceSeconds = 0;
+        // 加入者早于仍在排队的发起者
+        service.retain(JOB);
+        service.open(JOB);
+        service.attached(JOB);
+        service.detached(JOB);
+        Thread.sleep(300);
+
+        assertFalse(service.isAbandoned(JOB));
+        assertFalse(service.close(JOB));
+        assertEquals(0, terminateRequests.get());
+    }
+
+    @Test
+    void disabledServiceIgnoresSessions() throws Exception {
+        service.enabled = false;
+        service.graceSeconds = 0;
+        service.open(JOB);
+        service.attached(JOB);
+        service.detached(JOB);
+        Thread.sleep(300);
+
+        assertFalse(service.isAbandoned(JOB));
+        assertFalse(service.close(JOB));
+    }
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, message);
+            Thread.sleep(10);
+        }
+    }
+}
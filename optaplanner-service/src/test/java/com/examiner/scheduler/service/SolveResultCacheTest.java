@@ -0,0 +1,173 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.rest.ScheduleRequest;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 求解结果缓存：指纹稳定性、在途去重（加入/完成/失败）、内存与持久化的命中/未命中、失效
+ * 持久化部分使用测试配置的 H2 内存数据库
+ */
+@QuarkusTest
+class SolveResultCacheTest {
+
+    @Inject
+    SolveResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache.invalidateAll("测试开始");
+    }
+
+    @Test
+    void fingerprintIgnoresOrderingButNotContent() {
+        String fingerprint = cache.fingerprint(request(false));
+        assertNotNull(fingerprint);
+        assertEquals(64, fingerprint.length());
+        assertEquals(fingerprint, cache.fingerprint(request(false)), "同样的输入应得到同样的指纹");
+        // 学员、考官、考试日期只是顺序不同
+        assertEquals(fingerprint, cache.fingerprint(request(true)));
+
+        ScheduleRequest department = request(false);
+        department.getTeachers().get(0).setDepartment("区域五室");
+        assertNotEquals(fingerprint, cache.fingerprint(department));
+
+        ScheduleRequest mode = request(false);
+        mode.getSolverConfig().setMode("flash");
+        assertNotEquals(fingerprint, cache.fingerprint(mode));
+
+        ScheduleRequest range = request(false);
+        range.setEndDate("2025-03-21");
+        assertNotEquals(fingerprint, cache.fingerprint(range));
+    }
+
+    @Test
+    void concurrentIdenticalSolvesJoinTheFirst() throws Exception {
+        String fingerprint = uniqueFingerprint();
+        long joins = counter("joins");
+
+        assertNull(cache.joinOrBegin(fingerprint, "owner"), "第一个请求成为求解者");
+        SolveResultCache.InFlight joined = cache.joinOrBegin(fingerprint, "joiner");
+        assertNotNull(joined);
+        assertEquals("owner", joined.sessionId, "加入者订阅发起者的进度会话");
+        assertSame(joined, cache.joinOrBegin(fingerprint, "another"));
+        assertEquals(joins + 2, counter("joins"));
+
+        SolveResultCache.CachedResult result = result("{\"success\":true}");
+        cache.complete(fingerprint, result);
+        assertSame(result, joined.future.get(1, TimeUnit.SECONDS));
+        // 结束后不再在途：下一个请求重新成为求解者
+        assertNull(cache.joinOrBegin(fingerprint, "next"));
+
+        SolveResultCache.InFlight failed = cache.joinOrBegin(fingerprint, "joiner");
+        cache.fail(fingerprint, new IllegalStateException("求解失败"));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failed.future.get(1, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof IllegalStateException);
+        assertNull(cache.joinOrBegin(fingerprint, "retry"));
+        cache.complete(fingerprint, result);
+    }
+
+    @Test
+    void storedResultsHitFromMemoryAndDatabase() {
+        String fingerprint = uniqueFingerprint();
+        assertNull(cache.lookup(fingerprint), "未缓存时未命中");
+
+        SolveResultCache.CachedResult result = result("{\"success\":true,\"id\":\"first\"}");
+        assertTrue(result.isCacheable());
+        cache.store(fingerprint, request(false), result);
+        long hits = counter("hits");
+        assertSame(result, cache.lookupMemory(fingerprint));
+        assertSame(result, cache.lookup(fingerprint));
+        assertEquals(hits + 2, counter("hits"));
+
+        // 挤出内存 LRU 后仍可从数据库命中（相当于重启后）
+        for (int i = 0; i < SolveResultCache.MEMORY_CAPACITY; i++) {
+            cache.store(uniqueFingerprint(), request(false), result("{\"success\":true,\"id\":" + i + "}"));
+        }
+        assertNull(cache.lookupMemory(fingerprint));
+        SolveResultCache.CachedResult persisted = cache.lookup(fingerprint);
+        assertNotNull(persisted);
+        assertEquals(200, persisted.statusCode);
+        assertEquals(result.json, persisted.json);
+        assertNotNull(cache.lookupMemory(fingerprint), "数据库命中后回填内存");
+    }
+
+    @Test
+    void invalidateAllDropsMemoryAndDatabase() {
+        String fingerprint = uniqueFingerprint();
+        cache.store(fingerprint, request(false), result("{\"success\":true}"));
+        assertNotNull(cache.lookup(fingerprint));
+
+        cache.invalidateAll("考官数据变更");
+
+        assertNull(cache.lookupMemory(fingerprint));
+        assertNull(cache.lookup(fingerprint));
+        assertEquals(0, cache.stats().get("memoryEntries"));
+    }
+
+    @Test
+    void failedResponsesAreNotCacheable() {
+        assertFalse(new SolveResultCache.CachedResult(500, "{\"success\":false}", LocalDateTime.now(), false).isCacheable());
+        assertFalse(new SolveResultCache.CachedResult(200, null, LocalDateTime.now(), true).isCacheable());
+    }
+
+    private long counter(String name) {
+        return (Long) cache.stats().get(name);
+    }
+
+    private static String uniqueFingerprint() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    private static SolveResultCache.CachedResult result(String json) {
+        return new SolveResultCache.CachedResult(200, json, LocalDateTime.now(), true);
+    }
+
+    private static ScheduleRequest request(boolean shuffled) {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            students.add(new Student("S" + i, "学员" + i, i % 2 == 0 ? "区域一室" : "区域二室", "一组"));
+        }
+        List<Teacher> teachers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            teachers.add(new Teacher("T" + i, "考官" + i, i % 2 == 0 ? "区域一室" : "区域二室", "二组"));
+        }
+        List<String> examDates = new ArrayList<>(List.of("2025-03-03", "2025-03-04", "2025-03-05"));
+        if (shuffled) {
+            Collections.reverse(students);
+            Collections.reverse(teachers);
+            Collections.reverse(examDates);
+        }
+        ScheduleRequest.SolverConfiguration solverConfig = new ScheduleRequest.SolverConfiguration();
+        solverConfig.setMode("standard");
+        ScheduleRequest request = new ScheduleRequest();
+        request.setStudents(students);
+        request.setTeachers(teachers);
+        request.setStartDate("2025-03-03");
+        request.setEndDate("2025-03-14");
+        request.setExamDates(examDates);
+        request.setSolverConfig(solverConfig);
+        return request;
+    }
+}
@@ -0,0 +1,107 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.entity.SolveRunProfile;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+import javax.inject.Inject;
+import javax.transaction.UserTransaction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * 终止预测：在没有请求上下文的求解作业线程上读取历史记录并改写终止条件
+ */
+@QuarkusTest
+class TerminationPredictorServiceTest {
+
+    private static final String LEVEL = "predictor-test";
+
+    @Inject
+    TerminationPredictorService terminationPredictorService;
+
+    @Inject
+    UserTransaction transaction;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        transaction.begin();
+        SolveRunProfile.delete("level", LEVEL);
+        transaction.commit();
+    }
+
+    @Test
+    void tuneReadsHistoryOffTheRequestThread() throws Exception {
+        seed(TerminationPredictorService.MIN_SAMPLES);
+        SolverConfig config = new SolverConfig()
+                .withTerminationConfig(new TerminationConfig()
+                        .withSecondsSpentLimit(60L)
+                        .withUnimprovedSecondsSpentLimit(20L));
+
+        // 与 /solve 相同：在普通线程池线程上调用，没有激活的请求上下文
+        ExecutorService jobThread = Executors.newSingleThreadExecutor();
+        try {
+            TerminationPredictorService.Prediction prediction = CompletableFuture
+                    .supplyAsync(() -> terminationPredictorService.tune(config, LEVEL, problem()), jobThread)
+                    .get(30, TimeUnit.SECONDS);
+
+            assertNotNull(prediction, "样本足够时应给出预测");
+            TerminationConfig termination = config.getTerminationConfig();
+            assertEquals(prediction.spentLimitMillis(), termination.calculateTimeMillisSpentLimit());
+            assertEquals(prediction.unimprovedLimitMillis(), termination.calculateUnimprovedTimeMillisSpentLimit());
+        } finally {
+            jobThread.shutdownNow();
+        }
+    }
+
+    private void seed(int count) throws Exception {
+        transaction.begin();
+        for (int i = 0; i < count; i++) {
+            SolveRunProfile profile = new SolveRunProfile();
+            profile.level = LEVEL;
+            profile.totalStudents = 10 + i * 5;
+            profile.totalTeachers = 30;
+            profile.totalDates = 10;
+            profile.spentMillis = 20_000;
+            profile.lastImprovementMillis = 4_000 + i * 1_000L;
+            profile.maxGapMillis = 800 + i * 100L;
+            profile.improvementCount = 20;
+            profile.truncated = false;
+            profile.persist();
+        }
+        transaction.commit();
+    }
+
+    private static ExamSchedule problem() {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            students.add(new Student("S" + i, "学员" + i, "区域一室", "一组"));
+        }
+        List<Teacher> teachers = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            teachers.add(new Teacher("T" + i, "考官" + i, "区域二室", "二组"));
+        }
+        List<String> dates = new ArrayList<>();
+        for (int day = 3; day <= 12; day++) {
+            dates.add(String.format("2025-03-%02d", day));
+        }
+        ExamSchedule problem = new ExamSchedule();
+        problem.setStudents(students);
+        problem.setTeachers(teachers);
+        problem.setAvailableDates(dates);
+        return problem;
+    }
+}
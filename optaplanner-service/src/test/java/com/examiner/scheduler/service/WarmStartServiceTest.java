@@ -0,0 +1,112 @@
+package com.examiner.scheduler.service;
+
+import com.examiner.scheduler.config.HolidayConfig;
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+import com.examiner.scheduler.rest.ScheduleRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 热启动：从检查点恢复考官分配，失效的分配保留启发式的值
+ */
+class WarmStartServiceTest {
+
+    private static final String DATE = "2025-03-04";
+
+    private final Teacher t1 = new Teacher("T1", "考官一", "区域一室", "无");
+    private final Teacher t2 = new Teacher("T2", "考官二", "区域二室", "无");
+    private final Teacher t3 = new Teacher("T3", "考官三", "区域三室", "无");
+    private final Teacher t4 = new Teacher("T4", "考官四", "区域一室", "无");
+    private final Teacher t5 = new Teacher("T5", "考官五", "区域四室", "无");
+
+    @Test
+    void appliesValidSlotsFromCheckpoint() {
+        ExamAssignment assignment = assignment("S1", t4, t5);
+        ExamSchedule problem = problem(assignment);
+
+        WarmStartService.WarmStartResult result = service(List.<String[]>of(
+                new String[]{"S1", "day1", "T1", "T2", "T3"})).apply(problem, checkpoint());
+
+        assertTrue(result.applied());
+        assertEquals(3, result.appliedSlots());
+        assertSame(t1, assignment.getExaminer1());
+        assertSame(t2, assignment.getExaminer2());
+        assertSame(t3, assignment.getBackupExaminer());
+        assertTrue(result.fullyInitialized());
+    }
+
+    @Test
+    void dropsRemovedAndUnavailableTeachers() {
+        t2.addUnavailablePeriod(new Teacher.UnavailablePeriod("L1", DATE, DATE, "请假"));
+        ExamAssignment assignment = assignment("S1", t4, t5);
+        ExamSchedule problem = problem(assignment);
+
+        WarmStartService.WarmStartResult result = service(List.<String[]>of(
+                new String[]{"S1", "day1", "T-removed", "T2", null})).apply(problem, checkpoint());
+
+        assertEquals(2, result.droppedSlots());
+        assertSame(t4, assignment.getExaminer1(), "考官已移除：保留启发式的值");
+        assertSame(t5, assignment.getExaminer2(), "考官当天不可用：保留启发式的值");
+    }
+
+    @Test
+    void keepsOneSlotPerTeacherPerDay() {
+        // S2 保留的启发式考官1是 T1，S1 的热启动考官1也是 T1（HC4）
+        ExamAssignment first = assignment("S1", t4, t5);
+        ExamAssignment second = assignment("S2", t1, t3);
+        second.setPinned(true);
+        ExamSchedule problem = problem(first, second);
+
+        WarmStartService.WarmStartResult result = service(List.<String[]>of(
+                new String[]{"S1", "day1", "T1", "T2", null},
+                new String[]{"S2", "day1", "T4", "T2", null})).apply(problem, checkpoint());
+
+        assertSame(t4, first.getExaminer1(), "与固定排班同日冲突的槽位被丢弃");
+        assertSame(t2, first.getExaminer2());
+        assertSame(t1, second.getExaminer1(), "固定排班不被覆盖");
+        assertEquals(1, result.droppedSlots());
+    }
+
+    private WarmStartService service(List<String[]> checkpointRows) {
+        WarmStartService service = new WarmStartService();
+        service.holidayConfig = new HolidayConfig();
+        service.solveCheckpointService = new SolveCheckpointService() {
+            @Override
+            public List<String[]> readAssignments(String jobId) {
+                return checkpointRows;
+            }
+        };
+        return service;
+    }
+
+    private static ScheduleRequest.WarmStart checkpoint() {
+        ScheduleRequest.WarmStart warmStart = new ScheduleRequest.WarmStart();
+        warmStart.setCheckpointId("job-1");
+        return warmStart;
+    }
+
+    private ExamSchedule problem(ExamAssignment... assignments) {
+        ExamSchedule problem = new ExamSchedule();
+        problem.setTeachers(new ArrayList<>(List.of(t1, t2, t3, t4, t5)));
+        problem.setExamAssignments(new ArrayList<>(List.of(assignments)));
+        return problem;
+    }
+
+    private static ExamAssignment assignment(String studentId, Teacher examiner1, Teacher examiner2) {
+        ExamAssignment assignment = new ExamAssignment(studentId + "_day1",
+                new Student(studentId, studentId, "区域一室", "无"), "day1", List.of());
+        assignment.setExamDate(DATE);
+        assignment.setExaminer1(examiner1);
+        assignment.setExaminer2(examiner2);
+        return assignment;
+    }
+}
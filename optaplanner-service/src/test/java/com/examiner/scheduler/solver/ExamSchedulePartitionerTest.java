@@ -0,0 +1,117 @@
+package com.examiner.scheduler.solver;
+
+import com.examiner.scheduler.config.HolidayConfig;
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Student;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 分区切分：学员不拆分、优先按不共享日期的窗口切分
+ */
+class ExamSchedulePartitionerTest {
+
+    @Test
+    void separatedWindowsShareNoDates() {
+        ExamSchedule original = schedule(
+                student("S1", "2025-03-03"), student("S2", "2025-03-03"),
+                student("S3", "2025-03-06"), student("S4", "2025-03-06"));
+
+        List<ExamSchedule> parts = partitioner().split(original, 1);
+
+        assertEquals(2, parts.size());
+        assertEquals(0, ExamSchedulePartitioner.countSharedDates(parts));
+        assertEquals(new TreeSet<>(List.of("2025-03-03", "2025-03-04")), dates(parts.get(0)));
+        assertEquals(new TreeSet<>(List.of("2025-03-06", "2025-03-07")), dates(parts.get(1)));
+    }
+
+    @Test
+    void chainedDatesKeepEachStudentTogether() {
+        // 每个学员的 day2 都是下一个学员的 day1，找不到不共享日期的切分点
+        ExamSchedule original = schedule(
+                student("S1", "2025-03-03"), student("S2", "2025-03-04"),
+                student("S3", "2025-03-05"), student("S4", "2025-03-06"));
+
+        List<ExamSchedule> parts = partitioner().split(original, 1);
+
+        assertEquals(2, parts.size());
+        Map<String, Integer> partByStudent = new HashMap<>();
+        for (int p = 0; p < parts.size(); p++) {
+            for (ExamAssignment assignment : parts.get(p).getExamAssignments()) {
+                Integer previous = partByStudent.put(assignment.getStudent().getId(), p);
+                if (previous != null) {
+                    assertEquals(previous.intValue(), p, "同一学员的 day1/day2 不能拆到不同分区");
+                }
+            }
+        }
+        assertEquals(1, ExamSchedulePartitioner.countSharedDates(parts));
+    }
+
+    @Test
+    void partsKeepProblemFacts() {
+        ExamSchedule original = schedule(
+                student("S1", "2025-03-03"), student("S2", "2025-03-03"),
+                student("S3", "2025-03-06"), student("S4", "2025-03-06"));
+        HolidayConfig holidayConfig = new HolidayConfig();
+        original.setHolidayConfig(holidayConfig);
+
+        for (ExamSchedule part : partitioner().split(original, 1)) {
+            assertSame(holidayConfig, part.getHolidayConfig());
+            assertSame(original.getTeachers(), part.getTeachers());
+            assertSame(original.getConstraintConfig(), part.getConstraintConfig());
+        }
+    }
+
+    private static ExamSchedulePartitioner partitioner() {
+        ExamSchedulePartitioner partitioner = new ExamSchedulePartitioner();
+        partitioner.setMaxPartSize(4);
+        partitioner.setMinPartSize(2);
+        return partitioner;
+    }
+
+    @SafeVarargs
+    private static ExamSchedule schedule(List<ExamAssignment>... students) {
+        ExamSchedule schedule = new ExamSchedule();
+        List<ExamAssignment> assignments = new ArrayList<>();
+        TreeSet<String> dates = new TreeSet<>();
+        for (List<ExamAssignment> exams : students) {
+            for (ExamAssignment assignment : exams) {
+                assignments.add(assignment);
+                dates.add(assignment.getExamDate());
+            }
+        }
+        schedule.setExamAssignments(assignments);
+        schedule.setAvailableDates(new ArrayList<>(dates));
+        return schedule;
+    }
+
+    /**
+     * 学员的 day1 在 day1Date，day2 在次日
+     */
+    private static List<ExamAssignment> student(String id, String day1Date) {
+        Student student = new Student(id, id, "区域一室", "无");
+        ExamAssignment day1 = new ExamAssignment(id + "_day1", student, "day1", List.of("现场", "模拟机1"));
+        day1.setExamDate(day1Date);
+        ExamAssignment day2 = new ExamAssignment(id + "_day2", student, "day2", List.of("模拟机2", "口试"));
+        day2.setExamDate(LocalDate.parse(day1Date).plusDays(1).toString());
+        return List.of(day1, day2);
+    }
+
+    private static TreeSet<String> dates(ExamSchedule part) {
+        TreeSet<String> dates = new TreeSet<>();
+        for (ExamAssignment assignment : part.getExamAssignments()) {
+            dates.add(assignment.getExamDate());
+        }
+        return dates;
+    }
+}
@@ -0,0 +1,142 @@
+package com.examiner.scheduler.solver;
+
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.solver.change.ProblemChangeDirector;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 实时规划的 ProblemChange：改派、固定排班、幂等
+ */
+class ExamScheduleProblemChangesTest {
+
+    private static final String DATE = "2025-03-04";
+
+    /**
+     * 直接在工作解上执行变更回调（与求解器内的 ProblemChangeDirector 行为一致，不重新打分）
+     * 考官按ID查找工作解中的对象
+     */
+    private static ProblemChangeDirector director(ExamSchedule solution) {
+        return (ProblemChangeDirector) Proxy.newProxyInstance(
+                ProblemChangeDirector.class.getClassLoader(), new Class<?>[]{ProblemChangeDirector.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("lookUpWorkingObject")) {
+                        Object working = args[0] instanceof Teacher
+                                ? solution.getTeachers().stream().filter(args[0]::equals).findFirst().orElse(null)
+                                : args[0];
+                        return method.getName().endsWith("OrFail") ? working : Optional.ofNullable(working);
+                    }
+                    if (args != null && args[args.length - 1] instanceof Consumer) {
+                        @SuppressWarnings("unchecked")
+                        Consumer<Object> change = (Consumer<Object>) args[args.length - 1];
+                        change.accept(args[0]);
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    void removeTeacherReassignsAndCopiesTeacherList() {
+        Teacher removed = new Teacher("T1", "考官一", "区域一室", "无");
+        Teacher sameDept = new Teacher("T2", "考官二", "区域一室", "无");
+        Teacher otherDept = new Teacher("T3", "考官三", "区域二室", "无");
+        Teacher backup = new Teacher("T4", "考官四", "区域三室", "无");
+        List<Teacher> sharedTeachers = new ArrayList<>(List.of(removed, sameDept, otherDept, backup));
+        ExamAssignment assignment = assignment("A1", removed, otherDept, backup);
+        ExamSchedule solution = solution(sharedTeachers, assignment);
+
+        ExamScheduleProblemChanges.removeTeacher("T1").doChange(solution, director(solution));
+
+        assertSame(sameDept, assignment.getExaminer1(), "考官1优先改派给同科室考官");
+        assertFalse(solution.getTeachers().contains(removed));
+        assertEquals(4, sharedTeachers.size(), "原问题的考官列表不应被修改");
+    }
+
+    @Test
+    void removeTeacherLeavesPinnedAssignmentsAlone() {
+        Teacher removed = new Teacher("T1", "考官一", "区域一室", "无");
+        Teacher sameDept = new Teacher("T2", "考官二", "区域一室", "无");
+        Teacher otherDept = new Teacher("T3", "考官三", "区域二室", "无");
+        ExamAssignment pinned = assignment("A1", removed, otherDept, null);
+        pinned.setPinned(true);
+        ExamSchedule solution = solution(new ArrayList<>(List.of(removed, sameDept, otherDept)), pinned);
+
+        ExamScheduleProblemChanges.removeTeacher("T1").doChange(solution, director(solution));
+
+        assertSame(removed, pinned.getExaminer1());
+        assertTrue(solution.getTeachers().contains(removed), "仍被固定排班引用的考官保留在值域中");
+    }
+
+    @Test
+    void addUnavailablePeriodIsIdempotent() {
+        Teacher teacher = new Teacher("T1", "考官一", "区域一室", "无");
+        Teacher other = new Teacher("T2", "考官二", "区域二室", "无");
+        ExamSchedule solution = solution(new ArrayList<>(List.of(teacher, other)), assignment("A1", teacher, other, null));
+        Teacher.UnavailablePeriod leave = new Teacher.UnavailablePeriod("L1", DATE, DATE, "请假");
+
+        ExamScheduleProblemChanges.addUnavailablePeriod("T1", leave).doChange(solution, director(solution));
+        // 分级求解会把已提交的变更重放给下一级
+        ExamScheduleProblemChanges.addUnavailablePeriod("T1", leave).doChange(solution, director(solution));
+
+        Teacher working = solution.getTeachers().get(0);
+        assertEquals(1, working.getUnavailablePeriods().size());
+        assertTrue(working.isUnavailableOnDate(DATE));
+        assertNotSame(leave, working.getUnavailablePeriods().get(0), "工作解持有不可用期的副本");
+        assertSame(working, solution.getExamAssignments().get(0).getExaminer1(), "排班改指向考官副本");
+    }
+
+    @Test
+    void unavailablePeriodChangesLeaveSharedTeacherUntouched() {
+        Teacher teacher = new Teacher("T1", "考官一", "区域一室", "无");
+        teacher.addUnavailablePeriod(new Teacher.UnavailablePeriod("L0", "2025-03-10", "2025-03-10", "培训"));
+        Teacher other = new Teacher("T2", "考官二", "区域二室", "无");
+        List<Teacher> sharedTeachers = new ArrayList<>(List.of(teacher, other));
+        ExamSchedule solution = solution(sharedTeachers, assignment("A1", teacher, other, null));
+
+        ExamScheduleProblemChanges.addUnavailablePeriod("T1", new Teacher.UnavailablePeriod("L1", DATE, DATE, "请假"))
+                .doChange(solution, director(solution));
+        ExamScheduleProblemChanges.removeUnavailablePeriod("T1", "L0").doChange(solution, director(solution));
+
+        // 原问题与其它级求解共享的考官对象不变
+        assertSame(teacher, sharedTeachers.get(0));
+        assertEquals(1, teacher.getUnavailablePeriods().size());
+        assertFalse(teacher.isUnavailableOnDate(DATE));
+        assertTrue(teacher.isUnavailableOnDate("2025-03-10"));
+
+        Teacher working = solution.getTeachers().get(0);
+        assertNotSame(teacher, working);
+        assertTrue(working.isUnavailableOnDate(DATE));
+        assertFalse(working.isUnavailableOnDate("2025-03-10"), "移除不可用期后日期索引同步更新");
+    }
+
+    private static ExamSchedule solution(List<Teacher> teachers, ExamAssignment... assignments) {
+        ExamSchedule solution = new ExamSchedule();
+        solution.setTeachers(teachers);
+        solution.setExamAssignments(new ArrayList<>(List.of(assignments)));
+        return solution;
+    }
+
+    private static ExamAssignment assignment(String id, Teacher examiner1, Teacher examiner2, Teacher backup) {
+        ExamAssignment assignment = new ExamAssignment(id, new Student("S-" + id, "学员", "区域一室", "无"),
+                "day1", List.of());
+        assignment.setExamDate(DATE);
+        assignment.setExaminer1(examiner1);
+        assignment.setExaminer2(examiner2);
+        assignment.setBackupExaminer(backup);
+        return assignment;
+    }
+}
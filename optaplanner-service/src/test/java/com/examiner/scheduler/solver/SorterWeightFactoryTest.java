@@ -0,0 +1,158 @@
+package com.examiner.scheduler.solver;
+
+import com.examiner.scheduler.domain.ExamAssignment;
+import com.examiner.scheduler.domain.ExamSchedule;
+import com.examiner.scheduler.domain.Student;
+import com.examiner.scheduler.domain.Teacher;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 排序权重工厂与考官稀缺度索引
+ */
+class SorterWeightFactoryTest {
+
+    private static final String DATE = "2025-03-04";
+
+    private final ExamAssignmentDifficultyWeightFactory difficultyFactory = new ExamAssignmentDifficultyWeightFactory();
+    private final TeacherStrengthWeightFactory strengthFactory = new TeacherStrengthWeightFactory();
+
+    @Test
+    void scarcerExaminer1DepartmentIsHarder() {
+        ExamSchedule solution = new ExamSchedule();
+        solution.setTeachers(new ArrayList<>(List.of(
+                teacher("T1", "区域一室"),
+                teacher("T2", "区域二室"), teacher("T3", "区域二室"), teacher("T4", "区域二室"))));
+        ExamAssignment scarce = assignment("A1", "一");
+        ExamAssignment plentiful = assignment("A2", "二");
+        solution.setExamAssignments(new ArrayList<>(List.of(scarce, plentiful)));
+
+        var scarceWeight = difficultyFactory.createSorterWeight(solution, scarce);
+        var plentifulWeight = difficultyFactory.createSorterWeight(solution, plentiful);
+
+        assertEquals(1, scarceWeight.examiner1Candidates());
+        assertEquals(3, plentifulWeight.examiner1Candidates());
+        assertTrue(scarceWeight.compareTo(plentifulWeight) > 0, "考官1候选更少的排班应排在前面");
+    }
+
+    @Test
+    void unavailableDaysReduceTeacherStrength() {
+        ExamSchedule solution = new ExamSchedule();
+        Teacher busy = teacher("T1", "区域二室");
+        busy.addUnavailablePeriod(new Teacher.UnavailablePeriod("U1", DATE, DATE, null));
+        Teacher free = teacher("T2", "区域二室");
+        solution.setTeachers(new ArrayList<>(List.of(busy, free)));
+        solution.setExamAssignments(new ArrayList<>(List.of(assignment("A1", "一"))));
+
+        var busyWeight = strengthFactory.createSorterWeight(solution, busy);
+        var freeWeight = strengthFactory.createSorterWeight(solution, free);
+
+        assertEquals(0, busyWeight.availableDays());
+        assertEquals(1, freeWeight.availableDays());
+        assertTrue(freeWeight.compareTo(busyWeight) > 0);
+    }
+
+    @Test
+    void weightsStayUniqueWithoutIds() {
+        ExamSchedule solution = new ExamSchedule();
+        List<Teacher> teachers = new ArrayList<>();
+        List<ExamAssignment> assignments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            teachers.add(teacher(null, "区域二室"));
+            assignments.add(assignment(null, "一"));
+        }
+        solution.setTeachers(teachers);
+        solution.setExamAssignments(assignments);
+
+        // 与 WeightFactorySelectionSorter 相同：TreeMap 按权重去重，重复权重会丢失实体
+        TreeMap<Comparable<?>, Object> byDifficulty = new TreeMap<>();
+        TreeMap<Comparable<?>, Object> byStrength = new TreeMap<>();
+        for (ExamAssignment assignment : assignments) {
+            assertNull(byDifficulty.put(difficultyFactory.createSorterWeight(solution, assignment), assignment));
+        }
+        for (Teacher teacher : teachers) {
+            assertNull(byStrength.put(strengthFactory.createSorterWeight(solution, teacher), teacher));
+        }
+        assertEquals(assignments.size(), byDifficulty.size());
+        assertEquals(teachers.size(), byStrength.size());
+    }
+
+    @Test
+    void indexIsCachedPerSolution() {
+        ExamSchedule first = solutionWithTeachers(3);
+        ExamSchedule second = solutionWithTeachers(4);
+
+        ExaminerScarcityIndex firstIndex = ExaminerScarcityIndex.of(first);
+        ExaminerScarcityIndex secondIndex = ExaminerScarcityIndex.of(second);
+
+        // 交替访问不会互相覆盖
+        assertNotSame(firstIndex, secondIndex);
+        assertSame(firstIndex, ExaminerScarcityIndex.of(first));
+        assertSame(secondIndex, ExaminerScarcityIndex.of(second));
+
+        // 考官数量变化（问题变更）后重建
+        first.getTeachers().add(teacher("T9", "区域五室"));
+        assertNotSame(firstIndex, ExaminerScarcityIndex.of(first));
+    }
+
+    @Test
+    void concurrentSolutionsGetTheirOwnIndex() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                int teachers = 2 + i;
+                tasks.add(() -> {
+                    ExamSchedule solution = solutionWithTeachers(teachers);
+                    ExaminerScarcityIndex index = ExaminerScarcityIndex.of(solution);
+                    for (int round = 0; round < 200; round++) {
+                        if (ExaminerScarcityIndex.of(solution) != index) {
+                            return false;
+                        }
+                    }
+                    return index.examiner2Candidates(solution.getExamAssignments().get(0)) == teachers;
+                });
+            }
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ExamSchedule solutionWithTeachers(int count) {
+        ExamSchedule solution = new ExamSchedule();
+        List<Teacher> teachers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            teachers.add(teacher("T" + i, "区域二室"));
+        }
+        solution.setTeachers(teachers);
+        solution.setExamAssignments(new ArrayList<>(List.of(assignment("A1", "一"))));
+        return solution;
+    }
+
+    private static Teacher teacher(String id, String department) {
+        return new Teacher(id, id, department, "无");
+    }
+
+    private static ExamAssignment assignment(String id, String department) {
+        ExamAssignment assignment = new ExamAssignment(id, new Student("S-" + id, "学员", department, "无"),
+                "day1", List.of());
+        assignment.setExamDate(DATE);
+        return assignment;
+    }
+}
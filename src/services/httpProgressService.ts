@@ -1,6 +1,7 @@
 /**
  * 🔧 HTTP 轮询进度服务
  * 完全替代 WebSocket，解决 403 错误问题
+ * 🆕 v8.1: 优先使用 SSE 事件流（/api/schedule/progress/{sessionId}/stream），不支持或连接失败时退回轮询
  */
 
 export interface ProgressUpdate {
@@ -29,6 +30,7 @@ class HttpProgressService {
   private sessionId: string | null = null
   private backendPort = 8081
   private isPolling = false
+  private eventSource: EventSource | null = null
 
   constructor() {
     this.initializeBackendPort()
@@ -130,8 +132,65 @@ class HttpProgressService {
       timestamp: Date.now()
     })
 
-    // 开始轮询
-    this.startPolling()
+    // 🆕 v8.1: 优先 SSE，失败再轮询
+    if (typeof EventSource === 'undefined' || !this.startStream()) {
+      this.startPolling()
+    }
+  }
+
+  private progressUrl(suffix = ''): string {
+    const electronAPI = (window as any).electronAPI
+    const isElectron = electronAPI && electronAPI.isElectron
+    const path = `/api/schedule/progress/${this.sessionId}${suffix}`
+    return isElectron ? `http://127.0.0.1:${this.backendPort}${path}` : path
+  }
+
+  /**
+   * 🆕 v8.1: 订阅 SSE 进度流；服务端在连接时回放最新状态，final_result / error 后结束
+   */
+  private startStream(): boolean {
+    try {
+      const source = new EventSource(this.progressUrl('/stream'))
+      let received = false
+      this.eventSource = source
+
+      source.onmessage = event => {
+        received = true
+        try {
+          const message: ProgressMessage = JSON.parse(event.data)
+          if (message.type === 'heartbeat') {
+            return
+          }
+          this.notifyCallbacks(message)
+          if (message.type === 'final_result' || message.type === 'error') {
+            this.stopStream()
+          }
+        } catch (error) {
+          console.error('❌ [HTTP Progress] SSE消息解析失败:', error)
+        }
+      }
+
+      source.onerror = () => {
+        // 一条消息都没收到说明服务端或代理不支持 SSE，退回轮询；否则交给 EventSource 自动重连（重连后会回放最新状态）
+        if (!received && this.eventSource === source) {
+          console.warn('⚠️ [HTTP Progress] SSE不可用，改用轮询')
+          this.stopStream()
+          this.startPolling()
+        }
+      }
+      return true
+    } catch (error) {
+      console.warn('⚠️ [HTTP Progress] 无法建立SSE连接:', error)
+      this.eventSource = null
+      return false
+    }
+  }
+
+  private stopStream() {
+    if (this.eventSource) {
+      this.eventSource.close()
+      this.eventSource = null
+    }
   }
 
   private startPolling() {
@@ -158,15 +217,7 @@ class HttpProgressService {
     }
 
     try {
-      const electronAPI = (window as any).electronAPI
-      const isElectron = electronAPI && electronAPI.isElectron
-      
-      let url: string
-      if (isElectron) {
-        url = `http://127.0.0.1:${this.backendPort}/api/schedule/progress/${this.sessionId}`
-      } else {
-        url = `/api/schedule/progress/${this.sessionId}`
-      }
+      const url = this.progressUrl()
 
       const response = await fetch(url, {
         method: 'GET',
@@ -240,6 +291,7 @@ class HttpProgressService {
 
   disconnect() {
     console.log('📊 [HTTP Progress] 断开连接')
+    this.stopStream()
     this.stopPolling()
     this.sessionId = null
   }
@@ -269,6 +321,7 @@ class HttpProgressService {
       data: result,
       timestamp: Date.now()
     })
+    this.stopStream()
     this.stopPolling()
   }
 
@@ -280,6 +333,7 @@ class HttpProgressService {
       data: null,
       timestamp: Date.now()
     })
+    this.stopStream()
     this.stopPolling()
   }
 }
@@ -332,6 +332,11 @@ export interface OptaPlannerRequest {
     description?: string
     solvingMode?: string  // 后端使用的求解模式标识
   }
+  // 🆕 v8.1: 热启动——以已保存的快照或历史排班作为初始解（二选一）
+  warmStart?: {
+    snapshotId?: number
+    historyId?: number
+  }
 }
 
 export interface OptaPlannerExamAssignment {
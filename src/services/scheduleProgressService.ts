@@ -53,6 +53,12 @@ export interface LogMessage {
   message: string
 }
 
+export interface LogBatch {
+  entries: LogMessage[]
+  dropped: number
+  totalDropped: number
+}
+
 export interface ProgressMessage {
   type:
     | 'connected'
@@ -63,6 +69,7 @@ export interface ProgressMessage {
     | 'final_result'
     | 'error'
     | 'log'
+    | 'log_batch'
     | 'started'
   message: string
   data:
@@ -72,12 +79,23 @@ export interface ProgressMessage {
     | LevelUpgrade
     | FinalResult
     | LogMessage
+    | LogBatch
     | null
   timestamp: number
 }
 
 export type ProgressCallback = (message: ProgressMessage) => void
 
+// 🆕 v8.1: 压缩二进制子协议（大结果负载为 zlib 压缩的 JSON 二进制帧），不支持解压的环境只申请 JSON 文本
+const SUBPROTOCOL_DEFLATE = 'examiner.deflate.v1'
+const SUBPROTOCOL_JSON = 'examiner.json.v1'
+const supportsDeflate = typeof (globalThis as any).DecompressionStream === 'function'
+
+async function inflateFrame(data: ArrayBuffer): Promise<string> {
+  const stream = new Blob([data]).stream().pipeThrough(new (globalThis as any).DecompressionStream('deflate'))
+  return new Response(stream).text()
+}
+
 class ScheduleProgressService {
   private ws: WebSocket | null = null
   private callbacks: ProgressCallback[] = []
@@ -87,6 +105,7 @@ class ScheduleProgressService {
   private isConnecting = false
   private connectionTimeout: NodeJS.Timeout | null = null // 🔧 修复：使用实例变量管理超时
   private backendPort = 8081 // 默认端口，将动态获取
+  private decodeChain: Promise<void> = Promise.resolve() // 🆕 v8.1: 二进制帧解压是异步的，串行处理保证消息顺序
 
   constructor() {
     this.initializeBackendPort()
@@ -240,7 +259,11 @@ class ScheduleProgressService {
         process.env.NODE_ENV === 'development' && console.log('🔌 [WebSocket] 当前时间:', new Date().toISOString())
         process.env.NODE_ENV === 'development' && console.log('🔌 [WebSocket] isElectron:', isElectron)
 
-        this.ws = new WebSocket(wsUrl)
+        this.ws = new WebSocket(
+          wsUrl,
+          supportsDeflate ? [SUBPROTOCOL_DEFLATE, SUBPROTOCOL_JSON] : [SUBPROTOCOL_JSON]
+        )
+        this.ws.binaryType = 'arraybuffer'
 
         // 🔧 修复：使用实例变量管理连接超时
         this.connectionTimeout = setTimeout(() => {
@@ -266,22 +289,11 @@ class ScheduleProgressService {
         }
 
         this.ws.onmessage = event => {
-          try {
-            const message: ProgressMessage = JSON.parse(event.data)
-            process.env.NODE_ENV === 'development' && console.log('📨 [WebSocket] 收到消息:', message.type, message)
-            process.env.NODE_ENV === 'development' && console.log('🔍 [WebSocket调试] 消息详情:', JSON.stringify(message, null, 2))
-
-            this.callbacks.forEach(callback => {
-              try {
-                process.env.NODE_ENV === 'development' && console.log('📤 [WebSocket调试] 调用回调函数')
-                callback(message)
-              } catch (error) {
-                console.error('❌ [WebSocket] 回调处理失败:', error)
-              }
-            })
-          } catch (error) {
-            console.error('❌ [WebSocket] 消息解析失败:', error)
-          }
+          const raw = event.data
+          this.decodeChain = this.decodeChain
+            .then(() => (raw instanceof ArrayBuffer ? inflateFrame(raw) : raw))
+            .then(text => this.dispatch(text))
+            .catch(error => console.error('❌ [WebSocket] 二进制帧解压失败:', error))
         }
 
         this.ws.onerror = error => {
@@ -336,6 +348,25 @@ class ScheduleProgressService {
     })
   }
 
+  private dispatch(text: string) {
+    try {
+      const message: ProgressMessage = JSON.parse(text)
+      process.env.NODE_ENV === 'development' && console.log('📨 [WebSocket] 收到消息:', message.type, message)
+      process.env.NODE_ENV === 'development' && console.log('🔍 [WebSocket调试] 消息详情:', JSON.stringify(message, null, 2))
+
+      this.callbacks.forEach(callback => {
+        try {
+          process.env.NODE_ENV === 'development' && console.log('📤 [WebSocket调试] 调用回调函数')
+          callback(message)
+        } catch (error) {
+          console.error('❌ [WebSocket] 回调处理失败:', error)
+        }
+      })
+    } catch (error) {
+      console.error('❌ [WebSocket] 消息解析失败:', error)
+    }
+  }
+
   disconnect() {
     // 🔧 修复：清理超时计时器
     if (this.connectionTimeout) {